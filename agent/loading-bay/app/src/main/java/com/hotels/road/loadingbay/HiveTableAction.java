@@ -40,6 +40,8 @@ import com.google.common.collect.Ordering;
 
 import com.hotels.road.hive.metastore.HiveTableManager;
 import com.hotels.road.loadingbay.event.HiveNotificationHandler;
+import com.hotels.road.loadingbay.model.Destinations;
+import com.hotels.road.loadingbay.model.Hive;
 import com.hotels.road.loadingbay.model.HiveRoad;
 import com.hotels.road.model.core.SchemaVersion;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
@@ -57,6 +59,9 @@ public class HiveTableAction {
   private final LoadingCache<String, Integer> schemaVersionLookup;
   private final BiPredicate<String, Integer> schemaVersionChanged;
 
+  private final LoadingCache<String, String> formatLookup;
+  private final BiPredicate<String, String> formatChanged;
+
   private final HiveNotificationHandler hiveNotificationHandler;
   private final boolean grantPublicSelect;
 
@@ -75,10 +80,14 @@ public class HiveTableAction {
 
     schemaVersionLookup = loadingCacheFactory.newInstance(name -> hiveTableManager.getSchemaVersion(name));
     schemaVersionChanged = (name, version) -> !schemaVersionLookup.getUnchecked(name).equals(version);
+
+    formatLookup = loadingCacheFactory.newInstance(name -> hiveTableManager.getFormat(name));
+    formatChanged = (name, format) -> !formatLookup.getUnchecked(name).equals(format);
   }
 
   /**
-   * Checks the state of the Hive table, creating and updating if required. Returns the schema version applied.
+   * Checks the state of the Hive table, creating and updating if required. The table is altered when either the schema
+   * or the landing format of the road has changed. Returns the schema version applied.
    */
   public List<PatchOperation> checkAndApply(HiveRoad road) {
     List<PatchOperation> patches = new ArrayList<>();
@@ -95,11 +104,16 @@ public class HiveTableAction {
 
     Schema schema = latestSchemaVersion.getSchema();
     int version = latestSchemaVersion.getVersion();
+    String format = Optional
+        .ofNullable(road.getDestinations())
+        .map(Destinations::getHive)
+        .map(Hive::getFormat)
+        .orElse(Hive.DEFAULT_FORMAT);
 
     if (!tableExists.test(name)) {
-      patches.addAll(createTable(name, schema, version));
-    } else if (schemaVersionChanged.test(name, version)) {
-      patches.addAll(updateSchema(name, schema, version));
+      patches.addAll(createTable(name, schema, version, format));
+    } else if (schemaVersionChanged.test(name, version) || formatChanged.test(name, format)) {
+      patches.addAll(updateSchema(name, schema, version, format));
     } else {
       log.debug("Nothing to do for road {}", road.getName());
     }
@@ -107,9 +121,9 @@ public class HiveTableAction {
     return patches;
   }
 
-  private List<PatchOperation> createTable(String name, Schema schema, int version) {
-    log.info("Creating table for road '{}'", name);
-    Table table = hiveTableManager.createTable(name, ACQUISITION_INSTANT, schema, version, LOADING_BAY);
+  private List<PatchOperation> createTable(String name, Schema schema, int version, String format) {
+    log.info("Creating {} table for road '{}'", format, name);
+    Table table = hiveTableManager.createTable(name, ACQUISITION_INSTANT, schema, version, format, LOADING_BAY);
     if (grantPublicSelect) {
       hiveTableManager.grantPublicSelect(name, LOADING_BAY);
     }
@@ -126,11 +140,12 @@ public class HiveTableAction {
         .build();
   }
 
-  private List<PatchOperation> updateSchema(String name, Schema schema, int version) {
-    log.info("Updating table for road '{}' to schema version {}", name, version);
-    hiveTableManager.alterTable(name, schema, version);
-    log.info("Updated table for road '{}' to schema version {}", name, version);
+  private List<PatchOperation> updateSchema(String name, Schema schema, int version, String format) {
+    log.info("Updating {} table for road '{}' to schema version {}", format, name, version);
+    hiveTableManager.alterTable(name, schema, version, format);
+    log.info("Updated {} table for road '{}' to schema version {}", format, name, version);
     schemaVersionLookup.invalidate(name);
+    formatLookup.invalidate(name);
     return HiveStatusPatchBuilder.patchBuilder().set(HIVE_SCHEMA_VERSION, version).build();
   }
 
@@ -24,45 +24,54 @@ import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.Objects;
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.common.annotations.VisibleForTesting;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.hotels.road.loadingbay.lander.LandingPlanner;
+import com.hotels.road.model.core.Compression;
+
 @Slf4j
 public class LanderMonitor implements AutoCloseable {
 
   private final Clock clock;
   private final LanderTaskRunner landerTaskRunner;
+  private final LandingPlanner planner;
+  private final Executor landingExecutor;
+  private final AtomicBoolean landing = new AtomicBoolean();
   private volatile OffsetDateTime lastRun;
-  private final ScheduledExecutorService executorService;
+  private final LanderScheduler.Task executeTask;
+  private final LanderScheduler.Task statusTask;
   private volatile boolean enabled = false;
+  private volatile boolean closed = false;
   private volatile OffsetDateTime nextExecutionTime = null;
   private volatile Duration landingDuration;
   private volatile Random random;
   private final boolean jitter;
 
-  public LanderMonitor(Clock clock, LanderTaskRunner landerTaskRunner, OffsetDateTime lastRun, boolean jitter) {
-    this(clock, landerTaskRunner, lastRun, Executors.newScheduledThreadPool(1), new Random(), jitter);
-  }
-
   public LanderMonitor(
       Clock clock,
       LanderTaskRunner landerTaskRunner,
       OffsetDateTime lastRun,
-      ScheduledExecutorService executorService,
+      LanderScheduler scheduler,
+      Executor landingExecutor,
+      LandingPlanner planner,
       Random random,
       boolean jitter) {
     this.clock = clock;
     this.landerTaskRunner = landerTaskRunner;
+    this.planner = planner;
+    this.landingExecutor = landingExecutor;
     this.lastRun = lastRun;
     this.random = random;
-    this.executorService = executorService;
     this.jitter = jitter;
-    this.executorService.scheduleAtFixedRate(this::execute, 1, 10, SECONDS);
-    this.executorService.scheduleAtFixedRate(this::printLanderMonitorStatus, 1, 5, MINUTES);
+    String roadName = landerTaskRunner.getRoadName();
+    executeTask = scheduler.schedule(roadName, this::execute, 10, SECONDS);
+    statusTask = scheduler.schedule(roadName, this::printLanderMonitorStatus, 5, MINUTES);
   }
 
   public void setEnabled(boolean enabled) {
@@ -73,6 +82,22 @@ public class LanderMonitor implements AutoCloseable {
     this.enabled = enabled;
   }
 
+  public void setFormat(String format) {
+    if (Objects.equals(landerTaskRunner.getFormat(), format)) {
+      return;
+    }
+    log.info("Setting format for {} to {}", landerTaskRunner.getRoadName(), format);
+    landerTaskRunner.setFormat(format);
+  }
+
+  public void setCompression(Compression compression) {
+    if (Objects.equals(landerTaskRunner.getCompression(), compression)) {
+      return;
+    }
+    log.info("Setting compression for {} to {}", landerTaskRunner.getRoadName(), compression);
+    landerTaskRunner.setCompression(compression);
+  }
+
   public void establishLandingFrequency(String landingInterval) {
     Duration landingDuration = Duration.parse(landingInterval);
     if (Objects.equals(this.landingDuration, landingDuration)) {
@@ -95,8 +120,9 @@ public class LanderMonitor implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
-    executorService.shutdown();
-    executorService.awaitTermination(5, MINUTES);
+    closed = true;
+    executeTask.close();
+    statusTask.close();
   }
 
   @VisibleForTesting
@@ -104,26 +130,46 @@ public class LanderMonitor implements AutoCloseable {
     return nextExecutionTime;
   }
 
+  /**
+   * Starts a landing chain on the landing executor when the road is due, so the scheduler's worker only checks and
+   * dispatches. A road has at most one chain in flight, and a closed monitor starts no further landings.
+   */
   @VisibleForTesting
   void execute() {
     try {
       if (!landerTaskRunner.isRunning()
           && enabled
           && nextExecutionTime != null
-          && nextExecutionTime.isBefore(OffsetDateTime.now(clock))) {
-        boolean runAgain = true;
-        while (runAgain) {
-          lastRun = OffsetDateTime.now(clock);
-          runAgain = landerTaskRunner.run(lastRun);
+          && nextExecutionTime.isBefore(OffsetDateTime.now(clock))
+          && landing.compareAndSet(false, true)) {
+        try {
+          landingExecutor.execute(this::land);
+        } catch (RejectedExecutionException e) {
+          landing.set(false);
+          throw e;
         }
-        nextExecutionTime = lastRun.plus(landingDuration);
-        log.info("Setting next execution time for road {} to {}", landerTaskRunner.getRoadName(), nextExecutionTime);
       }
     } catch (Exception e) {
       log.error("Exception running execute", e);
     }
   }
 
+  private void land() {
+    try {
+      boolean runAgain = true;
+      while (runAgain && !closed) {
+        lastRun = OffsetDateTime.now(clock);
+        runAgain = landerTaskRunner.run(lastRun);
+      }
+      nextExecutionTime = lastRun.plus(planner.nextInterval(landingDuration));
+      log.info("Setting next execution time for road {} to {}", landerTaskRunner.getRoadName(), nextExecutionTime);
+    } catch (Exception e) {
+      log.error("Exception running landing", e);
+    } finally {
+      landing.set(false);
+    }
+  }
+
   private void printLanderMonitorStatus() {
     log.info("Road {} status: LanderTaskRunner running: {}, road enabled: {}, last run: {}, next run: {}",
         landerTaskRunner.getRoadName(), landerTaskRunner.isRunning(), enabled, lastRun, nextExecutionTime);
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay;
+
+import static java.lang.Math.floorMod;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the periodic work of every {@link LanderMonitor} on one shared, bounded set of threads. A single timer thread
+ * fires each task at its period, starting at a random offset within the first period so that roads do not all fire
+ * together, and hands it to a fixed worker pool through a FIFO queue. A task that is still queued or running when it
+ * fires again skips that tick, so runs of the same task never overlap.
+ * <p>
+ * Landings, which block for as long as a lander takes, run on a second fixed pool through {@link #land(Runnable)}, so
+ * that they neither hold up the periodic work nor need a thread per road. Landings beyond that pool's size wait in
+ * its FIFO queue.
+ */
+@Slf4j
+public class LanderScheduler implements AutoCloseable {
+  private final ScheduledExecutorService timer;
+  private final ExecutorService workers;
+  private final ExecutorService landings;
+  private final Random random;
+  private final Timer queueDelay;
+  private final Timer runDuration;
+  private final Timer landingQueueDelay;
+  private final Timer landingRunDuration;
+
+  public LanderScheduler(MeterRegistry registry, int threads, int landingThreads) {
+    this(Executors.newSingleThreadScheduledExecutor(threadFactory("lander-scheduler-timer")),
+        Executors.newFixedThreadPool(threads, threadFactory("lander-scheduler-%d")),
+        Executors.newFixedThreadPool(landingThreads, threadFactory("lander-%d")), registry, new Random());
+  }
+
+  LanderScheduler(
+      ScheduledExecutorService timer,
+      ExecutorService workers,
+      ExecutorService landings,
+      MeterRegistry registry,
+      Random random) {
+    this.timer = timer;
+    this.workers = workers;
+    this.landings = landings;
+    this.random = random;
+    queueDelay = registry.timer("loading-bay.scheduler.queue-delay");
+    runDuration = registry.timer("loading-bay.scheduler.run-duration");
+    landingQueueDelay = registry.timer("loading-bay.landing.queue-delay");
+    landingRunDuration = registry.timer("loading-bay.landing.run-duration");
+  }
+
+  public Task schedule(String name, Runnable runnable, long period, TimeUnit unit) {
+    long periodNanos = unit.toNanos(period);
+    long initialDelay = floorMod(random.nextLong(), periodNanos);
+    Task task = new Task(name, runnable);
+    task.future = timer.scheduleAtFixedRate(task::dispatch, initialDelay, periodNanos, NANOSECONDS);
+    return task;
+  }
+
+  /**
+   * Queues a landing on the landing pool.
+   *
+   * @throws RejectedExecutionException if the scheduler is closed
+   */
+  public void land(Runnable landing) {
+    long queued = System.nanoTime();
+    landings.execute(() -> {
+      long start = System.nanoTime();
+      landingQueueDelay.record(start - queued, NANOSECONDS);
+      try {
+        landing.run();
+      } finally {
+        landingRunDuration.record(System.nanoTime() - start, NANOSECONDS);
+      }
+    });
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    timer.shutdownNow();
+    workers.shutdown();
+    landings.shutdown();
+    workers.awaitTermination(5, MINUTES);
+    landings.awaitTermination(5, MINUTES);
+  }
+
+  private static ThreadFactory threadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
+  }
+
+  public class Task implements AutoCloseable {
+    private final String name;
+    private final Runnable runnable;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> future;
+
+    Task(String name, Runnable runnable) {
+      this.name = name;
+      this.runnable = runnable;
+    }
+
+    private void dispatch() {
+      if (cancelled || !pending.compareAndSet(false, true)) {
+        return;
+      }
+      long queued = System.nanoTime();
+      try {
+        workers.execute(() -> run(queued));
+      } catch (RejectedExecutionException e) {
+        pending.set(false);
+      }
+    }
+
+    private synchronized void run(long queued) {
+      long start = System.nanoTime();
+      queueDelay.record(start - queued, NANOSECONDS);
+      try {
+        if (!cancelled) {
+          runnable.run();
+        }
+      } catch (Exception e) {
+        log.error("Error running {}", name, e);
+      } finally {
+        runDuration.record(System.nanoTime() - start, NANOSECONDS);
+        pending.set(false);
+      }
+    }
+
+    /**
+     * Stops further runs of this task, waiting for one that is already running to finish.
+     */
+    @Override
+    public void close() {
+      future.cancel(false);
+      synchronized (this) {
+        cancelled = true;
+      }
+    }
+  }
+}
@@ -15,16 +15,18 @@
  */
 package com.hotels.road.loadingbay;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
@@ -38,10 +40,15 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.hotels.road.hive.metastore.HivePartitionManager;
 import com.hotels.road.hive.metastore.MetaStoreException;
+import com.hotels.road.hive.metastore.NewPartition;
 import com.hotels.road.loadingbay.event.HiveNotificationHandler;
 import com.hotels.road.loadingbay.lander.Lander;
 import com.hotels.road.loadingbay.lander.LanderConfiguration;
+import com.hotels.road.loadingbay.lander.LandingPlan;
+import com.hotels.road.loadingbay.lander.LandingPlanner;
 import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.loadingbay.model.Hive;
+import com.hotels.road.model.core.Compression;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 import com.hotels.road.tollbooth.client.api.PatchSet;
 import com.hotels.road.tollbooth.client.spi.PatchSetEmitter;
@@ -56,6 +63,8 @@ public class LanderTaskRunner {
   private final String database;
   private final String roadName;
   private final HivePartitionManager hivePartitionManager;
+  private final int maxPartitionsPerBatch;
+  private final long maxPartitionLatencyMillis;
 
   private final Timer landingTimer;
   private final Counter partitionMutationCounter;
@@ -67,9 +76,14 @@ public class LanderTaskRunner {
   private final HiveNotificationHandler landingHandler;
   private final PatchSetEmitter emitter;
   private final Clock clock;
-  private final long maxRecordsPerPartition;
+  private final LandingPlanner planner;
   private final int landingTimeoutMinutes;
+  private final List<LanderConfiguration> landed = new ArrayList<>();
+  private long firstLandedMillis;
   private volatile State state;
+  private volatile String format = Hive.DEFAULT_FORMAT;
+  private volatile Compression compression;
+  private volatile int partitionsPerLander;
 
   public LanderTaskRunner(
       MeterRegistry registry,
@@ -78,11 +92,13 @@ public class LanderTaskRunner {
       String topicName,
       String database,
       HivePartitionManager hivePartitionManager,
+      int maxPartitionsPerBatch,
+      long maxPartitionLatencyMillis,
       Lander.Factory landerFactory,
       HiveNotificationHandler landingHandler,
       PatchSetEmitter emitter,
       Clock clock,
-      long maxRecordsPerPartition,
+      LandingPlanner planner,
       boolean enableServerSideEncryption,
       int landingTimeoutMinutes) {
     this.offsetManager = offsetManager;
@@ -90,11 +106,13 @@ public class LanderTaskRunner {
     this.topicName = topicName;
     this.database = database;
     this.hivePartitionManager = hivePartitionManager;
+    this.maxPartitionsPerBatch = maxPartitionsPerBatch;
+    this.maxPartitionLatencyMillis = maxPartitionLatencyMillis;
     this.landerFactory = landerFactory;
     this.landingHandler = landingHandler;
     this.emitter = emitter;
     this.clock = clock;
-    this.maxRecordsPerPartition = maxRecordsPerPartition;
+    this.planner = planner;
     this.enableServerSideEncryption = enableServerSideEncryption;
     this.landingTimeoutMinutes = landingTimeoutMinutes;
     landingTimer = Timer
@@ -116,6 +134,28 @@ public class LanderTaskRunner {
     return roadName;
   }
 
+  String getFormat() {
+    return format;
+  }
+
+  /**
+   * Sets the file format of the landings that start from now on.
+   */
+  void setFormat(String format) {
+    this.format = format;
+  }
+
+  Compression getCompression() {
+    return compression;
+  }
+
+  /**
+   * Sets the compression of the landings that start from now on, or {@code null} for the lander's default.
+   */
+  void setCompression(Compression compression) {
+    this.compression = compression;
+  }
+
   public boolean run(OffsetDateTime runtimeDateTime) {
     emitter
         .emit(new PatchSet(roadName, singletonList(PatchOperation.replace(LAST_RUN_PATH, runtimeDateTime.toString()))));
@@ -130,13 +170,25 @@ public class LanderTaskRunner {
     return runAgain;
   }
 
+  /**
+   * Lands the next range of the road. A landing that leaves the road behind, so that it will run again, is not
+   * registered straight away: its partition waits for those of the following catch-up landings, and the partitions are
+   * then added with one metastore call before the offsets of all of them are committed. The waiting partitions are
+   * registered once the road has caught up, {@code maxPartitionsPerBatch} of them are waiting, the first of them
+   * landed {@code maxPartitionLatencyMillis} ago, or a landing fails, so that a long catch-up does not keep its landed
+   * data out of Hive until it ends.
+   */
   boolean runChain(String acquisitionInstant) {
     try {
       LanderConfiguration landerConfiguration = prepareLanderConfiguration(acquisitionInstant);
-      CompletableFuture<LanderConfiguration> future = landerFactory.newInstance(landerConfiguration).run();
+      Lander lander = partitionsPerLander > 0
+          ? landerFactory.newInstance(landerConfiguration, partitionsPerLander)
+          : landerFactory.newInstance(landerConfiguration);
+      long start = clock.millis();
+      CompletableFuture<LanderConfiguration> future = lander.run();
       try {
         future.get(landingTimeoutMinutes, MINUTES);
-        updateMetadata(landerConfiguration);
+        planner.landed(landerConfiguration, Duration.ofMillis(clock.millis() - start));
         long totalMessages = landerConfiguration
             .getOffsets()
             .values()
@@ -144,9 +196,19 @@ public class LanderTaskRunner {
             .mapToLong(r -> r.getEnd() - r.getStart())
             .sum();
         messagesLandedCounter.increment(totalMessages);
+        if (landed.isEmpty()) {
+          firstLandedMillis = clock.millis();
+        }
+        landed.add(landerConfiguration);
+        if (!landerConfiguration.isRunAgain()
+            || landed.size() >= maxPartitionsPerBatch
+            || clock.millis() - firstLandedMillis >= maxPartitionLatencyMillis) {
+          updateMetadata();
+        }
       } catch (TimeoutException e) {
         log.warn("Landing of {}, {} timed out", landerConfiguration.getRoadName(), acquisitionInstant);
         future.cancel(true);
+        updateMetadata();
         return true;
       } catch (MetaStoreException e) {
         return true;
@@ -162,6 +224,11 @@ public class LanderTaskRunner {
   }
 
   void onException(String acquisitionInstant, Throwable t) {
+    try {
+      updateMetadata();
+    } catch (MetaStoreException e) {
+      log.warn("Could not register the partitions landed before {}", acquisitionInstant);
+    }
     if (t instanceof NoDataToLandException) {
       log.info("Last landing '{}' found no data", acquisitionInstant);
       changeState(State.IDLE);
@@ -173,21 +240,12 @@ public class LanderTaskRunner {
   }
 
   LanderConfiguration prepareLanderConfiguration(String acquisitionInstant) {
-    Map<Integer, Long> comittedOffsets = offsetManager.getCommittedOffsets(topicName);
-    Map<Integer, OffsetRange> offsets = new HashMap<>();
-    boolean runAgain = false;
-    for (Entry<Integer, Long> entry : offsetManager.getLatestOffsets(topicName).entrySet()) {
-      Integer partition = entry.getKey();
-      long committedOffset = comittedOffsets.getOrDefault(partition, 0L);
-      long latestOffset = entry.getValue();
-      if (latestOffset > committedOffset) {
-        if (latestOffset > committedOffset + maxRecordsPerPartition) {
-          latestOffset = committedOffset + maxRecordsPerPartition;
-          runAgain = true;
-        }
-        offsets.put(partition, new OffsetRange(committedOffset, latestOffset));
-      }
-    }
+    Map<Integer, Long> comittedOffsets = new HashMap<>(offsetManager.getCommittedOffsets(topicName));
+    landed.forEach(config -> config.getOffsets().forEach((pid, range) -> comittedOffsets.put(pid, range.getEnd())));
+    LandingPlan plan = planner.plan(comittedOffsets, offsetManager.getLatestOffsets(topicName));
+    Map<Integer, OffsetRange> offsets = plan.getOffsets();
+    boolean runAgain = plan.isRunAgain();
+    partitionsPerLander = plan.getPartitionsPerLander();
 
     if (offsets.isEmpty()) {
       throw new NoDataToLandException();
@@ -199,29 +257,53 @@ public class LanderTaskRunner {
     changeState(State.LANDING);
     log.info("Landing partition {}.", acquisitionInstant);
     return new LanderConfiguration(roadName, topicName, offsets, s3KeyPrefix, enableServerSideEncryption,
-        acquisitionInstant, runAgain);
+        acquisitionInstant, format, compression, runAgain);
+  }
+
+  /**
+   * Registers the landings that are waiting, if any. On failure they are dropped without committing their offsets, so
+   * the next run lands their records again.
+   */
+  private void updateMetadata() {
+    if (landed.isEmpty()) {
+      return;
+    }
+    try {
+      updateMetadata(landed);
+    } finally {
+      landed.clear();
+    }
   }
 
-  void updateMetadata(LanderConfiguration config) {
+  void updateMetadata(List<LanderConfiguration> configs) {
     changeState(State.UPDATING);
-    String acquisitionInstant = config.getAcquisitionInstant();
-    log.info("Updating table to add partition {}, {}.", config.getRoadName(), acquisitionInstant);
+    Map<List<String>, NewPartition> newPartitions = new LinkedHashMap<>();
+    for (LanderConfiguration config : configs) {
+      List<String> partitionValues = singletonList(config.getAcquisitionInstant());
+      newPartitions
+          .putIfAbsent(partitionValues, new NewPartition(partitionValues, config.getS3KeyPrefix(), emptyMap()));
+    }
+    log.info("Updating table {} to add {} partitions.", roadName, newPartitions.size());
 
-    String partitionSpec = ACQUISITION_INSTANT + "=" + acquisitionInstant;
-    List<String> partitionValues = singletonList(acquisitionInstant);
     try {
-      Optional<Partition> partition = hivePartitionManager.addPartition(roadName, partitionValues,
-          config.getS3KeyPrefix());
+      Map<List<String>, Partition> added = new HashMap<>();
+      hivePartitionManager
+          .addPartitions(roadName, new ArrayList<>(newPartitions.values()))
+          .forEach(partition -> added.put(partition.getValues(), partition));
       Map<Integer, Long> offsets = new HashMap<>();
-      config.getOffsets().forEach((pid, range) -> offsets.put(pid, range.getEnd()));
+      configs.forEach(config -> config.getOffsets().forEach((pid, range) -> offsets.put(pid, range.getEnd())));
       offsetManager.commitOffsets(topicName, offsets);
-      if (partition.isPresent()) {
-        long recordCount = config.getOffsets().values().stream().mapToLong(r -> r.getEnd() - r.getStart()).sum();
-        landingHandler.handlePartitionCreated(roadName, partition.get(), partitionSpec, recordCount);
-      } else {
-        // Partition already exists
-        partitionMutationCounter.increment();
-        log.warn("Data landed into existing partition; road={} partitionSpec={}", roadName, partitionSpec);
+      for (LanderConfiguration config : configs) {
+        String partitionSpec = ACQUISITION_INSTANT + "=" + config.getAcquisitionInstant();
+        Partition partition = added.remove(singletonList(config.getAcquisitionInstant()));
+        if (partition != null) {
+          long recordCount = config.getOffsets().values().stream().mapToLong(r -> r.getEnd() - r.getStart()).sum();
+          landingHandler.handlePartitionCreated(roadName, partition, partitionSpec, recordCount);
+        } else {
+          // Partition already exists
+          partitionMutationCounter.increment();
+          log.warn("Data landed into existing partition; road={} partitionSpec={}", roadName, partitionSpec);
+        }
       }
     } catch (MetaStoreException e) {
       metaStoreErrorMeter.increment();
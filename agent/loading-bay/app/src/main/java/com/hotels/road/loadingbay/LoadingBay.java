@@ -28,6 +28,7 @@ import java.util.Optional;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +38,7 @@ import com.hotels.road.loadingbay.model.Destinations;
 import com.hotels.road.loadingbay.model.Hive;
 import com.hotels.road.loadingbay.model.HiveRoad;
 import com.hotels.road.loadingbay.model.HiveStatus;
+import com.hotels.road.model.core.Compression;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 
 @Slf4j
@@ -47,11 +49,16 @@ public class LoadingBay implements Agent<HiveRoad> {
   private final HiveTableAction hiveTableAction;
   private final Function<HiveRoad, LanderMonitor> monitorFactory;
   private final Map<String, LanderMonitor> monitors;
+  private final boolean zstandardEnabled;
 
   @Autowired
-  public LoadingBay(HiveTableAction hiveTableAction, Function<HiveRoad, LanderMonitor> monitorFactory) {
+  public LoadingBay(
+      HiveTableAction hiveTableAction,
+      Function<HiveRoad, LanderMonitor> monitorFactory,
+      @Value("${landing.zstandard.enabled:false}") boolean zstandardEnabled) {
     this.hiveTableAction = hiveTableAction;
     this.monitorFactory = monitorFactory;
+    this.zstandardEnabled = zstandardEnabled;
 
     monitors = new HashMap<>();
   }
@@ -82,6 +89,8 @@ public class LoadingBay implements Agent<HiveRoad> {
         LanderMonitor monitor = monitors.computeIfAbsent(model.getName(), n -> monitorFactory.apply(model));
         monitor.establishLandingFrequency(hive.map(Hive::getLandingInterval).orElse(Hive.DEFAULT_LANDING_INTERVAL));
         monitor.setEnabled(hive.get().isEnabled());
+        monitor.setFormat(hive.map(Hive::getFormat).orElse(Hive.DEFAULT_FORMAT));
+        monitor.setCompression(compression(model));
         return patches;
       } catch (NoActiveSchemaException e) {
         log.info("No schema defined on road '{}'", model.getName());
@@ -102,4 +111,22 @@ public class LoadingBay implements Agent<HiveRoad> {
       return emptyList();
     }
   }
+
+  /**
+   * Roads are landed with the lander's default codec in place of {@code zstandard} unless it is enabled, as Hive's Avro
+   * SerDe cannot read the files it writes.
+   */
+  private Compression compression(HiveRoad model) {
+    try {
+      Compression compression = Compression.fromMetadata(model.getMetadata()).orElse(null);
+      if (compression != null && !zstandardEnabled && Compression.ZSTANDARD_CODEC.equals(compression.getCodec())) {
+        log.warn("Ignoring the zstandard compression of road '{}' as it is not enabled", model.getName());
+        return null;
+      }
+      return compression;
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring the compression of road '{}': {}", model.getName(), e.getMessage());
+      return null;
+    }
+  }
 }
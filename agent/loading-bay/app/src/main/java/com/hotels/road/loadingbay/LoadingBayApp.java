@@ -19,8 +19,12 @@ import static org.apache.hadoop.hive.conf.HiveConf.ConfVars.METASTORETHRIFTFAILU
 import static org.apache.hadoop.hive.conf.HiveConf.ConfVars.METASTORE_CLIENT_CONNECT_RETRY_DELAY;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -49,12 +53,19 @@ import com.hotels.road.hive.metastore.HiveTableManager;
 import com.hotels.road.hive.metastore.HiveTableStrategy;
 import com.hotels.road.hive.metastore.LocationResolver;
 import com.hotels.road.hive.metastore.MetaStoreClientFactory;
+import com.hotels.road.hive.metastore.ParquetHiveTableStrategy;
 import com.hotels.road.hive.metastore.SchemaUriResolver;
 import com.hotels.road.hive.metastore.s3.S3LocationResolver;
 import com.hotels.road.hive.metastore.s3.S3SchemaUriResolver;
 import com.hotels.road.loadingbay.event.HiveNotificationHandler;
+import com.hotels.road.loadingbay.lander.AdaptiveLandingPlanner;
+import com.hotels.road.loadingbay.lander.FixedLandingPlanner;
 import com.hotels.road.loadingbay.lander.Lander;
+import com.hotels.road.loadingbay.lander.LandingPlanner;
+import com.hotels.road.loadingbay.lander.RoutingLanderFactory;
 import com.hotels.road.loadingbay.lander.kubernetes.KubernetesConfiguration;
+import com.hotels.road.loadingbay.lander.kubernetes.ParallelKubernetesLander;
+import com.hotels.road.loadingbay.lander.local.LocalLander;
 import com.hotels.road.loadingbay.model.Destinations;
 import com.hotels.road.loadingbay.model.Hive;
 import com.hotels.road.loadingbay.model.HiveRoad;
@@ -118,17 +129,22 @@ public class LoadingBayApp {
   @Bean
   public HiveTableManager hiveTableManager(
       IMetaStoreClient metaStoreClient,
-      HiveTableStrategy hiveTableStrategy,
+      List<HiveTableStrategy> hiveTableStrategies,
       LocationResolver locationResolver,
       @Value("${hive.database}") String databaseName) {
-    return new HiveTableManager(metaStoreClient, hiveTableStrategy, locationResolver, databaseName);
+    return new HiveTableManager(metaStoreClient, hiveTableStrategies, locationResolver, databaseName);
   }
 
   @Bean
-  public HiveTableStrategy hiveTableStrategy(SchemaUriResolver schemaUriResolver, Clock clock) {
+  public HiveTableStrategy avroHiveTableStrategy(SchemaUriResolver schemaUriResolver, Clock clock) {
     return new AvroHiveTableStrategy(schemaUriResolver, clock);
   }
 
+  @Bean
+  public HiveTableStrategy parquetHiveTableStrategy(SchemaUriResolver schemaUriResolver, Clock clock) {
+    return new ParquetHiveTableStrategy(schemaUriResolver, clock);
+  }
+
   @Bean
   public HivePartitionManager hivePartitionManager(
       IMetaStoreClient metaStoreClient,
@@ -143,9 +159,31 @@ public class LoadingBayApp {
     return Clock.systemUTC();
   }
 
+  @Bean
+  public LanderScheduler landerScheduler(
+      MeterRegistry meterRegistry,
+      @Value("${landerScheduler.threads:32}") int threads,
+      @Value("${landing.threads:32}") int landingThreads) {
+    return new LanderScheduler(meterRegistry, threads, landingThreads);
+  }
+
+  @Bean
+  public Lander.Factory landerFactory(
+      @Value("${lander.mode:kubernetes}") String landerMode,
+      @Value("${lander.local.roads:}") Set<String> localRoads,
+      Optional<ParallelKubernetesLander.Factory> kubernetesLanderFactory,
+      LocalLander.Factory localLanderFactory) {
+    Lander.Factory defaultFactory = "local".equals(landerMode)
+        ? localLanderFactory
+        : kubernetesLanderFactory
+            .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown lander.mode: %s", landerMode)));
+    return new RoutingLanderFactory(defaultFactory, localLanderFactory, localRoads);
+  }
+
   @Bean
   public Function<HiveRoad, LanderMonitor> monitorFactory(
       Clock clock,
+      LanderScheduler landerScheduler,
       MeterRegistry meterRegistry,
       PatchSetEmitter emitter,
       @Value("#{landerFactory}") Lander.Factory landerFactory,
@@ -153,22 +191,33 @@ public class LoadingBayApp {
       @Value("${hive.database}") String database,
       OffsetManager offsetManager,
       HivePartitionManager hivePartitionManager,
+      @Value("${hive.partition.batch.size:100}") int maxPartitionsPerBatch,
+      @Value("${hive.partition.batch.maxLatencyMillis:300000}") long maxPartitionLatencyMillis,
       HiveNotificationHandler landingHandler,
       @Value("${maxRecordsPerPartition:100000}") long maxRecordsPerPartition,
       @Value("${s3.enableServerSideEncryption:false}") boolean enableServerSideEncryption,
       @Value("${jitter:true}") boolean jitter,
-      @Value("${landingTimeoutMinutes:30}") int landingTimeoutMinutes) {
+      @Value("${landingTimeoutMinutes:30}") int landingTimeoutMinutes,
+      @Value("${landing.adaptive:false}") boolean adaptive,
+      @Value("${landing.targetFileBytes:134217728}") long targetFileBytes,
+      @Value("${landing.recordBytes:1024}") long recordBytes,
+      @Value("${landing.minInterval:PT1M}") String minInterval) {
     return road -> {
+      LandingPlanner planner = adaptive
+          ? new AdaptiveLandingPlanner(clock, targetFileBytes, recordBytes, maxRecordsPerPartition,
+              Duration.ofMinutes(landingTimeoutMinutes).dividedBy(2), Duration.parse(minInterval))
+          : new FixedLandingPlanner(maxRecordsPerPartition);
       LanderTaskRunner runnable = new LanderTaskRunner(meterRegistry, offsetManager, road.getName(),
-          road.getTopicName(), database, hivePartitionManager, landerFactory, landingHandler, emitter, clock,
-          maxRecordsPerPartition, enableServerSideEncryption, landingTimeoutMinutes);
+          road.getTopicName(), database, hivePartitionManager, maxPartitionsPerBatch, maxPartitionLatencyMillis,
+          landerFactory, landingHandler, emitter, clock, planner, enableServerSideEncryption, landingTimeoutMinutes);
       OffsetDateTime landerLastRun = Optional
           .ofNullable(road.getDestinations())
           .map(Destinations::getHive)
           .map(Hive::getStatus)
           .map(HiveStatus::getLastRun)
           .orElse(LoadingBay.EPOCH);
-      return new LanderMonitor(clock, runnable, landerLastRun, jitter);
+      return new LanderMonitor(clock, runnable, landerLastRun, landerScheduler, landerScheduler::land, planner,
+          new Random(), jitter);
     };
   }
 
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Sizes landings from what has been observed of the road. Two rates are tracked as moving averages: the rate at which
+ * records arrive, from the growth of the latest offsets between plans, and the rate at which a partition is landed,
+ * from completed landings.
+ * <ul>
+ * <li>Each partition lands at most as many records as are expected to land in {@code maxLandingDuration}, and never
+ * fewer than {@code minRecordsPerPartition}.</li>
+ * <li>Partitions are shared between landers so that each lander writes about {@code targetFileBytes}, taking
+ * {@code recordBytes} as the size of a record.</li>
+ * <li>The next landing is due once {@code targetFileBytes} have arrived, but no sooner than {@code minInterval} and no
+ * later than the road's landing interval, which is its freshness limit.</li>
+ * </ul>
+ */
+public class AdaptiveLandingPlanner implements LandingPlanner {
+  private static final double SMOOTHING = 0.3;
+
+  private final Clock clock;
+  private final long targetFileBytes;
+  private final long recordBytes;
+  private final long minRecordsPerPartition;
+  private final Duration maxLandingDuration;
+  private final Duration minInterval;
+  private Instant lastPlan;
+  private long lastLatestOffsets;
+  private double arrivalRate = -1.0;
+  private double landingRate = -1.0;
+
+  public AdaptiveLandingPlanner(
+      Clock clock,
+      long targetFileBytes,
+      long recordBytes,
+      long minRecordsPerPartition,
+      Duration maxLandingDuration,
+      Duration minInterval) {
+    this.clock = clock;
+    this.targetFileBytes = targetFileBytes;
+    this.recordBytes = max(1L, recordBytes);
+    this.minRecordsPerPartition = minRecordsPerPartition;
+    this.maxLandingDuration = maxLandingDuration;
+    this.minInterval = minInterval;
+  }
+
+  @Override
+  public LandingPlan plan(Map<Integer, Long> committedOffsets, Map<Integer, Long> latestOffsets) {
+    Instant now = clock.instant();
+    long latest = latestOffsets.values().stream().mapToLong(Long::longValue).sum();
+    if (lastPlan != null && now.isAfter(lastPlan)) {
+      arrivalRate = average(arrivalRate, (latest - lastLatestOffsets) / seconds(Duration.between(lastPlan, now)));
+    }
+    lastPlan = now;
+    lastLatestOffsets = latest;
+
+    LandingPlan plan = FixedLandingPlanner.plan(committedOffsets, latestOffsets, maxRecordsPerPartition(), 0);
+    int partitions = plan.getOffsets().size();
+    if (partitions == 0) {
+      return plan;
+    }
+    long records = plan.getOffsets().values().stream().mapToLong(r -> r.getEnd() - r.getStart()).sum();
+    long recordsPerLander = max(1L, targetFileBytes / recordBytes);
+    long landers = min(partitions, max(1L, (records + recordsPerLander - 1) / recordsPerLander));
+    int partitionsPerLander = (int) ((partitions + landers - 1) / landers);
+    return new LandingPlan(plan.getOffsets(), plan.isRunAgain(), partitionsPerLander);
+  }
+
+  @Override
+  public void landed(LanderConfiguration config, Duration duration) {
+    int partitions = config.getOffsets().size();
+    if (partitions == 0 || duration.isZero() || duration.isNegative()) {
+      return;
+    }
+    long records = config.getOffsets().values().stream().mapToLong(r -> r.getEnd() - r.getStart()).sum();
+    landingRate = average(landingRate, records / (double) partitions / seconds(duration));
+  }
+
+  @Override
+  public Duration nextInterval(Duration landingInterval) {
+    if (arrivalRate <= 0.0) {
+      return landingInterval;
+    }
+    Duration fill = Duration.ofMillis((long) (1000.0 * targetFileBytes / recordBytes / arrivalRate));
+    if (fill.compareTo(minInterval) < 0) {
+      fill = minInterval;
+    }
+    return fill.compareTo(landingInterval) < 0 ? fill : landingInterval;
+  }
+
+  @VisibleForTesting
+  long maxRecordsPerPartition() {
+    if (landingRate <= 0.0) {
+      return minRecordsPerPartition;
+    }
+    return max(minRecordsPerPartition, (long) (landingRate * seconds(maxLandingDuration)));
+  }
+
+  @VisibleForTesting
+  double getArrivalRate() {
+    return arrivalRate;
+  }
+
+  private static double average(double average, double sample) {
+    return average < 0.0 ? sample : average + SMOOTHING * (sample - average);
+  }
+
+  private static double seconds(Duration duration) {
+    return duration.toNanos() / 1e9;
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lands up to a fixed number of records from each partition per run, at the road's landing interval.
+ */
+@RequiredArgsConstructor
+public class FixedLandingPlanner implements LandingPlanner {
+  private final long maxRecordsPerPartition;
+
+  @Override
+  public LandingPlan plan(Map<Integer, Long> committedOffsets, Map<Integer, Long> latestOffsets) {
+    return plan(committedOffsets, latestOffsets, maxRecordsPerPartition, 0);
+  }
+
+  static LandingPlan plan(
+      Map<Integer, Long> committedOffsets,
+      Map<Integer, Long> latestOffsets,
+      long maxRecordsPerPartition,
+      int partitionsPerLander) {
+    Map<Integer, OffsetRange> offsets = new HashMap<>();
+    boolean runAgain = false;
+    for (Entry<Integer, Long> entry : latestOffsets.entrySet()) {
+      Integer partition = entry.getKey();
+      long committedOffset = committedOffsets.getOrDefault(partition, 0L);
+      long latestOffset = entry.getValue();
+      if (latestOffset > committedOffset) {
+        if (latestOffset > committedOffset + maxRecordsPerPartition) {
+          latestOffset = committedOffset + maxRecordsPerPartition;
+          runAgain = true;
+        }
+        offsets.put(partition, new OffsetRange(committedOffset, latestOffset));
+      }
+    }
+    return new LandingPlan(offsets, runAgain, partitionsPerLander);
+  }
+}
@@ -22,5 +22,13 @@ public interface Lander {
 
   public interface Factory {
     Lander newInstance(LanderConfiguration landerConfig);
+
+    /**
+     * Creates a lander that shares the partitions between landers that each take up to {@code partitionsPerLander}
+     * of them. Factories that do not split landings ignore the hint.
+     */
+    default Lander newInstance(LanderConfiguration landerConfig, int partitionsPerLander) {
+      return newInstance(landerConfig);
+    }
   }
 }
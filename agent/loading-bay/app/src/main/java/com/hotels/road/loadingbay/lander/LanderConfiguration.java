@@ -20,6 +20,8 @@ import java.util.Map;
 import lombok.Data;
 import lombok.experimental.Wither;
 
+import com.hotels.road.model.core.Compression;
+
 @Data
 public class LanderConfiguration {
   private final String roadName;
@@ -28,5 +30,7 @@ public class LanderConfiguration {
   private final String s3KeyPrefix;
   private final boolean enableServerSideEncryption;
   private final String acquisitionInstant;
+  private final String format;
+  private final Compression compression;
   private final boolean runAgain;
 }
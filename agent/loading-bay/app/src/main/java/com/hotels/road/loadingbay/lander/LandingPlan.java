@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * What to land in one run: the offsets of each partition, whether more data is left to land straight after, and how
+ * many partitions each lander should take, or {@code 0} for the lander's default.
+ */
+@Value
+public class LandingPlan {
+  Map<Integer, OffsetRange> offsets;
+  boolean runAgain;
+  int partitionsPerLander;
+}
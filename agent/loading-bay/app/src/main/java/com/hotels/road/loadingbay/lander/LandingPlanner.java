@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Decides how much of a road to land in each run and when to land next. Each road has its own planner, which is only
+ * called by one landing at a time.
+ */
+public interface LandingPlanner {
+  /**
+   * Plans the next landing from the committed and latest offsets of each partition. The plan is empty if there is
+   * nothing to land.
+   */
+  LandingPlan plan(Map<Integer, Long> committedOffsets, Map<Integer, Long> latestOffsets);
+
+  /**
+   * Records that a planned landing completed and how long it took.
+   */
+  default void landed(LanderConfiguration config, Duration duration) {}
+
+  /**
+   * Returns the time from the last landing to the next, given the road's landing interval.
+   */
+  default Duration nextInterval(Duration landingInterval) {
+    return landingInterval;
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Lands the roads named in {@code localRoads} with {@code localFactory} and all others with {@code defaultFactory}.
+ */
+@RequiredArgsConstructor
+public class RoutingLanderFactory implements Lander.Factory {
+  private final Lander.Factory defaultFactory;
+  private final Lander.Factory localFactory;
+  private final Set<String> localRoads;
+
+  @Override
+  public Lander newInstance(LanderConfiguration landerConfig) {
+    return factory(landerConfig).newInstance(landerConfig);
+  }
+
+  @Override
+  public Lander newInstance(LanderConfiguration landerConfig, int partitionsPerLander) {
+    return factory(landerConfig).newInstance(landerConfig, partitionsPerLander);
+  }
+
+  private Lander.Factory factory(LanderConfiguration landerConfig) {
+    return localRoads.contains(landerConfig.getRoadName()) ? localFactory : defaultFactory;
+  }
+}
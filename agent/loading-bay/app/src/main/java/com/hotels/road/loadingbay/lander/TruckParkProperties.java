@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import static java.util.stream.Collectors.joining;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.hotels.road.model.core.Compression;
+
+/**
+ * Creates the truck-park properties for a landing, whether they are passed to a pod as arguments or to an in-process
+ * landing directly.
+ */
+@Component
+public class TruckParkProperties {
+
+  private final String bootstrapServers;
+  private final String roadModelTopic;
+  private final String piiReplacerClassName;
+  private final String s3Bucket;
+  private final String s3EndpointUrl;
+  private final String s3EndpointSigningRegion;
+  private final String graphiteEndpoint;
+
+  @Autowired
+  public TruckParkProperties(
+      @Value("${kafka.bootstrapServers}") String bootstrapServers,
+      @Value("${kafka.road.topic}") String roadModelTopic,
+      @Value("${piiReplacerClassName}") String piiReplacerClassName,
+      @Value("${hive.table.location.bucket}") String s3Bucket,
+      @Value("${s3.endpoint.url}") String s3EndpointUrl,
+      @Value("${s3.endpoint.signingRegion}") String s3EndpointSigningRegion,
+      @Value("${graphite.endpoint:disabled}") String graphiteEndpoint) {
+    this.bootstrapServers = bootstrapServers;
+    this.roadModelTopic = roadModelTopic;
+    this.piiReplacerClassName = piiReplacerClassName;
+    this.s3Bucket = s3Bucket;
+    this.s3EndpointUrl = s3EndpointUrl;
+    this.s3EndpointSigningRegion = s3EndpointSigningRegion;
+    this.graphiteEndpoint = graphiteEndpoint;
+  }
+
+  public Map<String, String> newInstance(LanderConfiguration config) {
+    ImmutableMap.Builder<String, String> properties = ImmutableMap
+        .<String, String> builder()
+        .put("kafka.bootstrapServers", bootstrapServers)
+        .put("road.name", config.getRoadName())
+        .put("road.topic", config.getTopicName())
+        .put("kafka.road.topic", roadModelTopic)
+        .put("piiReplacerClassName", piiReplacerClassName)
+        .put("road.offsets", formatOffsets(config.getOffsets()))
+        .put("s3.bucket", s3Bucket)
+        .put("s3.keyPrefix", config.getS3KeyPrefix())
+        .put("s3.endpoint.url", s3EndpointUrl)
+        .put("s3.endpoint.signingRegion", s3EndpointSigningRegion)
+        .put("s3.enableServerSideEncryption", Boolean.toString(config.isEnableServerSideEncryption()))
+        .put("metrics.graphiteEndpoint", graphiteEndpoint)
+        .put("writer.format", config.getFormat());
+    Compression compression = config.getCompression();
+    if (compression != null) {
+      properties.put("avroCodec.name", compression.getCodec());
+      if (compression.getLevel() != null) {
+        properties.put("avroCodec.level", compression.getLevel().toString());
+      }
+    }
+    return properties.build();
+  }
+
+  private String formatOffsets(Map<Integer, OffsetRange> offsets) {
+    return offsets.entrySet().stream().map(this::format).collect(joining(";"));
+  }
+
+  private String format(Entry<Integer, OffsetRange> entry) {
+    Integer partition = entry.getKey();
+    OffsetRange offsetRange = entry.getValue();
+    return partition + ":" + offsetRange.getStart() + "," + offsetRange.getEnd();
+  }
+
+}
@@ -15,16 +15,13 @@
  */
 package com.hotels.road.loadingbay.lander.kubernetes;
 
-import static java.util.stream.Collectors.joining;
-
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -33,59 +30,30 @@ import lombok.extern.slf4j.Slf4j;
 import com.google.common.collect.ImmutableMap;
 
 import com.hotels.road.loadingbay.lander.LanderConfiguration;
-import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.loadingbay.lander.TruckParkProperties;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
 public class ArgsFactory {
 
-  private final String bootstrapServers;
-  private final String roadModelTopic;
-  private final String piiReplacerClassName;
-  private final String s3Bucket;
-  private final String s3EndpointUrl;
-  private final String s3EndpointSigningRegion;
-  private final String graphiteEndpoint;
+  private final TruckParkProperties truckParkProperties;
   private final Supplier<ConfigMap> configMapSupplier;
 
   @Autowired
-  ArgsFactory(
-      @Value("${kafka.bootstrapServers}") String bootstrapServers,
-      @Value("${kafka.road.topic}") String roadModelTopic,
-      @Value("${piiReplacerClassName}") String piiReplacerClassName,
-      @Value("${hive.table.location.bucket}") String s3Bucket,
-      @Value("${s3.endpoint.url}") String s3EndpointUrl,
-      @Value("${s3.endpoint.signingRegion}") String s3EndpointSigningRegion,
-      @Value("${graphite.endpoint:disabled}") String graphiteEndpoint,
-      Supplier<ConfigMap> configMapSupplier) {
-    this.bootstrapServers = bootstrapServers;
-    this.roadModelTopic = roadModelTopic;
-    this.piiReplacerClassName = piiReplacerClassName;
-    this.s3Bucket = s3Bucket;
-    this.s3EndpointUrl = s3EndpointUrl;
-    this.s3EndpointSigningRegion = s3EndpointSigningRegion;
-    this.graphiteEndpoint = graphiteEndpoint;
+  ArgsFactory(TruckParkProperties truckParkProperties, Supplier<ConfigMap> configMapSupplier) {
+    this.truckParkProperties = truckParkProperties;
     this.configMapSupplier = configMapSupplier;
   }
 
   public List<String> newInstance(LanderConfiguration config) {
-    String formattedOffsets = formatOffsets(config.getOffsets());
-    log.info("Formatted offsets for topic: {} to launch Truck Park with: {}", config.getTopicName(), formattedOffsets);
+    Map<String, String> properties = truckParkProperties.newInstance(config);
+    log.info("Formatted offsets for topic: {} to launch Truck Park with: {}", config.getTopicName(),
+        properties.get("road.offsets"));
     return ImmutableMap
         .<String, String> builder()
         .put("spring.profiles.active", configMapSupplier.get().getData().get("profiles"))
-        .put("kafka.bootstrapServers", bootstrapServers)
-        .put("road.name", config.getRoadName())
-        .put("road.topic", config.getTopicName())
-        .put("kafka.road.topic", roadModelTopic)
-        .put("piiReplacerClassName", piiReplacerClassName)
-        .put("road.offsets", formattedOffsets)
-        .put("s3.bucket", s3Bucket)
-        .put("s3.keyPrefix", config.getS3KeyPrefix())
-        .put("s3.endpoint.url", s3EndpointUrl)
-        .put("s3.endpoint.signingRegion", s3EndpointSigningRegion)
-        .put("s3.enableServerSideEncryption", Boolean.toString(config.isEnableServerSideEncryption()))
-        .put("metrics.graphiteEndpoint", graphiteEndpoint)
+        .putAll(properties)
         .build()
         .entrySet()
         .stream()
@@ -93,14 +61,4 @@ public class ArgsFactory {
         .collect(Collectors.toList());
   }
 
-  private String formatOffsets(Map<Integer, OffsetRange> offsets) {
-    return offsets.entrySet().stream().map(this::format).collect(joining(";"));
-  }
-
-  private String format(Entry<Integer, OffsetRange> entry) {
-    Integer partition = entry.getKey();
-    OffsetRange offsetRange = entry.getValue();
-    return partition + ":" + offsetRange.getStart() + "," + offsetRange.getEnd();
-  }
-
 }
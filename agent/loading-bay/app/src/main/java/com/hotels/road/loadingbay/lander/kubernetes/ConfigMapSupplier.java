@@ -19,6 +19,7 @@ import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -34,6 +35,7 @@ import com.hotels.road.loadingbay.lander.TruckParkConstants;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
 public class ConfigMapSupplier implements Supplier<ConfigMap>, Watcher<ConfigMap>, AutoCloseable {
 
   private final Object lock = new Object();
@@ -16,6 +16,7 @@
 package com.hotels.road.loadingbay.lander.kubernetes;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -24,6 +25,7 @@ import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
 
 @Configuration
+@ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
 public class KubernetesConfiguration {
 
   @Bean
@@ -18,6 +18,7 @@ package com.hotels.road.loadingbay.lander.kubernetes;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import io.fabric8.kubernetes.api.model.DoneablePod;
@@ -46,6 +47,7 @@ public class KubernetesLander implements Lander {
   }
 
   @Component("kubernetesLanderFactory")
+  @ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
   @RequiredArgsConstructor
   public static class Factory implements Lander.Factory {
     private final ArgsFactory argsFactory;
@@ -28,6 +28,7 @@ import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -57,6 +58,7 @@ import com.hotels.road.loadingbay.lander.LanderConfiguration;
 
 @Component
 @Slf4j
+@ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
 public class LanderPodFactory {
   private static final ObjectMapper mapper = new ObjectMapper();
   private static final TypeReference<Map<String, String>> MAP_STRING_STRING = new TypeReference<Map<String, String>>() {};
@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
@@ -59,7 +60,8 @@ public class ParallelKubernetesLander implements Lander {
     return anyOf(anyException, allSucceed).thenApply(x -> landerConfig);
   }
 
-  @Component("landerFactory")
+  @Component("parallelKubernetesLanderFactory")
+  @ConditionalOnProperty(name = "lander.mode", havingValue = "kubernetes", matchIfMissing = true)
   public static class Factory implements Lander.Factory {
     private final Lander.Factory delegate;
     private final int partitionsPerPod;
@@ -73,11 +75,16 @@ public class ParallelKubernetesLander implements Lander {
 
     @Override
     public Lander newInstance(LanderConfiguration landerConfig) {
+      return newInstance(landerConfig, partitionsPerPod);
+    }
+
+    @Override
+    public Lander newInstance(LanderConfiguration landerConfig, int partitionsPerLander) {
       List<Lander> landers = Stream
           .of(landerConfig.getOffsets())
           .map(Map::keySet)
           .map(ArrayList::new)
-          .map(l -> Lists.partition(l, partitionsPerPod))
+          .map(l -> Lists.partition(l, partitionsPerLander))
           .flatMap(List::stream)
           .map(x -> x.stream().collect(Collectors.toMap(identity(), p -> landerConfig.getOffsets().get(p))))
           .map(landerConfig::withOffsets)
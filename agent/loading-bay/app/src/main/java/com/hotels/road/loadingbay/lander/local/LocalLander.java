@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander.local;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.road.loadingbay.lander.Lander;
+import com.hotels.road.loadingbay.lander.LanderConfiguration;
+import com.hotels.road.loadingbay.lander.TruckParkProperties;
+import com.hotels.road.truck.park.EmbeddedTruckPark;
+
+/**
+ * Lands within the loading-bay JVM rather than in a truck-park pod. Landings share a bounded pool of threads and each
+ * reserves its share of a memory budget before it starts, so that a burst of landings queues rather than exhausting
+ * the heap. Cancelling the returned future interrupts the landing, which then closes its consumer and writers.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LocalLander implements Lander {
+  private final LanderConfiguration config;
+  private final Map<String, Object> properties;
+  private final ExecutorService executor;
+  private final Semaphore memory;
+  private final int memoryPerLanding;
+  private final Landing landing;
+
+  @Override
+  public CompletableFuture<LanderConfiguration> run() {
+    CompletableFuture<LanderConfiguration> result = new CompletableFuture<>();
+    Future<?> task = executor.submit(() -> {
+      try {
+        memory.acquire(memoryPerLanding);
+        try {
+          log.info("Landing {} in process with offsets {}", config.getRoadName(), properties.get("road.offsets"));
+          landing.land(properties);
+        } finally {
+          memory.release(memoryPerLanding);
+        }
+        result.complete(config);
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    });
+    result.whenComplete((c, t) -> {
+      if (result.isCancelled()) {
+        task.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  interface Landing {
+    void land(Map<String, Object> properties) throws Exception;
+  }
+
+  @Component("localLanderFactory")
+  public static class Factory implements Lander.Factory, AutoCloseable {
+    private final TruckParkProperties truckParkProperties;
+    private final ExecutorService executor;
+    private final int workers;
+    private final int memoryPerLanding;
+    private final Semaphore memory;
+    private final Landing landing;
+
+    @Autowired
+    public Factory(
+        TruckParkProperties truckParkProperties,
+        @Value("${lander.local.threads:4}") int threads,
+        @Value("${lander.local.workers:2}") int workers,
+        @Value("${lander.local.memoryPerLandingMiB:256}") int memoryPerLanding,
+        @Value("${lander.local.maxMemoryMiB:#{T(java.lang.Runtime).getRuntime().maxMemory() >> 21}}") int maxMemory) {
+      this(truckParkProperties, newFixedThreadPool(threads,
+          new ThreadFactoryBuilder().setNameFormat("local-lander-%d").setDaemon(true).build()), workers,
+          memoryPerLanding, maxMemory, EmbeddedTruckPark::land);
+    }
+
+    Factory(
+        TruckParkProperties truckParkProperties,
+        ExecutorService executor,
+        int workers,
+        int memoryPerLanding,
+        int maxMemory,
+        Landing landing) {
+      checkArgument(workers > 0, "lander.local.workers must be at least 1 (given %s)", workers);
+      checkArgument(memoryPerLanding > 0 && memoryPerLanding <= maxMemory,
+          "lander.local.memoryPerLandingMiB must be between 1 and lander.local.maxMemoryMiB (given %s and %s)",
+          memoryPerLanding, maxMemory);
+      this.truckParkProperties = truckParkProperties;
+      this.executor = executor;
+      this.workers = workers;
+      this.memoryPerLanding = memoryPerLanding;
+      memory = new Semaphore(maxMemory, true);
+      this.landing = landing;
+    }
+
+    @Override
+    public Lander newInstance(LanderConfiguration config) {
+      Map<String, Object> properties = ImmutableMap
+          .<String, Object> builder()
+          .putAll(truckParkProperties.newInstance(config))
+          .put("writer.workers", Integer.toString(workers))
+          .build();
+      return new LocalLander(config, properties, executor, memory, memoryPerLanding, landing);
+    }
+
+    @Override
+    public void close() {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 @lombok.Builder
 public class Hive {
   public static final String DEFAULT_LANDING_INTERVAL = Duration.ofHours(1).toString();
+  public static final String DEFAULT_FORMAT = "avro";
   private final String hivePartitionColumnName;
   private final String hivePartitionerFormatterPattern;
   private final String maxUncompressedFileSize;
@@ -33,6 +34,8 @@ public class Hive {
   private final boolean enabled;
   @lombok.Builder.Default
   private String landingInterval = DEFAULT_LANDING_INTERVAL;
+  @lombok.Builder.Default
+  private String format = DEFAULT_FORMAT;
   private final HiveStatus status;
 
   @JsonIgnoreProperties(ignoreUnknown = true)
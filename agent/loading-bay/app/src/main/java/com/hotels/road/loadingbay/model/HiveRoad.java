@@ -29,6 +29,7 @@ import com.hotels.road.model.core.SchemaVersion;
 public class HiveRoad {
   private final String name;
   private final String topicName;
+  private final Map<String, String> metadata;
   private final Map<Integer, SchemaVersion> schemas;
   private final Destinations destinations;
   private final KafkaStatus status;
@@ -91,7 +91,8 @@ public class HiveTableActionTest {
   @Test
   public void tableNotExists() {
     when(hiveTableManager.tableExists(ROAD_NAME)).thenReturn(false);
-    when(hiveTableManager.createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, LOADING_BAY))
+    when(hiveTableManager
+        .createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, "avro", LOADING_BAY))
         .thenReturn(createTableWithLocation(BASE_LOCATION));
     HiveRoad road = HiveRoad
         .builder()
@@ -103,7 +104,8 @@ public class HiveTableActionTest {
 
     List<PatchOperation> result = underTest.checkAndApply(road);
 
-    verify(hiveTableManager).createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, LOADING_BAY);
+    verify(hiveTableManager)
+        .createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, "avro", LOADING_BAY);
     verify(hiveTableManager).grantPublicSelect(ROAD_NAME, LOADING_BAY);
 
     verify(notificationHandler).handleHiveTableCreated(ROAD_NAME, ROAD_NAME, PARTITION_COLUMN_NAME, BASE_LOCATION);
@@ -121,7 +123,8 @@ public class HiveTableActionTest {
     underTest = new HiveTableAction(hiveTableManager, loadingCacheFactory, notificationHandler, false);
 
     when(hiveTableManager.tableExists(ROAD_NAME)).thenReturn(false);
-    when(hiveTableManager.createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, LOADING_BAY))
+    when(hiveTableManager
+        .createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, "avro", LOADING_BAY))
         .thenReturn(createTableWithLocation(BASE_LOCATION));
     HiveRoad road = HiveRoad
         .builder()
@@ -133,7 +136,8 @@ public class HiveTableActionTest {
 
     List<PatchOperation> result = underTest.checkAndApply(road);
 
-    verify(hiveTableManager).createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, LOADING_BAY);
+    verify(hiveTableManager)
+        .createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schemaVersion1.getSchema(), 1, "avro", LOADING_BAY);
     verify(hiveTableManager, never()).grantPublicSelect(ROAD_NAME, LOADING_BAY);
 
     verify(notificationHandler).handleHiveTableCreated(ROAD_NAME, ROAD_NAME, PARTITION_COLUMN_NAME, BASE_LOCATION);
@@ -156,7 +160,7 @@ public class HiveTableActionTest {
   @Test
   public void tableNotExists_MultipleSchemas() {
     when(hiveTableManager.tableExists(ROAD_NAME)).thenReturn(false);
-    when(hiveTableManager.createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schema, 2, LOADING_BAY))
+    when(hiveTableManager.createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schema, 2, "avro", LOADING_BAY))
         .thenReturn(createTableWithLocation(BASE_LOCATION));
 
     HiveRoad road = HiveRoad
@@ -169,7 +173,7 @@ public class HiveTableActionTest {
 
     List<PatchOperation> result = underTest.checkAndApply(road);
 
-    verify(hiveTableManager).createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schema, 2, LOADING_BAY);
+    verify(hiveTableManager).createTable(ROAD_NAME, PARTITION_COLUMN_NAME, schema, 2, "avro", LOADING_BAY);
 
     List<PatchOperation> patches = HiveStatusPatchBuilder
         .patchBuilder()
@@ -196,17 +200,42 @@ public class HiveTableActionTest {
 
     List<PatchOperation> result = underTest.checkAndApply(road);
 
-    verify(hiveTableManager).alterTable(ROAD_NAME, schema, 2);
+    verify(hiveTableManager).alterTable(ROAD_NAME, schema, 2, "avro");
 
     List<PatchOperation> patches = HiveStatusPatchBuilder.patchBuilder().set(HIVE_SCHEMA_VERSION, 2).build();
     assertThat(result, is(patches));
     verifyNoMoreInteractions(notificationHandler);
   }
 
+  @Test
+  public void formatChanged() {
+    when(hiveTableManager.tableExists(ROAD_NAME)).thenReturn(true);
+    when(hiveTableManager.getSchemaVersion(ROAD_NAME)).thenReturn(1);
+    when(hiveTableManager.getFormat(ROAD_NAME)).thenReturn("avro");
+
+    Hive parquet = Hive.builder().hivePartitionColumnName(PARTITION_COLUMN_NAME).format("parquet").build();
+    HiveRoad road = HiveRoad
+        .builder()
+        .name(ROAD_NAME)
+        .schemas(schemas(schemaVersion1))
+        .destinations(Destinations.builder().hive(parquet).build())
+        .status(status)
+        .build();
+
+    List<PatchOperation> result = underTest.checkAndApply(road);
+
+    verify(hiveTableManager).alterTable(ROAD_NAME, schema, 1, "parquet");
+
+    List<PatchOperation> patches = HiveStatusPatchBuilder.patchBuilder().set(HIVE_SCHEMA_VERSION, 1).build();
+    assertThat(result, is(patches));
+    verifyNoMoreInteractions(notificationHandler);
+  }
+
   @Test
   public void tableExistsAndSchemaNotChanged() {
     when(hiveTableManager.tableExists(ROAD_NAME)).thenReturn(true);
     when(hiveTableManager.getSchemaVersion(ROAD_NAME)).thenReturn(1);
+    when(hiveTableManager.getFormat(ROAD_NAME)).thenReturn("avro");
 
     HiveRoad road = HiveRoad
         .builder()
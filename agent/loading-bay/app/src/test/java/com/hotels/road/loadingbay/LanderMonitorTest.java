@@ -20,6 +20,8 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -31,8 +33,9 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ScheduledExecutorService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +43,12 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.hotels.road.loadingbay.lander.FixedLandingPlanner;
+import com.hotels.road.loadingbay.lander.LandingPlanner;
+import com.hotels.road.model.core.Compression;
+
 @RunWith(MockitoJUnitRunner.class)
 public class LanderMonitorTest {
 
@@ -60,10 +69,14 @@ public class LanderMonitorTest {
   private static final long JITTER_SEED = 21;
 
   @Mock
-  private ScheduledExecutorService executorService;
+  private LanderScheduler scheduler;
+  @Mock
+  private LanderScheduler.Task task;
   @Mock
   private Random random;
 
+  private final LandingPlanner planner = new FixedLandingPlanner(100L);
+
   private LanderMonitor underTest;
 
   @Mock
@@ -73,8 +86,9 @@ public class LanderMonitorTest {
   public void setUp() {
     when(runnable.getRoadName()).thenReturn(ROAD_NAME);
     when(random.nextLong()).thenReturn(JITTER_SEED);
+    when(scheduler.schedule(eq(ROAD_NAME), any(), anyLong(), any())).thenReturn(task);
 
-    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, executorService, random, true);
+    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, scheduler, Runnable::run, planner, random, true);
     underTest.establishLandingFrequency(PT1M);
   }
 
@@ -86,6 +100,33 @@ public class LanderMonitorTest {
     verify(runnable).run(RUNTIME);
   }
 
+  @Test
+  public void setFormat() {
+    when(runnable.getFormat()).thenReturn("avro");
+    underTest.setFormat("parquet");
+    verify(runnable).setFormat("parquet");
+  }
+
+  @Test
+  public void setFormatUnchanged() {
+    when(runnable.getFormat()).thenReturn("avro");
+    underTest.setFormat("avro");
+    verify(runnable, never()).setFormat(any());
+  }
+
+  @Test
+  public void setCompression() {
+    underTest.setCompression(new Compression("snappy", null));
+    verify(runnable).setCompression(new Compression("snappy", null));
+  }
+
+  @Test
+  public void setCompressionUnchanged() {
+    when(runnable.getCompression()).thenReturn(new Compression("snappy", null));
+    underTest.setCompression(new Compression("snappy", null));
+    verify(runnable, never()).setCompression(any());
+  }
+
   @Test
   public void checkJitterOnStartUp() {
     // First timing introduces jitter
@@ -98,7 +139,7 @@ public class LanderMonitorTest {
   @Test
   public void sufficientTimeHasPassedSinceTheLastRun() {
     underTest = new LanderMonitor(clock, runnable, OffsetDateTime.ofInstant(THREE_MINUTES_PAST_EPOCH, ZoneOffset.UTC),
-        executorService, random, true);
+        scheduler, Runnable::run, planner, random, true);
     underTest.establishLandingFrequency(PT1M);
     when(runnable.isRunning()).thenReturn(false);
     underTest.setEnabled(true);
@@ -109,7 +150,8 @@ public class LanderMonitorTest {
   @Test
   public void insufficientTimeHasPassedSinceTheLastRun() {
     underTest = new LanderMonitor(Clock.fixed(THREE_MINUTES_PAST_EPOCH, ZoneOffset.UTC), runnable,
-        OffsetDateTime.ofInstant(FIVE_MINUTES_PAST_EPOCH, ZoneOffset.UTC), executorService, random, true);
+        OffsetDateTime.ofInstant(FIVE_MINUTES_PAST_EPOCH, ZoneOffset.UTC), scheduler, Runnable::run, planner, random,
+        true);
     underTest.establishLandingFrequency(PT1M);
     when(runnable.isRunning()).thenReturn(false);
     underTest.setEnabled(true);
@@ -127,7 +169,7 @@ public class LanderMonitorTest {
 
   @Test
   public void nextExecutionTimeNotReached() {
-    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, executorService, random, true);
+    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, scheduler, Runnable::run, planner, random, true);
     underTest.establishLandingFrequency(PT1M);
     when(runnable.isRunning()).thenReturn(false);
     underTest.setEnabled(true);
@@ -137,7 +179,7 @@ public class LanderMonitorTest {
 
   @Test
   public void nextExecutionTimeNotSet() {
-    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, executorService, random, true);
+    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, scheduler, Runnable::run, planner, random, true);
     when(runnable.isRunning()).thenReturn(false);
     underTest.setEnabled(true);
     underTest.execute();
@@ -146,7 +188,7 @@ public class LanderMonitorTest {
 
   @Test
   public void nextExecutionTimeNotChanged() {
-    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, executorService, random, true);
+    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, scheduler, Runnable::run, planner, random, true);
     underTest.establishLandingFrequency(PT15M);
     OffsetDateTime nextExecutionTime = underTest.getNextExecutionTime();
     underTest.establishLandingFrequency(PT15M);
@@ -179,14 +221,50 @@ public class LanderMonitorTest {
   }
 
   @Test
-  public void startsAndShutdownsItsExecutionService() throws Exception {
-    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, true);
-    underTest.close();
+  public void landsOnTheLandingExecutor() {
+    List<Runnable> landings = new ArrayList<>();
+    underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, scheduler, landings::add, planner, random, true);
+    underTest.establishLandingFrequency(PT1M);
+    when(runnable.isRunning()).thenReturn(false);
+    underTest.setEnabled(true);
+
+    underTest.execute();
+    underTest.execute();
+
+    verify(runnable, never()).run(any());
+    assertThat(landings.size(), is(1));
+
+    landings.get(0).run();
+    verify(runnable).run(RUNTIME);
+    underTest.execute();
+    assertThat(landings.size(), is(1));
+  }
+
+  @Test
+  public void closedMonitorStopsItsChain() throws Exception {
+    when(runnable.isRunning()).thenReturn(false);
+    when(runnable.run(any())).thenAnswer(invocation -> {
+      underTest.close();
+      return true;
+    });
+    underTest.setEnabled(true);
+    underTest.execute();
+    verify(runnable, times(1)).run(any());
+  }
+
+  @Test
+  public void schedulesAndCancelsItsTasks() throws Exception {
+    try (LanderScheduler landerScheduler = new LanderScheduler(new SimpleMeterRegistry(), 1, 1)) {
+      underTest = new LanderMonitor(clock, runnable, LoadingBay.EPOCH, landerScheduler, landerScheduler::land, planner,
+          random, true);
+      underTest.close();
+    }
   }
 
   @Test
   public void tearDown() throws Exception {
     underTest.close();
+    verify(task, times(2)).close();
   }
 
 }
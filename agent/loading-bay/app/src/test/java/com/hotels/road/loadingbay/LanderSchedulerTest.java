@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LanderSchedulerTest {
+  private static final int THREADS = 4;
+  private static final int LANDING_THREADS = 2;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private LanderScheduler underTest;
+
+  @Mock
+  private ScheduledExecutorService timer;
+  @Mock
+  private ExecutorService workers;
+  @Mock
+  private ExecutorService landings;
+  @Mock
+  private Random random;
+
+  @Before
+  public void setUp() {
+    underTest = new LanderScheduler(registry, THREADS, LANDING_THREADS);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    underTest.close();
+  }
+
+  @Test
+  public void startIsJitteredWithinThePeriod() {
+    when(random.nextLong()).thenReturn(-1L);
+    LanderScheduler scheduler = new LanderScheduler(timer, workers, landings, registry, random);
+
+    scheduler.schedule("road1", () -> {}, 10, SECONDS);
+
+    verify(timer).scheduleAtFixedRate(any(), eq(SECONDS.toNanos(10) - 1), eq(SECONDS.toNanos(10)), eq(NANOSECONDS));
+  }
+
+  @Test
+  public void thousandsOfRoadsShareTheBoundedPool() throws Exception {
+    int roads = 5000;
+    CountDownLatch latch = new CountDownLatch(roads * 2);
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    AtomicBoolean overlapped = new AtomicBoolean();
+    List<LanderScheduler.Task> tasks = new ArrayList<>();
+    for (int i = 0; i < roads; i++) {
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger runs = new AtomicInteger();
+      tasks.add(underTest.schedule("road" + i, () -> {
+        if (running.incrementAndGet() > 1) {
+          overlapped.set(true);
+        }
+        threads.add(Thread.currentThread().getName());
+        if (runs.incrementAndGet() <= 2) {
+          latch.countDown();
+        }
+        running.decrementAndGet();
+      }, 50, MILLISECONDS));
+    }
+
+    assertTrue(latch.await(30, SECONDS));
+    tasks.forEach(LanderScheduler.Task::close);
+
+    assertThat(overlapped.get(), is(false));
+    assertTrue(threads.size() <= THREADS);
+    assertTrue(registry.timer("loading-bay.scheduler.queue-delay").count() >= roads * 2);
+    assertTrue(registry.timer("loading-bay.scheduler.run-duration").count() >= roads * 2);
+  }
+
+  @Test
+  public void slowRunsOfOneTaskDoNotOverlap() throws Exception {
+    CountDownLatch latch = new CountDownLatch(3);
+    AtomicInteger running = new AtomicInteger();
+    AtomicBoolean overlapped = new AtomicBoolean();
+    LanderScheduler.Task task = underTest.schedule("road1", () -> {
+      if (running.incrementAndGet() > 1) {
+        overlapped.set(true);
+      }
+      sleep(20);
+      running.decrementAndGet();
+      latch.countDown();
+    }, 1, MILLISECONDS);
+
+    assertTrue(latch.await(10, SECONDS));
+    task.close();
+
+    assertThat(overlapped.get(), is(false));
+  }
+
+  @Test
+  public void failingRunDoesNotStopTheTask() throws Exception {
+    CountDownLatch latch = new CountDownLatch(2);
+    underTest.schedule("road1", () -> {
+      latch.countDown();
+      throw new RuntimeException("test-exception");
+    }, 10, MILLISECONDS);
+
+    assertTrue(latch.await(10, SECONDS));
+  }
+
+  @Test
+  public void closedTaskNoLongerRuns() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicInteger runs = new AtomicInteger();
+    LanderScheduler.Task task = underTest.schedule("road1", () -> {
+      runs.incrementAndGet();
+      latch.countDown();
+    }, 10, MILLISECONDS);
+
+    assertTrue(latch.await(10, SECONDS));
+    task.close();
+    int closedRuns = runs.get();
+    sleep(100);
+
+    assertThat(runs.get(), is(closedRuns));
+  }
+
+  @Test
+  public void landingsShareTheBoundedLandingPool() throws Exception {
+    int roads = 20;
+    CountDownLatch latch = new CountDownLatch(roads);
+    AtomicInteger running = new AtomicInteger();
+    AtomicBoolean exceeded = new AtomicBoolean();
+    for (int i = 0; i < roads; i++) {
+      underTest.land(() -> {
+        if (running.incrementAndGet() > LANDING_THREADS) {
+          exceeded.set(true);
+        }
+        sleep(10);
+        running.decrementAndGet();
+        latch.countDown();
+      });
+    }
+
+    assertTrue(latch.await(10, SECONDS));
+    underTest.close();
+
+    assertThat(exceeded.get(), is(false));
+    assertThat(registry.timer("loading-bay.landing.queue-delay").count(), is((long) roads));
+    assertThat(registry.timer("loading-bay.landing.run-duration").count(), is((long) roads));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
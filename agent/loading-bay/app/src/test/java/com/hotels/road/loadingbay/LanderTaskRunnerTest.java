@@ -15,6 +15,9 @@
  */
 package com.hotels.road.loadingbay;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 
@@ -22,9 +25,14 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -35,9 +43,9 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -55,12 +63,15 @@ import com.google.common.collect.ImmutableMap;
 
 import com.hotels.road.hive.metastore.HivePartitionManager;
 import com.hotels.road.hive.metastore.MetaStoreException;
+import com.hotels.road.hive.metastore.NewPartition;
 import com.hotels.road.loadingbay.LanderTaskRunner.State;
 import com.hotels.road.loadingbay.event.HiveNotificationHandler;
+import com.hotels.road.loadingbay.lander.FixedLandingPlanner;
 import com.hotels.road.loadingbay.lander.Lander;
 import com.hotels.road.loadingbay.lander.Lander.Factory;
 import com.hotels.road.loadingbay.lander.LanderConfiguration;
 import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.model.core.Compression;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 import com.hotels.road.tollbooth.client.api.PatchSet;
 import com.hotels.road.tollbooth.client.spi.PatchSetEmitter;
@@ -89,6 +100,8 @@ public class LanderTaskRunnerTest {
   private final long runtimeMillis = 1526462224000L;
   long maxRecordsPerPartition = 100L;
   int landingTimeoutMinutes = 30;
+  int maxPartitionsPerBatch = 100;
+  long maxPartitionLatencyMillis = 300000L;
   private LanderTaskRunner underTest;
   private LanderConfiguration expectedLanderConfiguration;
   private String partitionColumnValue;
@@ -107,7 +120,8 @@ public class LanderTaskRunnerTest {
   @Before
   public void setUp() {
     underTest = new LanderTaskRunner(registry, offsetManager, ROAD_NAME, TOPIC_NAME, DATABASE, hivePartitionManager,
-        landerFactory, landingNotifier, emitter, clock, maxRecordsPerPartition, false, landingTimeoutMinutes);
+        maxPartitionsPerBatch, maxPartitionLatencyMillis, landerFactory, landingNotifier, emitter, clock,
+        new FixedLandingPlanner(maxRecordsPerPartition), false, landingTimeoutMinutes);
 
     expectedOffsets = new HashMap<>();
     expectedOffsets.put(1, new OffsetRange(5, 10));
@@ -115,7 +129,7 @@ public class LanderTaskRunnerTest {
 
     doReturn(1526462225000L).when(clock).millis();
     expectedLanderConfiguration = new LanderConfiguration(ROAD_NAME, TOPIC_NAME, expectedOffsets, S3_PREFIX, false,
-        ACQUISITION_INSTANT, false);
+        ACQUISITION_INSTANT, "avro", null, false);
   }
 
   @Test
@@ -143,6 +157,28 @@ public class LanderTaskRunnerTest {
     assertThat(underTest.getState(), is(State.LANDING));
   }
 
+  @Test
+  public void prepareLanderConfigurationWithFormat() {
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(ImmutableMap.of(1, 10L, 2, 20L));
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME)).thenReturn(ImmutableMap.of(1, 5L, 2, 15L));
+
+    underTest.setFormat("parquet");
+    LanderConfiguration landerConfiguration = underTest.prepareLanderConfiguration(ACQUISITION_INSTANT);
+
+    assertThat(landerConfiguration.getFormat(), is("parquet"));
+  }
+
+  @Test
+  public void prepareLanderConfigurationWithCompression() {
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(ImmutableMap.of(1, 10L, 2, 20L));
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME)).thenReturn(ImmutableMap.of(1, 5L, 2, 15L));
+
+    underTest.setCompression(new Compression("zstandard", 3));
+    LanderConfiguration landerConfiguration = underTest.prepareLanderConfiguration(ACQUISITION_INSTANT);
+
+    assertThat(landerConfiguration.getCompression(), is(new Compression("zstandard", 3)));
+  }
+
   @Test(expected = NoDataToLandException.class)
   public void prepareLanderConfigurationOffsetsTheSame() {
     Map<Integer, Long> offsets = ImmutableMap.of(1, 10L, 2, 20L);
@@ -157,12 +193,13 @@ public class LanderTaskRunnerTest {
   @Test
   public void typicalUpdateMetadata() {
     underTest.changeState(State.LANDING);
-    when(hivePartitionManager.addPartition(eq(ROAD_NAME), any(), any())).thenReturn(Optional.of(partition));
-    underTest.updateMetadata(expectedLanderConfiguration);
+    when(partition.getValues()).thenReturn(singletonList(ACQUISITION_INSTANT));
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(singletonList(partition));
+    underTest.updateMetadata(singletonList(expectedLanderConfiguration));
 
     assertThat(underTest.getState(), is(State.UPDATING));
 
-    verify(hivePartitionManager).addPartition(ROAD_NAME, singletonList(ACQUISITION_INSTANT), S3_PREFIX);
+    verify(hivePartitionManager).addPartitions(ROAD_NAME, singletonList(newPartition(ACQUISITION_INSTANT, S3_PREFIX)));
     verify(offsetManager).commitOffsets(TOPIC_NAME, ImmutableMap.of(1, 10L, 2, 20L));
     verify(landingNotifier).handlePartitionCreated(ROAD_NAME, partition, PARTITION_SPEC, 10L);
   }
@@ -170,10 +207,10 @@ public class LanderTaskRunnerTest {
   @Test
   public void metaStoreError() {
     underTest.changeState(State.LANDING);
-    when(hivePartitionManager.addPartition(any(), any(), any()))
+    when(hivePartitionManager.addPartitions(anyString(), any()))
         .thenThrow(new MetaStoreException("meta-store-error", null));
     try {
-      underTest.updateMetadata(expectedLanderConfiguration);
+      underTest.updateMetadata(singletonList(expectedLanderConfiguration));
     } catch (Exception e) {
       assertThat(e, is(instanceOf(MetaStoreException.class)));
     }
@@ -184,12 +221,12 @@ public class LanderTaskRunnerTest {
   @Test
   public void partitionNotCreatedWhenUpdatingMetadata() {
     underTest.changeState(State.LANDING);
-    when(hivePartitionManager.addPartition(eq(ROAD_NAME), any(), any())).thenReturn(Optional.empty());
-    underTest.updateMetadata(expectedLanderConfiguration);
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(emptyList());
+    underTest.updateMetadata(singletonList(expectedLanderConfiguration));
 
     assertThat(underTest.getState(), is(State.UPDATING));
 
-    verify(hivePartitionManager).addPartition(ROAD_NAME, singletonList(ACQUISITION_INSTANT), S3_PREFIX);
+    verify(hivePartitionManager).addPartitions(ROAD_NAME, singletonList(newPartition(ACQUISITION_INSTANT, S3_PREFIX)));
     verify(offsetManager).commitOffsets(TOPIC_NAME, ImmutableMap.of(1, 10L, 2, 20L));
 
     assertThat(partitionMutationCounterSupplier.get().count(), is(1.0));
@@ -204,14 +241,15 @@ public class LanderTaskRunnerTest {
     CompletableFuture<LanderConfiguration> future = new CompletableFuture<>();
     when(lander.run()).thenReturn(future);
     future.complete(expectedLanderConfiguration);
-    when(hivePartitionManager.addPartition(eq(ROAD_NAME), any(), any())).thenReturn(Optional.of(partition));
+    when(partition.getValues()).thenReturn(singletonList(ACQUISITION_INSTANT));
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(singletonList(partition));
 
     underTest.run(OffsetDateTime.ofInstant(Instant.ofEpochMilli(runtimeMillis), ZoneOffset.UTC));
 
     verify(offsetManager).getCommittedOffsets(TOPIC_NAME);
     verify(offsetManager).getLatestOffsets(TOPIC_NAME);
     verify(landerFactory).newInstance(expectedLanderConfiguration);
-    verify(hivePartitionManager).addPartition(ROAD_NAME, singletonList(ACQUISITION_INSTANT), S3_PREFIX);
+    verify(hivePartitionManager).addPartitions(ROAD_NAME, singletonList(newPartition(ACQUISITION_INSTANT, S3_PREFIX)));
     verify(offsetManager).commitOffsets(TOPIC_NAME, ImmutableMap.of(1, 10L, 2, 20L));
     verify(landingNotifier).handlePartitionCreated(ROAD_NAME, partition, PARTITION_SPEC, 10L);
     verify(emitter)
@@ -219,6 +257,115 @@ public class LanderTaskRunnerTest {
     verifyNoMoreInteractions(emitter);
   }
 
+  @Test
+  public void catchUpLandingsRegisteredTogether() throws Exception {
+    underTest = new LanderTaskRunner(registry, offsetManager, ROAD_NAME, TOPIC_NAME, DATABASE, hivePartitionManager,
+        maxPartitionsPerBatch, maxPartitionLatencyMillis, landerFactory, landingNotifier, emitter, clock,
+        new FixedLandingPlanner(5L), false, landingTimeoutMinutes);
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 0L));
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 10L));
+    LanderConfiguration first = landing("20180516T091700Z", 0L, 5L, true);
+    LanderConfiguration second = landing("20180516T091701Z", 5L, 10L, false);
+    Partition firstPartition = new Partition();
+    firstPartition.setValues(singletonList("20180516T091700Z"));
+    Partition secondPartition = new Partition();
+    secondPartition.setValues(singletonList("20180516T091701Z"));
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any()))
+        .thenReturn(asList(firstPartition, secondPartition));
+
+    assertThat(underTest.runChain("20180516T091700Z"), is(true));
+    verify(hivePartitionManager, never()).addPartitions(anyString(), any());
+    verify(offsetManager, never()).commitOffsets(any(), any());
+
+    assertThat(underTest.runChain("20180516T091701Z"), is(false));
+    verify(landerFactory).newInstance(second);
+    verify(hivePartitionManager).addPartitions(ROAD_NAME, asList(
+        newPartition("20180516T091700Z", first.getS3KeyPrefix()),
+        newPartition("20180516T091701Z", second.getS3KeyPrefix())));
+    verify(offsetManager).commitOffsets(TOPIC_NAME, singletonMap(1, 10L));
+    verify(landingNotifier).handlePartitionCreated(ROAD_NAME, firstPartition, "acquisition_instant=20180516T091700Z",
+        5L);
+    verify(landingNotifier).handlePartitionCreated(ROAD_NAME, secondPartition, "acquisition_instant=20180516T091701Z",
+        5L);
+  }
+
+  @Test
+  public void waitingLandingsRegisteredAtBatchSize() throws Exception {
+    maxPartitionsPerBatch = 2;
+    underTest = new LanderTaskRunner(registry, offsetManager, ROAD_NAME, TOPIC_NAME, DATABASE, hivePartitionManager,
+        maxPartitionsPerBatch, maxPartitionLatencyMillis, landerFactory, landingNotifier, emitter, clock,
+        new FixedLandingPlanner(5L), false, landingTimeoutMinutes);
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME))
+        .thenReturn(singletonMap(1, 0L), singletonMap(1, 0L), singletonMap(1, 10L));
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 100L));
+    landing("20180516T091700Z", 0L, 5L, true);
+    landing("20180516T091701Z", 5L, 10L, true);
+    landing("20180516T091702Z", 10L, 15L, true);
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(emptyList());
+
+    underTest.runChain("20180516T091700Z");
+    underTest.runChain("20180516T091701Z");
+    verify(offsetManager).commitOffsets(TOPIC_NAME, singletonMap(1, 10L));
+    underTest.runChain("20180516T091702Z");
+
+    verify(hivePartitionManager, times(1)).addPartitions(anyString(), any());
+  }
+
+  @Test
+  public void waitingLandingsRegisteredAtMaxLatency() throws Exception {
+    maxPartitionLatencyMillis = 60000L;
+    underTest = new LanderTaskRunner(registry, offsetManager, ROAD_NAME, TOPIC_NAME, DATABASE, hivePartitionManager,
+        maxPartitionsPerBatch, maxPartitionLatencyMillis, landerFactory, landingNotifier, emitter, clock,
+        new FixedLandingPlanner(5L), false, landingTimeoutMinutes);
+    AtomicLong now = new AtomicLong(1526462225000L);
+    doAnswer(invocation -> now.get()).when(clock).millis();
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 0L));
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 100L));
+    when(landerFactory.newInstance(any(LanderConfiguration.class))).thenAnswer(invocation -> {
+      Lander landing = mock(Lander.class);
+      when(landing.run()).thenReturn(CompletableFuture.completedFuture(invocation.getArgument(0)));
+      return landing;
+    });
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(emptyList());
+
+    underTest.runChain("20180516T091700Z");
+    now.addAndGet(30000L);
+    underTest.runChain("20180516T091730Z");
+    verify(hivePartitionManager, never()).addPartitions(anyString(), any());
+
+    now.addAndGet(30000L);
+    underTest.runChain("20180516T091800Z");
+    verify(hivePartitionManager).addPartitions(eq(ROAD_NAME), argThat(partitions -> partitions.size() == 3));
+    verify(offsetManager).commitOffsets(TOPIC_NAME, singletonMap(1, 15L));
+
+    now.addAndGet(10000L);
+    underTest.runChain("20180516T091810Z");
+    verify(hivePartitionManager, times(1)).addPartitions(anyString(), any());
+  }
+
+  @Test
+  public void waitingLandingsRegisteredOnFailure() throws Exception {
+    underTest = new LanderTaskRunner(registry, offsetManager, ROAD_NAME, TOPIC_NAME, DATABASE, hivePartitionManager,
+        maxPartitionsPerBatch, maxPartitionLatencyMillis, landerFactory, landingNotifier, emitter, clock,
+        new FixedLandingPlanner(5L), false, landingTimeoutMinutes);
+    when(offsetManager.getCommittedOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 0L));
+    when(offsetManager.getLatestOffsets(TOPIC_NAME)).thenReturn(singletonMap(1, 10L));
+    LanderConfiguration first = landing("20180516T091700Z", 0L, 5L, true);
+    CompletableFuture<LanderConfiguration> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RuntimeException("lander failed"));
+    Lander failing = mock(Lander.class);
+    when(failing.run()).thenReturn(failed);
+    when(landerFactory.newInstance(configuration("20180516T091701Z", 5L, 10L, false))).thenReturn(failing);
+    when(hivePartitionManager.addPartitions(eq(ROAD_NAME), any())).thenReturn(emptyList());
+
+    underTest.runChain("20180516T091700Z");
+    assertThat(underTest.runChain("20180516T091701Z"), is(false));
+
+    verify(hivePartitionManager)
+        .addPartitions(ROAD_NAME, singletonList(newPartition("20180516T091700Z", first.getS3KeyPrefix())));
+    verify(offsetManager).commitOffsets(TOPIC_NAME, singletonMap(1, 5L));
+  }
+
   @Test
   public void runChainTypical() throws Exception {
     underTest.runChain(partitionColumnValue);
@@ -243,4 +390,22 @@ public class LanderTaskRunnerTest {
     underTest.onException(ACQUISITION_INSTANT, new RuntimeException("test message"));
     verify(emitter, never()).emit(any());
   }
+
+  private LanderConfiguration landing(String acquisitionInstant, long start, long end, boolean runAgain) {
+    LanderConfiguration config = configuration(acquisitionInstant, start, end, runAgain);
+    Lander landing = mock(Lander.class);
+    when(landing.run()).thenReturn(CompletableFuture.completedFuture(config));
+    when(landerFactory.newInstance(config)).thenReturn(landing);
+    return config;
+  }
+
+  private static LanderConfiguration configuration(String acquisitionInstant, long start, long end, boolean runAgain) {
+    String s3KeyPrefix = String.format("database1/road1/1526462225000/acquisition_instant=%s", acquisitionInstant);
+    return new LanderConfiguration(ROAD_NAME, TOPIC_NAME, singletonMap(1, new OffsetRange(start, end)), s3KeyPrefix,
+        false, acquisitionInstant, "avro", null, runAgain);
+  }
+
+  private static NewPartition newPartition(String acquisitionInstant, String location) {
+    return new NewPartition(singletonList(acquisitionInstant), location, emptyMap());
+  }
 }
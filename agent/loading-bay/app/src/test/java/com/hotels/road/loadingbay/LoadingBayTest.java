@@ -34,10 +34,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.google.common.collect.ImmutableMap;
+
 import com.hotels.road.loadingbay.model.Destinations;
 import com.hotels.road.loadingbay.model.Hive;
 import com.hotels.road.loadingbay.model.HiveRoad;
 import com.hotels.road.loadingbay.model.HiveStatus;
+import com.hotels.road.model.core.Compression;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
@@ -60,7 +63,7 @@ public class LoadingBayTest {
 
   @Before
   public void before() {
-    underTest = new LoadingBay(hiveTableAction, monitorFactory);
+    underTest = new LoadingBay(hiveTableAction, monitorFactory, false);
   }
 
   @Test
@@ -86,6 +89,74 @@ public class LoadingBayTest {
     assertThat(operations.size(), is(0));
     verify(landerMonitor).setEnabled(false);
     verify(landerMonitor).establishLandingFrequency("PT1H");
+    verify(landerMonitor).setFormat("avro");
+  }
+
+  @Test
+  public void parquetFormat() {
+    Hive hive = Hive.builder().format("parquet").status(HiveStatus.builder().build()).build();
+    Destinations destinations = Destinations.builder().hive(hive).build();
+    HiveRoad road = HiveRoad.builder().name(ROAD_NAME).destinations(destinations).build();
+    when(monitorFactory.apply(road)).thenReturn(landerMonitor);
+
+    underTest.inspectModel(ROAD_NAME, road);
+
+    verify(landerMonitor).setFormat("parquet");
+  }
+
+  @Test
+  public void compression() {
+    Hive hive = Hive.builder().status(HiveStatus.builder().build()).build();
+    Destinations destinations = Destinations.builder().hive(hive).build();
+    HiveRoad road = HiveRoad
+        .builder()
+        .name(ROAD_NAME)
+        .metadata(ImmutableMap.of("compression.codec", "deflate", "compression.level", "9"))
+        .destinations(destinations)
+        .build();
+    when(monitorFactory.apply(road)).thenReturn(landerMonitor);
+
+    underTest.inspectModel(ROAD_NAME, road);
+
+    verify(landerMonitor).setCompression(new Compression("deflate", 9));
+  }
+
+  @Test
+  public void zstandardCompressionIgnoredUnlessEnabled() {
+    HiveRoad road = zstandardRoad();
+    when(monitorFactory.apply(road)).thenReturn(landerMonitor);
+
+    underTest.inspectModel(ROAD_NAME, road);
+
+    verify(landerMonitor).setCompression(null);
+  }
+
+  @Test
+  public void zstandardCompressionWhenEnabled() {
+    underTest = new LoadingBay(hiveTableAction, monitorFactory, true);
+    HiveRoad road = zstandardRoad();
+    when(monitorFactory.apply(road)).thenReturn(landerMonitor);
+
+    underTest.inspectModel(ROAD_NAME, road);
+
+    verify(landerMonitor).setCompression(new Compression("zstandard", 9));
+  }
+
+  @Test
+  public void invalidCompressionIgnored() {
+    Hive hive = Hive.builder().status(HiveStatus.builder().build()).build();
+    Destinations destinations = Destinations.builder().hive(hive).build();
+    HiveRoad road = HiveRoad
+        .builder()
+        .name(ROAD_NAME)
+        .metadata(ImmutableMap.of("compression.codec", "lz4"))
+        .destinations(destinations)
+        .build();
+    when(monitorFactory.apply(road)).thenReturn(landerMonitor);
+
+    underTest.inspectModel(ROAD_NAME, road);
+
+    verify(landerMonitor).setCompression(null);
   }
 
   @Test
@@ -145,4 +216,14 @@ public class LoadingBayTest {
 
     assertThat(operations.size(), is(0));
   }
+
+  private static HiveRoad zstandardRoad() {
+    Hive hive = Hive.builder().status(HiveStatus.builder().build()).build();
+    return HiveRoad
+        .builder()
+        .name(ROAD_NAME)
+        .metadata(ImmutableMap.of("compression.codec", "zstandard", "compression.level", "9"))
+        .destinations(Destinations.builder().hive(hive).build())
+        .build();
+  }
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class AdaptiveLandingPlannerTest {
+  private static final long TARGET_FILE_BYTES = 10_000L;
+  private static final long RECORD_BYTES = 100L;
+  private static final long MIN_RECORDS = 50L;
+  private static final Duration MAX_LANDING = Duration.ofSeconds(10);
+  private static final Duration MIN_INTERVAL = Duration.ofMinutes(1);
+  private static final Duration LANDING_INTERVAL = Duration.ofHours(1);
+
+  private final MutableClock clock = new MutableClock(Instant.EPOCH);
+  private AdaptiveLandingPlanner underTest;
+
+  @Before
+  public void before() {
+    underTest = new AdaptiveLandingPlanner(clock, TARGET_FILE_BYTES, RECORD_BYTES, MIN_RECORDS, MAX_LANDING,
+        MIN_INTERVAL);
+  }
+
+  @Test
+  public void nothingToLand() {
+    LandingPlan plan = underTest.plan(ImmutableMap.of(0, 10L), ImmutableMap.of(0, 10L));
+
+    assertThat(plan.getOffsets().isEmpty(), is(true));
+    assertThat(plan.isRunAgain(), is(false));
+  }
+
+  @Test
+  public void recordsCappedAtMinimumWithoutHistory() {
+    LandingPlan plan = underTest.plan(ImmutableMap.of(0, 0L, 1, 0L), ImmutableMap.of(0, 80L, 1, 20L));
+
+    assertThat(plan.getOffsets(), is(ImmutableMap.of(0, new OffsetRange(0L, 50L), 1, new OffsetRange(0L, 20L))));
+    assertThat(plan.isRunAgain(), is(true));
+  }
+
+  @Test
+  public void recordsCappedByLandingRate() {
+    // 100 records per partition per second
+    underTest.landed(config(ImmutableMap.of(0, new OffsetRange(0L, 200L))), Duration.ofSeconds(2));
+
+    assertThat(underTest.maxRecordsPerPartition(), is(1000L));
+    LandingPlan plan = underTest.plan(ImmutableMap.of(0, 200L), ImmutableMap.of(0, 5000L));
+    assertThat(plan.getOffsets(), is(ImmutableMap.of(0, new OffsetRange(200L, 1200L))));
+    assertThat(plan.isRunAgain(), is(true));
+  }
+
+  @Test
+  public void smallLandingSharesOneLander() {
+    Map<Integer, Long> latest = ImmutableMap.of(0, 10L, 1, 10L, 2, 10L, 3, 10L);
+    LandingPlan plan = underTest.plan(ImmutableMap.of(), latest);
+
+    assertThat(plan.getPartitionsPerLander(), is(4));
+  }
+
+  @Test
+  public void largeLandingIsSpreadOverLanders() {
+    // 100 records fill a file, so 4 partitions of 50 records need 2 landers
+    Map<Integer, Long> latest = ImmutableMap.of(0, 50L, 1, 50L, 2, 50L, 3, 50L);
+    LandingPlan plan = underTest.plan(ImmutableMap.of(), latest);
+
+    assertThat(plan.getPartitionsPerLander(), is(2));
+  }
+
+  @Test
+  public void nextIntervalIsTheRoadsWithoutHistory() {
+    assertThat(underTest.nextInterval(LANDING_INTERVAL), is(LANDING_INTERVAL));
+  }
+
+  @Test
+  public void nextIntervalFromArrivalRate() {
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 0L));
+    clock.advance(Duration.ofSeconds(100));
+    // 1 record per second, a file's worth of 100 records takes 100 seconds to arrive
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 100L));
+
+    assertThat(underTest.getArrivalRate(), is(1.0));
+    assertThat(underTest.nextInterval(LANDING_INTERVAL), is(Duration.ofSeconds(100)));
+  }
+
+  @Test
+  public void nextIntervalNoSoonerThanMinimum() {
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 0L));
+    clock.advance(Duration.ofSeconds(1));
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 1000L));
+
+    assertThat(underTest.nextInterval(LANDING_INTERVAL), is(MIN_INTERVAL));
+  }
+
+  @Test
+  public void nextIntervalNoLaterThanTheRoads() {
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 0L));
+    clock.advance(Duration.ofHours(10));
+    underTest.plan(ImmutableMap.of(), ImmutableMap.of(0, 1L));
+
+    assertThat(underTest.nextInterval(LANDING_INTERVAL), is(LANDING_INTERVAL));
+  }
+
+  static LanderConfiguration config(Map<Integer, OffsetRange> offsets) {
+    return new LanderConfiguration("road", "topic", offsets, "prefix", false, "instant", "avro", null, false);
+  }
+}
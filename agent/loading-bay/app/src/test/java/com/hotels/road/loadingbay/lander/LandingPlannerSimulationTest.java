@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Lands simulated roads over a few hours with each planner. Records arrive at a steady rate, and a landing takes a
+ * fixed start-up time plus the time to land its largest partition at a fixed rate per partition.
+ */
+public class LandingPlannerSimulationTest {
+  private static final long RECORD_BYTES = 1024L;
+  private static final long TARGET_FILE_BYTES = 128L * 1024 * 1024;
+  private static final long MAX_RECORDS_PER_PARTITION = 100_000L;
+  private static final int PARTITIONS_PER_POD = 6;
+  private static final Duration LANDING_INTERVAL = Duration.ofHours(1);
+  private static final Duration HORIZON = Duration.ofHours(6);
+  private static final Duration STARTUP = Duration.ofSeconds(30);
+  private static final long LANDING_RATE = 2000L;
+
+  private final MutableClock clock = new MutableClock(Instant.EPOCH);
+
+  @Test
+  public void hotRoadKeepsUpOnlyWhenAdaptive() {
+    Road road = new Road(24, 36_000L);
+
+    Result fixed = simulate(fixed(), road);
+    Result adaptive = simulate(adaptive(), road);
+
+    assertTrue(fixed.lag > road.recordsPerSecond * LANDING_INTERVAL.getSeconds());
+    assertTrue(adaptive.lag < road.recordsPerSecond * LANDING_INTERVAL.getSeconds() / 100);
+  }
+
+  @Test
+  public void busyRoadLandsFilesOfTheTargetSize() {
+    Road road = new Road(6, 1000L);
+
+    Result fixed = simulate(fixed(), road);
+    Result adaptive = simulate(adaptive(), road);
+
+    assertTrue(fixed.meanLanderBytes() > 4 * TARGET_FILE_BYTES);
+    assertTrue(adaptive.meanLanderBytes() > TARGET_FILE_BYTES / 2);
+    assertTrue(adaptive.meanLanderBytes() < TARGET_FILE_BYTES * 3 / 2);
+  }
+
+  @Test
+  public void smallRoadUsesOneLander() {
+    Road road = new Road(12, 10L);
+
+    Result fixed = simulate(fixed(), road);
+    Result adaptive = simulate(adaptive(), road);
+
+    assertThat(fixed.landers, is(2 * fixed.landings));
+    assertThat(adaptive.landers, is(adaptive.landings));
+    assertThat(adaptive.landings, is(fixed.landings));
+  }
+
+  @Test
+  public void adaptiveNeverWaitsLongerThanTheLandingInterval() {
+    for (Road road : new Road[] { new Road(24, 36_000L), new Road(6, 1000L), new Road(12, 10L) }) {
+      Result adaptive = simulate(adaptive(), road);
+
+      assertTrue(adaptive.intervals.stream().allMatch(i -> i.compareTo(LANDING_INTERVAL) <= 0));
+    }
+  }
+
+  private static LandingPlanner fixed() {
+    return new FixedLandingPlanner(MAX_RECORDS_PER_PARTITION);
+  }
+
+  private LandingPlanner adaptive() {
+    return new AdaptiveLandingPlanner(clock, TARGET_FILE_BYTES, RECORD_BYTES, MAX_RECORDS_PER_PARTITION,
+        Duration.ofMinutes(15), Duration.ofMinutes(1));
+  }
+
+  /**
+   * Follows {@code LanderMonitor}: the first landing is one landing interval after the start, landings are repeated
+   * while the plan asks to run again, and the next landing is the planner's interval after the last one started.
+   */
+  private Result simulate(LandingPlanner planner, Road road) {
+    clock.set(Instant.EPOCH);
+    Instant end = Instant.EPOCH.plus(HORIZON);
+    Map<Integer, Long> committed = new HashMap<>();
+    Result result = new Result();
+    Instant next = Instant.EPOCH.plus(LANDING_INTERVAL);
+    while (next.isBefore(end)) {
+      clock.set(next);
+      Instant lastRun = next;
+      boolean runAgain = true;
+      while (runAgain && clock.instant().isBefore(end)) {
+        lastRun = clock.instant();
+        LandingPlan plan = planner.plan(committed, road.latestOffsets(lastRun));
+        if (plan.getOffsets().isEmpty()) {
+          break;
+        }
+        Duration duration = land(plan, result);
+        clock.advance(duration);
+        planner.landed(AdaptiveLandingPlannerTest.config(plan.getOffsets()), duration);
+        plan.getOffsets().forEach((partition, range) -> committed.put(partition, range.getEnd()));
+        runAgain = plan.isRunAgain();
+      }
+      Duration interval = planner.nextInterval(LANDING_INTERVAL);
+      result.intervals.add(interval);
+      next = lastRun.plus(interval);
+      if (next.isBefore(clock.instant())) {
+        next = clock.instant();
+      }
+    }
+    long latest = road.latestOffsets(end).values().stream().mapToLong(Long::longValue).sum();
+    result.lag = latest - committed.values().stream().mapToLong(Long::longValue).sum();
+    return result;
+  }
+
+  private static Duration land(LandingPlan plan, Result result) {
+    int partitionsPerLander = plan.getPartitionsPerLander() > 0 ? plan.getPartitionsPerLander() : PARTITIONS_PER_POD;
+    List<Integer> partitions = new ArrayList<>(new TreeSet<>(plan.getOffsets().keySet()));
+    long largest = 0L;
+    for (int i = 0; i < partitions.size(); i += partitionsPerLander) {
+      long records = 0L;
+      for (int partition : partitions.subList(i, Math.min(i + partitionsPerLander, partitions.size()))) {
+        OffsetRange range = plan.getOffsets().get(partition);
+        records += range.getEnd() - range.getStart();
+        largest = Math.max(largest, range.getEnd() - range.getStart());
+      }
+      result.landers++;
+      result.landerBytes += records * RECORD_BYTES;
+    }
+    result.landings++;
+    return STARTUP.plusMillis(largest * 1000 / LANDING_RATE);
+  }
+
+  private static class Road {
+    private final int partitions;
+    private final long recordsPerSecond;
+
+    Road(int partitions, long recordsPerSecond) {
+      this.partitions = partitions;
+      this.recordsPerSecond = recordsPerSecond;
+    }
+
+    Map<Integer, Long> latestOffsets(Instant instant) {
+      Map<Integer, Long> offsets = new HashMap<>();
+      for (int partition = 0; partition < partitions; partition++) {
+        offsets.put(partition, recordsPerSecond * instant.toEpochMilli() / 1000 / partitions);
+      }
+      return offsets;
+    }
+  }
+
+  private static class Result {
+    private int landings;
+    private int landers;
+    private long landerBytes;
+    private long lag;
+    private final List<Duration> intervals = new ArrayList<>();
+
+    long meanLanderBytes() {
+      return landerBytes / landers;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RoutingLanderFactoryTest {
+  private @Mock Lander.Factory defaultFactory;
+  private @Mock Lander.Factory localFactory;
+  private @Mock Lander lander;
+
+  private RoutingLanderFactory underTest;
+
+  @Before
+  public void before() {
+    underTest = new RoutingLanderFactory(defaultFactory, localFactory, ImmutableSet.of("local"));
+  }
+
+  @Test
+  public void defaultRoad() {
+    LanderConfiguration config = config("road");
+    when(defaultFactory.newInstance(config)).thenReturn(lander);
+
+    assertThat(underTest.newInstance(config), is(lander));
+  }
+
+  @Test
+  public void localRoad() {
+    LanderConfiguration config = config("local");
+    when(localFactory.newInstance(config)).thenReturn(lander);
+
+    assertThat(underTest.newInstance(config), is(lander));
+  }
+
+  @Test
+  public void partitionsPerLander() {
+    LanderConfiguration config = config("road");
+    when(defaultFactory.newInstance(config, 2)).thenReturn(lander);
+
+    assertThat(underTest.newInstance(config, 2), is(lander));
+  }
+
+  private static LanderConfiguration config(String roadName) {
+    return new LanderConfiguration(roadName, "topic", ImmutableMap.of(0, new OffsetRange(0L, 1L)), "prefix", false,
+        "acquisitionInstant", "avro", null, false);
+  }
+}
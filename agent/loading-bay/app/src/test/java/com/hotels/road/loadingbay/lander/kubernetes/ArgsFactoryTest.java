@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.function.Supplier;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -36,6 +37,8 @@ import com.google.common.collect.Maps;
 
 import com.hotels.road.loadingbay.lander.LanderConfiguration;
 import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.loadingbay.lander.TruckParkProperties;
+import com.hotels.road.model.core.Compression;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ArgsFactoryTest {
@@ -46,23 +49,54 @@ public class ArgsFactoryTest {
   private ConfigMap configMap;
 
   private ArgsFactory underTest;
+  private final HashMap<Integer, OffsetRange> roadOffsets = Maps.newHashMap();
 
-  @Test
-  public void typical() {
+  @Before
+  public void before() {
     when(configMapSupplier.get()).thenReturn(configMap);
     when(configMap.getData()).thenReturn(ImmutableMap.of("profiles", "default"));
-    underTest = new ArgsFactory("bootstrapServers", "kafkaStoreTopic", "piiReplacerClassName", "s3Bucket",
-        "s3EndpointUrl", "s3EndpointSigningRegion", "graphiteEndpoint", configMapSupplier);
+    underTest = new ArgsFactory(new TruckParkProperties("bootstrapServers", "kafkaStoreTopic", "piiReplacerClassName",
+        "s3Bucket", "s3EndpointUrl", "s3EndpointSigningRegion", "graphiteEndpoint"), configMapSupplier);
 
-    HashMap<Integer, OffsetRange> roadOffsets = Maps.newHashMap();
     roadOffsets.put(1, new OffsetRange(1, 2));
     roadOffsets.put(2, new OffsetRange(2, 3));
     roadOffsets.put(3, new OffsetRange(3, 4));
+  }
+
+  @Test
+  public void typical() {
     LanderConfiguration landerConfiguration = new LanderConfiguration("name", "topic", roadOffsets, "s3KeyPrefix",
-        false, "partitionColumnValue", false);
+        false, "partitionColumnValue", "parquet", null, false);
     List<String> result = underTest.newInstance(landerConfiguration);
 
-    List<String> expected = ImmutableList
+    assertThat(result, is(expected().add("--writer.format=parquet").build()));
+  }
+
+  @Test
+  public void compression() {
+    LanderConfiguration landerConfiguration = new LanderConfiguration("name", "topic", roadOffsets, "s3KeyPrefix",
+        false, "partitionColumnValue", "avro", new Compression("zstandard", 19), false);
+    List<String> result = underTest.newInstance(landerConfiguration);
+
+    List<String> expected = expected()
+        .add("--writer.format=avro")
+        .add("--avroCodec.name=zstandard")
+        .add("--avroCodec.level=19")
+        .build();
+    assertThat(result, is(expected));
+  }
+
+  @Test
+  public void compressionWithoutLevel() {
+    LanderConfiguration landerConfiguration = new LanderConfiguration("name", "topic", roadOffsets, "s3KeyPrefix",
+        false, "partitionColumnValue", "avro", new Compression("snappy", null), false);
+    List<String> result = underTest.newInstance(landerConfiguration);
+
+    assertThat(result, is(expected().add("--writer.format=avro").add("--avroCodec.name=snappy").build()));
+  }
+
+  private ImmutableList.Builder<String> expected() {
+    return ImmutableList
         .<String> builder()
         .add("--spring.profiles.active=default")
         .add("--kafka.bootstrapServers=bootstrapServers")
@@ -76,9 +110,6 @@ public class ArgsFactoryTest {
         .add("--s3.endpoint.url=s3EndpointUrl")
         .add("--s3.endpoint.signingRegion=s3EndpointSigningRegion")
         .add("--s3.enableServerSideEncryption=false")
-        .add("--metrics.graphiteEndpoint=graphiteEndpoint")
-        .build();
-
-    assertThat(result, is(expected));
+        .add("--metrics.graphiteEndpoint=graphiteEndpoint");
   }
 }
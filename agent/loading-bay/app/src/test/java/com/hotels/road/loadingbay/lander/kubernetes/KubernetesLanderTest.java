@@ -82,7 +82,7 @@ public class KubernetesLanderTest {
     when(podResource.get()).thenReturn(pod);
     KubernetesLander.Factory factory = new KubernetesLander.Factory(argsFactory, podFactory, podNameFactory, client);
     LanderConfiguration config = new LanderConfiguration("road", "topic", ImmutableMap.of(), "s3Prefix", false,
-        "partitionColumnValue", false);
+        "partitionColumnValue", "avro", null, false);
     when(argsFactory.newInstance(config)).thenReturn(ARGS);
     when(podFactory.newInstance(config, ARGS)).thenReturn(pod);
     Lander lander = factory.newInstance(config);
@@ -105,7 +105,7 @@ public class KubernetesLanderTest {
     when(podResource.get()).thenReturn(pod);
     KubernetesLander.Factory factory = new KubernetesLander.Factory(argsFactory, podFactory, podNameFactory, client);
     LanderConfiguration config = new LanderConfiguration("road", "topic", ImmutableMap.of(), "s3Prefix", false,
-        "partitionColumnValue", false);
+        "partitionColumnValue", "avro", null, false);
     when(argsFactory.newInstance(config)).thenReturn(ARGS);
     when(podFactory.newInstance(config, ARGS)).thenReturn(pod);
     Lander lander = factory.newInstance(config);
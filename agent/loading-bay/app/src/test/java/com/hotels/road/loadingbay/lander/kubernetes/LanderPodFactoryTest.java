@@ -100,7 +100,7 @@ public class LanderPodFactoryTest {
         .build());
 
     LanderConfiguration config = new LanderConfiguration(NAME, "topic", emptyMap(), "s3Prefix", false,
-        PARTITION_COLUMN_VALUE, false);
+        PARTITION_COLUMN_VALUE, "avro", null, false);
     Pod pod = underTest.newInstance(config, singletonList(ARG));
 
     ObjectMeta metadata = pod.getMetadata();
@@ -184,7 +184,7 @@ public class LanderPodFactoryTest {
             .build());
 
     LanderConfiguration config = new LanderConfiguration(NAME, "topic", emptyMap(), "s3Prefix", false,
-            PARTITION_COLUMN_VALUE, false);
+            PARTITION_COLUMN_VALUE, "avro", null, false);
     Pod pod = underTest.newInstance(config, singletonList(ARG));
 
     ObjectMeta metadata = pod.getMetadata();
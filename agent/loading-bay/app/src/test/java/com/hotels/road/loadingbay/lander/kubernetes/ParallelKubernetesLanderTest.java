@@ -20,6 +20,8 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -47,7 +49,7 @@ public class ParallelKubernetesLanderTest {
   private final OffsetRange range = new OffsetRange(0, 1L);
   private final Map<Integer, OffsetRange> offsets = ImmutableMap.of(0, range, 1, range, 2, range);
   private final LanderConfiguration config = new LanderConfiguration("roadName", "topicName", offsets, "s3KeyPrefix",
-      false, "partitionColumnValue", false);
+      false, "partitionColumnValue", "avro", null, false);
 
   private final CompletableFuture<LanderConfiguration> future1 = new CompletableFuture<>();
   private final CompletableFuture<LanderConfiguration> future2 = new CompletableFuture<>();
@@ -78,6 +80,15 @@ public class ParallelKubernetesLanderTest {
     assertThat(result, is(config));
   }
 
+  @Test
+  public void partitionsPerLander() throws Exception {
+    underTestFactory.newInstance(config, 2);
+
+    // Three landers of one partition each were created in before()
+    verify(delegate).newInstance(config.withOffsets(ImmutableMap.of(0, range, 1, range)));
+    verify(delegate, times(5)).newInstance(any());
+  }
+
   @Test
   public void failFast() throws Exception {
     future1.completeExceptionally(new Exception());
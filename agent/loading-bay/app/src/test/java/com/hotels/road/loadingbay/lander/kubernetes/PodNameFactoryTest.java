@@ -34,7 +34,7 @@ public class PodNameFactoryTest {
   public void typical() {
     PodNameFactory factory = new PodNameFactory();
     LanderConfiguration config = new LanderConfiguration("road_name", "road.road_name", singletonMap(0, null),
-        "s3KeyPrefix", false, "partitionColumnValue10T28929Z", false);
+        "s3KeyPrefix", false, "partitionColumnValue10T28929Z", "avro", null, false);
     String name = factory.newName(config);
     assertThat(name, is("truck-park-road-name-partitioncolumnvalue10t28929z-0"));
     assertThat(namePattern.matcher(name).matches(), is(true));
@@ -44,7 +44,7 @@ public class PodNameFactoryTest {
   public void conf() {
     PodNameFactory factory = new PodNameFactory();
     LanderConfiguration configuration = new LanderConfiguration("road_name", "topicName", singletonMap(0, null),
-        "s3KeyPrefix", false, "partitionColumnValue102T8929Z", false);
+        "s3KeyPrefix", false, "partitionColumnValue102T8929Z", "avro", null, false);
     String name = factory.newName(configuration);
     assertThat(name, is("truck-park-road-name-partitioncolumnvalue102t8929z-0"));
     assertThat(namePattern.matcher(name).matches(), is(true));
@@ -54,7 +54,7 @@ public class PodNameFactoryTest {
   public void road_name_too_long_gets_truncated() throws Exception {
     PodNameFactory factory = new PodNameFactory();
     LanderConfiguration configuration = new LanderConfiguration("ten-------twenty----thirty----forty-----fifty-----",
-        "topicName", singletonMap(0, null), "s3KeyPrefix", false, "ninechars", false);
+        "topicName", singletonMap(0, null), "s3KeyPrefix", false, "ninechars", "avro", null, false);
     String name = factory.newName(configuration);
     assertThat(name.length(), is(63));
     assertThat(namePattern.matcher(name).matches(), is(true));
@@ -64,7 +64,7 @@ public class PodNameFactoryTest {
   public void partition_column_value_is_too_long_throws_IllegalStateException() throws Exception {
     PodNameFactory factory = new PodNameFactory();
     LanderConfiguration configuration = new LanderConfiguration("road_name", "topicName", singletonMap(0, null),
-        "s3KeyPrefix", false, "ten-------twenty----thirty----forty-----fifty-----sixty-----", false);
+        "s3KeyPrefix", false, "ten-------twenty----thirty----forty-----fifty-----sixty-----", "avro", null, false);
     factory.newName(configuration);
   }
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander.local;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.integration.utils.EmbeddedKafkaCluster;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import io.findify.s3mock.S3Mock;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.IOUtils;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
+
+import com.hotels.road.kafkastore.KafkaStore;
+import com.hotels.road.kafkastore.KafkaStoreUtils;
+import com.hotels.road.loadingbay.lander.LanderConfiguration;
+import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.loadingbay.lander.TruckParkProperties;
+import com.hotels.road.truck.park.EmbeddedTruckPark;
+import com.hotels.road.truck.park.decoder.DataDeserializer;
+import com.hotels.road.truck.park.schema.KafkaStoreSchemaLookup.Road;
+import com.hotels.road.truck.park.schema.KafkaStoreSchemaLookup.SchemaVersion;
+import com.hotels.road.truck.park.schema.RoadSchemaConfiguration;
+
+/**
+ * Lands a road from an embedded Kafka cluster to a mock S3 without Kubernetes.
+ */
+public class LocalLanderIntegrationTest {
+  private static final String BUCKET = "bucket";
+  private static final String STORE_TOPIC = "_roads";
+  private static final String ROAD_NAME = "road1";
+  private static final String TOPIC = "_roads.road1";
+  private static final int VERSION = 1;
+  private static final String SIGNING_REGION = "us-west-2";
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("r")
+      .fields()
+      .name("field")
+      .type(SchemaBuilder.builder().stringType())
+      .noDefault()
+      .endRecord();
+
+  @Rule
+  public EmbeddedKafkaCluster kafka = new EmbeddedKafkaCluster(1);
+
+  private final ExecutorService executor = newSingleThreadExecutor();
+  private S3Mock s3Mock;
+  private AmazonS3 s3;
+  private String s3EndpointUrl;
+
+  @Before
+  public void before() throws Exception {
+    kafka.createTopic(TOPIC);
+    KafkaStoreUtils.checkAndCreateTopic(kafka.zKConnectString(), STORE_TOPIC, 1);
+
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    s3EndpointUrl = "http://127.0.0.1:" + port;
+    s3Mock = S3Mock.create(port);
+    s3Mock.start();
+    s3 = AmazonS3Client
+        .builder()
+        .withCredentials(new AWSStaticCredentialsProvider(new AnonymousAWSCredentials()))
+        .withEndpointConfiguration(new EndpointConfiguration(s3EndpointUrl, SIGNING_REGION))
+        .build();
+    s3.createBucket(BUCKET);
+    // The landing's S3 client uses the default credentials chain
+    System.setProperty("aws.accessKeyId", "accessKeyId");
+    System.setProperty("aws.secretKey", "secretKey");
+  }
+
+  @After
+  public void after() {
+    System.clearProperty("aws.accessKeyId");
+    System.clearProperty("aws.secretKey");
+    executor.shutdownNow();
+    s3.shutdown();
+    s3Mock.stop();
+  }
+
+  @Test
+  public void landsRoad() throws Exception {
+    createRoad();
+    try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(
+        Collections.singletonMap("bootstrap.servers", kafka.bootstrapServers()), new ByteArraySerializer(),
+        new ByteArraySerializer())) {
+      producer.send(new ProducerRecord<>(TOPIC, encode("a"))).get();
+      producer.send(new ProducerRecord<>(TOPIC, encode("b"))).get();
+    }
+    TruckParkProperties truckParkProperties = new TruckParkProperties(kafka.bootstrapServers(), STORE_TOPIC,
+        "com.hotels.road.pii.DefaultPiiReplacer", BUCKET, s3EndpointUrl, SIGNING_REGION, "disabled");
+    LanderConfiguration config = new LanderConfiguration(ROAD_NAME, TOPIC, ImmutableMap.of(0, new OffsetRange(0L, 2L)),
+        "prefix", false, "acquisitionInstant", "avro", null, false);
+
+    try (LocalLander.Factory factory = new LocalLander.Factory(truckParkProperties, executor, 1, 1, 1,
+        EmbeddedTruckPark::land)) {
+      factory.newInstance(config).run().get(1, MINUTES);
+    }
+
+    List<S3ObjectSummary> objects = s3.listObjects(BUCKET).getObjectSummaries();
+    assertThat(objects.size(), is(1));
+    String key = objects.get(0).getKey();
+    assertThat(key, startsWith("prefix/"));
+    byte[] bytes = IOUtils.toByteArray(s3.getObject(BUCKET, key).getObjectContent());
+    try (DataFileReader<Record> reader = new DataFileReader<>(new SeekableByteArrayInput(bytes),
+        new GenericDatumReader<>(SCHEMA))) {
+      assertThat(reader.next().get("field").toString(), is("a"));
+      assertThat(reader.next().get("field").toString(), is("b"));
+      assertThat(reader.hasNext(), is(false));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void createRoad() {
+    Map<String, Object> properties = ImmutableMap
+        .<String, Object> builder()
+        .put("kafka.bootstrapServers", kafka.bootstrapServers())
+        .put("kafka.road.topic", STORE_TOPIC)
+        .build();
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+      context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+      context.register(RoadSchemaConfiguration.class);
+      context.refresh();
+      Map<Integer, SchemaVersion> schemas = Collections.singletonMap(VERSION,
+          new SchemaVersion(SCHEMA, VERSION, false));
+      context.getBean(KafkaStore.class).put(ROAD_NAME, Road.builder().schemas(schemas).build());
+    }
+  }
+
+  private static byte[] encode(String value) throws Exception {
+    Record record = new Record(SCHEMA);
+    record.put("field", value);
+    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      out.write(DataDeserializer.MAGIC_BYTE);
+      out.write(Ints.toByteArray(VERSION));
+      BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+      new GenericDatumWriter<Record>(SCHEMA).write(record, encoder);
+      encoder.flush();
+      return out.toByteArray();
+    }
+  }
+}
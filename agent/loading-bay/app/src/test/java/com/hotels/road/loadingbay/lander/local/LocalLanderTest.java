@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.loadingbay.lander.local;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.hotels.road.loadingbay.lander.LanderConfiguration;
+import com.hotels.road.loadingbay.lander.OffsetRange;
+import com.hotels.road.loadingbay.lander.TruckParkProperties;
+
+public class LocalLanderTest {
+  private static final int MEMORY_PER_LANDING = 256;
+
+  private final TruckParkProperties truckParkProperties = new TruckParkProperties("bootstrapServers", "_roads",
+      "piiReplacerClassName", "bucket", "s3EndpointUrl", "signingRegion", "disabled");
+  private final LanderConfiguration config = new LanderConfiguration("road", "topic",
+      ImmutableMap.of(0, new OffsetRange(1L, 3L)), "prefix", false, "acquisitionInstant", "avro", null, false);
+  private final ExecutorService executor = newFixedThreadPool(2);
+  private final BlockingQueue<Map<String, Object>> landings = new LinkedBlockingQueue<>();
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void lands() throws Exception {
+    LocalLander.Factory factory = factory(MEMORY_PER_LANDING, landings::put);
+
+    LanderConfiguration result = factory.newInstance(config).run().get(5, SECONDS);
+
+    assertThat(result, is(sameInstance(config)));
+    Map<String, Object> properties = landings.take();
+    assertThat(properties.get("road.name"), is("road"));
+    assertThat(properties.get("road.offsets"), is("0:1,3"));
+    assertThat(properties.get("s3.keyPrefix"), is("prefix"));
+    assertThat(properties.get("writer.workers"), is("2"));
+  }
+
+  @Test
+  public void landingFails() throws Exception {
+    RuntimeException exception = new RuntimeException();
+    LocalLander.Factory factory = factory(MEMORY_PER_LANDING, p -> {
+      throw exception;
+    });
+
+    try {
+      factory.newInstance(config).run().get(5, SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(sameInstance(exception)));
+    }
+  }
+
+  @Test
+  public void cancelInterruptsLanding() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<Throwable> interrupted = new CompletableFuture<>();
+    LocalLander.Factory factory = factory(MEMORY_PER_LANDING, p -> {
+      started.countDown();
+      try {
+        Thread.sleep(60_000L);
+      } catch (InterruptedException e) {
+        interrupted.complete(e);
+      }
+    });
+
+    CompletableFuture<LanderConfiguration> future = factory.newInstance(config).run();
+    started.await();
+    future.cancel(true);
+
+    assertThat(interrupted.get(5, SECONDS), is(instanceOf(InterruptedException.class)));
+  }
+
+  @Test
+  public void landingsWaitForMemory() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    LocalLander.Factory factory = factory(MEMORY_PER_LANDING, p -> {
+      landings.put(p);
+      release.await();
+    });
+
+    CompletableFuture<LanderConfiguration> first = factory.newInstance(config).run();
+    CompletableFuture<LanderConfiguration> second = factory.newInstance(config).run();
+
+    landings.take();
+    assertThat(landings.poll(100L, MILLISECONDS), is(nullValue()));
+    release.countDown();
+    first.get(5, SECONDS);
+    second.get(5, SECONDS);
+    assertThat(landings.size(), is(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void landingNeedsMoreThanMaxMemory() {
+    factory(MEMORY_PER_LANDING - 1, landings::put);
+  }
+
+  private LocalLander.Factory factory(int maxMemory, LocalLander.Landing landing) {
+    return new LocalLander.Factory(truckParkProperties, executor, 2, MEMORY_PER_LANDING, maxMemory, landing);
+  }
+}
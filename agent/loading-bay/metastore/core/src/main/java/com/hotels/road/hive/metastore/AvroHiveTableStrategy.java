@@ -25,6 +25,7 @@ import java.util.Arrays;
 import org.apache.avro.Schema;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,7 @@ import com.hotels.road.maven.version.DataHighwayVersion;
 
 @RequiredArgsConstructor
 public class AvroHiveTableStrategy implements HiveTableStrategy {
+  public static final String AVRO = "avro";
   static final String AVRO_SCHEMA_URL = "avro.schema.url";
   static final String AVRO_SCHEMA_VERSION = "avro.schema.version";
 
@@ -61,7 +63,7 @@ public class AvroHiveTableStrategy implements HiveTableStrategy {
     table.putToParameters(AVRO_SCHEMA_VERSION, Integer.toString(version));
     table.setPartitionKeys(Arrays.asList(new FieldSchema(partitionColumnName, "string", null)));
 
-    table.setSd(AvroStorageDescriptorFactory.create(location));
+    table.setSd(storageDescriptor(location, schema));
 
     return table;
   }
@@ -73,11 +75,22 @@ public class AvroHiveTableStrategy implements HiveTableStrategy {
     URI schemaUri = uriResolver.resolve(schema, table.getTableName(), version);
     alteredTable.putToParameters(AVRO_SCHEMA_URL, schemaUri.toString());
     alteredTable.putToParameters(AVRO_SCHEMA_VERSION, Integer.toString(version));
+    alteredTable.setSd(storageDescriptor(table.getSd().getLocation(), schema));
     return alteredTable;
   }
 
+  @Override
+  public String format() {
+    return AVRO;
+  }
+
+  protected StorageDescriptor storageDescriptor(String location, Schema schema) {
+    return AvroStorageDescriptorFactory.create(location);
+  }
+
   private void addRoadAnnotations(Table table) {
     table.putToParameters("data-highway.version", DataHighwayVersion.VERSION);
+    table.putToParameters(FORMAT, format());
     table.putToParameters("data-highway.last-revision", ISO_OFFSET_DATE_TIME.withZone(UTC).format(clock.instant()));
   }
 
@@ -21,6 +21,7 @@ import static java.util.Collections.emptyMap;
 
 import java.net.URI;
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,6 +29,8 @@ import java.util.Optional;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 
 import lombok.RequiredArgsConstructor;
@@ -50,8 +53,8 @@ public class HivePartitionManager {
       Map<String, String> parameters)
     throws MetaStoreException {
     try {
-      URI resolvedLocation = locationResolver.resolveLocation(location, false);
-      Partition partition = newHivePartition(tableName, partitionValues, resolvedLocation.toString(), parameters);
+      Table table = metaStoreClient.getTable(databaseName, tableName);
+      Partition partition = newHivePartition(tableName, table, new NewPartition(partitionValues, location, parameters));
       partition = metaStoreClient.add_partition(partition);
       return Optional.of(partition);
     } catch (AlreadyExistsException e) {
@@ -66,6 +69,23 @@ public class HivePartitionManager {
     return addPartition(tableName, partitionValues, location, emptyMap());
   }
 
+  /**
+   * Adds partitions to a table with a single metastore call. Partitions that already exist are left as they are, so
+   * the result holds only the partitions that were added. The values of the requested partitions must be distinct.
+   */
+  public List<Partition> addPartitions(String tableName, List<NewPartition> newPartitions) throws MetaStoreException {
+    try {
+      Table table = metaStoreClient.getTable(databaseName, tableName);
+      List<Partition> partitions = new ArrayList<>(newPartitions.size());
+      for (NewPartition newPartition : newPartitions) {
+        partitions.add(newHivePartition(tableName, table, newPartition));
+      }
+      return metaStoreClient.add_partitions(partitions, true, true);
+    } catch (TException e) {
+      throw new MetaStoreException(e);
+    }
+  }
+
   public void dropPartition(String tableName, List<String> partitionValues) {
     try {
       metaStoreClient.dropPartition(databaseName, tableName, partitionValues, false);
@@ -74,19 +94,26 @@ public class HivePartitionManager {
     }
   }
 
-  private Partition newHivePartition(
-      String tableName,
-      List<String> partitionValues,
-      String location,
-      Map<String, String> parameters) {
+  private Partition newHivePartition(String tableName, Table table, NewPartition newPartition) {
+    URI resolvedLocation = locationResolver.resolveLocation(newPartition.getLocation(), false);
     Partition partition = new Partition();
     partition.setDbName(databaseName);
     partition.setTableName(tableName);
-    partition.setValues(partitionValues);
-    parameters.forEach((key, value) -> partition.putToParameters(key, value));
+    partition.setValues(newPartition.getValues());
+    newPartition.getParameters().forEach((key, value) -> partition.putToParameters(key, value));
     partition.putToParameters(DATA_HIGHWAY_VERSION, DataHighwayVersion.VERSION);
     partition.putToParameters(DATA_HIGHWAY_LAST_REVISION, ISO_OFFSET_DATE_TIME.withZone(UTC).format(clock.instant()));
-    partition.setSd(AvroStorageDescriptorFactory.create(location));
+    partition.setSd(storageDescriptor(table, resolvedLocation.toString()));
     return partition;
   }
+
+  /**
+   * Partitions take the storage of the table when they are added, so that partitions landed before a road changed
+   * format keep reading the files they hold.
+   */
+  private StorageDescriptor storageDescriptor(Table table, String location) {
+    StorageDescriptor storageDescriptor = new StorageDescriptor(table.getSd());
+    storageDescriptor.setLocation(location);
+    return storageDescriptor;
+  }
 }
@@ -16,11 +16,15 @@
 package com.hotels.road.hive.metastore;
 
 import static java.util.Collections.singletonList;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 import static org.apache.hadoop.hive.metastore.api.HiveObjectType.TABLE;
 import static org.apache.hadoop.hive.metastore.api.PrincipalType.ROLE;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
@@ -31,15 +35,27 @@ import org.apache.hadoop.hive.metastore.api.PrivilegeGrantInfo;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 
-import lombok.RequiredArgsConstructor;
-
-@RequiredArgsConstructor
+/**
+ * Manages road tables with the {@link HiveTableStrategy} for the file format of each road. A table records its format
+ * so that a road that changes format has its table altered to read the partitions landed from then on.
+ */
 public class HiveTableManager {
   private final IMetaStoreClient metaStoreClient;
-  private final HiveTableStrategy hiveTableStrategy;
+  private final Map<String, HiveTableStrategy> hiveTableStrategies;
   private final LocationResolver locationResolver;
   private final String databaseName;
 
+  public HiveTableManager(
+      IMetaStoreClient metaStoreClient,
+      List<HiveTableStrategy> hiveTableStrategies,
+      LocationResolver locationResolver,
+      String databaseName) {
+    this.metaStoreClient = metaStoreClient;
+    this.hiveTableStrategies = hiveTableStrategies.stream().collect(toMap(HiveTableStrategy::format, identity()));
+    this.locationResolver = locationResolver;
+    this.databaseName = databaseName;
+  }
+
   public boolean tableExists(String tableName) throws MetaStoreException {
     try {
       return metaStoreClient.tableExists(databaseName, tableName);
@@ -48,8 +64,15 @@ public class HiveTableManager {
     }
   }
 
-  public Table createTable(String tableName, String partitionColumnName, Schema schema, int version, String owner)
+  public Table createTable(
+      String tableName,
+      String partitionColumnName,
+      Schema schema,
+      int version,
+      String format,
+      String owner)
     throws MetaStoreException {
+    HiveTableStrategy hiveTableStrategy = strategy(format);
     try {
       URI location = locationResolver.resolveLocation(databaseName + "/" + tableName, true);
       Table table = hiveTableStrategy.newHiveTable(databaseName, tableName, partitionColumnName, location.toString(),
@@ -74,7 +97,8 @@ public class HiveTableManager {
     }
   }
 
-  public void alterTable(String tableName, Schema schema, int version) throws MetaStoreException {
+  public void alterTable(String tableName, Schema schema, int version, String format) throws MetaStoreException {
+    HiveTableStrategy hiveTableStrategy = strategy(format);
     try {
       Table table = metaStoreClient.getTable(databaseName, tableName);
       Table alteredTable = hiveTableStrategy.alterHiveTable(table, schema, version);
@@ -87,9 +111,29 @@ public class HiveTableManager {
   public int getSchemaVersion(String tableName) throws MetaStoreException {
     try {
       Table table = metaStoreClient.getTable(databaseName, tableName);
-      return hiveTableStrategy.getSchemaVersion(table);
+      return strategy(format(table)).getSchemaVersion(table);
+    } catch (TException e) {
+      throw new MetaStoreException(e);
+    }
+  }
+
+  public String getFormat(String tableName) throws MetaStoreException {
+    try {
+      return format(metaStoreClient.getTable(databaseName, tableName));
     } catch (TException e) {
       throw new MetaStoreException(e);
     }
   }
+
+  private String format(Table table) {
+    return table.getParameters().getOrDefault(HiveTableStrategy.FORMAT, AvroHiveTableStrategy.AVRO);
+  }
+
+  private HiveTableStrategy strategy(String format) {
+    HiveTableStrategy hiveTableStrategy = hiveTableStrategies.get(format);
+    if (hiveTableStrategy == null) {
+      throw new IllegalArgumentException("Unsupported format: " + format);
+    }
+    return hiveTableStrategy;
+  }
 }
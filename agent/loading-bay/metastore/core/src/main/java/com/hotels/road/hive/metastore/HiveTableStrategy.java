@@ -19,6 +19,10 @@ import org.apache.avro.Schema;
 import org.apache.hadoop.hive.metastore.api.Table;
 
 public interface HiveTableStrategy {
+  /**
+   * The table parameter that records the file format of the table, tables created before it was introduced are Avro.
+   */
+  String FORMAT = "data-highway.format";
 
   Table newHiveTable(
       String databaseName,
@@ -32,4 +36,9 @@ public interface HiveTableStrategy {
 
   int getSchemaVersion(Table table);
 
+  /**
+   * The file format that truck-park lands for roads using this strategy.
+   */
+  String format();
+
 }
@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.hive.metastore;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * A partition to be added to a table: its values, the location of its data and any extra parameters.
+ */
+@Value
+public class NewPartition {
+  List<String> values;
+  String location;
+  Map<String, String> parameters;
+}
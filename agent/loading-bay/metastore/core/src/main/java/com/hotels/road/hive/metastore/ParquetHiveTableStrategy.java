@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.hive.metastore;
+
+import java.time.Clock;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+
+/**
+ * Registers Parquet tables. The Avro schema parameters are kept so that schema versions are tracked the same way for
+ * both formats, while the columns are written to the storage descriptor for the Parquet SerDe.
+ */
+public class ParquetHiveTableStrategy extends AvroHiveTableStrategy {
+  public static final String PARQUET = "parquet";
+
+  public ParquetHiveTableStrategy(SchemaUriResolver uriResolver, Clock clock) {
+    super(uriResolver, clock);
+  }
+
+  @Override
+  public String format() {
+    return PARQUET;
+  }
+
+  @Override
+  protected StorageDescriptor storageDescriptor(String location, Schema schema) {
+    return ParquetStorageDescriptorFactory.create(location, schema);
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.hive.metastore;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.List;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Unlike the Avro SerDe, the Parquet SerDe reads its columns from the metastore, so they are derived here from the
+ * road schema in the shape that {@code parquet-avro} writes it.
+ */
+@AllArgsConstructor(access = PRIVATE)
+public final class ParquetStorageDescriptorFactory {
+  static final String PARQUET_SERDE = "org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe";
+  static final String PARQUET_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat";
+  static final String PARQUET_OUTPUT_FORMAT = "org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat";
+
+  public static StorageDescriptor create(String location, Schema schema) {
+    StorageDescriptor storageDescriptor = new StorageDescriptor();
+    storageDescriptor.setInputFormat(PARQUET_INPUT_FORMAT);
+    storageDescriptor.setOutputFormat(PARQUET_OUTPUT_FORMAT);
+    storageDescriptor.setLocation(location);
+    storageDescriptor.setCols(columns(schema));
+
+    SerDeInfo serdeInfo = new SerDeInfo();
+    serdeInfo.setSerializationLib(PARQUET_SERDE);
+    storageDescriptor.setSerdeInfo(serdeInfo);
+
+    return storageDescriptor;
+  }
+
+  static List<FieldSchema> columns(Schema schema) {
+    return schema
+        .getFields()
+        .stream()
+        .map(field -> new FieldSchema(field.name(), typeName(field.schema()), field.doc()))
+        .collect(toList());
+  }
+
+  static String typeName(Schema schema) {
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType instanceof LogicalTypes.Decimal) {
+      LogicalTypes.Decimal decimal = (LogicalTypes.Decimal) logicalType;
+      return String.format("decimal(%d,%d)", decimal.getPrecision(), decimal.getScale());
+    }
+    if (logicalType instanceof LogicalTypes.Date) {
+      return "date";
+    }
+    switch (schema.getType()) {
+    case RECORD:
+      return schema
+          .getFields()
+          .stream()
+          .map(ParquetStorageDescriptorFactory::structField)
+          .collect(joining(",", "struct<", ">"));
+    case ARRAY:
+      return "array<" + typeName(schema.getElementType()) + ">";
+    case MAP:
+      return "map<string," + typeName(schema.getValueType()) + ">";
+    case UNION:
+      return unionTypeName(schema);
+    case ENUM:
+    case STRING:
+      return "string";
+    case BYTES:
+    case FIXED:
+      return "binary";
+    case INT:
+      return "int";
+    case LONG:
+      return "bigint";
+    case FLOAT:
+      return "float";
+    case DOUBLE:
+      return "double";
+    case BOOLEAN:
+      return "boolean";
+    default:
+      throw new IllegalArgumentException("Cannot land type " + schema.getType() + " in Parquet: " + schema);
+    }
+  }
+
+  private static String structField(Field field) {
+    return field.name() + ":" + typeName(field.schema());
+  }
+
+  /**
+   * parquet-avro drops the null branch and writes any remaining branches as the optional fields of a group.
+   */
+  private static String unionTypeName(Schema schema) {
+    List<Schema> types = schema.getTypes().stream().filter(s -> s.getType() != Type.NULL).collect(toList());
+    if (types.size() == 1) {
+      return typeName(types.get(0));
+    }
+    StringBuilder builder = new StringBuilder("struct<");
+    for (int i = 0; i < types.size(); i++) {
+      builder.append(i == 0 ? "" : ",").append("member").append(i).append(':').append(typeName(types.get(i)));
+    }
+    return builder.append('>').toString();
+  }
+}
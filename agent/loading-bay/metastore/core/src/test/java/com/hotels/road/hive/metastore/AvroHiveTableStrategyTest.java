@@ -94,6 +94,7 @@ public class AvroHiveTableStrategyTest {
     assertThat(parameters.get(AvroHiveTableStrategy.AVRO_SCHEMA_URL),
         is("https://s3.amazonaws.com/road-schema-bucket/roads/table/schemas/1/table_v1.avsc"));
     assertThat(parameters.get(AvroHiveTableStrategy.AVRO_SCHEMA_VERSION), is("1"));
+    assertThat(parameters.get(HiveTableStrategy.FORMAT), is("avro"));
     List<FieldSchema> partitionKeys = result.getPartitionKeys();
     assertThat(partitionKeys.size(), is(1));
     assertThat(partitionKeys.get(0), is(new FieldSchema(PARTITION_COLUMN, "string", null)));
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2016-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.hive.metastore;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.time.Clock;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.hotels.beeju.HiveMetaStoreJUnitRule;
+
+public class HivePartitionManagerMetaStoreTest {
+  private static final String DATABASE = "database";
+  private static final String TABLE = "table1";
+  private static final String PARTITION_COLUMN = "acquisition_instant";
+
+  public @Rule HiveMetaStoreJUnitRule hive = new HiveMetaStoreJUnitRule(DATABASE);
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private File tableLocation;
+  private HivePartitionManager underTest;
+
+  @Before
+  public void before() throws Exception {
+    tableLocation = temp.newFolder(TABLE);
+    Table table = new Table();
+    table.setDbName(DATABASE);
+    table.setTableName(TABLE);
+    table.setTableType(TableType.EXTERNAL_TABLE.toString());
+    table.putToParameters("EXTERNAL", "TRUE");
+    table.setPartitionKeys(singletonList(new FieldSchema(PARTITION_COLUMN, "string", null)));
+    table.setSd(AvroStorageDescriptorFactory.create(tableLocation.toURI().toString()));
+    hive.client().createTable(table);
+
+    LocationResolver locationResolver = (location, create) -> new File(tableLocation, location).toURI();
+    underTest = new HivePartitionManager(hive.client(), locationResolver, DATABASE, Clock.systemUTC());
+  }
+
+  @Test
+  public void addPartitions() throws Exception {
+    List<Partition> result = underTest.addPartitions(TABLE, asList(newPartition("a", "a"), newPartition("b", "b")));
+
+    assertThat(values(result), is(asList("a", "b")));
+    assertThat(location("a"), is(new File(tableLocation, "a").toURI().toString()));
+    assertThat(location("b"), is(new File(tableLocation, "b").toURI().toString()));
+  }
+
+  @Test
+  public void existingPartitionIsSkipped() throws Exception {
+    underTest.addPartition(TABLE, singletonList("a"), "a");
+
+    List<Partition> result = underTest
+        .addPartitions(TABLE, asList(newPartition("a", "other"), newPartition("b", "b"), newPartition("c", "c")));
+
+    assertThat(values(result), is(asList("b", "c")));
+    assertThat(location("a"), is(new File(tableLocation, "a").toURI().toString()));
+    assertThat(hive.client().listPartitions(DATABASE, TABLE, (short) -1).size(), is(3));
+  }
+
+  private String location(String value) throws Exception {
+    return hive.client().getPartition(DATABASE, TABLE, singletonList(value)).getSd().getLocation();
+  }
+
+  private static NewPartition newPartition(String value, String location) {
+    return new NewPartition(singletonList(value), location, emptyMap());
+  }
+
+  private static List<String> values(List<Partition> partitions) {
+    return partitions.stream().map(partition -> partition.getValues().get(0)).collect(toList());
+  }
+}
@@ -15,11 +15,13 @@
  */
 package com.hotels.road.hive.metastore;
 
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -27,13 +29,16 @@ import static org.mockito.Mockito.verify;
 import java.net.URI;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 import org.junit.Before;
@@ -55,8 +60,8 @@ public class HivePartitionManagerTest {
   private @Mock IMetaStoreClient metaStoreClient;
   private @Mock HiveTableStrategy hiveTableStrategy;
   private @Mock LocationResolver locationResolver;
-  private @Mock Table table;
-  private @Mock Schema schema;
+  private final Table table = new Table();
+  private final Schema schema = SchemaBuilder.record("r").fields().requiredInt("id").endRecord();
   private @Mock Partition addedPartition;
   private @Mock Clock clock;
 
@@ -65,10 +70,12 @@ public class HivePartitionManagerTest {
   @Before
   public void before() {
     underTest = new HivePartitionManager(metaStoreClient, locationResolver, DATABASE, clock);
+    table.setSd(AvroStorageDescriptorFactory.create("table/location"));
   }
 
   @Test
   public void addPartition() throws Exception {
+    doReturn(table).when(metaStoreClient).getTable(DATABASE, TABLE);
     doReturn(addedPartition).when(metaStoreClient).add_partition(any());
     doReturn(URI.create("resolved/location")).when(locationResolver).resolveLocation(LOCATION, false);
     doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
@@ -82,12 +89,33 @@ public class HivePartitionManagerTest {
     assertThat(partition.getParameters().get("data-highway.version"), is(DataHighwayVersion.VERSION));
     assertThat(partition.getParameters().get("data-highway.last-revision"), is("2018-05-16T09:17:05Z"));
     assertThat(partition.getSd().getLocation(), is("resolved/location"));
+    assertThat(partition.getSd().getSerdeInfo().getSerializationLib(), is(AvroStorageDescriptorFactory.AVRO_SERDE));
+    assertThat(table.getSd().getLocation(), is("table/location"));
 
     assertThat(result, is(addedPartition));
   }
 
+  @Test
+  public void addPartition_takesTableFormat() throws Exception {
+    table.setSd(ParquetStorageDescriptorFactory.create("table/location", schema));
+    doReturn(table).when(metaStoreClient).getTable(DATABASE, TABLE);
+    doReturn(URI.create("resolved/location")).when(locationResolver).resolveLocation(LOCATION, false);
+    doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
+
+    underTest.addPartition(TABLE, PARTITION_VALUES, LOCATION);
+
+    ArgumentCaptor<Partition> captor = ArgumentCaptor.forClass(Partition.class);
+    verify(metaStoreClient).add_partition(captor.capture());
+
+    StorageDescriptor storageDescriptor = captor.getValue().getSd();
+    assertThat(storageDescriptor.getLocation(), is("resolved/location"));
+    assertThat(storageDescriptor.getInputFormat(), is(ParquetStorageDescriptorFactory.PARQUET_INPUT_FORMAT));
+    assertThat(storageDescriptor.getCols(), is(table.getSd().getCols()));
+  }
+
   @Test(expected = MetaStoreException.class)
   public void addPartition_shouldWrapTException() throws Exception {
+    doReturn(table).when(metaStoreClient).getTable(DATABASE, TABLE);
     doThrow(TException.class).when(metaStoreClient).add_partition(any());
     doReturn(URI.create("resolved/location")).when(locationResolver).resolveLocation(LOCATION, false);
     doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
@@ -97,6 +125,7 @@ public class HivePartitionManagerTest {
 
   @Test
   public void addPartition_shouldIgnoreAlreadyExistsException() throws Exception {
+    doReturn(table).when(metaStoreClient).getTable(DATABASE, TABLE);
     doThrow(AlreadyExistsException.class).when(metaStoreClient).add_partition(any());
     doReturn(URI.create("resolved/location")).when(locationResolver).resolveLocation(LOCATION, false);
     doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
@@ -106,6 +135,40 @@ public class HivePartitionManagerTest {
     assertThat(result.isPresent(), is(false));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void addPartitions() throws Exception {
+    doReturn(table).when(metaStoreClient).getTable(DATABASE, TABLE);
+    doReturn(singletonList(addedPartition)).when(metaStoreClient).add_partitions(any(), eq(true), eq(true));
+    doReturn(URI.create("resolved/location")).when(locationResolver).resolveLocation(LOCATION, false);
+    doReturn(URI.create("resolved/location2")).when(locationResolver).resolveLocation("location2", false);
+    doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
+
+    List<Partition> result = underTest.addPartitions(TABLE, Arrays.asList(
+        new NewPartition(PARTITION_VALUES, LOCATION, emptyMap()),
+        new NewPartition(singletonList("value2"), "location2", emptyMap())));
+
+    ArgumentCaptor<List<Partition>> captor = ArgumentCaptor.forClass(List.class);
+    verify(metaStoreClient).getTable(DATABASE, TABLE);
+    verify(metaStoreClient).add_partitions(captor.capture(), eq(true), eq(true));
+
+    List<Partition> partitions = captor.getValue();
+    assertThat(partitions.size(), is(2));
+    assertThat(partitions.get(0).getValues(), is(PARTITION_VALUES));
+    assertThat(partitions.get(0).getSd().getLocation(), is("resolved/location"));
+    assertThat(partitions.get(1).getValues(), is(singletonList("value2")));
+    assertThat(partitions.get(1).getSd().getLocation(), is("resolved/location2"));
+    assertThat(partitions.get(1).getParameters().get("data-highway.version"), is(DataHighwayVersion.VERSION));
+    assertThat(result, is(singletonList(addedPartition)));
+  }
+
+  @Test(expected = MetaStoreException.class)
+  public void addPartitions_shouldWrapTException() throws Exception {
+    doThrow(TException.class).when(metaStoreClient).getTable(DATABASE, TABLE);
+
+    underTest.addPartitions(TABLE, singletonList(new NewPartition(PARTITION_VALUES, LOCATION, emptyMap())));
+  }
+
   @Test
   public void dropPartition() throws Exception {
     underTest.dropPartition(TABLE, PARTITION_VALUES);
@@ -15,6 +15,8 @@
  */
 package com.hotels.road.hive.metastore;
 
+import static java.util.Collections.singletonMap;
+
 import static org.apache.hadoop.hive.metastore.api.PrincipalType.ROLE;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -30,6 +32,7 @@ import static org.mockito.Mockito.when;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 
 import org.apache.avro.Schema;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
@@ -60,6 +63,8 @@ public class HiveTableManagerTest {
   @Mock
   private HiveTableStrategy hiveTableStrategy;
   @Mock
+  private HiveTableStrategy parquetTableStrategy;
+  @Mock
   private LocationResolver locationResolver;
   @Mock
   private Table table;
@@ -71,7 +76,10 @@ public class HiveTableManagerTest {
   @Before
   public void before() throws URISyntaxException {
     location = new URI("location");
-    underTest = new HiveTableManager(metaStoreClient, hiveTableStrategy, locationResolver, DATABASE);
+    when(hiveTableStrategy.format()).thenReturn("avro");
+    when(parquetTableStrategy.format()).thenReturn("parquet");
+    underTest = new HiveTableManager(metaStoreClient, Arrays.asList(hiveTableStrategy, parquetTableStrategy),
+        locationResolver, DATABASE);
   }
 
   @Test
@@ -98,7 +106,7 @@ public class HiveTableManagerTest {
         hiveTableStrategy.newHiveTable(anyString(), anyString(), anyString(), anyString(), any(Schema.class), anyInt()))
             .thenReturn(table);
 
-    underTest.createTable(TABLE, PARTITION_COLUMN, schema, 1, "owner");
+    underTest.createTable(TABLE, PARTITION_COLUMN, schema, 1, "avro", "owner");
 
     verify(locationResolver).resolveLocation(DATABASE + "/" + TABLE, true);
     verify(hiveTableStrategy).newHiveTable(DATABASE, TABLE, PARTITION_COLUMN, location.toString(), schema, 1);
@@ -114,7 +122,7 @@ public class HiveTableManagerTest {
             .thenReturn(table);
     doThrow(TException.class).when(metaStoreClient).createTable(table);
 
-    underTest.createTable(TABLE, PARTITION_COLUMN, schema, 1, "owner");
+    underTest.createTable(TABLE, PARTITION_COLUMN, schema, 1, "avro", "owner");
   }
 
   @Test
@@ -122,17 +130,33 @@ public class HiveTableManagerTest {
     when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
     when(hiveTableStrategy.alterHiveTable(any(Table.class), any(Schema.class), anyInt())).thenReturn(table);
 
-    underTest.alterTable(TABLE, schema, 1);
+    underTest.alterTable(TABLE, schema, 1, "avro");
 
     verify(hiveTableStrategy).alterHiveTable(table, schema, 1);
     verify(metaStoreClient).alter_table(DATABASE, TABLE, table);
   }
 
+  @Test
+  public void alterTable_format() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+    when(parquetTableStrategy.alterHiveTable(any(Table.class), any(Schema.class), anyInt())).thenReturn(table);
+
+    underTest.alterTable(TABLE, schema, 1, "parquet");
+
+    verify(parquetTableStrategy).alterHiveTable(table, schema, 1);
+    verify(metaStoreClient).alter_table(DATABASE, TABLE, table);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createTable_unsupportedFormat() throws Exception {
+    underTest.createTable(TABLE, PARTITION_COLUMN, schema, 1, "orc", "owner");
+  }
+
   @Test(expected = MetaStoreException.class)
   public void alterTable_shouldWrapTException() throws Exception {
     doThrow(TException.class).when(metaStoreClient).alter_table(anyString(), anyString(), isNull());
 
-    underTest.alterTable(TABLE, schema, 1);
+    underTest.alterTable(TABLE, schema, 1, "avro");
   }
 
   @Test
@@ -145,6 +169,32 @@ public class HiveTableManagerTest {
     assertThat(result, is(1));
   }
 
+  @Test
+  public void getSchemaVersion_format() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+    when(table.getParameters()).thenReturn(singletonMap(HiveTableStrategy.FORMAT, "parquet"));
+    when(parquetTableStrategy.getSchemaVersion(table)).thenReturn(2);
+
+    int result = underTest.getSchemaVersion(TABLE);
+
+    assertThat(result, is(2));
+  }
+
+  @Test
+  public void getFormat() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+    when(table.getParameters()).thenReturn(singletonMap(HiveTableStrategy.FORMAT, "parquet"));
+
+    assertThat(underTest.getFormat(TABLE), is("parquet"));
+  }
+
+  @Test
+  public void getFormat_predatesFormat() throws Exception {
+    when(metaStoreClient.getTable(DATABASE, TABLE)).thenReturn(table);
+
+    assertThat(underTest.getFormat(TABLE), is("avro"));
+  }
+
   @Test(expected = MetaStoreException.class)
   public void getSchemaVersion_shouldWrapTException() throws Exception {
     doThrow(TException.class).when(metaStoreClient).getTable(DATABASE, TABLE);
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.hive.metastore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ParquetHiveTableStrategyTest {
+  private static final String DATABASE = "database";
+  private static final String TABLE = "table";
+  private static final String PARTITION_COLUMN = "partition_column";
+  private static final String LOCATION = "location";
+  private static final URI SCHEMA_URI = URI
+      .create("https://s3.amazonaws.com/road-schema-bucket/roads/table/schemas/1/table_v1.avsc");
+
+  private @Mock SchemaUriResolver uriResolver;
+  private @Mock Clock clock;
+
+  private final Schema schema = SchemaBuilder
+      .record("my_schema")
+      .fields()
+      .requiredLong("id")
+      .optionalString("name")
+      .name("tags")
+      .type()
+      .array()
+      .items()
+      .stringType()
+      .noDefault()
+      .name("counts")
+      .type()
+      .map()
+      .values()
+      .intType()
+      .noDefault()
+      .name("choice")
+      .type()
+      .unionOf()
+      .nullType()
+      .and()
+      .intType()
+      .and()
+      .stringType()
+      .endUnion()
+      .nullDefault()
+      .name("inner")
+      .type()
+      .record("inner")
+      .fields()
+      .requiredDouble("x")
+      .requiredBytes("y")
+      .endRecord()
+      .noDefault()
+      .endRecord();
+
+  private HiveTableStrategy underTest;
+
+  @Before
+  public void before() {
+    underTest = new ParquetHiveTableStrategy(uriResolver, clock);
+  }
+
+  @Test
+  public void newHiveTable() {
+    when(uriResolver.resolve(schema, TABLE, 1)).thenReturn(SCHEMA_URI);
+    doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
+
+    Table result = underTest.newHiveTable(DATABASE, TABLE, PARTITION_COLUMN, LOCATION, schema, 1);
+
+    Map<String, String> parameters = result.getParameters();
+    assertThat(parameters.get(HiveTableStrategy.FORMAT), is("parquet"));
+    assertThat(parameters.get(AvroHiveTableStrategy.AVRO_SCHEMA_URL), is(SCHEMA_URI.toString()));
+    assertThat(parameters.get(AvroHiveTableStrategy.AVRO_SCHEMA_VERSION), is("1"));
+    assertThat(result.getPartitionKeys(), is(Arrays.asList(new FieldSchema(PARTITION_COLUMN, "string", null))));
+    StorageDescriptor storageDescriptor = result.getSd();
+    assertThat(storageDescriptor.getInputFormat(), is(ParquetStorageDescriptorFactory.PARQUET_INPUT_FORMAT));
+    assertThat(storageDescriptor.getOutputFormat(), is(ParquetStorageDescriptorFactory.PARQUET_OUTPUT_FORMAT));
+    assertThat(storageDescriptor.getSerdeInfo().getSerializationLib(),
+        is(ParquetStorageDescriptorFactory.PARQUET_SERDE));
+    assertThat(storageDescriptor.getLocation(), is(LOCATION));
+    assertThat(storageDescriptor.getCols(), is(Arrays.asList(
+        new FieldSchema("id", "bigint", null),
+        new FieldSchema("name", "string", null),
+        new FieldSchema("tags", "array<string>", null),
+        new FieldSchema("counts", "map<string,int>", null),
+        new FieldSchema("choice", "struct<member0:int,member1:string>", null),
+        new FieldSchema("inner", "struct<x:double,y:binary>", null))));
+  }
+
+  @Test
+  public void alterAvroHiveTable() {
+    when(uriResolver.resolve(schema, TABLE, 1)).thenReturn(SCHEMA_URI);
+    doReturn(Instant.ofEpochSecond(1526462225L)).when(clock).instant();
+    Table table = new AvroHiveTableStrategy(uriResolver, clock)
+        .newHiveTable(DATABASE, TABLE, PARTITION_COLUMN, LOCATION, schema, 1);
+
+    Table result = underTest.alterHiveTable(table, schema, 1);
+
+    assertThat(result.getParameters().get(HiveTableStrategy.FORMAT), is("parquet"));
+    assertThat(result.getSd().getSerdeInfo().getSerializationLib(), is(ParquetStorageDescriptorFactory.PARQUET_SERDE));
+    assertThat(result.getSd().getLocation(), is(LOCATION));
+    assertThat(result.getSd().getCols().size(), is(6));
+    assertThat(table.getSd().getSerdeInfo().getSerializationLib(), is(AvroStorageDescriptorFactory.AVRO_SERDE));
+  }
+
+  @Test
+  public void logicalTypes() {
+    Schema decimal = LogicalTypes.decimal(10, 2).addToSchema(Schema.create(Schema.Type.BYTES));
+    Schema date = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+    Schema pii = new LogicalType("pii-string").addToSchema(Schema.create(Schema.Type.STRING));
+
+    assertThat(ParquetStorageDescriptorFactory.typeName(decimal), is("decimal(10,2)"));
+    assertThat(ParquetStorageDescriptorFactory.typeName(date), is("date"));
+    assertThat(ParquetStorageDescriptorFactory.typeName(pii), is("string"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullField() {
+    ParquetStorageDescriptorFactory.typeName(Schema.create(Schema.Type.NULL));
+  }
+}
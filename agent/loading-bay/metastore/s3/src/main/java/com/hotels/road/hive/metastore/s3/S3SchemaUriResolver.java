@@ -22,6 +22,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.avro.Schema;
 import org.apache.commons.lang.StringUtils;
@@ -35,37 +37,43 @@ import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
 
 import com.hotels.road.hive.metastore.MetaStoreException;
 import com.hotels.road.hive.metastore.SchemaUriResolver;
 
 /**
  * Stores {@link Schema Schemas} in S3 so that they can be retrieved by Hive's {@code AvroSerDe} using the
- * {@code avro.schema.url} table/partition parameter.
+ * {@code avro.schema.url} table/partition parameter. Schema files are content-addressed: the key ends in the SHA-256 of
+ * the file, so a file once written never changes and is only uploaded if it is not already in S3.
  */
 public class S3SchemaUriResolver implements SchemaUriResolver {
 
   @VisibleForTesting
   static final String S3_URI_FORMAT = "s3://%s/%s";
 
+  private final AmazonS3 s3Client;
   private final TransferManager transferManager;
   private final String uriFormat;
   private final String bucket;
   private final String keyPrefix;
   private final boolean enableServerSideEncryption;
+  private final Set<String> storedKeys = ConcurrentHashMap.newKeySet();
 
   public S3SchemaUriResolver(AmazonS3 s3Client, String bucket, String keyPrefix, boolean enableServerSideEncryption) {
-    this(TransferManagerBuilder.standard().withS3Client(s3Client).build(), S3_URI_FORMAT, bucket, keyPrefix,
+    this(s3Client, TransferManagerBuilder.standard().withS3Client(s3Client).build(), S3_URI_FORMAT, bucket, keyPrefix,
         enableServerSideEncryption);
   }
 
   @VisibleForTesting
   S3SchemaUriResolver(
+      AmazonS3 s3Client,
       TransferManager transferManager,
       String uriFormat,
       String bucket,
       String keyPrefix,
       boolean enableServerSideEncryption) {
+    this.s3Client = s3Client;
     this.transferManager = transferManager;
     this.uriFormat = uriFormat;
     this.bucket = bucket;
@@ -76,12 +84,31 @@ public class S3SchemaUriResolver implements SchemaUriResolver {
   /**
    * Stores the {@link Schema} in S3, returning a {@link URI} to the created resource. The {@link URI} uses the
    * {@code s3://} scheme and is intended to be navigated by the S3 {@link FileSystem} implementations. Blocks until the
-   * schema has been uploaded, providing read-after-write consistency.
+   * schema has been uploaded, providing read-after-write consistency. Schemas already stored by this resolver are not
+   * checked again, and on first use a schema already in S3 is only checked for, not written.
    */
   @Override
   public URI resolve(Schema schema, String road, int version) {
-    String key = newKey(road, version);
     byte[] bytes = schema.toString().getBytes(Charsets.UTF_8);
+    String key = newKey(road, version, fingerprint(bytes));
+    if (!storedKeys.contains(key)) {
+      if (!exists(key)) {
+        upload(key, bytes);
+      }
+      storedKeys.add(key);
+    }
+    return newS3Uri(key);
+  }
+
+  private boolean exists(String key) {
+    try {
+      return s3Client.doesObjectExist(bucket, key);
+    } catch (AmazonClientException e) {
+      throw new MetaStoreException(String.format("Error checking for schema: bucket='%s', key='%s'", bucket, key), e);
+    }
+  }
+
+  private void upload(String key, byte[] bytes) {
     ObjectMetadata objectMetadata = new ObjectMetadata();
     objectMetadata.setContentLength(bytes.length);
     if (enableServerSideEncryption) {
@@ -95,11 +122,15 @@ public class S3SchemaUriResolver implements SchemaUriResolver {
     } catch (AmazonClientException | InterruptedException e) {
       throw new MetaStoreException(String.format("Error uploading schema: bucket='%s', key='%s'", bucket, key), e);
     }
-    return newS3Uri(key);
   }
 
   @VisibleForTesting
-  String newKey(String road, int version) {
+  static String fingerprint(byte[] bytes) {
+    return Hashing.sha256().hashBytes(bytes).toString();
+  }
+
+  @VisibleForTesting
+  String newKey(String road, int version, String fingerprint) {
     List<String> elements = new ArrayList<>();
     if (StringUtils.isNotBlank(keyPrefix)) {
       elements.add(keyPrefix);
@@ -108,7 +139,7 @@ public class S3SchemaUriResolver implements SchemaUriResolver {
     elements.add(road);
     elements.add("schemas");
     elements.add(Integer.toString(version));
-    elements.add(road + "_v" + version + ".avsc");
+    elements.add(road + "_v" + version + "_" + fingerprint + ".avsc");
     String key = String.join("/", elements);
     return key;
   }
@@ -20,7 +20,10 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
@@ -42,6 +45,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
@@ -57,7 +61,12 @@ public class S3SchemaUriResolverTest {
   private static final String ROAD = "road";
   private static final String PREFIX = "prefix";
   private static final String BUCKET = "bucket";
+  private static final String FINGERPRINT = S3SchemaUriResolver
+      .fingerprint(SCHEMA.toString().getBytes(Charsets.UTF_8));
+  private static final String KEY = "prefix/roads/road/schemas/1/road_v1_" + FINGERPRINT + ".avsc";
 
+  @Mock
+  private AmazonS3 s3Client;
   @Mock
   private TransferManager transferManager;
   @Mock
@@ -71,7 +80,8 @@ public class S3SchemaUriResolverTest {
 
   @Before
   public void injectMocks() {
-    uriResolver = new S3SchemaUriResolver(transferManager, S3SchemaUriResolver.S3_URI_FORMAT, BUCKET, PREFIX, false);
+    uriResolver = new S3SchemaUriResolver(s3Client, transferManager, S3SchemaUriResolver.S3_URI_FORMAT, BUCKET, PREFIX,
+        false);
   }
 
   @Test
@@ -81,8 +91,8 @@ public class S3SchemaUriResolverTest {
 
     URI schemaUri = uriResolver.resolve(SCHEMA, ROAD, VERSION);
 
-    verify(transferManager).upload(eq(BUCKET), eq("prefix/roads/road/schemas/1/road_v1.avsc"), uploadCaptor.capture(),
-        metadataCaptor.capture());
+    verify(s3Client).doesObjectExist(BUCKET, KEY);
+    verify(transferManager).upload(eq(BUCKET), eq(KEY), uploadCaptor.capture(), metadataCaptor.capture());
     verify(upload).waitForCompletion();
 
     InputStream uploadStream = uploadCaptor.getValue();
@@ -94,7 +104,70 @@ public class S3SchemaUriResolverTest {
     ObjectMetadata objectMetadata = metadataCaptor.getValue();
     assertThat((int) objectMetadata.getContentLength(), is(out.toByteArray().length));
 
-    assertThat(schemaUri, is(new URI("s3://bucket/prefix/roads/road/schemas/1/road_v1.avsc")));
+    assertThat(schemaUri, is(new URI("s3://bucket/" + KEY)));
+  }
+
+  @Test
+  public void resolveStoredSchemaAgain() throws Exception {
+    when(transferManager.upload(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+        .thenReturn(upload);
+    uriResolver.resolve(SCHEMA, ROAD, VERSION);
+
+    URI schemaUri = uriResolver.resolve(SchemaBuilder.record("record").fields().requiredLong("id").endRecord(), ROAD,
+        VERSION);
+
+    verify(s3Client, times(1)).doesObjectExist(BUCKET, KEY);
+    verify(transferManager, times(1))
+        .upload(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+    assertThat(schemaUri, is(new URI("s3://bucket/" + KEY)));
+  }
+
+  @Test
+  public void resolveSchemaAlreadyInS3() throws Exception {
+    when(s3Client.doesObjectExist(BUCKET, KEY)).thenReturn(true);
+
+    URI schemaUri = uriResolver.resolve(SCHEMA, ROAD, VERSION);
+    uriResolver.resolve(SCHEMA, ROAD, VERSION);
+
+    verify(s3Client, times(1)).doesObjectExist(BUCKET, KEY);
+    verifyZeroInteractions(transferManager);
+    assertThat(schemaUri, is(new URI("s3://bucket/" + KEY)));
+  }
+
+  @Test
+  public void resolveChangedSchema() throws Exception {
+    when(transferManager.upload(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+        .thenReturn(upload);
+    Schema changed = SchemaBuilder.record("record").fields().requiredLong("id").optionalString("name").endRecord();
+
+    URI first = uriResolver.resolve(SCHEMA, ROAD, VERSION);
+    URI second = uriResolver.resolve(changed, ROAD, VERSION);
+
+    verify(transferManager, times(2))
+        .upload(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+    assertThat(first.equals(second), is(false));
+  }
+
+  @Test
+  public void repeatedInspectionsOfManyRoadsDoNotWrite() throws Exception {
+    when(s3Client.doesObjectExist(anyString(), anyString())).thenReturn(true);
+
+    for (int inspection = 0; inspection < 3; inspection++) {
+      for (int road = 0; road < 1000; road++) {
+        uriResolver.resolve(SCHEMA, ROAD + road, VERSION);
+      }
+    }
+
+    verify(s3Client, times(1000)).doesObjectExist(anyString(), anyString());
+    verify(transferManager, never())
+        .upload(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+  }
+
+  @Test(expected = MetaStoreException.class)
+  public void resolveAmazonClientExceptionOnExists() throws Exception {
+    when(s3Client.doesObjectExist(BUCKET, KEY)).thenThrow(AmazonClientException.class);
+
+    uriResolver.resolve(SCHEMA, ROAD, VERSION);
   }
 
   @Test(expected = MetaStoreException.class)
@@ -131,16 +204,23 @@ public class S3SchemaUriResolverTest {
 
   @Test
   public void newKey() {
-    String key = uriResolver.newKey(ROAD, VERSION);
-    assertThat(key, is("prefix/roads/road/schemas/1/road_v1.avsc"));
+    String key = uriResolver.newKey(ROAD, VERSION, "abc");
+    assertThat(key, is("prefix/roads/road/schemas/1/road_v1_abc.avsc"));
   }
 
   @Test
   public void newKeyNoPrefix() {
-    uriResolver = new S3SchemaUriResolver(transferManager, S3SchemaUriResolver.S3_URI_FORMAT, BUCKET, null, false);
+    uriResolver = new S3SchemaUriResolver(s3Client, transferManager, S3SchemaUriResolver.S3_URI_FORMAT, BUCKET, null,
+        false);
+
+    String key = uriResolver.newKey(ROAD, VERSION, "abc");
+    assertThat(key, is("roads/road/schemas/1/road_v1_abc.avsc"));
+  }
 
-    String key = uriResolver.newKey(ROAD, VERSION);
-    assertThat(key, is("roads/road/schemas/1/road_v1.avsc"));
+  @Test
+  public void fingerprint() {
+    assertThat(S3SchemaUriResolver.fingerprint("{}".getBytes(Charsets.UTF_8)),
+        is("44136fa355b3678a1146ad16f7e8649e94fb4fc21fe77e8310c060f61caaff8a"));
   }
 
   @Test
@@ -151,7 +231,7 @@ public class S3SchemaUriResolverTest {
 
   @Test(expected = MetaStoreException.class)
   public void newS3UriException() throws URISyntaxException {
-    uriResolver = new S3SchemaUriResolver(transferManager, "NOT_VALID_URI:{{}", BUCKET, null, false);
+    uriResolver = new S3SchemaUriResolver(s3Client, transferManager, "NOT_VALID_URI:{{}", BUCKET, null, false);
     uriResolver.newS3Uri("x");
   }
 
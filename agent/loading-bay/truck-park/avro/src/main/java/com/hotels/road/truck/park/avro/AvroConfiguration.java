@@ -19,10 +19,13 @@ import static org.apache.avro.file.CodecFactory.DEFAULT_DEFLATE_LEVEL;
 import static org.apache.avro.file.CodecFactory.DEFAULT_XZ_LEVEL;
 import static org.apache.avro.file.DataFileConstants.DEFLATE_CODEC;
 import static org.apache.avro.file.DataFileConstants.XZ_CODEC;
+import static org.apache.avro.file.ZstandardCodec.DEFAULT_ZSTANDARD_LEVEL;
+import static org.apache.avro.file.ZstandardCodec.ZSTANDARD_CODEC;
 
 import java.util.Optional;
 
 import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.ZstandardCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -41,6 +44,8 @@ public class AvroConfiguration {
       return CodecFactory.deflateCodec(level(compressionLevel, DEFAULT_DEFLATE_LEVEL));
     case XZ_CODEC:
       return CodecFactory.xzCodec(level(compressionLevel, DEFAULT_XZ_LEVEL));
+    case ZSTANDARD_CODEC:
+      return ZstandardCodec.zstandardCodec(level(compressionLevel, DEFAULT_ZSTANDARD_LEVEL));
     default:
       return CodecFactory.fromString(codecName);
     }
@@ -24,6 +24,7 @@ import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import com.hotels.road.truck.park.spi.RecordWriter;
@@ -53,6 +54,7 @@ public class AvroRecordWriter implements RecordWriter {
   }
 
   @Component
+  @ConditionalOnProperty(name = "writer.format", havingValue = "avro", matchIfMissing = true)
   public static class Factory implements RecordWriter.Factory {
     private final CodecFactory codecFactory;
 
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * A zstandard {@link Codec} for Avro 1.8, which does not have one. It writes the same blocks as the {@code zstandard}
+ * codec of Avro 1.9, so readers on Avro 1.9 or later can read the files. The class is in Avro's package because
+ * {@link Codec} is package private before 1.9. Loading this class registers the codec with {@link CodecFactory}.
+ */
+public class ZstandardCodec extends Codec {
+  public static final String ZSTANDARD_CODEC = "zstandard";
+  public static final int DEFAULT_ZSTANDARD_LEVEL = 3;
+  private static final int BUFFER_SIZE = 8192;
+
+  static {
+    CodecFactory.addCodec(ZSTANDARD_CODEC, zstandardCodec(DEFAULT_ZSTANDARD_LEVEL));
+  }
+
+  private final int level;
+
+  ZstandardCodec(int level) {
+    this.level = level;
+  }
+
+  public static CodecFactory zstandardCodec(int level) {
+    return new Option(level);
+  }
+
+  @Override
+  public String getName() {
+    return ZSTANDARD_CODEC;
+  }
+
+  @Override
+  public ByteBuffer compress(ByteBuffer data) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(data.remaining());
+    try (OutputStream zstd = new ZstdOutputStream(output, level)) {
+      zstd.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+    }
+    return ByteBuffer.wrap(output.toByteArray());
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(data.remaining() * 2);
+    InputStream input = new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(), data.remaining());
+    try (InputStream zstd = new ZstdInputStream(input)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = zstd.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+    return ByteBuffer.wrap(output.toByteArray());
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || other != null && getClass() == other.getClass() && level == ((ZstandardCodec) other).level;
+  }
+
+  @Override
+  public int hashCode() {
+    return level;
+  }
+
+  static class Option extends CodecFactory {
+    private final int level;
+
+    Option(int level) {
+      this.level = level;
+    }
+
+    @Override
+    protected Codec createInstance() {
+      return new ZstandardCodec(level);
+    }
+
+    @Override
+    public String toString() {
+      return ZSTANDARD_CODEC + "-" + level;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.avro;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the codecs that truck park can land Avro files with. Each operation writes the same batch of generated
+ * records through an {@link AvroRecordWriter}, and the {@code megabytes} counter reports the uncompressed throughput in
+ * MB/s. The records come from a fixed seed so that every run compresses the same data. {@link #main(String[])} prints
+ * the compression ratio of each codec before running the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvroCodecBenchmark {
+  private static final int RECORDS = 10_000;
+  private static final long SEED = 42L;
+  private static final String[] CATEGORIES = { "search", "booking", "payment", "review", "cancellation" };
+  private static final String[] WORDS = { "hotel", "room", "night", "guest", "city", "beach", "pool", "breakfast",
+      "parking", "wifi", "suite", "view", "late", "checkout", "family", "business" };
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("event")
+      .fields()
+      .requiredString("id")
+      .requiredLong("timestamp")
+      .requiredString("category")
+      .requiredInt("hotelId")
+      .requiredDouble("price")
+      .requiredBoolean("member")
+      .requiredString("description")
+      .name("tags")
+      .type()
+      .array()
+      .items()
+      .stringType()
+      .noDefault()
+      .endRecord();
+
+  @Param({ "null", "deflate:1", "deflate:3", "deflate:6", "snappy", "bzip2", "xz:3", "zstandard:1", "zstandard:3",
+      "zstandard:9" })
+  public String codec;
+
+  private List<Record> records;
+  private CodecFactory codecFactory;
+  private double uncompressedMegabytes;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Throughput {
+    public double megabytes;
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    records = records();
+    codecFactory = codecFactory(codec);
+    uncompressedMegabytes = write(records, codecFactory("null")) / 1_000_000.0;
+  }
+
+  @Setup(Level.Iteration)
+  public void reset(Throughput throughput) {
+    throughput.megabytes = 0;
+  }
+
+  @Benchmark
+  public long write(Throughput throughput) throws IOException {
+    long bytes = write(records, codecFactory);
+    throughput.megabytes += uncompressedMegabytes;
+    return bytes;
+  }
+
+  static List<Record> records() {
+    Random random = new Random(SEED);
+    long timestamp = 1_546_300_800_000L;
+    List<Record> records = new ArrayList<>(RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      timestamp += random.nextInt(1000);
+      StringBuilder description = new StringBuilder();
+      for (int j = random.nextInt(20) + 5; j > 0; j--) {
+        description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+      }
+      List<String> tags = new ArrayList<>();
+      for (int j = random.nextInt(4); j > 0; j--) {
+        tags.add(WORDS[random.nextInt(WORDS.length)]);
+      }
+      records.add(new GenericRecordBuilder(SCHEMA)
+          .set("id", new UUID(random.nextLong(), random.nextLong()).toString())
+          .set("timestamp", timestamp)
+          .set("category", CATEGORIES[random.nextInt(CATEGORIES.length)])
+          .set("hotelId", random.nextInt(100_000))
+          .set("price", Math.round(random.nextDouble() * 50_000) / 100.0)
+          .set("member", random.nextBoolean())
+          .set("description", description.toString())
+          .set("tags", tags)
+          .build());
+    }
+    return records;
+  }
+
+  static CodecFactory codecFactory(String codec) {
+    String[] nameAndLevel = codec.split(":");
+    return new AvroConfiguration().codecFactory(nameAndLevel[0], nameAndLevel.length > 1 ? nameAndLevel[1] : null);
+  }
+
+  static long write(List<Record> records, CodecFactory codecFactory) throws IOException {
+    CountingOutputStream output = new CountingOutputStream();
+    try (AvroRecordWriter writer = new AvroRecordWriter(SCHEMA, output, codecFactory)) {
+      for (Record record : records) {
+        writer.write(record);
+      }
+    }
+    return output.count;
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<Record> records = records();
+    long uncompressed = write(records, codecFactory("null"));
+    String[] codecs = AvroCodecBenchmark.class.getField("codec").getAnnotation(Param.class).value();
+    System.out.println(String.format("%-12s %12s %8s", "codec", "bytes", "ratio"));
+    for (String codec : codecs) {
+      long compressed = write(records, codecFactory(codec));
+      System.out.println(String.format("%-12s %12d %8.2f", codec, compressed, (double) uncompressed / compressed));
+    }
+    new Runner(new OptionsBuilder().include(AvroCodecBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.avro;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.apache.avro.file.CodecFactory;
+import org.junit.Test;
+
+public class AvroConfigurationTest {
+  private final AvroConfiguration underTest = new AvroConfiguration();
+
+  @Test
+  public void deflate() throws Exception {
+    assertThat(underTest.codecFactory("deflate", "3").toString(), is(CodecFactory.deflateCodec(3).toString()));
+  }
+
+  @Test
+  public void zstandard() throws Exception {
+    assertThat(underTest.codecFactory("zstandard", "19").toString(), is("zstandard-19"));
+  }
+
+  @Test
+  public void snappy() throws Exception {
+    assertThat(underTest.codecFactory("snappy", "3").toString(), is("snappy"));
+  }
+
+  @Test
+  public void bzip2() throws Exception {
+    assertThat(underTest.codecFactory("bzip2", "3").toString(), is("bzip2"));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void invalidLevel() throws Exception {
+    underTest.codecFactory("xz", "high");
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.Test;
+
+public class ZstandardCodecTest {
+
+  @Test
+  public void roundTrip() throws Exception {
+    byte[] data = "hello hello hello hello".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(data.length + 4);
+    buffer.position(2);
+    buffer.put(data);
+    buffer.position(2);
+    buffer.limit(2 + data.length);
+    ZstandardCodec codec = new ZstandardCodec(3);
+
+    ByteBuffer result = codec.decompress(codec.compress(buffer.slice()));
+
+    assertThat(result, is(ByteBuffer.wrap(data)));
+  }
+
+  @Test
+  public void dataFile() throws Exception {
+    Schema schema = SchemaBuilder.record("record").fields().requiredLong("id").requiredString("name").endRecord();
+    Record value = new GenericRecordBuilder(schema).set("id", 1L).set("name", "hello").build();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (DataFileWriter<Record> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      writer.setCodec(ZstandardCodec.zstandardCodec(9));
+      writer.create(schema, output);
+      writer.append(value);
+    }
+
+    try (DataFileReader<Record> reader = new DataFileReader<>(new SeekableByteArrayInput(output.toByteArray()),
+        new GenericDatumReader<>(schema))) {
+      assertThat(reader.getMetaString(DataFileConstants.CODEC), is("zstandard"));
+      assertThat(reader.next(), is(value));
+      assertThat(reader.hasNext(), is(false));
+    }
+  }
+
+  @Test
+  public void registered() throws Exception {
+    assertThat(ZstandardCodec.zstandardCodec(3).toString(), is("zstandard-3"));
+    assertThat(CodecFactory.fromString("zstandard").createInstance(), is(new ZstandardCodec(3)));
+  }
+}
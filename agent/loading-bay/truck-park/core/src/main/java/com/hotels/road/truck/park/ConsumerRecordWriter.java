@@ -15,9 +15,12 @@
  */
 package com.hotels.road.truck.park;
 
+import static java.lang.Math.max;
+
+import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongConsumer;
 import java.util.function.Supplier;
@@ -37,12 +40,14 @@ import com.hotels.road.truck.park.spi.AbortableOutputStreamFactory;
 import com.hotels.road.truck.park.spi.RecordWriter;
 import com.hotels.road.truck.park.spi.Writer;
 
-@Component
-@lombok.RequiredArgsConstructor
-class ConsumerRecordWriter implements Writer<ConsumerRecord<Void, Record>> {
+/**
+ * Writes records to one open file per schema version. Writers are held in a table indexed by the version from the
+ * message header so that finding the writer for a record does not hash its {@link Schema}.
+ */
+class ConsumerRecordWriter implements Flushable, Closeable {
 
   private static final long ZERO = 0L;
-  private final Map<Schema, Writer<Record>> writers;
+  private static final int INITIAL_VERSIONS = 8;
   private final Supplier<String> keySupplier;
   private final RecordWriter.Factory recordWriterFactory;
   private final AbortableOutputStreamFactory outputStreamFactory;
@@ -52,21 +57,39 @@ class ConsumerRecordWriter implements Writer<ConsumerRecord<Void, Record>> {
   private final AtomicLong byteCounter = new AtomicLong(ZERO);
   @lombok.Getter
   private final AtomicLong recordCounter = new AtomicLong(ZERO);
+  @SuppressWarnings("unchecked")
+  private Writer<Record>[] writers = new Writer[INITIAL_VERSIONS];
+  private AbortableOutputStream[] outputs = new AbortableOutputStream[INITIAL_VERSIONS];
+  @lombok.Getter(lombok.AccessLevel.PACKAGE)
+  private int openWriters = 0;
 
-  @Autowired
   ConsumerRecordWriter(
       Supplier<String> keySupplier,
       RecordWriter.Factory recordWriterFactory,
       AbortableOutputStreamFactory outputStreamFactory,
-      @Value("${writer.flushBytesThreshold:134217728}") long flushBytesThreshold,
+      long flushBytesThreshold,
       Metrics metrics) {
-    this(new HashMap<>(), keySupplier, recordWriterFactory, outputStreamFactory, flushBytesThreshold, metrics);
+    this.keySupplier = keySupplier;
+    this.recordWriterFactory = recordWriterFactory;
+    this.outputStreamFactory = outputStreamFactory;
+    this.flushBytesThreshold = flushBytesThreshold;
+    this.metrics = metrics;
   }
 
-  @Override
-  public void write(ConsumerRecord<Void, Record> record) throws IOException {
-    Schema schema = record.value().getSchema();
-    writers.computeIfAbsent(schema, this::newRecordWriter).write(record.value());
+  public void write(int schemaVersion, ConsumerRecord<Void, Record> record) throws IOException {
+    if (schemaVersion >= writers.length) {
+      writers = Arrays.copyOf(writers, max(schemaVersion + 1, writers.length * 2));
+      outputs = Arrays.copyOf(outputs, writers.length);
+    }
+    Writer<Record> writer = writers[schemaVersion];
+    if (writer == null) {
+      AbortableOutputStream output = newOutputStream();
+      writer = newRecordWriter(record.value().getSchema(), output);
+      writers[schemaVersion] = writer;
+      outputs[schemaVersion] = output;
+      openWriters++;
+    }
+    writer.write(record.value());
     recordCounter.getAndIncrement();
     metrics.consumedBytes(record.serializedValueSize());
     metrics.offsetHighwaterMark(record.partition(), record.offset());
@@ -82,23 +105,62 @@ class ConsumerRecordWriter implements Writer<ConsumerRecord<Void, Record>> {
 
   @Override
   public void flush() throws IOException {
-    for (Writer<Record> writer : writers.values()) {
-      writer.close();
+    for (int i = 0; i < writers.length; i++) {
+      if (writers[i] != null) {
+        writers[i].close();
+        writers[i] = null;
+        outputs[i] = null;
+        openWriters--;
+      }
     }
-    writers.clear();
     metrics.uploadedBytes(byteCounter.getAndSet(ZERO));
     metrics.uploadedEvents(recordCounter.getAndSet(ZERO));
   }
 
+  /**
+   * Abandons every open file without completing it. Each output is aborted even if an earlier one fails, the first
+   * failure being rethrown with the others suppressed.
+   */
+  void abort() throws IOException {
+    IOException failure = null;
+    for (int i = 0; i < writers.length; i++) {
+      if (writers[i] != null) {
+        try {
+          outputs[i].abort();
+        } catch (IOException | RuntimeException e) {
+          if (failure == null) {
+            failure = new IOException("Error aborting output.", e);
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+        writers[i] = null;
+        outputs[i] = null;
+        openWriters--;
+      }
+    }
+    byteCounter.set(ZERO);
+    recordCounter.set(ZERO);
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
   @VisibleForTesting
   Writer<Record> newRecordWriter(Schema schema) {
+    return newRecordWriter(schema, newOutputStream());
+  }
+
+  private AbortableOutputStream newOutputStream() {
     String key = keySupplier.get();
-    AbortableOutputStream outputStream;
     try {
-      outputStream = outputStreamFactory.create(key);
+      return outputStreamFactory.create(key);
     } catch (IOException e) {
       throw new RuntimeException("Error creating output.", e);
     }
+  }
+
+  private Writer<Record> newRecordWriter(Schema schema, AbortableOutputStream outputStream) {
     LongConsumer consumer = x -> byteCounter.getAndAdd(x);
     ConsumerCountOutputStream output = new ConsumerCountOutputStream(outputStream, consumer);
     try {
@@ -108,4 +170,35 @@ class ConsumerRecordWriter implements Writer<ConsumerRecord<Void, Record>> {
     }
   }
 
+  /**
+   * Creates writers that each own their output files, so that workers landing in parallel never share a stream.
+   */
+  @Component
+  static class Factory {
+    private final Supplier<String> keySupplier;
+    private final RecordWriter.Factory recordWriterFactory;
+    private final AbortableOutputStreamFactory outputStreamFactory;
+    private final long flushBytesThreshold;
+    private final Metrics metrics;
+
+    @Autowired
+    Factory(
+        Supplier<String> keySupplier,
+        RecordWriter.Factory recordWriterFactory,
+        AbortableOutputStreamFactory outputStreamFactory,
+        @Value("${writer.flushBytesThreshold:134217728}") long flushBytesThreshold,
+        Metrics metrics) {
+      this.keySupplier = keySupplier;
+      this.recordWriterFactory = recordWriterFactory;
+      this.outputStreamFactory = outputStreamFactory;
+      this.flushBytesThreshold = flushBytesThreshold;
+      this.metrics = metrics;
+    }
+
+    ConsumerRecordWriter create() {
+      return new ConsumerRecordWriter(keySupplier, recordWriterFactory, outputStreamFactory, flushBytesThreshold,
+          metrics);
+    }
+  }
+
 }
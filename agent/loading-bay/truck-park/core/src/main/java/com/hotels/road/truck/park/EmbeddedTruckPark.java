@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park;
+
+import java.util.Map;
+
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Lands within the calling JVM instead of as a truck-park application. Each landing builds its own context, and with it
+ * its own Kafka consumer, S3 client, writers and metrics, from the given properties. The context is deliberately not a
+ * Spring Boot application so that it neither reads the host's configuration files nor reconfigures its logging.
+ */
+public final class EmbeddedTruckPark {
+  private static final String PROPERTY_SOURCE = "landing";
+
+  private EmbeddedTruckPark() {}
+
+  /**
+   * Lands the offsets described by {@code properties}, which take the same keys as the truck-park application's
+   * arguments. Returns once all records are written, or throws if the landing fails or the thread is interrupted.
+   */
+  public static void land(Map<String, Object> properties) throws Exception {
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+      context.getEnvironment().getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE, properties));
+      context.scan(EmbeddedTruckPark.class.getPackage().getName());
+      context.refresh();
+      context.getBean(TruckPark.class).run(new DefaultApplicationArguments(new String[0]));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park;
+
+import static org.apache.kafka.clients.consumer.ConsumerRecord.NULL_CHECKSUM;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import com.hotels.road.truck.park.metrics.Metrics;
+import com.hotels.road.truck.park.spi.RecordDecoder;
+
+/**
+ * Decodes and writes the records of one group of partitions. Batches are handed over from the polling thread through a
+ * bounded queue so that a slow worker holds back the poll loop rather than buffering without limit.
+ */
+@Slf4j
+class LandingWorker implements Callable<Void> {
+  /** Marks the end of input; compared by identity. */
+  private static final List<ConsumerRecord<Void, byte[]>> END = new ArrayList<>();
+
+  private final @Getter int id;
+  private final BlockingQueue<List<ConsumerRecord<Void, byte[]>>> queue;
+  private final RecordDecoder decoder;
+  private final @Getter ConsumerRecordWriter writer;
+  private final Metrics metrics;
+
+  LandingWorker(
+      int id,
+      int queueSize,
+      RecordDecoder decoder,
+      ConsumerRecordWriter writer,
+      Metrics metrics) {
+    this.id = id;
+    queue = new ArrayBlockingQueue<>(queueSize);
+    this.decoder = decoder;
+    this.writer = writer;
+    this.metrics = metrics;
+  }
+
+  boolean offer(List<ConsumerRecord<Void, byte[]>> batch, long timeout, TimeUnit unit) throws InterruptedException {
+    return queue.offer(batch, timeout, unit);
+  }
+
+  boolean offerEnd(long timeout, TimeUnit unit) throws InterruptedException {
+    return queue.offer(END, timeout, unit);
+  }
+
+  /**
+   * Writes batches until the end of input is signalled. The writer is deliberately left open so that its files are
+   * only completed once every worker has written all of its records.
+   */
+  @Override
+  public Void call() throws Exception {
+    List<ConsumerRecord<Void, byte[]>> batch;
+    while ((batch = queue.take()) != END) {
+      long bytes = 0L;
+      for (ConsumerRecord<Void, byte[]> record : batch) {
+        int schemaVersion = decoder.schemaVersion(record.value());
+        writer.write(schemaVersion, decode(schemaVersion, record));
+        bytes += record.serializedValueSize();
+      }
+      metrics.workerThroughput(id, batch.size(), bytes);
+    }
+    log.info("Worker {} has written all records", id);
+    return null;
+  }
+
+  private ConsumerRecord<Void, Record> decode(int schemaVersion, ConsumerRecord<Void, byte[]> record) {
+    Record value = decoder.decode(schemaVersion, record.value());
+    return new ConsumerRecord<>(record.topic(), record.partition(), record.offset(), record.timestamp(),
+        record.timestampType(), NULL_CHECKSUM, record.serializedKeySize(), record.serializedValueSize(), null, value);
+  }
+}
@@ -15,13 +15,25 @@
  */
 package com.hotels.road.truck.park;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Collections.singleton;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import org.apache.avro.generic.GenericData.Record;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.TopicPartition;
@@ -33,25 +45,52 @@ import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.road.truck.park.metrics.Metrics;
+import com.hotels.road.truck.park.spi.RecordDecoder;
+
+/**
+ * Lands the configured offset ranges. A single thread polls Kafka and hands the raw records to a pool of
+ * {@link LandingWorker}s, each of which decodes and writes a fixed group of partitions to its own files. Once every
+ * partition has reached its end offset and every worker has written its records, the workers' files are completed
+ * together. If anything fails, every file still open is aborted before the failure is rethrown.
+ */
 @Slf4j
 @Component
 class TruckPark implements ApplicationRunner {
-  private final KafkaConsumer<Void, Record> consumer;
-  private final ConsumerRecordWriter writer;
+  private static final long WORKER_STOP_TIMEOUT_SECONDS = 30L;
+
+  private final KafkaConsumer<Void, byte[]> consumer;
+  private final RecordDecoder decoder;
+  private final ConsumerRecordWriter.Factory writerFactory;
+  private final Metrics metrics;
   private final Map<TopicPartition, Offsets> offsets;
   private final long pollTimeout;
+  private final int workers;
+  private final int workerQueueSize;
   private final ConfigurableApplicationContext context;
 
   TruckPark(
-      KafkaConsumer<Void, Record> consumer,
-      ConsumerRecordWriter writer,
+      KafkaConsumer<Void, byte[]> consumer,
+      RecordDecoder decoder,
+      ConsumerRecordWriter.Factory writerFactory,
+      Metrics metrics,
       Map<TopicPartition, Offsets> offsets,
       @Value("${kafka.pollTimeout:100}") long pollTimeout,
+      @Value("${writer.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int workers,
+      @Value("${writer.workerQueueSize:4}") int workerQueueSize,
       ConfigurableApplicationContext context) {
+    checkArgument(workers > 0, "writer.workers must be at least 1 (given %s)", workers);
+    checkArgument(workerQueueSize > 0, "writer.workerQueueSize must be at least 1 (given %s)", workerQueueSize);
     this.consumer = consumer;
-    this.writer = writer;
+    this.decoder = decoder;
+    this.writerFactory = writerFactory;
+    this.metrics = metrics;
     this.offsets = offsets;
     this.pollTimeout = pollTimeout;
+    this.workers = workers;
+    this.workerQueueSize = workerQueueSize;
     this.context = context;
   }
 
@@ -64,29 +103,121 @@ class TruckPark implements ApplicationRunner {
       }
     });
 
-    consumer.assign(new HashSet<>(running.values()));
-    running.values().forEach(partition -> consumer.seek(partition, offsets.get(partition).getStart()));
-    log.info("Offsets {}", offsets);
-    while (running.size() > 0) {
-      log.debug("Running {}", running.values());
-      for (ConsumerRecord<Void, Record> record : consumer.poll(pollTimeout)) {
-        TopicPartition topicPartition = running.get(record.partition());
-        if (topicPartition != null) {
-          long endOffset = offsets.get(topicPartition).getEnd();
-          if (record.offset() < endOffset) {
-            writer.write(record);
+    int workerCount = max(1, min(workers, running.size()));
+    List<LandingWorker> landingWorkers = new ArrayList<>(workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      landingWorkers.add(new LandingWorker(i, workerQueueSize, decoder, writerFactory.create(), metrics));
+    }
+    Map<Integer, LandingWorker> workerByPartition = new HashMap<>();
+    int next = 0;
+    for (int partition : new TreeSet<>(running.keySet())) {
+      workerByPartition.put(partition, landingWorkers.get(next++ % workerCount));
+    }
+
+    ExecutorService executor = newFixedThreadPool(workerCount,
+        new ThreadFactoryBuilder().setNameFormat("truck-park-worker-%d").setDaemon(true).build());
+    try {
+      List<Future<Void>> futures = new ArrayList<>(workerCount);
+      for (LandingWorker worker : landingWorkers) {
+        futures.add(executor.submit(worker));
+      }
+
+      consumer.assign(new HashSet<>(running.values()));
+      running.values().forEach(partition -> consumer.seek(partition, offsets.get(partition).getStart()));
+      log.info("Offsets {}, landing with {} workers", offsets, workerCount);
+      while (running.size() > 0) {
+        log.debug("Running {}", running.values());
+        checkWorkers(futures);
+        Map<LandingWorker, List<ConsumerRecord<Void, byte[]>>> batches = new HashMap<>();
+        for (ConsumerRecord<Void, byte[]> record : consumer.poll(pollTimeout)) {
+          TopicPartition topicPartition = running.get(record.partition());
+          if (topicPartition != null) {
+            long endOffset = offsets.get(topicPartition).getEnd();
+            if (record.offset() < endOffset) {
+              batches.computeIfAbsent(workerByPartition.get(record.partition()), w -> new ArrayList<>()).add(record);
+            }
+            if (record.offset() >= endOffset - 1) {
+              log.info("Pausing partition {}. Reached offset {}.", record.partition(), record.offset());
+              consumer.pause(singleton(topicPartition));
+              running.remove(topicPartition.partition());
+            }
           }
-          if (record.offset() >= endOffset - 1) {
-            log.info("Pausing partition {}. Reached offset {}.", record.partition(), record.offset());
-            consumer.pause(singleton(topicPartition));
-            running.remove(topicPartition.partition());
+        }
+        for (Map.Entry<LandingWorker, List<ConsumerRecord<Void, byte[]>>> batch : batches.entrySet()) {
+          while (!batch.getKey().offer(batch.getValue(), pollTimeout, MILLISECONDS)) {
+            checkWorkers(futures);
           }
         }
       }
-    }
 
-    log.info("Closing writer");
-    writer.close();
+      for (LandingWorker worker : landingWorkers) {
+        while (!worker.offerEnd(pollTimeout, MILLISECONDS)) {
+          checkWorkers(futures);
+        }
+      }
+      for (Future<Void> future : futures) {
+        await(future);
+      }
+
+      log.info("Closing writers");
+      List<Future<Void>> closes = new ArrayList<>(workerCount);
+      for (LandingWorker worker : landingWorkers) {
+        closes.add(executor.submit(() -> {
+          worker.getWriter().close();
+          return null;
+        }));
+      }
+      for (Future<Void> close : closes) {
+        await(close);
+      }
+    } catch (Exception e) {
+      abort(executor, landingWorkers, e);
+      throw e;
+    } finally {
+      executor.shutdownNow();
+    }
     context.close();
   }
+
+  /**
+   * Stops the workers and aborts every file that is still open, so that a failed landing leaves neither partial files
+   * nor incomplete multipart uploads behind. Failures to abort are attached to the original failure.
+   */
+  private static void abort(ExecutorService executor, List<LandingWorker> landingWorkers, Exception failure) {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(WORKER_STOP_TIMEOUT_SECONDS, SECONDS)) {
+        log.warn("Workers still running after {}s, aborting their files regardless", WORKER_STOP_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    log.info("Aborting writers");
+    for (LandingWorker worker : landingWorkers) {
+      try {
+        worker.getWriter().abort();
+      } catch (Exception e) {
+        failure.addSuppressed(e);
+      }
+    }
+  }
+
+  private static void checkWorkers(List<Future<Void>> futures) throws Exception {
+    for (Future<Void> future : futures) {
+      if (future.isDone()) {
+        await(future);
+      }
+    }
+  }
+
+  private static void await(Future<Void> future) throws Exception {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
 }
@@ -24,10 +24,9 @@ import java.time.Clock;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.avro.generic.GenericData.Record;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,10 +46,9 @@ class TruckParkConfiguration {
   }
 
   @Bean
-  KafkaConsumer<?, Record> consumer(
+  KafkaConsumer<Void, byte[]> consumer(
       @Value("${kafka.bootstrapServers}") String bootstrapServers,
-      @Value("${road.topic}") String topic,
-      Deserializer<Record> deserializer) {
+      @Value("${road.topic}") String topic) {
     Map<String, Object> config = ImmutableMap
         .<String, Object> builder()
         .put("bootstrap.servers", bootstrapServers)
@@ -58,7 +56,7 @@ class TruckParkConfiguration {
         .put("enable.auto.commit", "false")
         .put("auto.offset.reset", "earliest")
         .build();
-    return new KafkaConsumer<>(config, new NullDeserializer(), deserializer);
+    return new KafkaConsumer<>(config, new NullDeserializer(), new ByteArrayDeserializer());
   }
 
   @Bean
@@ -15,8 +15,8 @@
  */
 package com.hotels.road.truck.park.metrics;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -32,12 +32,14 @@ public class Metrics {
   static final String UPLOADED_BYTES = "uploaded-bytes";
   static final String UPLOADED_EVENTS = "uploaded-events";
   static final String HIGHWATER_MARK = "highwater-mark";
+  static final String WORKER_RECORDS = "records";
+  static final String WORKER_BYTES = "bytes";
 
   private final MetricRegistry registry;
   private final Meter consumedBytes;
   private final Meter uploadedBytes;
   private final Meter uploadedEvents;
-  private final Map<Integer, SettableGauge> highwaterMarks = new HashMap<>();
+  private final Map<Integer, SettableGauge> highwaterMarks = new ConcurrentHashMap<>();
 
   @Autowired
   Metrics(MetricRegistry registry) {
@@ -63,6 +65,11 @@ public class Metrics {
     highwaterMarks.computeIfAbsent(partition, this::createGauge).set(offset);
   }
 
+  public void workerThroughput(int worker, long recordCount, long byteCount) {
+    registry.meter(MetricRegistry.name("worker", Integer.toString(worker), WORKER_RECORDS)).mark(recordCount);
+    registry.meter(MetricRegistry.name("worker", Integer.toString(worker), WORKER_BYTES)).mark(byteCount);
+  }
+
   private SettableGauge createGauge(int partition) {
     String name = MetricRegistry.name("partition", Integer.toString(partition), HIGHWATER_MARK);
     SettableGauge gauge = new SettableGauge();
@@ -72,7 +79,7 @@ public class Metrics {
 
   static class SettableGauge implements Gauge<Long> {
 
-    private long value;
+    private volatile long value;
 
     void set(long value) {
       this.value = value;
@@ -21,13 +21,13 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Supplier;
 
 import org.apache.avro.Schema;
@@ -52,8 +52,6 @@ public class ConsumerRecordWriterTest {
 
   private static final String LOCATION = "location";
 
-  private final Map<Schema, Writer<Record>> writers = new HashMap<>();
-
   private @Mock Supplier<String> locationSupplier;
   private @Mock RecordWriter.Factory recordWriterFactory;
   private @Mock Writer<Record> recordWriter;
@@ -86,8 +84,7 @@ public class ConsumerRecordWriterTest {
   public void before() throws IOException {
     when(locationSupplier.get()).thenReturn(LOCATION);
 
-    underTest = new ConsumerRecordWriter(writers, locationSupplier, recordWriterFactory, outputStreamFactory, fileSize,
-        metrics);
+    underTest = new ConsumerRecordWriter(locationSupplier, recordWriterFactory, outputStreamFactory, fileSize, metrics);
   }
 
   @Test
@@ -97,13 +94,13 @@ public class ConsumerRecordWriterTest {
     when(recordWriterFactory.create(eq(schema1), captor.capture())).thenReturn(recordWriter);
 
     ConsumerRecord<Void, Record> record = record(schema1, "foo", 1, 10);
-    underTest.write(record);
+    underTest.write(1, record);
 
     verify(recordWriter).write(record.value());
     assertThat(underTest.getRecordCounter().get(), is(1L));
     verify(metrics).consumedBytes(10);
     verify(metrics).offsetHighwaterMark(0, 1);
-    assertThat(writers.size(), is(1));
+    assertThat(underTest.getOpenWriters(), is(1));
   }
 
   @Test
@@ -114,7 +111,7 @@ public class ConsumerRecordWriterTest {
 
     underTest.getByteCounter().getAndAdd(3L); // fake some written bytes
     ConsumerRecord<Void, Record> record = record(schema1, "foo", 1, 10);
-    underTest.write(record);
+    underTest.write(1, record);
 
     verify(recordWriter).write(record.value());
     assertThat(underTest.getRecordCounter().get(), is(0L));
@@ -122,7 +119,7 @@ public class ConsumerRecordWriterTest {
     verify(metrics).offsetHighwaterMark(0, 1);
     verify(metrics).uploadedBytes(3L);
     verify(metrics).uploadedEvents(1L);
-    assertThat(writers.size(), is(0));
+    assertThat(underTest.getOpenWriters(), is(0));
   }
 
   @Test
@@ -133,7 +130,7 @@ public class ConsumerRecordWriterTest {
 
     underTest.getByteCounter().getAndAdd(1L); // fake some written bytes
     ConsumerRecord<Void, Record> record = record(schema1, "foo", 1, 10);
-    underTest.write(record);
+    underTest.write(1, record);
     underTest.close();
 
     verify(recordWriter).write(record.value());
@@ -142,7 +139,40 @@ public class ConsumerRecordWriterTest {
     verify(metrics).offsetHighwaterMark(0, 1);
     verify(metrics).uploadedBytes(1L);
     verify(metrics).uploadedEvents(1L);
-    assertThat(writers.size(), is(0));
+    assertThat(underTest.getOpenWriters(), is(0));
+  }
+
+  @Test
+  public void write_WriterPerVersion() throws IOException {
+    when(outputStreamFactory.create(LOCATION)).thenReturn(abortableOutputStream);
+    when(recordWriterFactory.create(eq(schema1), any(OutputStream.class))).thenReturn(recordWriter);
+
+    underTest.write(1, record(schema1, "foo", 1, 10));
+    underTest.write(1, record(schema1, "bar", 2, 10));
+    underTest.write(20, record(schema1, "baz", 3, 10));
+
+    verify(recordWriterFactory, times(2)).create(eq(schema1), any(OutputStream.class));
+    assertThat(underTest.getOpenWriters(), is(2));
+
+    underTest.close();
+
+    verify(recordWriter, times(2)).close();
+    assertThat(underTest.getOpenWriters(), is(0));
+  }
+
+  @Test
+  public void abort() throws IOException {
+    when(outputStreamFactory.create(LOCATION)).thenReturn(abortableOutputStream);
+    when(recordWriterFactory.create(eq(schema1), any(OutputStream.class))).thenReturn(recordWriter);
+
+    underTest.write(1, record(schema1, "foo", 1, 10));
+    underTest.abort();
+    underTest.close();
+
+    verify(abortableOutputStream).abort();
+    verify(recordWriter, never()).close();
+    verify(metrics, never()).uploadedEvents(1L);
+    assertThat(underTest.getOpenWriters(), is(0));
   }
 
   @Test
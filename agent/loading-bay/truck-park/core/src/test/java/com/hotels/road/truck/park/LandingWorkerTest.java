@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.apache.kafka.clients.consumer.ConsumerRecord.NULL_CHECKSUM;
+import static org.apache.kafka.common.record.TimestampType.LOG_APPEND_TIME;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableList;
+
+import com.hotels.road.truck.park.metrics.Metrics;
+import com.hotels.road.truck.park.spi.RecordDecoder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LandingWorkerTest {
+
+  private static final String TOPIC = "topic";
+
+  private @Mock RecordDecoder decoder;
+  private @Mock ConsumerRecordWriter writer;
+  private @Mock Metrics metrics;
+
+  private final Schema schema = SchemaBuilder
+      .record("r")
+      .fields()
+      .name("f")
+      .type()
+      .stringType()
+      .noDefault()
+      .endRecord();
+  private final Record value = new Record(schema);
+  private final byte[] data = new byte[] { 0x00, 0x01, 0x02 };
+
+  private LandingWorker underTest;
+
+  @Before
+  public void before() {
+    underTest = new LandingWorker(1, 2, decoder, writer, metrics);
+  }
+
+  @Test
+  public void writesDecodedRecords() throws Exception {
+    when(decoder.schemaVersion(data)).thenReturn(3);
+    when(decoder.decode(3, data)).thenReturn(value);
+
+    assertThat(underTest.offer(ImmutableList.of(record(3L), record(4L)), 1, SECONDS), is(true));
+    assertThat(underTest.offerEnd(1, SECONDS), is(true));
+    underTest.call();
+
+    ArgumentCaptor<ConsumerRecord<Void, Record>> captor = ArgumentCaptor.forClass(ConsumerRecord.class);
+    verify(writer, times(2)).write(eq(3), captor.capture());
+    ConsumerRecord<Void, Record> written = captor.getAllValues().get(1);
+    assertThat(written.partition(), is(0));
+    assertThat(written.offset(), is(4L));
+    assertThat(written.serializedValueSize(), is(data.length));
+    assertThat(written.value(), is(value));
+    verify(metrics).workerThroughput(1, 2L, 2L * data.length);
+    verify(writer, never()).close();
+  }
+
+  @Test
+  public void boundedQueue() throws Exception {
+    assertThat(underTest.offer(ImmutableList.of(record(3L)), 1, SECONDS), is(true));
+    assertThat(underTest.offer(ImmutableList.of(record(4L)), 1, SECONDS), is(true));
+    assertThat(underTest.offerEnd(0, SECONDS), is(false));
+  }
+
+  @Test(expected = IOException.class)
+  public void writeFailure() throws Exception {
+    when(decoder.schemaVersion(data)).thenReturn(3);
+    when(decoder.decode(3, data)).thenReturn(value);
+    doThrow(IOException.class).when(writer).write(anyInt(), any());
+
+    underTest.offer(ImmutableList.of(record(3L)), 1, SECONDS);
+    underTest.call();
+  }
+
+  private ConsumerRecord<Void, byte[]> record(long offset) {
+    return new ConsumerRecord<>(TOPIC, 0, offset, 2L, LOG_APPEND_TIME, NULL_CHECKSUM, 0, data.length, null, data);
+  }
+}
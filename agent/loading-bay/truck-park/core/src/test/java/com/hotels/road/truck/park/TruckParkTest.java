@@ -15,12 +15,22 @@
  */
 package com.hotels.road.truck.park;
 
+import static org.apache.kafka.clients.consumer.ConsumerRecord.NULL_CHECKSUM;
+import static org.apache.kafka.common.record.TimestampType.LOG_APPEND_TIME;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Collections;
+import java.io.IOException;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -39,51 +49,136 @@ import org.springframework.context.ConfigurableApplicationContext;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import com.hotels.road.truck.park.metrics.Metrics;
+import com.hotels.road.truck.park.spi.RecordDecoder;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
 public class TruckParkTest {
 
   @Mock
-  private KafkaConsumer<Void, Record> consumer;
+  private KafkaConsumer<Void, byte[]> consumer;
+  @Mock
+  private RecordDecoder decoder;
+  @Mock
+  private ConsumerRecordWriter.Factory writerFactory;
+  @Mock
+  private ConsumerRecordWriter writer0;
   @Mock
-  private ConsumerRecordWriter writer;
+  private ConsumerRecordWriter writer1;
+  @Mock
+  private Metrics metrics;
   @Mock
   private ConfigurableApplicationContext context;
 
   private final String topic = "topic";
-  private final TopicPartition partition = new TopicPartition(topic, 0);
-  private final Set<TopicPartition> partitions = Collections.singleton(partition);
-  private final Map<TopicPartition, Offsets> offsets = ImmutableMap.of(partition, new Offsets(0, 1L, 2L));
+  private final TopicPartition partition0 = new TopicPartition(topic, 0);
+  private final TopicPartition partition1 = new TopicPartition(topic, 1);
+  private final Map<TopicPartition, Offsets> offsets = ImmutableMap.of(partition0, new Offsets(0, 1L, 2L),
+      partition1, new Offsets(1, 5L, 6L));
   private final long pollTimeout = 100;
+  private final byte[] data0 = new byte[] { 0x00 };
+  private final byte[] data1 = new byte[] { 0x01 };
 
-  private TruckPark underTest;
+  private Record value0;
+  private Record value1;
 
   @Before
   public void before() {
-    underTest = new TruckPark(consumer, writer, offsets, pollTimeout, context);
+    Schema schema = SchemaBuilder.record("r").fields().name("f").type().stringType().noDefault().endRecord();
+    value0 = new Record(schema);
+    value0.put("f", "0");
+    value1 = new Record(schema);
+    value1.put("f", "1");
+    when(decoder.schemaVersion(any())).thenReturn(1);
+    when(decoder.decode(1, data0)).thenReturn(value0);
+    when(decoder.decode(1, data1)).thenReturn(value1);
+    when(writerFactory.create()).thenReturn(writer0, writer1);
+
+    ConsumerRecords<Void, byte[]> records = new ConsumerRecords<>(ImmutableMap.of(
+        partition0, ImmutableList.of(record(0, 1L, data0)),
+        partition1, ImmutableList.of(record(1, 5L, data1))));
+    when(consumer.poll(pollTimeout)).thenReturn(records);
   }
 
   @Test
-  public void test() throws Exception {
-    Schema schema = SchemaBuilder.record("r").fields().name("f").type().stringType().noDefault().endRecord();
-    Record value = new Record(schema);
+  public void singleWorker() throws Exception {
+    new TruckPark(consumer, decoder, writerFactory, metrics, offsets, pollTimeout, 1, 4, context).run(null);
+
+    InOrder inOrder = inOrder(consumer, writer0, context);
+    inOrder.verify(consumer).assign(ImmutableSet.of(partition0, partition1));
+    inOrder.verify(consumer).poll(pollTimeout);
+    inOrder.verify(writer0).close();
+    inOrder.verify(context).close();
+    verify(consumer).seek(partition0, 1L);
+    verify(consumer).seek(partition1, 5L);
+    verify(consumer).pause(ImmutableSet.of(partition0));
+    verify(consumer).pause(ImmutableSet.of(partition1));
+    verify(writer0).write(eq(1), record(0, 1L, value0));
+    verify(writer0).write(eq(1), record(1, 5L, value1));
+    verify(metrics).workerThroughput(0, 2L, 2L);
+  }
+
+  @Test
+  public void workerPerPartition() throws Exception {
+    new TruckPark(consumer, decoder, writerFactory, metrics, offsets, pollTimeout, 4, 4, context).run(null);
 
-    ConsumerRecord<Void, Record> record1 = new ConsumerRecord<>(topic, 0, 1, null, value);
-    ConsumerRecords<Void, Record> records1 = new ConsumerRecords<>(
-        ImmutableMap.of(partition, ImmutableList.of(record1)));
+    verify(writer0).write(eq(1), record(0, 1L, value0));
+    verify(writer1).write(eq(1), record(1, 5L, value1));
+    verify(writer0).close();
+    verify(writer1).close();
+    verify(metrics).workerThroughput(0, 1L, 1L);
+    verify(metrics).workerThroughput(1, 1L, 1L);
+    verify(context).close();
+  }
 
-    when(consumer.poll(pollTimeout)).thenReturn(records1);
+  @Test
+  public void workerFailureAbortsWriters() throws Exception {
+    doThrow(IOException.class).when(writer1).write(anyInt(), any());
 
-    underTest.run(null);
+    try {
+      new TruckPark(consumer, decoder, writerFactory, metrics, offsets, pollTimeout, 2, 4, context).run(null);
+    } catch (IOException e) {
+      verify(writer0, never()).close();
+      verify(writer1, never()).close();
+      verify(writer0).abort();
+      verify(writer1).abort();
+      verify(context, never()).close();
+      return;
+    }
+    throw new AssertionError("Expected IOException");
+  }
 
-    InOrder inOrder = inOrder(consumer, writer, context);
-    inOrder.verify(consumer).assign(partitions);
-    inOrder.verify(consumer).seek(partition, 1L);
-    inOrder.verify(consumer).poll(pollTimeout);
-    inOrder.verify(writer).write(record1);
-    inOrder.verify(consumer).pause(partitions);
-    inOrder.verify(writer).close();
-    inOrder.verify(context).close();
+  @Test
+  public void abortFailureIsSuppressed() throws Exception {
+    IOException failure = new IOException("write");
+    IOException abortFailure = new IOException("abort");
+    doThrow(failure).when(writer1).write(anyInt(), any());
+    doThrow(abortFailure).when(writer0).abort();
+
+    try {
+      new TruckPark(consumer, decoder, writerFactory, metrics, offsets, pollTimeout, 2, 4, context).run(null);
+    } catch (IOException e) {
+      assertThat(e, is(failure));
+      assertThat(e.getSuppressed(), is(new Throwable[] { abortFailure }));
+      verify(writer1).abort();
+      return;
+    }
+    throw new AssertionError("Expected IOException");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidWorkers() {
+    new TruckPark(consumer, decoder, writerFactory, metrics, offsets, pollTimeout, 0, 4, context);
   }
 
+  private ConsumerRecord<Void, byte[]> record(int partition, long offset, byte[] data) {
+    return new ConsumerRecord<>(topic, partition, offset, 2L, LOG_APPEND_TIME, NULL_CHECKSUM, 0, data.length, null,
+        data);
+  }
+
+  private static ConsumerRecord<Void, Record> record(int partition, long offset, Record value) {
+    return argThat(r -> r.partition() == partition && r.offset() == offset && r.value().equals(value));
+  }
 }
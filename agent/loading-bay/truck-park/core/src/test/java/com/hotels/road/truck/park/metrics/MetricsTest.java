@@ -18,6 +18,7 @@ package com.hotels.road.truck.park.metrics;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -87,4 +88,16 @@ public class MetricsTest {
     assertThat(gauge.getValue().getValue(), is(1L));
   }
 
+  @Test
+  public void workerThroughput() {
+    Meter bytes = mock(Meter.class);
+    when(metricRegistry.meter("worker.1.records")).thenReturn(meter);
+    when(metricRegistry.meter("worker.1.bytes")).thenReturn(bytes);
+
+    new Metrics(metricRegistry).workerThroughput(1, 2L, 3L);
+
+    verify(meter).mark(2L);
+    verify(bytes).mark(3L);
+  }
+
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.parquet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.hotels.road.truck.park.spi.RecordWriter;
+
+/**
+ * Writes records as a Parquet file. Only the row group being filled is held in memory, each is written to the output
+ * stream as it completes and the footer is written on close.
+ */
+public class ParquetRecordWriter implements RecordWriter {
+  private final ParquetWriter<Record> writer;
+
+  ParquetRecordWriter(ParquetWriter<Record> writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void write(Record record) throws IOException {
+    writer.write(record);
+  }
+
+  /**
+   * A Parquet file cannot be flushed part way through a row group, row groups reach the stream as they fill.
+   */
+  @Override
+  public void flush() throws IOException {}
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  @Component
+  @ConditionalOnProperty(name = "writer.format", havingValue = "parquet")
+  public static class Factory implements RecordWriter.Factory {
+    private final int rowGroupSize;
+    private final int pageSize;
+    private final CompressionCodecName compressionCodec;
+
+    @Autowired
+    public Factory(
+        @Value("${parquet.rowGroupSize:33554432}") int rowGroupSize,
+        @Value("${parquet.pageSize:1048576}") int pageSize,
+        @Value("${parquet.compressionCodec:snappy}") String compressionCodec) {
+      this.rowGroupSize = rowGroupSize;
+      this.pageSize = pageSize;
+      this.compressionCodec = CompressionCodecName.fromConf(compressionCodec);
+    }
+
+    /**
+     * Records are written with the plain {@link GenericData} model. PII values have already been replaced when they
+     * were decoded and their logical types have no Parquet equivalent, so they are written as the underlying string or
+     * bytes.
+     */
+    @Override
+    public RecordWriter create(Schema schema, OutputStream outputStream) throws IOException {
+      return new ParquetRecordWriter(AvroParquetWriter
+          .<Record> builder(new StreamOutputFile(outputStream))
+          .withSchema(schema)
+          .withDataModel(GenericData.get())
+          .withRowGroupSize(rowGroupSize)
+          .withPageSize(pageSize)
+          .withCompressionCodec(compressionCodec)
+          .build());
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.parquet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.hotels.road.truck.park.parquet.ParquetRecordWriter.Factory;
+import com.hotels.road.truck.park.spi.RecordWriter;
+
+public class ParquetRecordWriterTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Schema schema = SchemaBuilder
+      .builder()
+      .record("record")
+      .fields()
+      .requiredLong("id")
+      .requiredString("name")
+      .endRecord();
+
+  @Test
+  public void typical() throws Exception {
+    Record value = new GenericRecordBuilder(schema).set("id", 1L).set("name", "hello").build();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    RecordWriter writer = new Factory(1024 * 1024, 64 * 1024, "uncompressed").create(schema, output);
+    writer.write(value);
+    writer.close();
+
+    try (ParquetReader<GenericRecord> reader = reader(output)) {
+      assertThat(reader.read(), is(value));
+      assertThat(reader.read(), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void piiLogicalType() throws Exception {
+    Schema piiSchema = SchemaBuilder.builder().record("record").fields().requiredString("name").endRecord();
+    new LogicalType("pii-string").addToSchema(piiSchema.getField("name").schema());
+    Record value = new GenericRecordBuilder(piiSchema).set("name", "").build();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    RecordWriter writer = new Factory(1024 * 1024, 64 * 1024, "snappy").create(piiSchema, output);
+    writer.write(value);
+    writer.close();
+
+    try (ParquetReader<GenericRecord> reader = reader(output)) {
+      assertThat(reader.read().get("name").toString(), is(""));
+    }
+  }
+
+  @Test
+  public void rowGroupsStreamedBeforeClose() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    RecordWriter writer = new Factory(4 * 1024, 1024, "uncompressed").create(schema, output);
+    for (long i = 0; i < 10000; i++) {
+      writer.write(new GenericRecordBuilder(schema).set("id", i).set("name", "name" + i).build());
+    }
+    writer.flush();
+
+    assertTrue(output.size() > 64 * 1024);
+
+    writer.close();
+
+    long count = 0;
+    try (ParquetReader<GenericRecord> reader = reader(output)) {
+      while (reader.read() != null) {
+        count++;
+      }
+    }
+    assertThat(count, is(10000L));
+  }
+
+  private ParquetReader<GenericRecord> reader(ByteArrayOutputStream output) throws Exception {
+    File file = temporaryFolder.newFile("landed.parquet");
+    Files.write(file.toPath(), output.toByteArray());
+    return AvroParquetReader.<GenericRecord> builder(new Path(file.toURI())).build();
+  }
+}
@@ -16,43 +16,60 @@
 package com.hotels.road.truck.park.decoder;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
 
+import com.google.common.primitives.Ints;
+
+import com.hotels.road.truck.park.spi.RecordDecoder;
+
+/**
+ * Decodes {@code <magic byte><4 byte schema version><Avro binary>} messages. Readers are compiled once per schema
+ * version and binary decoders are reused per thread, so decoding a record allocates little beyond the record itself.
+ */
 @Component
 @RequiredArgsConstructor
-public class DataDeserializer implements Deserializer<Record> {
+public class DataDeserializer implements Deserializer<Record>, RecordDecoder {
   public static final byte MAGIC_BYTE = 0x0;
+  static final int HEADER_LENGTH = 1 + Integer.BYTES;
 
   private final SchemaLookup schemaLookup;
   private final GenericData genericData;
+  private final ConcurrentMap<Integer, DatumReader<Record>> readers = new ConcurrentHashMap<>();
+  private final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<>();
 
   @Override
   public Record deserialize(String topic, byte[] data) {
-    ByteBuffer buffer = ByteBuffer.wrap(data);
-    if (buffer.get() != MAGIC_BYTE) {
+    return decode(schemaVersion(data), data);
+  }
+
+  @Override
+  public int schemaVersion(byte[] data) {
+    if (data.length < HEADER_LENGTH || data[0] != MAGIC_BYTE) {
       throw new RuntimeException("Unknown magic byte!");
     }
-    int version = buffer.getInt();
-    Schema schema = schemaLookup.getSchema(version);
-
-    int offset = buffer.position();
-    int length = buffer.remaining();
+    return Ints.fromBytes(data[1], data[2], data[3], data[4]);
+  }
 
-    DatumReader<Record> reader = new GenericDatumReader<>(schema, schema, genericData);
-    Decoder decoder = DecoderFactory.get().binaryDecoder(data, offset, length, null);
+  @Override
+  public Record decode(int schemaVersion, byte[] data) {
+    DatumReader<Record> reader = readers.computeIfAbsent(schemaVersion, this::newReader);
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH,
+        decoders.get());
+    decoders.set(decoder);
     try {
       return reader.read(null, decoder);
     } catch (IOException e) {
@@ -60,6 +77,11 @@ public class DataDeserializer implements Deserializer<Record> {
     }
   }
 
+  private DatumReader<Record> newReader(int schemaVersion) {
+    Schema schema = schemaLookup.getSchema(schemaVersion);
+    return new GenericDatumReader<>(schema, schema, genericData);
+  }
+
   @Override
   public void configure(Map<String, ?> configs, boolean isKey) {}
 
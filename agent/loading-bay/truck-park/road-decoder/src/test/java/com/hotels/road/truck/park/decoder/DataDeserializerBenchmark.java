@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.primitives.Ints;
+
+import com.hotels.road.truck.park.decoder.gdpr.PiiLogicalTypeSchemaLookup;
+
+/**
+ * Compares decoding a landed record and finding its writer the way truck park did previously (a new reader and decoder
+ * per record and writers keyed on the record's {@link Schema}) against the cached per-version reader, reused decoder
+ * and version-indexed writer table. Each operation handles one record, so the throughput is in records per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DataDeserializerBenchmark {
+  private static final int VERSION = 1;
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("r")
+      .fields()
+      .requiredString("id")
+      .requiredLong("timestamp")
+      .name("email")
+      .prop("sensitivity", "PII")
+      .type()
+      .stringType()
+      .noDefault()
+      .requiredInt("count")
+      .requiredDouble("amount")
+      .requiredString("payload")
+      .endRecord();
+
+  private final Map<Schema, Object> writersBySchema = new HashMap<>();
+  private final Object[] writersByVersion = new Object[VERSION + 1];
+  private SchemaLookup schemaLookup;
+  private DataDeserializer deserializer;
+  private byte[] data;
+
+  @Setup
+  public void setUp() throws IOException {
+    schemaLookup = new PiiLogicalTypeSchemaLookup(version -> SCHEMA);
+    deserializer = new DataDeserializer(schemaLookup, GenericData.get());
+
+    Schema schema = schemaLookup.getSchema(VERSION);
+    Record value = new Record(schema);
+    value.put("id", "id-1");
+    value.put("timestamp", System.currentTimeMillis());
+    value.put("email", "someone@example.com");
+    value.put("count", 42);
+    value.put("amount", 12.5);
+    value.put("payload", "payload-1");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    output.write(DataDeserializer.MAGIC_BYTE);
+    output.write(Ints.toByteArray(VERSION));
+    new GenericDatumWriter<Record>(schema).write(value, EncoderFactory.get().directBinaryEncoder(output, null));
+    data = output.toByteArray();
+
+    writersBySchema.put(schema, new Object());
+    writersByVersion[VERSION] = new Object();
+  }
+
+  @Benchmark
+  public void readerPerRecord(Blackhole blackhole) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    buffer.get();
+    Schema schema = schemaLookup.getSchema(buffer.getInt());
+    DatumReader<Record> reader = new GenericDatumReader<>(schema, schema, GenericData.get());
+    Record record = reader.read(null, DecoderFactory.get().binaryDecoder(data, buffer.position(), buffer.remaining(),
+        null));
+    blackhole.consume(record);
+    blackhole.consume(writersBySchema.get(record.getSchema()));
+  }
+
+  @Benchmark
+  public void cachedReader(Blackhole blackhole) {
+    int version = deserializer.schemaVersion(data);
+    blackhole.consume(deserializer.decode(version, data));
+    blackhole.consume(writersByVersion[version]);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+        .include(DataDeserializerBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -17,6 +17,8 @@ package com.hotels.road.truck.park.decoder;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
@@ -68,11 +70,37 @@ public class DataDeserializerTest {
     assertThat(result, is(record));
   }
 
+  @Test
+  public void readerCachedPerVersion() {
+    Schema schema = SchemaBuilder.record("r").fields().name("int8").type().intType().noDefault().endRecord();
+    Record record = new Record(schema);
+    record.put("int8", 2);
+
+    when(schemaLookup.getSchema(1)).thenReturn(schema);
+
+    byte[] value = toAvroBinary(schema, record, 1);
+    underTest.deserialize(TOPIC, value);
+    Record result = underTest.decode(1, value);
+
+    assertThat(result, is(record));
+    verify(schemaLookup, times(1)).getSchema(1);
+  }
+
+  @Test
+  public void schemaVersion() {
+    assertThat(underTest.schemaVersion(new byte[] { 0x0, 0x0, 0x0, 0x1, 0x2, 0x3 }), is(258));
+  }
+
   @Test(expected = RuntimeException.class)
   public void incorrectMagicByte() {
     underTest.deserialize(TOPIC, new byte[] { 0x1 });
   }
 
+  @Test(expected = RuntimeException.class)
+  public void truncatedHeader() {
+    underTest.deserialize(TOPIC, new byte[] { 0x0, 0x0 });
+  }
+
   private byte[] toAvroBinary(Schema schema, Object value, int version) {
     try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
       baos.write(0x0);
@@ -26,6 +26,7 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 
 import com.hotels.road.s3.io.S3MultipartOutputStream;
+import com.hotels.road.s3.io.S3PartBufferPool;
 import com.hotels.road.truck.park.spi.AbortableOutputStreamFactory;
 
 @Configuration
@@ -52,7 +53,10 @@ public class S3Configuration {
       @Value("${s3.retry.maxAttempts:3}") int maxAttempts,
       @Value("${s3.retry.sleepSeconds:1}") int sleepSeconds,
       @Value("${s3.async.poolSize:3}") int poolSize,
-      @Value("${s3.async.queueSize:3}") int queueSize) {
+      @Value("${s3.async.queueSize:3}") int queueSize,
+      @Value("${s3.buffer.maxIdle:8}") int maxIdleBuffers,
+      @Value("${s3.buffer.direct:false}") boolean directBuffers) {
+    S3PartBufferPool bufferPool = new S3PartBufferPool(partSize, maxIdleBuffers, directBuffers);
     return key -> S3MultipartOutputStream
         .builder()
         .s3(s3, bucket, key)
@@ -60,6 +64,7 @@ public class S3Configuration {
         .enableServerSideEncryption(enableServerSideEncryption)
         .retries(maxAttempts, sleepSeconds)
         .async(poolSize, queueSize)
+        .bufferPool(bufferPool)
         .build();
   }
 
@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.truck.park.spi;
+
+import org.apache.avro.generic.GenericData.Record;
+
+/**
+ * Decodes road messages. The schema version is read from the message header separately so that callers can key their
+ * own per-schema state on it rather than on the decoded record's {@link org.apache.avro.Schema}.
+ */
+public interface RecordDecoder {
+  int schemaVersion(byte[] data);
+
+  Record decode(int schemaVersion, byte[] data);
+}
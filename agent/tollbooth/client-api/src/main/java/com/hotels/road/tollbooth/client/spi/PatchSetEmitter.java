@@ -15,8 +15,28 @@
  */
 package com.hotels.road.tollbooth.client.spi;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.hotels.road.tollbooth.client.api.PatchSet;
 
 public interface PatchSetEmitter {
+  /**
+   * Emits the patch set, returning once it has been accepted.
+   */
   void emit(PatchSet patchSet);
+
+  /**
+   * Emits the patch set without waiting for it to be accepted. The future completes when it has been, or completes
+   * exceptionally if it could not be. The default implementation simply calls {@link #emit(PatchSet)}.
+   */
+  default CompletableFuture<Void> emitAsync(PatchSet patchSet) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    try {
+      emit(patchSet);
+      future.complete(null);
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
 }
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2016-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.tollbooth.client.kafka;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+/**
+ * Waits for Tollbooth to have applied emitted patch sets. Tollbooth commits the offset of a batch of patch sets only
+ * once the patched documents have been written to the store, so a patch set has been applied once Tollbooth's
+ * committed offset on its partition is past the offset it was acknowledged at. A patch set that fails to apply, for
+ * example because its test operation did not match, is committed all the same.
+ * <p>
+ * The consumer must be configured with Tollbooth's group id. It only reads the group's committed offsets and never
+ * subscribes to the topic or commits, so it does not join the group.
+ */
+public class AppliedPatchSetWatcher implements AutoCloseable {
+
+  private final Consumer<?, ?> consumer;
+  private final ScheduledExecutorService executor;
+  private final Map<TopicPartition, List<Waiter>> waiters = new HashMap<>();
+
+  public AppliedPatchSetWatcher(Consumer<?, ?> consumer, long pollIntervalMillis) {
+    this(consumer, Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "applied-patch-set-watcher");
+      thread.setDaemon(true);
+      return thread;
+    }), pollIntervalMillis);
+  }
+
+  AppliedPatchSetWatcher(Consumer<?, ?> consumer, ScheduledExecutorService executor, long pollIntervalMillis) {
+    this.consumer = consumer;
+    this.executor = executor;
+    executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, MILLISECONDS);
+  }
+
+  /**
+   * @param metadata The metadata that {@link KafkaPatchSetEmitter#emitWithMetadata} completed with.
+   * @return A future that completes once Tollbooth has committed the patch set.
+   */
+  public CompletableFuture<Void> awaitApplied(RecordMetadata metadata) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    TopicPartition partition = new TopicPartition(metadata.topic(), metadata.partition());
+    Waiter waiter = new Waiter(metadata.offset(), future);
+    try {
+      executor.execute(() -> waiters.computeIfAbsent(partition, p -> new ArrayList<>()).add(waiter));
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(new IllegalStateException("Watcher is closed", e));
+    }
+    return future;
+  }
+
+  /**
+   * Waits for the patch set to be applied and then for a local store to catch up with it, so that a document read from
+   * the store afterwards reflects the patch set.
+   *
+   * @param storeSync Starts syncing the local store, for example {@code KafkaStore::syncAsync}.
+   */
+  public CompletableFuture<Void> awaitApplied(
+      RecordMetadata metadata,
+      Supplier<? extends CompletionStage<?>> storeSync) {
+    return awaitApplied(metadata).thenCompose(applied -> storeSync.get()).thenApply(synced -> null);
+  }
+
+  private void poll() {
+    waiters.entrySet().removeIf(entry -> {
+      long committed;
+      try {
+        OffsetAndMetadata offset = consumer.committed(entry.getKey());
+        committed = offset == null ? -1L : offset.offset();
+      } catch (KafkaException e) {
+        return false;
+      }
+      List<Waiter> partitionWaiters = entry.getValue();
+      partitionWaiters.removeIf(waiter -> {
+        if (waiter.offset < committed) {
+          waiter.future.complete(null);
+          return true;
+        }
+        return false;
+      });
+      return partitionWaiters.isEmpty();
+    });
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    try {
+      executor.execute(() -> {
+        IllegalStateException closed = new IllegalStateException("Watcher is closed");
+        waiters.values().forEach(list -> list.forEach(waiter -> waiter.future.completeExceptionally(closed)));
+        waiters.clear();
+      });
+    } catch (RejectedExecutionException e) {
+      return;
+    }
+    executor.shutdown();
+    executor.awaitTermination(10, SECONDS);
+    consumer.close();
+  }
+
+  /**
+   * Consumer properties for reading the committed offsets of Tollbooth's consumer group.
+   *
+   * @param groupId Tollbooth's {@code kafka.patch.groupId}.
+   */
+  public static Map<String, Object> consumerProperties(String bootstrapServers, String groupId) {
+    Map<String, Object> consumerProps = new HashMap<>();
+    consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+    consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    return consumerProps;
+  }
+
+  private static class Waiter {
+    private final long offset;
+    private final CompletableFuture<Void> future;
+
+    Waiter(long offset, CompletableFuture<Void> future) {
+      this.offset = offset;
+      this.future = future;
+    }
+  }
+}
@@ -15,11 +15,16 @@
  */
 package com.hotels.road.tollbooth.client.kafka;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,28 +38,100 @@ public class KafkaPatchSetEmitter implements PatchSetEmitter {
   private final ObjectWriter writer;
   private final Producer<String, String> kafkaProducer;
   private final String trafficControlTopic;
+  private final boolean serial;
 
   public KafkaPatchSetEmitter(String trafficControlTopic, Producer<String, String> kafkaProducer) {
     this(trafficControlTopic, kafkaProducer, new ObjectMapper());
   }
 
   public KafkaPatchSetEmitter(String trafficControlTopic, Producer<String, String> kafkaProducer, ObjectMapper mapper) {
+    this(trafficControlTopic, kafkaProducer, mapper, false);
+  }
+
+  /**
+   * @param serial When {@code true}, {@link #emitAsync(PatchSet)} and {@link #emitWithMetadata(PatchSet)} wait for each
+   *          patch set to be acknowledged before returning, so that only one is ever in flight.
+   */
+  public KafkaPatchSetEmitter(
+      String trafficControlTopic,
+      Producer<String, String> kafkaProducer,
+      ObjectMapper mapper,
+      boolean serial) {
     this.trafficControlTopic = trafficControlTopic;
     this.kafkaProducer = kafkaProducer;
+    this.serial = serial;
     writer = mapper.writer();
   }
 
   @Override
   public void emit(PatchSet patchSet) {
+    try {
+      emitAsync(patchSet).get();
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> emitAsync(PatchSet patchSet) {
+    return emitWithMetadata(patchSet).thenApply(metadata -> null);
+  }
+
+  /**
+   * Emits the patch set as {@link #emitAsync(PatchSet)} does. The future completes with the partition and offset that
+   * Kafka acknowledged it at, which {@link AppliedPatchSetWatcher} can wait on for Tollbooth to have applied it.
+   */
+  public CompletableFuture<RecordMetadata> emitWithMetadata(PatchSet patchSet) {
+    CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
     try {
       ProducerRecord<String, String> record = new ProducerRecord<>(trafficControlTopic, patchSet.getDocumentId(),
           writer.writeValueAsString(patchSet));
-      kafkaProducer.send(record, this::updateMetrics).get();
-    } catch (InterruptedException | ExecutionException | JsonProcessingException e) {
-      throw new RuntimeException(e);
+      kafkaProducer.send(record, (metadata, e) -> {
+        if (e == null) {
+          future.complete(metadata);
+        } else {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (JsonProcessingException | RuntimeException e) {
+      future.completeExceptionally(e);
     }
+    if (serial) {
+      future.handle((result, error) -> null).join();
+    }
+    return future;
   }
 
-  private void updateMetrics(RecordMetadata metadata, Exception e) {}
+  /**
+   * Producer properties for emitting patch sets. Patch sets for a document must be applied in the order they were
+   * emitted, so unless the producer is idempotent only one request is allowed in flight, otherwise a retried request
+   * could overtake the next one.
+   *
+   * @param lingerMs How long the producer waits for more patch sets to send in the same request.
+   * @param batchSize The maximum size in bytes of the patch sets sent to a partition in one request.
+   * @param idempotence Whether the producer is idempotent, which allows several requests in flight in order.
+   */
+  public static Map<String, Object> producerProperties(
+      String bootstrapServers,
+      int lingerMs,
+      int batchSize,
+      boolean idempotence) {
+    Map<String, Object> producerProps = new HashMap<>();
+    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    producerProps.put(ProducerConfig.RETRIES_CONFIG, 1);
+    producerProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+    producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+    if (idempotence) {
+      producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+      producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+    } else {
+      producerProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+    }
+    return producerProps;
+  }
 
 }
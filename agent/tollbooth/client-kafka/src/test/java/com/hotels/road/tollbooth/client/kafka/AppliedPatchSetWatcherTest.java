@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2016-2020 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.tollbooth.client.kafka;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AppliedPatchSetWatcherTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition("patches", 1);
+
+  @Mock
+  private Consumer<String, String> consumer;
+  @Mock
+  private ScheduledExecutorService executor;
+
+  private Runnable poll;
+  private AppliedPatchSetWatcher underTest;
+
+  @Before
+  public void before() {
+    doAnswer(invocation -> {
+      invocation.<Runnable> getArgument(0).run();
+      return null;
+    }).when(executor).execute(any());
+    underTest = new AppliedPatchSetWatcher(consumer, executor, 100L);
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).scheduleWithFixedDelay(captor.capture(), eq(100L), eq(100L), eq(MILLISECONDS));
+    poll = captor.getValue();
+  }
+
+  @Test
+  public void completesOnceCommittedOffsetIsPastThePatchSet() throws Exception {
+    CompletableFuture<Void> result = underTest.awaitApplied(metadata(5L));
+
+    when(consumer.committed(PARTITION)).thenReturn(new OffsetAndMetadata(5L));
+    poll.run();
+    assertThat(result.isDone(), is(false));
+
+    when(consumer.committed(PARTITION)).thenReturn(new OffsetAndMetadata(6L));
+    poll.run();
+    assertThat(result.isDone(), is(true));
+  }
+
+  @Test
+  public void notCompletedWithoutACommittedOffset() throws Exception {
+    CompletableFuture<Void> result = underTest.awaitApplied(metadata(0L));
+
+    poll.run();
+
+    assertThat(result.isDone(), is(false));
+  }
+
+  @Test
+  public void failedLookupIsRetried() throws Exception {
+    CompletableFuture<Void> result = underTest.awaitApplied(metadata(5L));
+
+    when(consumer.committed(PARTITION)).thenThrow(new TimeoutException()).thenReturn(new OffsetAndMetadata(6L));
+    poll.run();
+    assertThat(result.isDone(), is(false));
+
+    poll.run();
+    assertThat(result.isDone(), is(true));
+  }
+
+  @Test
+  public void storeIsSyncedAfterThePatchSetIsApplied() throws Exception {
+    CompletableFuture<Void> sync = new CompletableFuture<>();
+    AtomicBoolean syncStarted = new AtomicBoolean();
+    CompletableFuture<Void> result = underTest.awaitApplied(metadata(5L), () -> {
+      syncStarted.set(true);
+      return sync;
+    });
+
+    poll.run();
+    assertThat(syncStarted.get(), is(false));
+
+    when(consumer.committed(PARTITION)).thenReturn(new OffsetAndMetadata(6L));
+    poll.run();
+    assertThat(syncStarted.get(), is(true));
+    assertThat(result.isDone(), is(false));
+
+    sync.complete(null);
+    assertThat(result.isDone(), is(true));
+  }
+
+  @Test
+  public void closeFailsPendingWaits() throws Exception {
+    CompletableFuture<Void> result = underTest.awaitApplied(metadata(5L));
+
+    underTest.close();
+
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+    }
+    assertThat(result.isCompletedExceptionally(), is(true));
+    verify(executor).shutdown();
+    verify(consumer).close();
+  }
+
+  private static RecordMetadata metadata(long offset) {
+    return new RecordMetadata(PARTITION, offset, 0L, 0L, (Long) null, 0, 0);
+  }
+}
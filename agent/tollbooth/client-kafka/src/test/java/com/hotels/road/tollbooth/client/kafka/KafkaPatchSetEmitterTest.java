@@ -15,18 +15,29 @@
  */
 package com.hotels.road.tollbooth.client.kafka;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -59,7 +70,10 @@ public class KafkaPatchSetEmitterTest {
   @Test
   public void sendPatchSet() {
     when(kafkaProducer.send(ArgumentMatchers.<ProducerRecord<String, String>> any(), ArgumentMatchers.any()))
-        .thenReturn(resultFuture);
+        .thenAnswer(invocation -> {
+          invocation.<Callback> getArgument(1).onCompletion(null, null);
+          return resultFuture;
+        });
     underTest.emit(new PatchSet("road1", new ArrayList<>()));
   }
 
@@ -70,4 +84,62 @@ public class KafkaPatchSetEmitterTest {
     underTest = new KafkaPatchSetEmitter("kafka-agent-topic", kafkaProducer, mapper);
     underTest.emit(new PatchSet("road1", new ArrayList<>()));
   }
+
+  @Test
+  public void emitAsyncCompletesWhenAcknowledged() throws Exception {
+    CompletableFuture<Void> result = underTest.emitAsync(new PatchSet("road1", new ArrayList<>()));
+
+    assertThat(result.isDone(), is(false));
+    callback().onCompletion(null, null);
+    assertThat(result.get(), is(nullValue()));
+  }
+
+  @Test
+  public void emitAsyncFailsWhenSendFails() throws Exception {
+    CompletableFuture<Void> result = underTest.emitAsync(new PatchSet("road1", new ArrayList<>()));
+
+    Exception exception = new RuntimeException();
+    callback().onCompletion(null, exception);
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(exception));
+    }
+    assertThat(result.isCompletedExceptionally(), is(true));
+  }
+
+  @Test
+  public void emitWithMetadataCompletesWithTheAcknowledgedOffset() throws Exception {
+    CompletableFuture<RecordMetadata> result = underTest.emitWithMetadata(new PatchSet("road1", new ArrayList<>()));
+
+    RecordMetadata metadata = new RecordMetadata(new TopicPartition("kafka-agent-topic", 2), 5L, 0L, 0L, (Long) null,
+        0, 0);
+    callback().onCompletion(metadata, null);
+    assertThat(result.get().partition(), is(2));
+    assertThat(result.get().offset(), is(5L));
+  }
+
+  @Test
+  public void producerPropertiesKeepOrder() {
+    Map<String, Object> props = KafkaPatchSetEmitter.producerProperties("localhost:9092", 5, 1024, false);
+
+    assertThat(props.get(ProducerConfig.LINGER_MS_CONFIG), is(5));
+    assertThat(props.get(ProducerConfig.BATCH_SIZE_CONFIG), is(1024));
+    assertThat(props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION), is(1));
+  }
+
+  @Test
+  public void idempotentProducerProperties() {
+    Map<String, Object> props = KafkaPatchSetEmitter.producerProperties("localhost:9092", 0, 1024, true);
+
+    assertThat(props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG), is(true));
+    assertThat(props.get(ProducerConfig.ACKS_CONFIG), is("all"));
+    assertThat(props.containsKey(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION), is(false));
+  }
+
+  private Callback callback() {
+    ArgumentCaptor<Callback> captor = ArgumentCaptor.forClass(Callback.class);
+    verify(kafkaProducer).send(ArgumentMatchers.<ProducerRecord<String, String>> any(), captor.capture());
+    return captor.getValue();
+  }
 }
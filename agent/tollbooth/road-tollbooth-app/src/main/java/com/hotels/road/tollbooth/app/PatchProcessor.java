@@ -15,17 +15,21 @@
  */
 package com.hotels.road.tollbooth.app;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.NullNode;
 
+import com.hotels.road.kafkastore.KafkaStore;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 import com.hotels.road.tollbooth.client.api.PatchSet;
 
@@ -33,7 +37,7 @@ import com.hotels.road.tollbooth.client.api.PatchSet;
 @Slf4j
 @RequiredArgsConstructor
 class PatchProcessor {
-  private final Map<String, JsonNode> store;
+  private final KafkaStore<String, JsonNode> store;
   private final JsonPatchApplier patchApplier;
 
   JsonNode processPatch(PatchSet patchSet) throws PatchApplicationException {
@@ -49,11 +53,76 @@ class PatchProcessor {
         store.remove(documentId);
       } else {
         log.info("Updating document {}", documentId);
-        log.info("New document : {}", updatedDocument);
+        log.debug("New document : {}", updatedDocument);
         store.put(documentId, updatedDocument);
       }
       return updatedDocument;
     }
   }
 
+  /**
+   * Applies the patch sets in order to a working copy of each document they touch, without writing anything. A patch
+   * set that cannot be applied is logged and skipped, leaving its document as the earlier patch sets made it.
+   *
+   * @return The final value of each touched document, to be written by {@link #write(BatchResult)}.
+   */
+  BatchResult applyPatches(List<PatchSet> patchSets) {
+    synchronized (store) {
+      Map<String, JsonNode> documents = new LinkedHashMap<>();
+      int failed = 0;
+      for (PatchSet patchSet : patchSets) {
+        String documentId = patchSet.getDocumentId();
+        JsonNode document = documents.get(documentId);
+        if (document == null) {
+          document = store.getOrDefault(documentId, NullNode.getInstance());
+        } else if (document.isMissingNode()) {
+          document = NullNode.getInstance();
+        }
+        try {
+          documents.put(documentId, patchApplier.apply(document, patchSet.getOperations()));
+        } catch (PatchApplicationException e) {
+          log.error("Error applying patch to document {}", documentId, e);
+          failed++;
+        }
+      }
+
+      Map<String, JsonNode> updates = new LinkedHashMap<>();
+      List<String> removals = new ArrayList<>();
+      documents.forEach((documentId, document) -> {
+        if (document.isMissingNode()) {
+          log.info("Removing document {}", documentId);
+          removals.add(documentId);
+        } else {
+          log.info("Updating document {}", documentId);
+          log.debug("New document : {}", document);
+          updates.put(documentId, document);
+        }
+      });
+      return new BatchResult(patchSets.size() - failed, failed, updates, removals);
+    }
+  }
+
+  /**
+   * Writes each document of the batch back to the store once, with the updated and the removed documents written
+   * together by one {@link KafkaStore#putAll(Map, java.util.Collection)}. The batch holds final values rather than
+   * patches, so writing it again after a failure, even one that left some of its documents written, has the same
+   * effect as writing it once.
+   */
+  void write(BatchResult batch) {
+    synchronized (store) {
+      store.putAll(batch.getUpdates(), batch.getRemovals());
+    }
+  }
+
+  @Value
+  static class BatchResult {
+    int applied;
+    int failed;
+    Map<String, JsonNode> updates;
+    List<String> removals;
+
+    int getDocuments() {
+      return updates.size() + removals.size();
+    }
+  }
 }
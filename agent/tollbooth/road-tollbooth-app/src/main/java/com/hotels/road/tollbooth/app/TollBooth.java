@@ -15,15 +15,20 @@
  */
 package com.hotels.road.tollbooth.app;
 
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.Disposable;
 import reactor.core.Disposables;
@@ -31,41 +36,121 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 
+import com.hotels.road.tollbooth.app.PatchProcessor.BatchResult;
 import com.hotels.road.tollbooth.client.api.PatchSet;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class TollBooth implements ApplicationRunner, AutoCloseable {
   private final ObjectMapper mapper;
   private final Consumer<String, String> patchConsumer;
   private final PatchProcessor patchProcessor;
+  private final Counter appliedCounter;
+  private final Counter failedCounter;
+  private final Counter invalidCounter;
+  private final Counter documentsCounter;
+  private final Timer batchTimer;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
   private final Disposable.Swap disposabe = Disposables.swap();
+  private volatile boolean closed = false;
+  private long backoffMillis = 0L;
+
+  public TollBooth(
+      ObjectMapper mapper,
+      Consumer<String, String> patchConsumer,
+      PatchProcessor patchProcessor,
+      MeterRegistry registry,
+      @Value("${tollbooth.retry.initialBackoffMillis:100}") long initialBackoffMillis,
+      @Value("${tollbooth.retry.maxBackoffMillis:30000}") long maxBackoffMillis) {
+    this.mapper = mapper;
+    this.patchConsumer = patchConsumer;
+    this.patchProcessor = patchProcessor;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    appliedCounter = registry.counter("tollbooth.patches", "result", "applied");
+    failedCounter = registry.counter("tollbooth.patches", "result", "failed");
+    invalidCounter = registry.counter("tollbooth.patches", "result", "invalid");
+    documentsCounter = registry.counter("tollbooth.documents-written");
+    batchTimer = registry.timer("tollbooth.batch");
+  }
 
   @Override
   public void run(ApplicationArguments args) throws Exception {
     disposabe.update(Mono
         .fromSupplier(() -> patchConsumer.poll(100))
         .repeat()
-        .flatMapIterable(Function.identity())
-        .map(ConsumerRecord::value)
+        .filter(records -> !records.isEmpty())
         .subscribeOn(Schedulers.single())
-        .subscribe(this::processPatchSet));
+        .subscribe(records -> batchTimer.record(() -> processPatchSets(records))));
   }
 
   @Override
   public void close() throws Exception {
+    closed = true;
     disposabe.dispose();
   }
 
-  private void processPatchSet(String patchSetJson) {
+  /**
+   * Applies every patch set from one poll as a single batch, writing each touched document once, and commits the
+   * consumer offsets only once those writes are readable from the store. If the writes fail, the same final documents
+   * are written again, after a backoff that doubles with each consecutive failure from {@code initialBackoffMillis} up
+   * to {@code maxBackoffMillis}, until they succeed. The patches themselves are never applied twice, as some of the
+   * documents may already have been written when the store failed.
+   */
+  @VisibleForTesting
+  void processPatchSets(ConsumerRecords<String, String> records) {
+    List<PatchSet> patchSets = new ArrayList<>(records.count());
+    for (ConsumerRecord<String, String> record : records) {
+      try {
+        log.debug(record.value());
+        patchSets.add(mapper.readValue(record.value(), PatchSet.class));
+      } catch (Exception e) {
+        log.error("Error reading patch: {}", record.value(), e);
+        invalidCounter.increment();
+      }
+    }
+    BatchResult result = patchProcessor.applyPatches(patchSets);
+    while (!write(result)) {
+      if (closed) {
+        return;
+      }
+      backOff();
+    }
+    appliedCounter.increment(result.getApplied());
+    failedCounter.increment(result.getFailed());
+    documentsCounter.increment(result.getDocuments());
     try {
-      log.info(patchSetJson);
-      PatchSet patchSet = mapper.readValue(patchSetJson, PatchSet.class);
-      patchProcessor.processPatch(patchSet);
+      patchConsumer.commitSync();
     } catch (Exception e) {
-      log.error("Error applying patch to document: {}", patchSetJson, e);
+      log.warn("Error committing patch offsets", e);
+    }
+  }
+
+  private boolean write(BatchResult result) {
+    try {
+      patchProcessor.write(result);
+      backoffMillis = 0L;
+      return true;
+    } catch (Exception e) {
+      backoffMillis = backoffMillis == 0L ? initialBackoffMillis : Math.min(backoffMillis * 2, maxBackoffMillis);
+      log.error("Error writing {} documents, they will be retried in {}ms", result.getDocuments(), backoffMillis, e);
+      return false;
+    }
+  }
+
+  @VisibleForTesting
+  long getBackoffMillis() {
+    return backoffMillis;
+  }
+
+  private void backOff() {
+    try {
+      Thread.sleep(backoffMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 }
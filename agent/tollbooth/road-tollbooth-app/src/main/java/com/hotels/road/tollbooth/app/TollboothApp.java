@@ -54,7 +54,7 @@ public class TollboothApp {
   private static final boolean IS_SECURE_KAFKA_CLUSTER = false;
 
   @Bean
-  public Map<String, JsonNode> store(
+  public KafkaStore<String, JsonNode> store(
       @Value("${kafka.bootstrapServers}") String bootstrapServers,
       @Value("${kafka.store.topic}") String topic,
       @Value("${kafka.store.replicas:3}") int replicas,
@@ -96,6 +96,7 @@ public class TollboothApp {
     properties.setProperty("bootstrap.servers", bootstrapServers);
     properties.setProperty("group.id", groupId);
     properties.setProperty("auto.offset.reset", "earliest");
+    properties.setProperty("enable.auto.commit", "false");
 
     KafkaConsumer<String, String> consumer = new KafkaConsumer<>(properties, new StringDeserializer(),
         new StringDeserializer());
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.tollbooth.app;
+
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import com.hotels.road.kafkastore.KafkaStore;
+
+/**
+ * Holds documents in memory for tests, and stands in for the {@link KafkaStore} that would hold them.
+ */
+public class InMemoryStore extends HashMap<String, JsonNode> {
+  private static final long serialVersionUID = 1L;
+
+  public void putAll(Map<? extends String, ? extends JsonNode> m, Collection<? extends String> removedKeys) {
+    putAll(m);
+    removedKeys.forEach(this::remove);
+  }
+
+  /**
+   * @return A mock {@link KafkaStore} that reads and writes this map.
+   */
+  @SuppressWarnings("unchecked")
+  KafkaStore<String, JsonNode> asKafkaStore() {
+    return mock(KafkaStore.class, delegatesTo(this));
+  }
+}
@@ -15,18 +15,22 @@
  */
 package com.hotels.road.tollbooth.app;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static com.hotels.road.tollbooth.client.api.Operation.ADD;
 import static com.hotels.road.tollbooth.client.api.Operation.REMOVE;
 import static com.hotels.road.tollbooth.client.api.Operation.REPLACE;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -35,6 +39,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.MissingNode;
 
+import com.hotels.road.kafkastore.KafkaStore;
+import com.hotels.road.tollbooth.app.PatchProcessor.BatchResult;
 import com.hotels.road.tollbooth.client.api.Operation;
 import com.hotels.road.tollbooth.client.api.PatchOperation;
 import com.hotels.road.tollbooth.client.api.PatchSet;
@@ -43,7 +49,8 @@ public class PatchProcessorTest {
 
   private static final String DOCUMENT_ID = "documentId";
 
-  private final Map<String, JsonNode> store = new HashMap<>();
+  private final InMemoryStore store = new InMemoryStore();
+  private final KafkaStore<String, JsonNode> kafkaStore = store.asKafkaStore();
   private final ObjectMapper mapper = new ObjectMapper();
   private final JsonPatchApplier patchApplier = new JsonPatchApplier(mapper);
 
@@ -52,7 +59,7 @@ public class PatchProcessorTest {
   private final JsonNode jsonNode1 = mapper.createObjectNode().put("foo", "bar");
   private final JsonNode jsonNode2 = mapper.createObjectNode().put("foo", "baz");
 
-  private final PatchProcessor underTest = new PatchProcessor(store, patchApplier);
+  private final PatchProcessor underTest = new PatchProcessor(kafkaStore, patchApplier);
 
   @Test
   public void addNew() throws PatchApplicationException {
@@ -132,6 +139,83 @@ public class PatchProcessorTest {
     underTest.processPatch(patchSet);
   }
 
+  @Test
+  public void batchAppliesPatchesInOrder() {
+    BatchResult result = process(asList(patchSet(ADD, "", map1), patchSet(REPLACE, "", map2)));
+
+    assertThat(counts(result), is(asList(2, 0, 1)));
+    assertThat(store.get(DOCUMENT_ID), is(jsonNode2));
+  }
+
+  @Test
+  public void batchSkipsPatchThatCannotBeApplied() {
+    store.put(DOCUMENT_ID, jsonNode1);
+
+    BatchResult result = process(asList(patchSet(REMOVE, "/goo", null), patchSet(ADD, "", map2)));
+
+    assertThat(counts(result), is(asList(1, 1, 1)));
+    assertThat(store.get(DOCUMENT_ID), is(jsonNode2));
+  }
+
+  @Test
+  public void batchDoesNotCreateDocumentWhenNoPatchApplies() {
+    BatchResult result = process(singletonList(patchSet(REMOVE, "/goo", null)));
+
+    assertThat(counts(result), is(asList(0, 1, 0)));
+    assertThat(store.containsKey(DOCUMENT_ID), is(false));
+  }
+
+  @Test
+  public void batchRemovesDocument() {
+    store.put(DOCUMENT_ID, jsonNode1);
+
+    BatchResult result = process(asList(patchSet(ADD, "", map2), patchSet(REMOVE, "", null)));
+
+    assertThat(counts(result), is(asList(2, 0, 1)));
+    assertThat(store.containsKey(DOCUMENT_ID), is(false));
+  }
+
+  @Test
+  public void batchAddsDocumentAfterRemovingIt() {
+    store.put(DOCUMENT_ID, jsonNode1);
+
+    BatchResult result = process(asList(patchSet(REMOVE, "", null), patchSet(ADD, "", map2)));
+
+    assertThat(counts(result), is(asList(2, 0, 1)));
+    assertThat(store.get(DOCUMENT_ID), is(jsonNode2));
+  }
+
+  @Test
+  public void batchWritesUpdatesAndRemovalsTogether() {
+    store.put(DOCUMENT_ID, jsonNode1);
+    PatchSet addOther = new PatchSet("other", singletonList(new PatchOperation(ADD, "", map2)));
+
+    process(asList(patchSet(REMOVE, "", null), addOther));
+
+    verify(kafkaStore).putAll(singletonMap("other", jsonNode2), singletonList(DOCUMENT_ID));
+    verify(kafkaStore, never()).remove(any());
+    assertThat(store.containsKey(DOCUMENT_ID), is(false));
+    assertThat(store.get("other"), is(jsonNode2));
+  }
+
+  @Test
+  public void applyingABatchDoesNotWriteIt() {
+    BatchResult result = underTest.applyPatches(singletonList(patchSet(ADD, "", map1)));
+
+    assertThat(result.getUpdates(), is(singletonMap(DOCUMENT_ID, jsonNode1)));
+    assertThat(store.containsKey(DOCUMENT_ID), is(false));
+  }
+
+  private BatchResult process(List<PatchSet> patchSets) {
+    BatchResult result = underTest.applyPatches(patchSets);
+    underTest.write(result);
+    return result;
+  }
+
+  private static List<Integer> counts(BatchResult result) {
+    return asList(result.getApplied(), result.getFailed(), result.getDocuments());
+  }
+
   private PatchSet patchSet(Operation operation, String path, Map<String, String> value) {
     return new PatchSet(DOCUMENT_ID, singletonList(new PatchOperation(operation, path, value)));
   }
@@ -31,7 +31,6 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
 
 import static com.hotels.road.tollbooth.client.api.Operation.ADD;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Before;
@@ -47,10 +46,10 @@ import com.hotels.road.tollbooth.client.api.PatchSet;
 
 public class RootControllerTest {
 
-  private final Map<String, JsonNode> store = new HashMap<>();
+  private final InMemoryStore store = new InMemoryStore();
   private final ObjectMapper mapper = new ObjectMapper();
   private final JsonPatchApplier patchApplier = new JsonPatchApplier(mapper);
-  private final PatchProcessor patchProcessor = new PatchProcessor(store, patchApplier);
+  private final PatchProcessor patchProcessor = new PatchProcessor(store.asKafkaStore(), patchApplier);
 
   private final RootController rootController = new RootController(store, patchProcessor);
 
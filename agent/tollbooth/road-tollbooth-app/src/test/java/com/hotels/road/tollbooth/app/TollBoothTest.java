@@ -0,0 +1,192 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.tollbooth.app;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static com.hotels.road.tollbooth.client.api.PatchOperation.add;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import com.hotels.road.kafkastore.KafkaStore;
+
+import com.hotels.road.tollbooth.app.PatchProcessor.BatchResult;
+import com.hotels.road.tollbooth.client.api.PatchSet;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TollBoothTest {
+  private static final String TOPIC = "patches";
+  private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+  private @Mock Consumer<String, String> patchConsumer;
+  private @Mock PatchProcessor patchProcessor;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final PatchSet patchSet = new PatchSet("road1", singletonList(add("/description", "description")));
+  private TollBooth underTest;
+
+  @Before
+  public void before() {
+    underTest = new TollBooth(mapper, patchConsumer, patchProcessor, registry, 1L, 4L);
+  }
+
+  @Test
+  public void commitsAfterBatchIsWritten() throws Exception {
+    BatchResult batch = batch(2, 0);
+    when(patchProcessor.applyPatches(asList(patchSet, patchSet))).thenReturn(batch);
+
+    underTest.processPatchSets(records(patch(5L), patch(6L)));
+
+    InOrder inOrder = inOrder(patchProcessor, patchConsumer);
+    inOrder.verify(patchProcessor).write(batch);
+    inOrder.verify(patchConsumer).commitSync();
+    verify(patchConsumer, never()).seek(any(), any(Long.class));
+    assertThat(registry.counter("tollbooth.patches", "result", "applied").count(), is(2.0));
+    assertThat(registry.counter("tollbooth.documents-written").count(), is(1.0));
+  }
+
+  @Test
+  public void invalidPatchIsSkipped() throws Exception {
+    when(patchProcessor.applyPatches(singletonList(patchSet))).thenReturn(batch(1, 0));
+
+    underTest.processPatchSets(records(new ConsumerRecord<>(TOPIC, 0, 5L, null, "not json"), patch(6L)));
+
+    verify(patchConsumer).commitSync();
+    assertThat(registry.counter("tollbooth.patches", "result", "invalid").count(), is(1.0));
+  }
+
+  @Test
+  public void failedWriteIsRetriedWithoutReapplyingPatches() throws Exception {
+    BatchResult batch = batch(2, 0);
+    when(patchProcessor.applyPatches(any())).thenReturn(batch);
+    List<Long> backoffs = new ArrayList<>();
+    doAnswer(invocation -> {
+      backoffs.add(underTest.getBackoffMillis());
+      if (backoffs.size() <= 4) {
+        throw new RuntimeException("store unavailable");
+      }
+      return null;
+    }).when(patchProcessor).write(batch);
+
+    underTest.processPatchSets(records(patch(5L), patch(6L)));
+
+    verify(patchProcessor, times(1)).applyPatches(any());
+    verify(patchProcessor, times(5)).write(batch);
+    assertThat(backoffs, is(asList(0L, 1L, 2L, 4L, 4L)));
+    assertThat(underTest.getBackoffMillis(), is(0L));
+    verify(patchConsumer, never()).seek(any(), any(Long.class));
+    verify(patchConsumer).commitSync();
+  }
+
+  @Test
+  public void closedTollBoothStopsRetrying() throws Exception {
+    when(patchProcessor.applyPatches(any())).thenReturn(batch(1, 0));
+    doAnswer(invocation -> {
+      underTest.close();
+      throw new RuntimeException("store unavailable");
+    }).when(patchProcessor).write(any());
+
+    underTest.processPatchSets(records(patch(5L)));
+
+    verify(patchProcessor, times(1)).write(any());
+    verify(patchConsumer, never()).commitSync();
+  }
+
+  @Test
+  public void documentsWrittenBeforeAFailureAreNotPatchedTwice() throws Exception {
+    InMemoryStore store = new InMemoryStore();
+    store.put("road1", mapper.readTree("{\"items\":[]}"));
+    AtomicBoolean failed = new AtomicBoolean();
+    KafkaStore<String, JsonNode> kafkaStore = store.asKafkaStore();
+    doAnswer(invocation -> {
+      Map<String, JsonNode> updates = invocation.getArgument(0);
+      updates.forEach((documentId, document) -> {
+        if ("road2".equals(documentId) && failed.compareAndSet(false, true)) {
+          throw new RuntimeException("store unavailable");
+        }
+        store.put(documentId, document);
+      });
+      Collection<String> removals = invocation.getArgument(1);
+      removals.forEach(store::remove);
+      return null;
+    }).when(kafkaStore).putAll(any(), any());
+    PatchProcessor processor = new PatchProcessor(kafkaStore, new JsonPatchApplier(mapper));
+    underTest = new TollBooth(mapper, patchConsumer, processor, registry, 1L, 4L);
+    PatchSet append = new PatchSet("road1", singletonList(add("/items/-", "item")));
+    PatchSet create = new PatchSet("road2", singletonList(add("/description", "description")));
+
+    underTest.processPatchSets(records(patch(5L, append), patch(6L, create)));
+
+    assertThat(failed.get(), is(true));
+    assertThat(store.get("road1"), is(mapper.readTree("{\"items\":[\"item\"]}")));
+    assertThat(store.get("road2"), is(mapper.readTree("{\"description\":\"description\"}")));
+    verify(patchConsumer).commitSync();
+  }
+
+  private static BatchResult batch(int applied, int failed) {
+    return new BatchResult(applied, failed, singletonMap("road1", NullNode.getInstance()), emptyList());
+  }
+
+  private ConsumerRecord<String, String> patch(long offset, PatchSet patchSet) throws Exception {
+    return new ConsumerRecord<>(TOPIC, 0, offset, null, mapper.writeValueAsString(patchSet));
+  }
+
+  private ConsumerRecord<String, String> patch(long offset) throws Exception {
+    return patch(offset, patchSet);
+  }
+
+  @SafeVarargs
+  private static ConsumerRecords<String, String> records(ConsumerRecord<String, String>... records) {
+    List<ConsumerRecord<String, String>> list = asList(records);
+    return new ConsumerRecords<>(singletonMap(PARTITION, list));
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.towtruck;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Rebuilds the road model from the snapshot named in a {@link Towtruck} manifest and the deltas written after it. The
+ * snapshot and deltas are read one road at a time, so only the rebuilt model is held in memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class Restorer {
+  private final ObjectMapper mapper;
+  private final Function<String, InputStream> inputStreamFactory;
+  private final Predicate<String> keyExists;
+
+  /**
+   * @return The key of the manifest most recently written under the prefix, or empty if there has been no backup.
+   */
+  Optional<String> latestManifestKey(String keyPrefix) throws IOException {
+    String latestKey = Towtruck.latestKey(keyPrefix);
+    if (!keyExists.test(latestKey)) {
+      return Optional.empty();
+    }
+    try (InputStream input = inputStreamFactory.apply(latestKey)) {
+      return Optional.of(mapper.readValue(input, String.class));
+    }
+  }
+
+  Manifest manifest(String manifestKey) throws IOException {
+    try (InputStream input = inputStreamFactory.apply(manifestKey)) {
+      return mapper.readValue(input, Manifest.class);
+    }
+  }
+
+  Map<String, JsonNode> restore(String manifestKey) throws IOException {
+    log.info("Restoring manifest {}", manifestKey);
+    Manifest manifest = manifest(manifestKey);
+    Map<String, JsonNode> roads = new HashMap<>();
+    log.info("Restoring snapshot {}", manifest.getSnapshot());
+    try (JsonParser parser = parser(manifest.getSnapshot())) {
+      readObject(parser, roads::put);
+    }
+    for (String delta : manifest.getDeltas()) {
+      log.info("Applying delta {}", delta);
+      try (JsonParser parser = parser(delta)) {
+        expect(parser.nextToken(), START_OBJECT);
+        while (parser.nextToken() != END_OBJECT) {
+          String field = parser.getCurrentName();
+          parser.nextToken();
+          if (Towtruck.UPDATED.equals(field)) {
+            readObject(parser, roads::put);
+          } else if (Towtruck.REMOVED.equals(field)) {
+            expect(parser.currentToken(), START_ARRAY);
+            while (parser.nextToken() != END_ARRAY) {
+              roads.remove(parser.getText());
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+      }
+    }
+    log.info("Restored {} roads.", roads.size());
+    return roads;
+  }
+
+  private JsonParser parser(String key) throws IOException {
+    return mapper.getFactory().createParser(inputStreamFactory.apply(key));
+  }
+
+  private void readObject(JsonParser parser, BiConsumer<String, JsonNode> consumer) throws IOException {
+    if (parser.currentToken() != START_OBJECT) {
+      expect(parser.nextToken(), START_OBJECT);
+    }
+    while (parser.nextToken() != END_OBJECT) {
+      String name = parser.getCurrentName();
+      parser.nextToken();
+      consumer.accept(name, mapper.readTree(parser));
+    }
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Expected " + expected + " but found " + actual);
+    }
+  }
+}
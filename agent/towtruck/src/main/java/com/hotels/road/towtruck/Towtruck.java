@@ -17,35 +17,155 @@ package com.hotels.road.towtruck;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Backs up the road model. Every {@code towtruck.fullBackupEvery} runs it writes a full snapshot of the store. The runs
+ * in between write a delta holding only the roads that were added, changed or removed since the previous backup, so
+ * their cost depends on how much changed rather than on the size of the store. Each backup also writes a manifest,
+ * next to it, that lists the snapshot and the deltas to apply on top of it, in order, which is what {@link Restorer}
+ * reads. Earlier manifests are kept; once the new one is written the {@code latest} pointer under the prefix is
+ * rewritten to name it. The first backup after a restart is always a full snapshot, and an empty model is never
+ * published over a backup that holds roads. Not created in restore mode, so no backup runs while the model is being
+ * restored.
+ */
 @Component
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "towtruck.restore", havingValue = "false", matchIfMissing = true)
 @Slf4j
 class Towtruck {
+  static final String SNAPSHOT_SUFFIX = ".json.gz";
+  static final String DELTA_SUFFIX = ".delta.json.gz";
+  static final String MANIFEST_SUFFIX = ".manifest.json.gz";
+  static final String LATEST = "latest.json.gz";
+  static final String UPDATED = "updated";
+  static final String REMOVED = "removed";
+
   private final Map<String, JsonNode> store;
   private final ObjectMapper mapper;
   private final Supplier<String> keySupplier;
   private final Function<String, OutputStream> outputStreamFactory;
+  private final Restorer restorer;
+  private final String keyPrefix;
+  private final int fullBackupEvery;
+  private Map<String, JsonNode> lastBackup;
+  private Manifest manifest;
+
+  Towtruck(
+      Map<String, JsonNode> store,
+      ObjectMapper mapper,
+      Supplier<String> keySupplier,
+      Function<String, OutputStream> outputStreamFactory,
+      Restorer restorer,
+      @Value("${s3.keyPrefix}") String keyPrefix,
+      @Value("${towtruck.fullBackupEvery:24}") int fullBackupEvery) {
+    this.store = store;
+    this.mapper = mapper;
+    this.keySupplier = keySupplier;
+    this.outputStreamFactory = outputStreamFactory;
+    this.restorer = restorer;
+    this.keyPrefix = keyPrefix;
+    this.fullBackupEvery = fullBackupEvery;
+  }
+
+  static String latestKey(String keyPrefix) {
+    return keyPrefix + "/" + LATEST;
+  }
 
   @Scheduled(cron = "0 0 * * * *")
   void performBackup() throws IOException {
-    log.info("Starting backup.");
-    try (OutputStream output = outputStreamFactory.apply(keySupplier.get())) {
-      mapper.writeValue(output, store);
+    Map<String, JsonNode> current = new HashMap<>(store);
+    if (current.isEmpty()) {
+      int publishedRoads = publishedRoads();
+      if (publishedRoads > 0) {
+        throw new IllegalStateException(
+            String.format("Refusing to publish an empty backup over the latest one, which has %d roads.",
+                publishedRoads));
+      }
+    }
+    String baseKey = keySupplier.get();
+    String key = baseKey;
+    Manifest nextManifest;
+    if (lastBackup == null || manifest.getDeltas().size() + 1 >= fullBackupEvery) {
+      log.info("Starting full backup.");
+      key += SNAPSHOT_SUFFIX;
+      try (OutputStream output = outputStreamFactory.apply(key)) {
+        mapper.writeValue(output, current);
+      }
+      nextManifest = new Manifest(key, new ArrayList<>(), current.size());
+    } else {
+      log.info("Starting incremental backup.");
+      key += DELTA_SUFFIX;
+      writeDelta(key, current);
+      List<String> deltas = new ArrayList<>(manifest.getDeltas());
+      deltas.add(key);
+      nextManifest = new Manifest(manifest.getSnapshot(), deltas, current.size());
     }
-    log.info("Backup completed.");
+    String manifestKey = baseKey + MANIFEST_SUFFIX;
+    try (OutputStream output = outputStreamFactory.apply(manifestKey)) {
+      mapper.writeValue(output, nextManifest);
+    }
+    try (OutputStream output = outputStreamFactory.apply(latestKey(keyPrefix))) {
+      mapper.writeValue(output, manifestKey);
+    }
+    lastBackup = current;
+    manifest = nextManifest;
+    log.info("Backup completed: {}", manifestKey);
   }
 
+  /**
+   * @return The number of roads in the latest published backup, which is read back after a restart.
+   */
+  private int publishedRoads() throws IOException {
+    if (manifest != null) {
+      return manifest.getRoads();
+    }
+    Optional<String> latest = restorer.latestManifestKey(keyPrefix);
+    return latest.isPresent() ? restorer.manifest(latest.get()).getRoads() : 0;
+  }
+
+  private void writeDelta(String key, Map<String, JsonNode> current) throws IOException {
+    int updated = 0;
+    int removed = 0;
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStreamFactory.apply(key))) {
+      generator.writeStartObject();
+      generator.writeObjectFieldStart(UPDATED);
+      for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+        JsonNode previous = lastBackup.get(entry.getKey());
+        if (previous == null || !Objects.equals(previous, entry.getValue())) {
+          generator.writeFieldName(entry.getKey());
+          generator.writeTree(entry.getValue());
+          updated++;
+        }
+      }
+      generator.writeEndObject();
+      generator.writeArrayFieldStart(REMOVED);
+      for (String name : lastBackup.keySet()) {
+        if (!current.containsKey(name)) {
+          generator.writeString(name);
+          removed++;
+        }
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    log.info("Delta has {} updated and {} removed roads.", updated, removed);
+  }
 }
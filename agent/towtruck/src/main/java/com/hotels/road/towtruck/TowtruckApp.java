@@ -18,11 +18,14 @@ package com.hotels.road.towtruck;
 import static fm.last.commons.lang.units.IecByteUnit.MEBIBYTES;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Clock;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.joda.time.format.ISODateTimeFormat;
@@ -70,7 +73,7 @@ public class TowtruckApp {
       long millis = clock.millis();
       String date = ISODateTimeFormat.date().withZoneUTC().print(millis);
       String time = ISODateTimeFormat.basicDateTimeNoMillis().withZoneUTC().print(millis);
-      return String.format("%s/%s/%s.json.gz", keyPrefix, date, time);
+      return String.format("%s/%s/%s", keyPrefix, date, time);
     };
   }
 
@@ -102,6 +105,22 @@ public class TowtruckApp {
     };
   }
 
+  @Bean
+  Function<String, InputStream> inputStreamFactory(AmazonS3 s3, @Value("${s3.bucket}") String bucket) {
+    return key -> {
+      try {
+        return new GZIPInputStream(s3.getObject(bucket, key).getObjectContent());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    };
+  }
+
+  @Bean
+  Predicate<String> keyExists(AmazonS3 s3, @Value("${s3.bucket}") String bucket) {
+    return key -> s3.doesObjectExist(bucket, key);
+  }
+
   public static void main(String[] args) {
     DataHighwayApplication.run(TowtruckApp.class, args);
   }
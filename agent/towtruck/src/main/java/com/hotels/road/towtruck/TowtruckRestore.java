@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.towtruck;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Restores the road model topic from a backup and then stops the application. Enabled with
+ * {@code towtruck.restore=true}. The backup is the one whose manifest is named by {@code towtruck.restoreManifest}, if
+ * set, and the latest otherwise. Roads in the backup are written over the ones in the topic; roads that are only in the
+ * topic are left alone.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "towtruck.restore", havingValue = "true")
+@RequiredArgsConstructor
+class TowtruckRestore implements ApplicationRunner {
+  private final Map<String, JsonNode> store;
+  private final Restorer restorer;
+  private final ApplicationContext context;
+  @Value("${s3.keyPrefix}")
+  private String keyPrefix;
+  @Value("${towtruck.restoreManifest:}")
+  private String manifestKey;
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    String key = manifestKey;
+    if (key.isEmpty()) {
+      key = restorer
+          .latestManifestKey(keyPrefix)
+          .orElseThrow(() -> new IllegalStateException("No backup found under " + keyPrefix));
+    }
+    Map<String, JsonNode> roads = restorer.restore(key);
+    store.putAll(roads);
+    log.info("Restored {} roads to the model topic.", roads.size());
+    System.exit(SpringApplication.exit(context));
+  }
+}
@@ -34,6 +34,6 @@ public class TowtruckAppTest {
 
     String result = underTest.keySupplier(clock, "keyPrefix").get();
 
-    assertThat(result, is("keyPrefix/2017-05-04/20170504T134729Z.json.gz"));
+    assertThat(result, is("keyPrefix/2017-05-04/20170504T134729Z"));
   }
 }
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.towtruck;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Backs up a synthetic store of {@code roads} roads, each with a few schemas, through GZIP to a stream that discards
+ * its output. {@code full} writes a snapshot on every run, as Towtruck did before deltas. {@code incremental} changes
+ * {@code changed} roads between runs and backs up with the default of a full snapshot every 24 runs, so its average
+ * includes the cost of the snapshots as well as of the deltas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TowtruckBenchmark {
+  private static final int SCHEMAS = 5;
+
+  @Param({ "10000", "50000" })
+  public int roads;
+  @Param({ "10" })
+  public int changed;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Map<String, JsonNode> store = new HashMap<>();
+  private Towtruck fullTowtruck;
+  private Towtruck incrementalTowtruck;
+  private long run;
+
+  @Setup
+  public void setUp() throws IOException {
+    for (int i = 0; i < roads; i++) {
+      store.put("road" + i, road(i, 0L));
+    }
+    // The store is never empty, so the latest backup is never read back
+    Restorer restorer = new Restorer(mapper, key -> null, key -> false);
+    fullTowtruck = new Towtruck(store, mapper, () -> "key", key -> gzip(), restorer, "prefix", 1);
+    incrementalTowtruck = new Towtruck(store, mapper, () -> "key", key -> gzip(), restorer, "prefix", 24);
+    incrementalTowtruck.performBackup();
+  }
+
+  @Benchmark
+  public void full() throws IOException {
+    fullTowtruck.performBackup();
+  }
+
+  @Benchmark
+  public void incremental() throws IOException {
+    run++;
+    for (int i = 0; i < changed; i++) {
+      int index = (int) ((run * changed + i) % roads);
+      store.put("road" + index, road(index, run));
+    }
+    incrementalTowtruck.performBackup();
+  }
+
+  private JsonNode road(int index, long lastRun) {
+    ObjectNode road = mapper.createObjectNode();
+    road.put("name", "road" + index);
+    road.put("topicName", "road.road" + index);
+    road.put("description", "A synthetic road used to measure backups");
+    road.put("teamName", "team" + index % 100);
+    road.put("enabled", true);
+    road.putObject("destinations").putObject("hive").put("landingInterval", "PT1H").put("lastRun", lastRun);
+    ObjectNode schemas = road.putObject("schemas");
+    for (int i = 1; i <= SCHEMAS; i++) {
+      schemas
+          .putObject(Integer.toString(i))
+          .put("version", i)
+          .put("deleted", false)
+          .put("schema", "{\"type\":\"record\",\"name\":\"r" + i + "\",\"fields\":["
+              + "{\"name\":\"id\",\"type\":\"string\"},{\"name\":\"timestamp\",\"type\":\"long\"},"
+              + "{\"name\":\"payload\",\"type\":\"string\"}]}");
+    }
+    return road;
+  }
+
+  private static OutputStream gzip() {
+    try {
+      return new GZIPOutputStream(new OutputStream() {
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(TowtruckBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -15,12 +15,17 @@
  */
 package com.hotels.road.towtruck;
 
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.inOrder;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -28,7 +33,6 @@ import java.util.function.Supplier;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -38,45 +42,172 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @RunWith(MockitoJUnitRunner.class)
 public class TowtruckTest {
 
-  private static final String KEY = "key";
-  @Mock
-  private Map<String, JsonNode> store;
-  @Mock
-  private ObjectMapper mapper;
+  private static final String PREFIX = "prefix";
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final Map<String, JsonNode> store = new HashMap<>();
+  private final Map<String, ByteArrayOutputStream> objects = new HashMap<>();
+  private final Function<String, InputStream> inputStreamFactory = key -> new ByteArrayInputStream(
+      objects.get(key).toByteArray());
+  private final Restorer restorer = new Restorer(mapper, inputStreamFactory, objects::containsKey);
   @Mock
   private Supplier<String> keySupplier;
-  @Mock
-  private Function<String, OutputStream> outputStreamFactory;
-  @Mock
-  private OutputStream outputStream;
 
   private Towtruck underTest;
 
   @Before
   public void before() {
-    underTest = new Towtruck(store, mapper, keySupplier, outputStreamFactory);
+    underTest = new Towtruck(store, mapper, keySupplier, this::output, restorer, PREFIX, 3);
+  }
+
+  @Test
+  public void fullBackup() throws IOException {
+    when(keySupplier.get()).thenReturn("key1");
+    store.put("road1", road("a"));
+
+    underTest.performBackup();
+
+    assertThat(read("key1.json.gz"), is(mapper.valueToTree(store)));
+    assertThat(read("key1.manifest.json.gz"),
+        is(mapper.readTree("{\"snapshot\":\"key1.json.gz\",\"deltas\":[],\"roads\":1}")));
+    assertThat(restorer.latestManifestKey(PREFIX).get(), is("key1.manifest.json.gz"));
   }
 
   @Test
-  public void happyPath() throws IOException {
-    when(keySupplier.get()).thenReturn(KEY);
-    when(outputStreamFactory.apply(KEY)).thenReturn(outputStream);
+  public void incrementalBackup() throws IOException {
+    when(keySupplier.get()).thenReturn("key1", "key2");
+    store.put("road1", road("a"));
+    store.put("road2", road("b"));
+    store.put("road3", road("c"));
+    underTest.performBackup();
 
+    store.put("road1", road("x"));
+    store.remove("road2");
+    store.put("road4", road("d"));
     underTest.performBackup();
 
-    InOrder inOrder = inOrder(mapper, keySupplier, outputStreamFactory, outputStream);
-    inOrder.verify(keySupplier).get();
-    inOrder.verify(outputStreamFactory).apply(KEY);
-    inOrder.verify(mapper).writeValue(outputStream, store);
-    inOrder.verify(outputStream).close();
+    assertThat(read("key2.delta.json.gz"), is(mapper.readTree(
+        "{\"updated\":{\"road1\":{\"name\":\"x\"},\"road4\":{\"name\":\"d\"}},\"removed\":[\"road2\"]}")));
+    assertThat(read("key2.manifest.json.gz"),
+        is(mapper.readTree("{\"snapshot\":\"key1.json.gz\",\"deltas\":[\"key2.delta.json.gz\"],\"roads\":3}")));
+    assertThat(read("key1.manifest.json.gz"),
+        is(mapper.readTree("{\"snapshot\":\"key1.json.gz\",\"deltas\":[],\"roads\":3}")));
+    assertThat(restorer.latestManifestKey(PREFIX).get(), is("key2.manifest.json.gz"));
+  }
+
+  @Test
+  public void fullBackupAfterDeltas() throws IOException {
+    when(keySupplier.get()).thenReturn("key1", "key2", "key3", "key4");
+
+    underTest.performBackup();
+    underTest.performBackup();
+    underTest.performBackup();
+    underTest.performBackup();
+
+    assertThat(read("key4.manifest.json.gz"),
+        is(mapper.readTree("{\"snapshot\":\"key4.json.gz\",\"deltas\":[],\"roads\":0}")));
+  }
+
+  @Test
+  public void restore() throws IOException {
+    when(keySupplier.get()).thenReturn("key1", "key2", "key3");
+    store.put("road1", road("a"));
+    store.put("road2", road("b"));
+    underTest.performBackup();
+    store.put("road1", road("x"));
+    store.put("road3", road("c"));
+    underTest.performBackup();
+    store.remove("road2");
+    underTest.performBackup();
+
+    Map<String, JsonNode> result = restorer.restore(restorer.latestManifestKey(PREFIX).get());
+
+    assertThat(result, is(store));
+  }
+
+  @Test
+  public void restoreEarlierManifest() throws IOException {
+    when(keySupplier.get()).thenReturn("key1", "key2");
+    store.put("road1", road("a"));
+    underTest.performBackup();
+    Map<String, JsonNode> expected = new HashMap<>(store);
+    store.put("road2", road("b"));
+    underTest.performBackup();
+
+    Map<String, JsonNode> result = restorer.restore("key1.manifest.json.gz");
+
+    assertThat(result, is(expected));
+  }
+
+  @Test
+  public void noBackupToRestore() throws IOException {
+    assertThat(restorer.latestManifestKey(PREFIX).isPresent(), is(false));
+  }
+
+  @Test
+  public void emptyFirstBackup() throws IOException {
+    when(keySupplier.get()).thenReturn("key1");
+
+    underTest.performBackup();
+
+    assertThat(restorer.latestManifestKey(PREFIX).get(), is("key1.manifest.json.gz"));
+  }
+
+  @Test
+  public void emptyBackupRefused() throws IOException {
+    when(keySupplier.get()).thenReturn("key1");
+    store.put("road1", road("a"));
+    underTest.performBackup();
+    store.clear();
+
+    try {
+      underTest.performBackup();
+      fail();
+    } catch (IllegalStateException expected) {}
+
+    assertThat(restorer.latestManifestKey(PREFIX).get(), is("key1.manifest.json.gz"));
+  }
+
+  @Test
+  public void emptyBackupRefusedAfterRestart() throws IOException {
+    when(keySupplier.get()).thenReturn("key1");
+    store.put("road1", road("a"));
+    underTest.performBackup();
+    store.clear();
+    underTest = new Towtruck(store, mapper, keySupplier, this::output, restorer, PREFIX, 3);
+
+    try {
+      underTest.performBackup();
+      fail();
+    } catch (IllegalStateException expected) {}
+
+    assertThat(restorer.latestManifestKey(PREFIX).get(), is("key1.manifest.json.gz"));
   }
 
   @Test(expected = IOException.class)
   public void exception() throws IOException {
-    when(keySupplier.get()).thenReturn(KEY);
-    doThrow(IOException.class).when(outputStreamFactory).apply(KEY);
+    Function<String, OutputStream> outputStreamFactory = key -> new ByteArrayOutputStream() {
+      @Override
+      public void close() throws IOException {
+        throw new IOException();
+      }
+    };
+    when(keySupplier.get()).thenReturn("key1");
+    underTest = new Towtruck(store, mapper, keySupplier, outputStreamFactory, restorer, PREFIX, 3);
 
     underTest.performBackup();
   }
 
+  private OutputStream output(String key) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    objects.put(key, output);
+    return output;
+  }
+
+  private JsonNode read(String key) throws IOException {
+    return mapper.readTree(objects.get(key).toByteArray());
+  }
+
+  private JsonNode road(String name) {
+    return mapper.createObjectNode().put("name", name);
+  }
 }
@@ -15,9 +15,10 @@
  */
 package com.hotels.road.trafficcontrol;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -47,16 +48,21 @@ public class UpdateModel {
 
   @Scheduled(initialDelayString = "${messageStatus.initialdelay:PT60m}", fixedRateString = "${messageStatus.fixedrate:PT60m}")
   public void updateMessageStatusInModel() {
-    Map<String, KafkaRoad> store = new HashMap<>(this.store);
+    List<CompletableFuture<Void>> emitted = new ArrayList<>();
     store.forEach((key, model) -> {
       try {
         List<PatchOperation> operations = adminClient.updateMessageStatus(model);
         if (!operations.isEmpty()) {
-          emitter.emit(new PatchSet(key, operations));
+          emitted.add(emitter.emitAsync(new PatchSet(key, operations)).whenComplete((result, e) -> {
+            if (e != null) {
+              log.warn("Problem emitting MessageStatus patch for model \"{}\"", key, e);
+            }
+          }));
         }
       } catch (Exception e) {
         log.warn("Problem updating MessageStatus model \"{}\"", key, e);
       }
     });
+    emitted.forEach(future -> future.handle((result, e) -> null).join());
   }
 }
@@ -17,6 +17,7 @@ package com.hotels.road.trafficcontrol;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
@@ -58,9 +59,11 @@ public class UpdateModelTest {
   @Test
   public void operations_are_passed_to_emitter() throws Exception {
     MessageStatus status = new MessageStatus(15134544543L, 100);
-    given(adminClient.updateMessageStatus(testRoad)).willReturn(singletonList(add("/messageStatus", status)));
+    PatchSet patchSet = new PatchSet("test_road", singletonList(add("/messageStatus", status)));
+    given(adminClient.updateMessageStatus(testRoad)).willReturn(patchSet.getOperations());
+    given(emitter.emitAsync(patchSet)).willReturn(completedFuture(null));
     messageStatusUpdator.updateMessageStatusInModel();
-    then(emitter).should().emit(new PatchSet("test_road", singletonList(add("/messageStatus", status))));
+    then(emitter).should().emitAsync(patchSet);
   }
 
   @Test
@@ -37,6 +37,7 @@ import com.hotels.road.offramp.model.Connection;
 import com.hotels.road.offramp.model.Event;
 import com.hotels.road.offramp.model.Error;
 import com.hotels.road.offramp.model.Message;
+import com.hotels.road.offramp.model.Messages;
 import com.hotels.road.offramp.model.Rebalance;
 
 @Slf4j
@@ -91,6 +92,8 @@ class OfframpClientImpl<T> implements OfframpClient<T> {
   void onNext(Event event) {
     if (event instanceof Message) {
       messages.onNext((Message<T>) event);
+    } else if (event instanceof Messages) {
+      ((Messages<T>) event).getMessages().forEach(messages::onNext);
     } else if (event instanceof CommitResponse) {
       commitHandler.complete((CommitResponse) event);
     } else if (event instanceof Rebalance) {
@@ -62,11 +62,13 @@ public class OfframpOptions<T> implements Serializable {
   private final @Getter(PACKAGE) int replenishingRequestAmount;
   private final @Getter(PACKAGE) long keepAliveSeconds;
   private final @Getter(PACKAGE) TLSConfig.Factory tlsConfigFactory;
+  private final int maxBatchSize;
 
   URI uri() {
     String grantsParam = grants.stream().map(Sensitivity::name).collect(joining(","));
-    return URI.create(String.format("wss://%s/offramp/v2/roads/%s/streams/%s/messages?defaultOffset=%s&grants=%s", host,
-        roadName, streamName, defaultOffset.name(), grantsParam));
+    String batchParam = maxBatchSize > 1 ? "&maxBatchSize=" + maxBatchSize : "";
+    return URI.create(String.format("wss://%s/offramp/v2/roads/%s/streams/%s/messages?defaultOffset=%s&grants=%s%s",
+        host, roadName, streamName, defaultOffset.name(), grantsParam, batchParam));
   }
 
   ObjectMapper objectMapper() {
@@ -94,6 +96,7 @@ public class OfframpOptions<T> implements Serializable {
     private int replenishingRequestAmount = 1000;
     private long keepAliveSeconds = 30;
     private TLSConfig.Factory tlsConfigFactory;
+    private int maxBatchSize = 1;
 
     /**
      * Required. The user name credential to authenticate with Data Highway.
@@ -250,6 +253,21 @@ public class OfframpOptions<T> implements Serializable {
       return this;
     }
 
+    /**
+     * Optional. The maximum number of messages the server may send in a single frame. Batching reduces the per-message
+     * framing overhead on high volume roads. The default is 1 - every message is sent in its own frame.
+     *
+     * @param maxBatchSize The maximum number of messages per frame.
+     * @return {@link Builder this}
+     */
+    public Builder<T> maxBatchSize(int maxBatchSize) {
+      if (maxBatchSize < 1) {
+        throw new IllegalArgumentException("maxBatchSize must be at least 1");
+      }
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
     /**
      * Creates an {@link OfframpOptions} instance.
      *
@@ -265,7 +283,7 @@ public class OfframpOptions<T> implements Serializable {
       }
       return new OfframpOptions<>(username, password, host, roadName, streamName, defaultOffset, grants, payloadClass,
           payloadTypeFactory, payloadDeserialiser, retry, initialRequestAmount, replenishingRequestAmount,
-          keepAliveSeconds, tlsConfigFactory);
+          keepAliveSeconds, tlsConfigFactory, maxBatchSize);
     }
   }
 }
@@ -44,6 +44,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.hotels.road.offramp.model.Event;
 import com.hotels.road.offramp.model.Message;
+import com.hotels.road.offramp.model.Messages;
 import com.hotels.road.tls.TLSConfig;
 
 @Slf4j
@@ -170,7 +171,7 @@ class WebSocket implements AutoCloseable {
 
   void receive(Event event) {
     if (log.isDebugEnabled()) {
-      if (event instanceof Message) {
+      if (event instanceof Message || event instanceof Messages) {
         log.trace("Received Message Event: {}", event);
       } else {
         log.debug("Received Event: {}", event);
@@ -15,6 +15,7 @@
  */
 package com.hotels.road.offramp.client;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonMap;
@@ -35,6 +36,7 @@ import static org.mockito.Mockito.verify;
 import java.net.URI;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -65,6 +67,7 @@ import com.hotels.road.offramp.model.Error;
 import com.hotels.road.offramp.model.Cancel;
 import com.hotels.road.offramp.model.CommitResponse;
 import com.hotels.road.offramp.model.Message;
+import com.hotels.road.offramp.model.Messages;
 import com.hotels.road.offramp.model.Rebalance;
 import com.hotels.road.offramp.model.Request;
 
@@ -167,6 +170,18 @@ public class OfframpClientImplTest {
     await().pollInterval(100, MILLISECONDS).atMost(1, SECONDS).untilAtomic(result, is(message));
   }
 
+  @Test
+  public void onNext_Messages() throws Exception {
+    doReturn(2).when(options).getInitialRequestAmount();
+    doReturn(2).when(options).getReplenishingRequestAmount();
+    List<Message<String>> result = new CopyOnWriteArrayList<>();
+    Flux.from(underTest.messages()).subscribe(result::add);
+    Message<String> first = new Message<>(0, 1L, 2, 3L, "foo");
+    Message<String> second = new Message<>(0, 2L, 2, 3L, "bar");
+    underTest.onNext(new Messages<>(asList(first, second)));
+    await().pollInterval(100, MILLISECONDS).atMost(1, SECONDS).until(() -> result, is(asList(first, second)));
+  }
+
   @Test
   public void onNext_CommitResponse() throws Exception {
     CommitResponse commitResponse = new CommitResponse("foo", true);
@@ -65,6 +65,25 @@ public class OfframpOptionsTest {
     assertThat(options.isRetry(), is(false));
   }
 
+  @Test
+  public void maxBatchSize() throws Exception {
+    OfframpOptions<String> options = OfframpOptions
+        .builder(String.class)
+        .host("host")
+        .roadName("roadName")
+        .streamName("streamName")
+        .maxBatchSize(100)
+        .build();
+
+    assertThat(options.uri(), is(URI.create("wss://host/offramp/v2/roads/roadName/streams/streamName/messages"
+        + "?defaultOffset=LATEST&grants=&maxBatchSize=100")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMaxBatchSize() throws Exception {
+    OfframpOptions.builder(String.class).maxBatchSize(0);
+  }
+
   @Test(expected = NullPointerException.class)
   public void nullHost() throws Exception {
     OfframpOptions.builder(String.class).host(null);
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.client.simple;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.EntityBuilder;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Writes messages that are already Avro encoded as a length-prefixed batch: each message is preceded by its length as
+ * a 4 byte big-endian integer.
+ */
+class AvroBatchEncoder implements MessageEncoder<byte[]> {
+  static final ContentType AVRO_BATCH = ContentType.create("application/vnd.datahighway.avro-batch");
+
+  @Override
+  public HttpEntity encode(List<byte[]> messages) {
+    int size = 0;
+    for (byte[] message : messages) {
+      size += Integer.BYTES + message.length;
+    }
+    ByteBuffer batch = ByteBuffer.allocate(size);
+    for (byte[] message : messages) {
+      batch.putInt(message.length).put(message);
+    }
+    return EntityBuilder.create().setBinary(batch.array()).setContentType(AVRO_BATCH).gzipCompress().build();
+  }
+}
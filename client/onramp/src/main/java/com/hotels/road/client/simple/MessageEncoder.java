@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.client.simple;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.http.HttpEntity;
+
+/**
+ * Encodes a batch of messages as the body of a single onramp request.
+ */
+@FunctionalInterface
+interface MessageEncoder<T> {
+  HttpEntity encode(List<T> messages) throws IOException;
+}
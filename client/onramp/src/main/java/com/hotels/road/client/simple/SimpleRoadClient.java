@@ -54,6 +54,7 @@ public class SimpleRoadClient<T> implements RoadClient<T> {
   private final @NonNull HttpHandler handler;
   private final @NonNull String roadName;
   private final @NonNull ObjectMapper objectMapper;
+  private final @NonNull MessageEncoder<T> encoder;
 
   @Deprecated
   /** @deprecated Use {@link #SimpleRoadClient(OnrampOptions)} */
@@ -111,7 +112,18 @@ public class SimpleRoadClient<T> implements RoadClient<T> {
   }
 
   public SimpleRoadClient(OnrampOptions options) {
-    this(HttpHandler.onramp(options), options.getRoadName(), options.getObjectMapper());
+    this(HttpHandler.onramp(options), options.getRoadName(), options.getObjectMapper(),
+        json(options.getObjectMapper()));
+  }
+
+  /**
+   * Creates a client for messages that are already Avro encoded, each framed as
+   * {@code <0x00><4 byte schema version><avro datum>} where the version is one of the road's schema versions. Messages
+   * are uploaded as a binary batch, so neither the client nor the onramp has to convert them to or from JSON.
+   */
+  public static SimpleRoadClient<byte[]> avro(OnrampOptions options) {
+    return new SimpleRoadClient<>(HttpHandler.onramp(options), options.getRoadName(), options.getObjectMapper(),
+        new AvroBatchEncoder());
   }
 
   @Override
@@ -122,8 +134,7 @@ public class SimpleRoadClient<T> implements RoadClient<T> {
   @Override
   public List<StandardResponse> sendMessages(List<T> messages) {
     try {
-      String json = objectMapper.writeValueAsString(messages);
-      HttpEntity entity = EntityBuilder.create().setText(json).setContentType(APPLICATION_JSON).gzipCompress().build();
+      HttpEntity entity = encoder.encode(messages);
       HttpResponse response = handler.post("roads/" + roadName + "/messages", entity);
 
       int statusCode = response.getStatusLine().getStatusCode();
@@ -161,6 +172,13 @@ public class SimpleRoadClient<T> implements RoadClient<T> {
     handler.close();
   }
 
+  private static <T> MessageEncoder<T> json(ObjectMapper objectMapper) {
+    return messages -> {
+      String json = objectMapper.writeValueAsString(messages);
+      return EntityBuilder.create().setText(json).setContentType(APPLICATION_JSON).gzipCompress().build();
+    };
+  }
+
   private static OnrampOptions toOptions(String host, String username, String password, String roadName,
                                          int threads, TLSConfig tlsConfig, ObjectMapper objectMapper) {
     return OnrampOptions.builder()
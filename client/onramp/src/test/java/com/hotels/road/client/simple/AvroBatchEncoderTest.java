@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.client.simple;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.HttpEntity;
+import org.junit.Test;
+
+public class AvroBatchEncoderTest {
+  private final AvroBatchEncoder underTest = new AvroBatchEncoder();
+
+  @Test
+  public void lengthPrefixedMessages() throws Exception {
+    byte[] first = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x02 };
+    byte[] second = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01 };
+
+    HttpEntity entity = underTest.encode(Arrays.asList(first, second));
+
+    assertThat(entity.getContentType().getValue(), is("application/vnd.datahighway.avro-batch"));
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    entity.writeTo(body);
+    try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())))) {
+      byte[] message = new byte[in.readInt()];
+      in.readFully(message);
+      assertThat(message, is(first));
+      message = new byte[in.readInt()];
+      in.readFully(message);
+      assertThat(message, is(second));
+      assertThat(in.read(), is(-1));
+    }
+  }
+}
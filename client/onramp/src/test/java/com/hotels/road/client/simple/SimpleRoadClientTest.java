@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
@@ -27,6 +28,7 @@ import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMoc
 
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.http.HttpStatus;
@@ -38,6 +40,7 @@ import org.junit.Test;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 
+import com.hotels.road.client.OnrampOptions;
 import com.hotels.road.client.SimpleModel;
 import com.hotels.road.rest.model.StandardResponse;
 import com.hotels.road.tls.TLSConfig;
@@ -94,6 +97,32 @@ public class SimpleRoadClientTest {
     assertThat(responses.get(2).getMessage(), is("accepted: 2"));
   }
 
+  @Test
+  public void avroMessages() throws Exception {
+    stubFor(post(urlEqualTo("/onramp/v1/roads/" + TEST_ROAD + "/messages"))
+        .withBasicAuth("user", "pass")
+        .withHeader("Content-Type", equalTo("application/vnd.datahighway.avro-batch"))
+        .willReturn(aResponse().withStatus(HttpStatus.SC_OK).withBody(createStubResponse(2, true, "accepted: "))));
+    OnrampOptions options = OnrampOptions
+        .builder()
+        .host(wireMockHostPort)
+        .username("user")
+        .password("pass")
+        .roadName(TEST_ROAD)
+        .threads(THREADS)
+        .tlsConfigFactory(TLSConfig::trustAll)
+        .build();
+
+    try (SimpleRoadClient<byte[]> client = SimpleRoadClient.avro(options)) {
+      List<StandardResponse> responses = client.sendMessages(
+          Arrays.asList(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01 }, new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01 }));
+
+      assertThat(responses.size(), is(2));
+      assertThat(responses.get(1).isSuccess(), is(true));
+      assertThat(responses.get(1).getMessage(), is("accepted: 1"));
+    }
+  }
+
   @Test(expected = OnrampException.class)
   public void internalServerError() throws Exception {
     stubFor(post(urlEqualTo("/onramp/v1/roads/" + TEST_ROAD + "/messages")).willReturn(
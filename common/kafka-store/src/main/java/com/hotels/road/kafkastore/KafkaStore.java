@@ -18,14 +18,17 @@ package com.hotels.road.kafkastore;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -44,10 +47,21 @@ import com.google.common.collect.ForwardingMap;
 import com.hotels.road.kafkastore.exceptions.IgnoreableNoopKeyException;
 import com.hotels.road.kafkastore.serialization.Serializer;
 
+/**
+ * A map backed by a compacted Kafka topic. Writes are sent to the topic and become visible once they have been
+ * consumed back. Reads and iteration go to the latest {@link VersionedMap} snapshot, which the consumer replaces on
+ * every change, so readers never see a partially applied update and never need to copy the map to get a stable view.
+ * <p>
+ * Writes from all threads are queued to a single flusher, which sends whatever is waiting as one batch and then reads
+ * to the end of the topic once for the whole batch, rather than once per write.
+ */
 public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>, AutoCloseable {
   private static final String NULL_VALUE_MESSAGE = "Map does not support storing null values";
   private static final String NULL_KEY_MESSAGE = "Map does not support storing null keys";
 
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final long POLL_TIMEOUT_MS = 100L;
+
   private static final Logger log = LoggerFactory.getLogger(KafkaStore.class);
 
   private final Serializer<K, V> serializer;
@@ -55,7 +69,12 @@ public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>,
   private final List<StoreUpdateObserver<K, V>> observers;
 
   private final KafkaBasedLog<byte[], byte[]> kafkaLog;
-  private final Map<K, V> localStore;
+  private final Map<Integer, Long> positions = new HashMap<>();
+  private long position;
+  private volatile VersionedMap<K, V> snapshot = VersionedMap.empty();
+  private final BlockingQueue<Write> writes = new LinkedBlockingQueue<>();
+  private final Thread flusher;
+  private volatile boolean closed;
 
   public KafkaStore(String bootstrapServers, Serializer<K, V> serializer, String topic) {
     this(bootstrapServers, serializer, topic, emptyList(), new SystemTime(), emptyMap(), emptyMap());
@@ -101,89 +120,208 @@ public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>,
     this.topic = topic;
     this.observers = new ArrayList<>(observers);
 
-    localStore = new HashMap<>();
-
     kafkaLog = createKafkaLog(bootstrapServers, topic, time, additionalProducerProps, additionalConsumerProps);
 
     kafkaLog.start();
+
+    flusher = new Thread(this::flushWrites, "kafka-store-flusher-" + topic);
+    flusher.setDaemon(true);
+    flusher.start();
   }
 
   @Override
   public V put(K key, V value) {
-    try {
-      putInternal(key, value);
-      sync();
-      return value;
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
+    return await(putSynced(key, value));
   }
 
   @Override
   public void putAll(Map<? extends K, ? extends V> m) {
-    try {
-      m.forEach(this::putInternal);
-      sync();
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    }
+    putAll(m, emptyList());
+  }
+
+  /**
+   * Writes the values and the removals of the keys, as tombstones, together: they are all queued before waiting, so
+   * the flusher sends them in the same batches, and the call returns once all of them can be read back from this store.
+   */
+  public void putAll(Map<? extends K, ? extends V> m, Collection<? extends K> removedKeys) {
+    List<CompletableFuture<V>> futures = new ArrayList<>(m.size() + removedKeys.size());
+    m.forEach((key, value) -> futures.add(putSynced(key, value)));
+    removedKeys.forEach(key -> futures.add(removeSynced(key)));
+    futures.forEach(this::await);
+  }
+
+  /**
+   * Queues the value to be written together with any other writes waiting at the time. The future completes once the
+   * value can be read back from this store.
+   */
+  public CompletableFuture<V> putSynced(K key, V value) {
+    return enqueue(serializeKey(key), serializeValue(value), true).thenApply(v -> value);
   }
 
-  private void putInternal(K key, V value) {
-    byte[] keyBytes = requireNonNull(serializer.serializeKey(key), NULL_KEY_MESSAGE);
-    byte[] valueBytes = requireNonNull(serializer.serializeValue(value), NULL_VALUE_MESSAGE);
-    sendInternal(keyBytes, valueBytes);
+  /**
+   * Queues the value to be written together with any other writes waiting at the time. The future completes once Kafka
+   * has acknowledged the write, which may be before the value can be read back from this store. Writes are sent in the
+   * order they are queued, whichever method queued them.
+   */
+  public CompletableFuture<V> putAsync(K key, V value) {
+    return enqueue(serializeKey(key), serializeValue(value), false).thenApply(v -> value);
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public V remove(Object key) {
     try {
-      V value = get(key);
-      removeInternal((K) key);
-      sync();
-      return value;
+      return await(removeSynced((K) key));
     } catch (ClassCastException e) {
       return null;
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Queues the removal of the key together with any other writes waiting at the time. The future completes with the
+   * value the key had when it was queued, once the removal can be read back from this store.
+   */
+  public CompletableFuture<V> removeSynced(K key) {
+    V value = get(key);
+    return enqueue(serializeKey(key), null, true).thenApply(v -> value);
+  }
+
   @Override
   public void clear() {
+    List<CompletableFuture<V>> futures = new ArrayList<>();
+    new ArrayList<>(keySet()).forEach(key -> futures.add(removeSynced(key)));
+    futures.forEach(this::await);
+  }
+
+  private byte[] serializeKey(K key) {
+    return requireNonNull(serializer.serializeKey(key), NULL_KEY_MESSAGE);
+  }
+
+  private byte[] serializeValue(V value) {
+    return requireNonNull(serializer.serializeValue(value), NULL_VALUE_MESSAGE);
+  }
+
+  private <T> T await(CompletableFuture<T> future) {
     try {
-      new ArrayList<>(keySet()).forEach(this::removeInternal);
-      sync();
+      return future.get();
     } catch (InterruptedException e) {
       throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
     }
   }
 
-  private void removeInternal(K key) {
-    byte[] keyBytes = requireNonNull(serializer.serializeKey(key), NULL_KEY_MESSAGE);
-    sendInternal(keyBytes, null);
-  }
-
+  /**
+   * Stops the flusher once it has written everything already queued, then fails any write queued after it stopped.
+   */
   @Override
   public void close() throws Exception {
+    closed = true;
+    flusher.join();
+    failQueuedWrites();
     kafkaLog.stop();
   }
 
   @Override
   protected Map<K, V> delegate() {
-    return localStore;
+    return snapshot;
+  }
+
+  /**
+   * @return The latest snapshot of the store. It does not change, however the store is updated afterwards.
+   */
+  public VersionedMap<K, V> snapshot() {
+    return snapshot;
   }
 
   @VisibleForTesting
   void sync() throws InterruptedException {
     try {
-      kafkaLog.readToEnd().get();
+      syncAsync().get();
     } catch (ExecutionException e) {
       throw new RuntimeException(e.getCause());
     }
   }
 
+  /**
+   * @return A future that completes once the store has read to the end of the topic, so that it reflects every write
+   *         acknowledged by Kafka before it was called.
+   */
+  public CompletableFuture<Void> syncAsync() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    kafkaLog.readToEnd((error, result) -> {
+      if (error == null) {
+        future.complete(null);
+      } else {
+        future.completeExceptionally(error);
+      }
+    });
+    return future;
+  }
+
+  private CompletableFuture<Void> enqueue(byte[] keyBytes, byte[] valueBytes, boolean synced) {
+    Write write = new Write(keyBytes, valueBytes, synced);
+    writes.add(write);
+    // While the flusher is still draining the queue it owns every write in it, including this one; once it has
+    // stopped nothing else will take this write, and close() may already have failed the ones left before it
+    if (closed && !flusher.isAlive()) {
+      failQueuedWrites();
+    }
+    return write.future;
+  }
+
+  /**
+   * Runs on the flusher thread. Takes every write queued at the time, up to {@link #MAX_BATCH_SIZE}, and sends them
+   * together so that the producer can batch them. Writes that only wait for Kafka's acknowledgement are completed as it
+   * arrives. The others are completed after a single read to the end of the topic once the whole batch has been sent.
+   */
+  private void flushWrites() {
+    List<Write> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    while (!closed || !writes.isEmpty()) {
+      try {
+        Write first = writes.poll(POLL_TIMEOUT_MS, MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        writes.drainTo(batch, MAX_BATCH_SIZE - 1);
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (Write write : batch) {
+          CompletableFuture<Void> send = send(write.key, write.value);
+          if (!write.synced) {
+            send.whenComplete(write::complete);
+          }
+          sends.add(send);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          try {
+            sends.get(i).get();
+          } catch (ExecutionException e) {
+            batch.get(i).future.completeExceptionally(e.getCause());
+          }
+        }
+        if (batch.stream().anyMatch(write -> write.synced && !write.future.isDone())) {
+          sync();
+        }
+        batch.forEach(write -> write.future.complete(null));
+      } catch (InterruptedException e) {
+        batch.forEach(write -> write.future.completeExceptionally(e));
+        break;
+      } catch (Exception e) {
+        log.error("Error writing to topic {}", topic, e);
+        batch.forEach(write -> write.future.completeExceptionally(e));
+      }
+      batch.clear();
+    }
+  }
+
+  private void failQueuedWrites() {
+    Write write;
+    while ((write = writes.poll()) != null) {
+      write.future.completeExceptionally(new IllegalStateException("Store is closed"));
+    }
+  }
+
   private KafkaBasedLog<byte[], byte[]> createKafkaLog(
       String bootstrapServers,
       String topic,
@@ -207,6 +345,10 @@ public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>,
   }
 
   private void consume(Throwable error, ConsumerRecord<byte[], byte[]> result) {
+    long nextOffset = result.offset() + 1;
+    position += nextOffset - positions.getOrDefault(result.partition(), 0L);
+    positions.put(result.partition(), nextOffset);
+
     byte[] valueBytes = result.value();
 
     if (result.key() == null) {
@@ -217,11 +359,13 @@ public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>,
     try {
       K key = serializer.deserializeKey(result.key());
       if (valueBytes == null) {
-        V oldValue = localStore.remove(key);
+        V oldValue = snapshot.get(key);
+        snapshot = snapshot.without(position, key);
         observers.forEach(observer -> observer.handleRemove(key, oldValue));
       } else {
         V value = serializer.deserializeValue(valueBytes);
-        V previous = localStore.put(key, value);
+        V previous = snapshot.get(key);
+        snapshot = snapshot.with(position, key, value);
         if (previous == null) {
           observers.forEach(observer -> observer.handleNew(key, value));
         } else {
@@ -233,21 +377,36 @@ public class KafkaStore<K, V> extends ForwardingMap<K, V> implements Map<K, V>,
     }
   }
 
-  private void sendInternal(byte[] keyBytes, byte[] valueBytes) {
-    try {
-      CompletableFuture<Void> future = new CompletableFuture<>();
-      kafkaLog.send(keyBytes, valueBytes, (metadata, sendException) -> {
-        if (sendException == null) {
-          future.complete(null);
-        } else {
-          future.completeExceptionally(sendException);
-        }
-      });
-      future.get();
-    } catch (InterruptedException e) {
-      throw new RuntimeException(e);
-    } catch (ExecutionException e) {
-      throw new RuntimeException(e.getCause());
+  private CompletableFuture<Void> send(byte[] keyBytes, byte[] valueBytes) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    kafkaLog.send(keyBytes, valueBytes, (metadata, sendException) -> {
+      if (sendException == null) {
+        future.complete(null);
+      } else {
+        future.completeExceptionally(sendException);
+      }
+    });
+    return future;
+  }
+
+  private static class Write {
+    private final byte[] key;
+    private final byte[] value;
+    private final boolean synced;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    Write(byte[] key, byte[] value, boolean synced) {
+      this.key = key;
+      this.value = value;
+      this.synced = synced;
+    }
+
+    void complete(Void result, Throwable error) {
+      if (error == null) {
+        future.complete(result);
+      } else {
+        future.completeExceptionally(error);
+      }
     }
   }
 }
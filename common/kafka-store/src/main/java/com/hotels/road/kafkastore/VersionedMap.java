@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.kafkastore;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * An immutable snapshot of a {@link KafkaStore}, safe to read and iterate from any thread without locking. The entries
+ * are spread over a fixed number of shards; an update copies only the shard holding the key and shares the rest with
+ * the previous snapshot. The version is the position in the store's topic that the snapshot reflects. It only increases
+ * and changes only when the content does, so comparing it with a version seen earlier tells whether anything changed.
+ * <p>
+ * A {@link KafkaStore} reads and iterates through the snapshot that is current when the call is made. Each iteration
+ * over the store, {@code forEach} included, therefore sees one consistent version of it however the store is updated
+ * meanwhile, and callers do not need to copy the store to get a stable view.
+ */
+public final class VersionedMap<K, V> extends AbstractMap<K, V> {
+  private static final int SHARDS = 64;
+  private static final VersionedMap<?, ?> EMPTY = new VersionedMap<>(0L, emptyShards(), 0);
+
+  private final long version;
+  private final Map<K, V>[] shards;
+  private final int size;
+  private final Set<Entry<K, V>> entrySet = new EntrySet();
+
+  private VersionedMap(long version, Map<K, V>[] shards, int size) {
+    this.version = version;
+    this.shards = shards;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> VersionedMap<K, V> empty() {
+    return (VersionedMap<K, V>) EMPTY;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public V get(Object key) {
+    return shard(key).get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return shard(key).containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return entrySet;
+  }
+
+  VersionedMap<K, V> with(long version, K key, V value) {
+    int index = index(key);
+    if (shards[index].containsKey(key) && Objects.equals(shards[index].get(key), value)) {
+      return this;
+    }
+    Map<K, V> shard = new HashMap<>(shards[index]);
+    boolean added = !shard.containsKey(key);
+    shard.put(key, value);
+    return new VersionedMap<>(version, replace(index, shard), added ? size + 1 : size);
+  }
+
+  VersionedMap<K, V> without(long version, K key) {
+    int index = index(key);
+    if (!shards[index].containsKey(key)) {
+      return this;
+    }
+    Map<K, V> shard = new HashMap<>(shards[index]);
+    shard.remove(key);
+    return new VersionedMap<>(version, replace(index, shard), size - 1);
+  }
+
+  private Map<K, V> shard(Object key) {
+    return shards[index(key)];
+  }
+
+  private Map<K, V>[] replace(int index, Map<K, V> shard) {
+    Map<K, V>[] result = Arrays.copyOf(shards, SHARDS);
+    result[index] = unmodifiableMap(shard);
+    return result;
+  }
+
+  private static int index(Object key) {
+    if (key == null) {
+      return 0;
+    }
+    int hash = key.hashCode();
+    return (hash ^ hash >>> 16) & SHARDS - 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Map<K, V>[] emptyShards() {
+    Map<K, V>[] shards = new Map[SHARDS];
+    Arrays.fill(shards, unmodifiableMap(new HashMap<>()));
+    return shards;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<K, V>> {
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+      return Iterators.concat(Arrays.stream(shards).map(shard -> shard.entrySet().iterator()).iterator());
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -15,14 +15,24 @@
  */
 package com.hotels.road.kafkastore;
 
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.kafka.streams.integration.utils.EmbeddedKafkaCluster;
 import org.junit.BeforeClass;
@@ -74,6 +84,18 @@ public class KafkaStoreTest {
     }
   }
 
+  @Test
+  public void syncAsyncReadsAnotherStoresWrites() throws Exception {
+    String key = UUID.randomUUID().toString();
+    try (KafkaStore<String, String> store1 = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC);
+        KafkaStore<String, String> store2 = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      store1.put(key, "test-value");
+
+      store2.syncAsync().get();
+      assertThat(store2.get(key), is("test-value"));
+    }
+  }
+
   @Test
   public void setAndGetValueInAnotherStore() throws Exception {
     String key = UUID.randomUUID().toString();
@@ -115,6 +137,18 @@ public class KafkaStoreTest {
     }
   }
 
+  @Test
+  public void putAllWithRemovals() throws Exception {
+    String key1 = UUID.randomUUID().toString();
+    String key2 = UUID.randomUUID().toString();
+    try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      store.put(key1, "1");
+      store.putAll(singletonMap(key2, "2"), singletonList(key1));
+      assertThat(store.containsKey(key1), is(false));
+      assertThat(store.get(key2), is("2"));
+    }
+  }
+
   @Test
   public void verifySizeIsCorrectAfterClear() throws Exception {
     String key1 = UUID.randomUUID().toString();
@@ -131,6 +165,97 @@ public class KafkaStoreTest {
     }
   }
 
+  @Test
+  public void snapshotsAreVersioned() throws Exception {
+    String key1 = UUID.randomUUID().toString();
+    String key2 = UUID.randomUUID().toString();
+    try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      store.put(key1, "value1");
+      VersionedMap<String, String> snapshot = store.snapshot();
+      store.put(key2, "value2");
+
+      assertThat(snapshot.containsKey(key1), is(true));
+      assertThat(snapshot.containsKey(key2), is(false));
+      assertThat(store.snapshot().getVersion() > snapshot.getVersion(), is(true));
+      assertThat(store.get(key2), is("value2"));
+    }
+  }
+
+  @Test
+  public void rewritingTheSameValueKeepsTheVersion() throws Exception {
+    String key = UUID.randomUUID().toString();
+    try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      store.put(key, "value");
+      VersionedMap<String, String> snapshot = store.snapshot();
+      store.put(key, "value");
+
+      assertThat(store.snapshot(), is(sameInstance(snapshot)));
+    }
+  }
+
+  @Test
+  public void putAsyncValueAvailableAfterSync() throws Exception {
+    String key = UUID.randomUUID().toString();
+    try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      assertThat(store.putAsync(key, "test-value").get(), is("test-value"));
+      store.sync();
+      assertThat(store.get(key), is("test-value"));
+    }
+  }
+
+  @Test
+  public void concurrentPutsImmediatelyAvailable() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
+      Map<String, CompletableFuture<String>> puts = new HashMap<>();
+      for (int i = 0; i < 100; i++) {
+        String key = UUID.randomUUID().toString();
+        String value = Integer.toString(i);
+        puts.put(key, CompletableFuture.supplyAsync(() -> store.put(key, value), executor));
+      }
+      for (Map.Entry<String, CompletableFuture<String>> put : puts.entrySet()) {
+        String value = put.getValue().get();
+        assertThat(store.get(put.getKey()), is(value));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void putSyncedAfterCloseFails() throws Throwable {
+    KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC);
+    store.close();
+    try {
+      store.putSynced("key", "value").get();
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Test
+  public void writesQueuedBeforeCloseAreWritten() throws Exception {
+    KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC);
+    List<CompletableFuture<String>> queued = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      queued.add(store.putSynced(UUID.randomUUID().toString(), Integer.toString(i)));
+    }
+    CompletableFuture<Void> closing = CompletableFuture.runAsync(() -> {
+      try {
+        store.close();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    CompletableFuture<String> late = store.putSynced("late", "value");
+    closing.get();
+
+    for (int i = 0; i < queued.size(); i++) {
+      assertThat(queued.get(i).get(), is(Integer.toString(i)));
+    }
+    assertThat(late.isDone(), is(true));
+  }
+
   @Test
   public void nullKeyIsStored() throws Exception {
     try (KafkaStore<String, String> store = new KafkaStore<>(CLUSTER.bootstrapServers(), SERIALIZER, TOPIC)) {
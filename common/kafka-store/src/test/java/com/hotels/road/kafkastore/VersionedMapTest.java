@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.kafkastore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class VersionedMapTest {
+  private final VersionedMap<String, String> empty = VersionedMap.empty();
+
+  @Test
+  public void with() {
+    VersionedMap<String, String> one = empty.with(1L, "a", "1");
+    VersionedMap<String, String> two = one.with(2L, "b", "2");
+
+    assertThat(one, is(ImmutableMap.of("a", "1")));
+    assertThat(one.getVersion(), is(1L));
+    assertThat(two, is(ImmutableMap.of("a", "1", "b", "2")));
+    assertThat(two.getVersion(), is(2L));
+    assertThat(empty.isEmpty(), is(true));
+  }
+
+  @Test
+  public void withExistingKey() {
+    VersionedMap<String, String> result = empty.with(1L, "a", "1").with(2L, "a", "2");
+
+    assertThat(result, is(ImmutableMap.of("a", "2")));
+    assertThat(result.size(), is(1));
+  }
+
+  @Test
+  public void without() {
+    VersionedMap<String, String> one = empty.with(1L, "a", "1").with(2L, "b", "2");
+    VersionedMap<String, String> two = one.without(3L, "a");
+
+    assertThat(two, is(ImmutableMap.of("b", "2")));
+    assertThat(two.getVersion(), is(3L));
+    assertThat(one.get("a"), is("1"));
+  }
+
+  @Test
+  public void withoutMissingKey() {
+    VersionedMap<String, String> one = empty.with(1L, "a", "1");
+
+    assertThat(one.without(2L, "b"), is(sameInstance(one)));
+  }
+
+  @Test
+  public void nullKeyAndValue() {
+    VersionedMap<String, String> result = empty.with(1L, null, "1").with(2L, "a", null);
+
+    assertThat(result.get(null), is("1"));
+    assertThat(result.containsKey("a"), is(true));
+    assertThat(result.get("a"), is(nullValue()));
+  }
+
+  @Test
+  public void manyKeys() {
+    Map<String, String> expected = new HashMap<>();
+    VersionedMap<String, String> result = empty;
+    for (int i = 0; i < 1000; i++) {
+      expected.put("key" + i, "value" + i);
+      result = result.with(i, "key" + i, "value" + i);
+    }
+
+    assertThat(result, is(expected));
+    assertThat(result.entrySet().size(), is(1000));
+  }
+
+  @Test
+  public void withSameValue() {
+    VersionedMap<String, String> one = empty.with(1L, "a", "1");
+
+    assertThat(one.with(2L, "a", "1"), is(sameInstance(one)));
+    assertThat(one.with(2L, "b", null).getVersion(), is(2L));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutable() {
+    empty.with(1L, "a", "1").put("b", "2");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void entriesImmutable() {
+    Iterator<Entry<String, String>> iterator = empty.with(1L, "a", "1").entrySet().iterator();
+    iterator.next().setValue("2");
+  }
+}
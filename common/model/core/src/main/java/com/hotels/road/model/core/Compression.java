@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.model.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Range.closed;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import lombok.Data;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+
+/**
+ * The codec, and optionally the level, that a road's data is compressed with when it is landed. It is held in the
+ * road's metadata under {@link #CODEC} and {@link #LEVEL}. Roads without a codec are landed with the lander's default.
+ */
+@Data
+public class Compression {
+  public static final String CODEC = "compression.codec";
+  public static final String LEVEL = "compression.level";
+  public static final String NULL_CODEC = "null";
+  public static final String DEFLATE_CODEC = "deflate";
+  public static final String SNAPPY_CODEC = "snappy";
+  public static final String BZIP2_CODEC = "bzip2";
+  public static final String XZ_CODEC = "xz";
+  public static final String ZSTANDARD_CODEC = "zstandard";
+  public static final Set<String> CODECS = ImmutableSet
+      .of(NULL_CODEC, DEFLATE_CODEC, SNAPPY_CODEC, BZIP2_CODEC, XZ_CODEC, ZSTANDARD_CODEC);
+  private static final Map<String, Range<Integer>> LEVELS = ImmutableMap
+      .of(DEFLATE_CODEC, closed(1, 9), XZ_CODEC, closed(0, 9), ZSTANDARD_CODEC, closed(1, 22));
+
+  private final String codec;
+  private final Integer level;
+
+  /**
+   * @throws IllegalArgumentException if the codec is not supported, or the level is out of the codec's range.
+   */
+  public static Compression of(String codec, Integer level) {
+    checkArgument(CODECS.contains(codec), "Unsupported compression codec: %s", codec);
+    if (level != null) {
+      Range<Integer> levels = LEVELS.get(codec);
+      checkArgument(levels != null, "The %s codec does not take a compression level", codec);
+      checkArgument(levels.contains(level), "The compression level of the %s codec must be in %s", codec, levels);
+    }
+    return new Compression(codec, level);
+  }
+
+  /**
+   * @return The compression held in the metadata, or empty if the metadata has no codec.
+   * @throws IllegalArgumentException if the metadata holds an invalid codec or level.
+   */
+  public static Optional<Compression> fromMetadata(Map<String, String> metadata) {
+    if (metadata == null || metadata.get(CODEC) == null) {
+      return Optional.empty();
+    }
+    String level = metadata.get(LEVEL);
+    try {
+      return Optional.of(of(metadata.get(CODEC), level == null ? null : Integer.valueOf(level)));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("The compression level must be an integer: " + level, e);
+    }
+  }
+
+  /**
+   * @return A copy of the metadata that holds this compression in place of any previous one.
+   */
+  public Map<String, String> toMetadata(Map<String, String> metadata) {
+    Map<String, String> result = metadata == null ? new HashMap<>() : new HashMap<>(metadata);
+    result.put(CODEC, codec);
+    if (level == null) {
+      result.remove(LEVEL);
+    } else {
+      result.put(LEVEL, level.toString());
+    }
+    return result;
+  }
+}
@@ -24,10 +24,14 @@ public class HiveDestination implements Destination {
 
   public static final String TYPE = "hive";
   public static final String DEFAULT_LANDING_INTERVAL = Duration.ofHours(1).toString();
+  public static final String AVRO_FORMAT = "avro";
+  public static final String PARQUET_FORMAT = "parquet";
+  public static final String DEFAULT_FORMAT = AVRO_FORMAT;
 
   private String name;
   private boolean enabled;
   private String landingInterval = DEFAULT_LANDING_INTERVAL;
+  private String format = DEFAULT_FORMAT;
   private HiveDestinationStatus status = new HiveDestinationStatus();
 
   @Override
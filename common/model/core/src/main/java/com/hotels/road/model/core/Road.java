@@ -18,13 +18,22 @@ package com.hotels.road.model.core;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.hotels.road.rest.model.Authorisation;
 import com.hotels.road.rest.model.RoadType;
 import com.hotels.road.schema.chronology.SchemaCompatibility;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
+@EqualsAndHashCode(exclude = "index")
+@ToString(exclude = "index")
 public class Road {
   public static final String DEFAULT_COMPATIBILITY_MODE = SchemaCompatibility.CAN_READ_ALL.name();
   private String name;
@@ -44,4 +53,26 @@ public class Road {
   private String compatibilityMode = DEFAULT_COMPATIBILITY_MODE;
   private MessageStatus messageStatus;
   private boolean deleted;
+  @JsonIgnore
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile RoadIndex index;
+
+  /**
+   * @return The index built by {@link #indexed()} or, for a road that was never indexed, a new one.
+   */
+  @JsonIgnore
+  public RoadIndex getIndex() {
+    RoadIndex index = this.index;
+    return index == null ? RoadIndex.of(schemas) : index;
+  }
+
+  /**
+   * Builds the index of this road once it is complete. Readers that load roads into a store call this, as those roads
+   * are never changed afterwards. Changing the schemas of an indexed road leaves its index stale.
+   */
+  public Road indexed() {
+    index = RoadIndex.of(schemas);
+    return this;
+  }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.model.core;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable lookups over the schemas of a {@link Road}, built once when the road is loaded into a store so that the
+ * latest active schema and a schema by version are found without scanning every version on each request. Versions are
+ * held in an array indexed by version number unless they are too sparse for that, in which case a map is used.
+ */
+public final class RoadIndex {
+  private static final int MAX_SPARE_SLOTS = 64;
+
+  private final SchemaVersion latest;
+  private final SchemaVersion[] versions;
+  private final Map<Integer, SchemaVersion> versionMap;
+  private final Map<Integer, SchemaVersion> active;
+
+  private RoadIndex(Map<Integer, SchemaVersion> schemas) {
+    SchemaVersion latest = null;
+    int minVersion = 0;
+    int maxVersion = 0;
+    Map<Integer, SchemaVersion> active = new HashMap<>();
+    for (SchemaVersion schemaVersion : schemas.values()) {
+      minVersion = Math.min(minVersion, schemaVersion.getVersion());
+      maxVersion = Math.max(maxVersion, schemaVersion.getVersion());
+      if (!schemaVersion.isDeleted()) {
+        active.put(schemaVersion.getVersion(), schemaVersion);
+        if (latest == null || schemaVersion.getVersion() > latest.getVersion()) {
+          latest = schemaVersion;
+        }
+      }
+    }
+    this.latest = latest;
+    this.active = active.isEmpty() ? emptyMap() : unmodifiableMap(active);
+    if (minVersion >= 0 && maxVersion <= schemas.size() * 2 + MAX_SPARE_SLOTS) {
+      versions = new SchemaVersion[maxVersion + 1];
+      schemas.values().forEach(schemaVersion -> versions[schemaVersion.getVersion()] = schemaVersion);
+      versionMap = null;
+    } else {
+      versions = null;
+      versionMap = unmodifiableMap(new HashMap<>(schemas));
+    }
+  }
+
+  public static RoadIndex of(Map<Integer, SchemaVersion> schemas) {
+    return new RoadIndex(schemas == null ? emptyMap() : schemas);
+  }
+
+  /**
+   * @return The active schema with the highest version, as {@link SchemaVersion#latest(Iterable)} would find.
+   */
+  public Optional<SchemaVersion> latest() {
+    return Optional.ofNullable(latest);
+  }
+
+  /**
+   * @return The schema with the given version, whether or not it is deleted.
+   */
+  public Optional<SchemaVersion> version(int version) {
+    if (versions == null) {
+      return Optional.ofNullable(versionMap.get(version));
+    }
+    return version >= 0 && version < versions.length ? Optional.ofNullable(versions[version]) : Optional.empty();
+  }
+
+  /**
+   * @return The schemas that are not deleted, by version.
+   */
+  public Map<Integer, SchemaVersion> active() {
+    return active;
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.model.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class CompressionTest {
+
+  @Test
+  public void fromMetadata() {
+    Map<String, String> metadata = ImmutableMap.of("compression.codec", "zstandard", "compression.level", "19");
+
+    assertThat(Compression.fromMetadata(metadata), is(Optional.of(new Compression("zstandard", 19))));
+  }
+
+  @Test
+  public void fromMetadataWithoutLevel() {
+    Map<String, String> metadata = ImmutableMap.of("compression.codec", "snappy");
+
+    assertThat(Compression.fromMetadata(metadata), is(Optional.of(new Compression("snappy", null))));
+  }
+
+  @Test
+  public void fromMetadataWithoutCodec() {
+    assertThat(Compression.fromMetadata(ImmutableMap.of("foo", "bar")), is(Optional.empty()));
+    assertThat(Compression.fromMetadata(null), is(Optional.empty()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void levelNotAnInteger() {
+    Compression.fromMetadata(ImmutableMap.of("compression.codec", "deflate", "compression.level", "high"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedCodec() {
+    Compression.of("lz4", null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void levelOutOfRange() {
+    Compression.of("deflate", 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void levelNotTaken() {
+    Compression.of("snappy", 1);
+  }
+
+  @Test
+  public void toMetadata() {
+    Map<String, String> metadata = ImmutableMap.of("foo", "bar", "compression.codec", "xz", "compression.level", "6");
+
+    Map<String, String> result = Compression.of("bzip2", null).toMetadata(metadata);
+
+    assertThat(result, is(ImmutableMap.of("foo", "bar", "compression.codec", "bzip2")));
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.model.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class RoadIndexTest {
+  private final SchemaVersion schemaVersion1 = new SchemaVersion(null, 1, false);
+  private final SchemaVersion schemaVersion2 = new SchemaVersion(null, 2, false);
+  private final SchemaVersion schemaVersion3 = new SchemaVersion(null, 3, true);
+
+  @Test
+  public void latest() {
+    RoadIndex underTest = RoadIndex.of(schemas(schemaVersion1, schemaVersion2, schemaVersion3));
+
+    assertThat(underTest.latest(), is(Optional.of(schemaVersion2)));
+  }
+
+  @Test
+  public void latestAllDeleted() {
+    RoadIndex underTest = RoadIndex.of(schemas(schemaVersion3));
+
+    assertThat(underTest.latest(), is(Optional.empty()));
+  }
+
+  @Test
+  public void version() {
+    RoadIndex underTest = RoadIndex.of(schemas(schemaVersion1, schemaVersion2, schemaVersion3));
+
+    assertThat(underTest.version(1), is(Optional.of(schemaVersion1)));
+    assertThat(underTest.version(3), is(Optional.of(schemaVersion3)));
+    assertThat(underTest.version(4), is(Optional.empty()));
+    assertThat(underTest.version(-1), is(Optional.empty()));
+  }
+
+  @Test
+  public void sparseVersions() {
+    SchemaVersion schemaVersion1000 = new SchemaVersion(null, 1000, false);
+    RoadIndex underTest = RoadIndex.of(schemas(schemaVersion1, schemaVersion1000));
+
+    assertThat(underTest.version(1000), is(Optional.of(schemaVersion1000)));
+    assertThat(underTest.version(999), is(Optional.empty()));
+    assertThat(underTest.latest(), is(Optional.of(schemaVersion1000)));
+  }
+
+  @Test
+  public void active() {
+    RoadIndex underTest = RoadIndex.of(schemas(schemaVersion1, schemaVersion2, schemaVersion3));
+
+    assertThat(underTest.active(), is(ImmutableMap.of(1, schemaVersion1, 2, schemaVersion2)));
+  }
+
+  @Test
+  public void noSchemas() {
+    RoadIndex underTest = RoadIndex.of(null);
+
+    assertThat(underTest.latest(), is(Optional.empty()));
+    assertThat(underTest.version(1), is(Optional.empty()));
+  }
+
+  @Test
+  public void indexedRoadKeepsItsIndex() {
+    Road road = new Road();
+    road.setSchemas(schemas(schemaVersion1));
+
+    RoadIndex index = road.indexed().getIndex();
+
+    assertThat(road.getIndex(), is(sameInstance(index)));
+    assertThat(index.latest(), is(Optional.of(schemaVersion1)));
+  }
+
+  @Test
+  public void unindexedRoadSeesSchemaChanges() {
+    Road road = new Road();
+    road.getSchemas().put(1, schemaVersion1);
+    assertThat(road.getIndex().latest(), is(Optional.of(schemaVersion1)));
+
+    road.getSchemas().put(2, schemaVersion2);
+    assertThat(road.getIndex().latest(), is(Optional.of(schemaVersion2)));
+  }
+
+  @Test
+  public void indexIsNotPartOfEquality() {
+    Road road = new Road();
+    road.setSchemas(schemas(schemaVersion1));
+    Road indexed = new Road();
+    indexed.setSchemas(schemas(schemaVersion1));
+
+    assertThat(indexed.indexed(), is(road));
+  }
+
+  private static Map<Integer, SchemaVersion> schemas(SchemaVersion... schemaVersions) {
+    Map<Integer, SchemaVersion> schemas = new HashMap<>();
+    for (SchemaVersion schemaVersion : schemaVersions) {
+      schemas.put(schemaVersion.getVersion(), schemaVersion);
+    }
+    return schemas;
+  }
+}
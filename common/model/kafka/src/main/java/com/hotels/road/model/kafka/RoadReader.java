@@ -57,7 +57,7 @@ public class RoadReader implements ModelReader<Road> {
   @Override
   public Road read(JsonNode json) {
     try {
-      return reader.readValue(json);
+      return reader.<Road> readValue(json).indexed();
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
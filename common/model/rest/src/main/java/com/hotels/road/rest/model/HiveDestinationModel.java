@@ -32,6 +32,8 @@ public class HiveDestinationModel {
       + MINIMUM_DURATION_STRING
       + " and "
       + MAXIMUM_DURATION_STRING;
+  private static final String FORMAT_DESCRIPTION = "Specifies the file format that data is landed in, either "
+      + "\"avro\" or \"parquet\", defaults to \"avro\". Changing the format applies to partitions landed from then on.";
 
   @ApiModelProperty(name = "enabled", value = "Specifies if the destination is enabled.")
   private boolean enabled;
@@ -39,4 +41,7 @@ public class HiveDestinationModel {
   @ApiModelProperty(name = "landingInterval", value = LANDING_INTERVAL_DESCRIPTION, example = "\"PT1H\"")
   private String landingInterval;
 
+  @ApiModelProperty(name = "format", value = FORMAT_DESCRIPTION, example = "\"avro\"")
+  private String format;
+
 }
@@ -15,10 +15,15 @@
  */
 package com.hotels.road.s3.io;
 
+import static java.lang.Math.min;
+
 import static fm.last.commons.lang.units.IecByteUnit.MEBIBYTES;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import fm.last.commons.lang.templates.RetryTemplate;
@@ -31,16 +36,17 @@ import com.hotels.road.io.AbortableOutputStream;
 
 /**
  * An {@link OutputStream} wrapper for performing a S3 multipart uploads with support for retries and asynchronous
- * uploads of individual parts.
+ * uploads of individual parts. Parts are written into buffers taken from a {@link S3PartBufferPool} and returned to it
+ * once uploaded.
  */
 @RequiredArgsConstructor
 public class S3MultipartOutputStream extends AbortableOutputStream {
   public static final int MINIMUM_PART_SIZE = (int) MEBIBYTES.toBytes(5L);
 
   private final S3MultipartUpload upload;
-  private final int partSize;
   private final RetryTemplate retry;
   private final AsyncHandler<PartETag> asyncHandler;
+  private final S3PartBufferPool bufferPool;
 
   private String uploadId;
   private int partNumber = 1;
@@ -49,22 +55,49 @@ public class S3MultipartOutputStream extends AbortableOutputStream {
 
   @Override
   public void write(int b) throws IOException {
+    S3PartOutputStream current = part();
+    current.write(b);
+    if (current.remaining() == 0) {
+      performUpload();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    checkPositionIndexes(off, off + len, b.length);
+    while (len > 0) {
+      S3PartOutputStream current = part();
+      int n = min(len, current.remaining());
+      current.write(b, off, n);
+      off += n;
+      len -= n;
+      if (current.remaining() == 0) {
+        performUpload();
+      }
+    }
+  }
+
+  private S3PartOutputStream part() {
     if (part == null) {
       if (partNumber == 1) {
         uploadId = upload.start();
       }
-      part = new S3PartOutputStream(partSize, partNumber++);
-    }
-    part.write(b);
-    if (part.size() >= partSize) {
-      performUpload();
+      part = new S3PartOutputStream(bufferPool.acquire(), partNumber++);
     }
+    return part;
   }
 
   private void performUpload() {
     if (part != null) {
       S3Part s3Part = part.s3Part();
-      asyncHandler.supply(() -> performUpload(s3Part));
+      ByteBuffer buffer = part.buffer();
+      asyncHandler.supply(() -> {
+        try {
+          return performUpload(s3Part);
+        } finally {
+          bufferPool.release(buffer);
+        }
+      });
       part = null;
       try {
         asyncHandler.checkForFailures();
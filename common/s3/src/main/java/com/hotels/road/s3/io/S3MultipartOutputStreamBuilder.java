@@ -42,6 +42,7 @@ public class S3MultipartOutputStreamBuilder {
   private int sleepSeconds;
   private int poolSize;
   private int queueSize;
+  private S3PartBufferPool bufferPool;
 
   S3MultipartOutputStreamBuilder() {}
 
@@ -74,6 +75,14 @@ public class S3MultipartOutputStreamBuilder {
     return this;
   }
 
+  /**
+   * Shares a pool of part buffers between streams. Without one, each stream recycles its own buffers.
+   */
+  public S3MultipartOutputStreamBuilder bufferPool(S3PartBufferPool bufferPool) {
+    this.bufferPool = bufferPool;
+    return this;
+  }
+
   public AbortableOutputStream build() {
     checkNotNull(s3);
     checkArgument(trimToNull(bucket) != null);
@@ -83,12 +92,17 @@ public class S3MultipartOutputStreamBuilder {
     checkArgument(sleepSeconds >= 0);
     checkArgument(poolSize > 0);
     checkArgument(queueSize > 0);
+    checkArgument(bufferPool == null || bufferPool.getBufferSize() == partSize);
 
     S3MultipartUpload upload = new S3MultipartUpload(s3, bucket, key, enableServerSideEncryption);
     RetryTemplate retry = new RetryTemplate(maxAttempts, sleepSeconds);
     ExecutorService executor = new BlockingExecutor(poolSize, queueSize);
     AsyncHandler<PartETag> asyncHandler = new AsyncHandler<>(executor);
+    S3PartBufferPool pool = bufferPool;
+    if (pool == null) {
+      pool = new S3PartBufferPool(partSize, poolSize + queueSize, false);
+    }
 
-    return new S3MultipartOutputStream(upload, partSize, retry, asyncHandler);
+    return new S3MultipartOutputStream(upload, retry, asyncHandler, pool);
   }
 }
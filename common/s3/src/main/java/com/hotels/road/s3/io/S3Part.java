@@ -16,6 +16,7 @@
 package com.hotels.road.s3.io;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Simple container class for holding items required by {@link S3MultipartUpload#upload(String, S3Part)}.
@@ -26,5 +27,13 @@ class S3Part {
   private final int number;
   private final int size;
   private final String md5;
-  private final InputStream inputStream;
+  @lombok.Getter(lombok.AccessLevel.NONE)
+  private final ByteBuffer data;
+
+  /**
+   * Returns a new stream over the part's bytes, so that a retried upload reads them from the start.
+   */
+  InputStream getInputStream() {
+    return new ByteBufferInputStream(data.duplicate());
+  }
 }
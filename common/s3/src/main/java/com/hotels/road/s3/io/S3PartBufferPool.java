@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.s3.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Recycles the buffers that parts are written to, so that each part does not allocate (and the garbage collector does
+ * not have to reclaim) a new part sized array. Buffers are allocated on demand and returned to the pool once their part
+ * has been uploaded; up to {@code maxIdle} of them are kept for reuse. A pool may be shared by many streams with the
+ * same part size. Direct buffers keep part data off the heap.
+ */
+public class S3PartBufferPool {
+  private final @lombok.Getter int bufferSize;
+  private final int maxIdle;
+  private final boolean direct;
+  private final Deque<ByteBuffer> idle = new ArrayDeque<>();
+
+  public S3PartBufferPool(int bufferSize, int maxIdle, boolean direct) {
+    checkArgument(bufferSize > 0, "bufferSize must be positive (given %s)", bufferSize);
+    checkArgument(maxIdle >= 0, "maxIdle cannot be negative (given %s)", maxIdle);
+    this.bufferSize = bufferSize;
+    this.maxIdle = maxIdle;
+    this.direct = direct;
+  }
+
+  ByteBuffer acquire() {
+    ByteBuffer buffer;
+    synchronized (idle) {
+      buffer = idle.pollFirst();
+    }
+    if (buffer == null) {
+      buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  void release(ByteBuffer buffer) {
+    synchronized (idle) {
+      if (idle.size() < maxIdle) {
+        idle.addFirst(buffer);
+      }
+    }
+  }
+
+  int idle() {
+    synchronized (idle) {
+      return idle.size();
+    }
+  }
+}
@@ -15,48 +15,52 @@
  */
 package com.hotels.road.s3.io;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Base64;
 
-import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 
-class S3PartOutputStream extends ByteArrayOutputStream {
+/**
+ * Writes a part into a fixed size buffer. Writing beyond the buffer's capacity fails, so callers split their writes at
+ * {@link #remaining()}. The MD5 digest is computed over the whole part once it is complete.
+ */
+class S3PartOutputStream extends OutputStream {
 
   private final int number;
-  private final Hasher hasher;
+  private final ByteBuffer buffer;
 
-  @SuppressWarnings("deprecation")
-  S3PartOutputStream(int size, int number) {
-    super(size);
+  S3PartOutputStream(ByteBuffer buffer, int number) {
+    this.buffer = buffer;
     this.number = number;
-    hasher = Hashing.md5().newHasher(size);
   }
 
   @Override
   public void write(int b) {
-    hasher.putByte((byte) b);
-    super.write(b);
+    buffer.put((byte) b);
   }
 
   @Override
-  public synchronized void write(byte[] b, int off, int len) {
-    hasher.putBytes(b, off, len);
-    super.write(b, off, len);
+  public void write(byte[] b, int off, int len) {
+    buffer.put(b, off, len);
   }
 
-  S3Part s3Part() {
-    return new S3Part(number, size(), md5(), inputStream());
+  int remaining() {
+    return buffer.remaining();
   }
 
-  private String md5() {
-    return Base64.getEncoder().encodeToString(hasher.hash().asBytes());
+  ByteBuffer buffer() {
+    return buffer;
   }
 
-  private InputStream inputStream() {
-    return new ByteArrayInputStream(buf, 0, count);
+  S3Part s3Part() {
+    ByteBuffer data = (ByteBuffer) buffer.duplicate().flip();
+    return new S3Part(number, data.remaining(), md5(data.duplicate()), data);
+  }
+
+  @SuppressWarnings("deprecation")
+  private static String md5(ByteBuffer data) {
+    return Base64.getEncoder().encodeToString(Hashing.md5().hashBytes(data).asBytes());
   }
 
 }
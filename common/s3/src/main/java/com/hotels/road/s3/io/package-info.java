@@ -27,9 +27,9 @@
  * length is specified for the InputStream, then TransferManager will attempt to buffer all the stream contents in
  * memory and upload as a traditional, single part upload which is not ideal.
  * <p>
- * This implementation will buffer bytes to a {@link java.io.ByteArrayOutputStream} and compute a MD5 digest as the
- * bytes are written. When the chosen part size is reached, the bytes are wrapped in a
- * {@link java.io.ByteArrayInputStream} and the part is uploaded, asynchronously, with retries. Close will block until
- * all part uploads have completed.
+ * This implementation will buffer bytes to a part sized {@link java.nio.ByteBuffer} taken from a
+ * {@link com.hotels.road.s3.io.S3PartBufferPool}. When the chosen part size is reached, the MD5 digest of the part is
+ * computed, and the part is uploaded, asynchronously, with retries, after which its buffer is returned to the pool.
+ * Close will block until all part uploads have completed.
  */
 package com.hotels.road.s3.io;
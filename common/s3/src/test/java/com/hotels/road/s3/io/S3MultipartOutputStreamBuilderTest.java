@@ -79,4 +79,15 @@ public class S3MultipartOutputStreamBuilderTest {
     builder().s3(s3, BUCKET, KEY).partSize(MINIMUM_PART_SIZE - 1).retries(1, 0).async(1, 0).build();
   }
 
+  @Test
+  public void sharedBufferPool() {
+    S3PartBufferPool pool = new S3PartBufferPool(MINIMUM_PART_SIZE, 1, true);
+    builder().s3(s3, BUCKET, KEY).partSize(MINIMUM_PART_SIZE).retries(1, 0).async(1, 1).bufferPool(pool).build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bufferPoolOfDifferentPartSize() {
+    S3PartBufferPool pool = new S3PartBufferPool(MINIMUM_PART_SIZE + 1, 1, false);
+    builder().s3(s3, BUCKET, KEY).partSize(MINIMUM_PART_SIZE).retries(1, 0).async(1, 1).bufferPool(pool).build();
+  }
 }
@@ -68,6 +68,8 @@ public class S3MultipartOutputStreamTest {
   private PartETag partETag1;
   @Mock
   private PartETag partETag2;
+  @Mock
+  private PartETag partETag3;
 
   @Test
   public void singlePart() throws IOException {
@@ -75,7 +77,7 @@ public class S3MultipartOutputStreamTest {
     ArgumentCaptor<S3Part> partCaptor = ArgumentCaptor.forClass(S3Part.class);
     when(upload.upload(eq(UPLOAD_ID), partCaptor.capture())).thenReturn(partETag1);
 
-    try (OutputStream output = new S3MultipartOutputStream(upload, 2, retry, asyncHandler)) {
+    try (OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(2))) {
       output.write(new byte[] { 0, 1 });
     }
 
@@ -97,7 +99,7 @@ public class S3MultipartOutputStreamTest {
     ArgumentCaptor<S3Part> partCaptor = ArgumentCaptor.forClass(S3Part.class);
     when(upload.upload(eq(UPLOAD_ID), partCaptor.capture())).thenReturn(partETag1, partETag2);
 
-    try (OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler)) {
+    try (OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1))) {
       output.write(new byte[] { 0, 1 });
     }
 
@@ -124,9 +126,48 @@ public class S3MultipartOutputStreamTest {
     assertThat(tagCaptor.getValue(), containsInAnyOrder(partETag1, partETag2));
   }
 
+  @Test
+  public void arrayWriteSplitAcrossParts() throws IOException {
+    when(upload.start()).thenReturn(UPLOAD_ID);
+    ArgumentCaptor<S3Part> partCaptor = ArgumentCaptor.forClass(S3Part.class);
+    when(upload.upload(eq(UPLOAD_ID), partCaptor.capture())).thenReturn(partETag1, partETag2, partETag3);
+
+    try (OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(2))) {
+      output.write(new byte[] { 9, 0, 1, 2, 3, 9 }, 1, 4);
+      output.write(4);
+    }
+
+    Map<Integer, S3Part> map = Maps.uniqueIndex(partCaptor.getAllValues(), S3Part::getNumber);
+    assertThat(map.size(), is(3));
+    assertThat(ByteStreams.toByteArray(map.get(1).getInputStream()), is(new byte[] { 0, 1 }));
+    assertThat(map.get(1).getMd5(), is(MD5_FOR_BYTES_ZERO_ONE));
+    assertThat(ByteStreams.toByteArray(map.get(2).getInputStream()), is(new byte[] { 2, 3 }));
+    assertThat(ByteStreams.toByteArray(map.get(3).getInputStream()), is(new byte[] { 4 }));
+  }
+
+  @Test
+  public void buffersReturnedToPool() throws IOException {
+    when(upload.start()).thenReturn(UPLOAD_ID);
+    when(upload.upload(eq(UPLOAD_ID), any(S3Part.class))).thenReturn(partETag1, partETag2);
+    S3PartBufferPool pool = new S3PartBufferPool(1, 2, false);
+
+    try (OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool)) {
+      output.write(new byte[] { 0, 1 });
+    }
+
+    assertThat(pool.idle(), is(2));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void arrayWriteOutOfBounds() throws IOException {
+    try (OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(2))) {
+      output.write(new byte[] { 0, 1 }, 1, 2);
+    }
+  }
+
   @Test
   public void noDataWritten() throws IOException {
-    OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler);
+    OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1));
     output.close();
     verify(upload, never()).start();
     verify(upload, never()).abort(UPLOAD_ID);
@@ -140,7 +181,7 @@ public class S3MultipartOutputStreamTest {
     doThrow(Exception.class).when(upload).complete(UPLOAD_ID, ImmutableList.of(partETag1));
 
     try {
-      OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler);
+      OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1));
       output.write(new byte[] { 0 });
       output.close();
       fail();
@@ -156,7 +197,7 @@ public class S3MultipartOutputStreamTest {
 
     try {
       @SuppressWarnings("resource")
-      OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler);
+      OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1));
       output.write(new byte[] { 0 });
       Thread.sleep(100L);
       output.write(new byte[] { 1 });
@@ -172,7 +213,7 @@ public class S3MultipartOutputStreamTest {
     doThrow(Exception.class).when(upload).upload(anyString(), any(S3Part.class));
 
     try {
-      OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler);
+      OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1));
       output.write(new byte[] { 0 });
       output.close();
       fail();
@@ -193,7 +234,7 @@ public class S3MultipartOutputStreamTest {
     }).thenThrow(IOException.class);
 
     try {
-      OutputStream output = new S3MultipartOutputStream(upload, 1, retry, asyncHandler);
+      OutputStream output = new S3MultipartOutputStream(upload, retry, asyncHandler, pool(1));
       output.write(new byte[] { 0 });
       output.write(new byte[] { 1 });
       output.close();
@@ -203,4 +244,10 @@ public class S3MultipartOutputStreamTest {
     }
   }
 
+  /**
+   * A pool that never recycles, so that captured parts still hold their bytes when they are inspected.
+   */
+  private static S3PartBufferPool pool(int partSize) {
+    return new S3PartBufferPool(partSize, 0, false);
+  }
 }
@@ -22,7 +22,10 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import java.io.InputStream;
+import static com.google.common.io.ByteStreams.toByteArray;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import org.junit.Before;
@@ -74,14 +77,13 @@ public class S3MultipartUploadTest {
   }
 
   @Test
-  public void upload() {
+  public void upload() throws IOException {
     ArgumentCaptor<UploadPartRequest> request = ArgumentCaptor.forClass(UploadPartRequest.class);
     UploadPartResult response = mock(UploadPartResult.class);
     PartETag partETag = mock(PartETag.class);
     when(response.getPartETag()).thenReturn(partETag);
     when(s3.uploadPart(request.capture())).thenReturn(response);
-    InputStream inputStream = mock(InputStream.class);
-    S3Part part = new S3Part(1, 2, "md5", inputStream);
+    S3Part part = new S3Part(1, 2, "md5", ByteBuffer.wrap(new byte[] { 0, 1 }));
 
     PartETag result = underTest.upload(UPLOAD_ID, part);
 
@@ -91,7 +93,7 @@ public class S3MultipartUploadTest {
     assertThat(request.getValue().getPartNumber(), is(1));
     assertThat(request.getValue().getPartSize(), is(2L));
     assertThat(request.getValue().getMd5Digest(), is("md5"));
-    assertThat(request.getValue().getInputStream(), is(inputStream));
+    assertThat(toByteArray(request.getValue().getInputStream()), is(new byte[] { 0, 1 }));
   }
 
   @Test
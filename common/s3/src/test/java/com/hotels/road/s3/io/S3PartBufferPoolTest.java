@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.s3.io;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class S3PartBufferPoolTest {
+
+  @Test
+  public void recycled() {
+    S3PartBufferPool underTest = new S3PartBufferPool(4, 1, false);
+    ByteBuffer buffer = underTest.acquire();
+    buffer.put((byte) 1);
+    underTest.release(buffer);
+
+    ByteBuffer result = underTest.acquire();
+
+    assertThat(result, is(sameInstance(buffer)));
+    assertThat(result.position(), is(0));
+    assertThat(result.remaining(), is(4));
+    assertThat(underTest.idle(), is(0));
+  }
+
+  @Test
+  public void idleBuffersBounded() {
+    S3PartBufferPool underTest = new S3PartBufferPool(4, 1, false);
+    ByteBuffer first = underTest.acquire();
+    ByteBuffer second = underTest.acquire();
+    underTest.release(first);
+    underTest.release(second);
+
+    assertThat(underTest.idle(), is(1));
+    assertThat(underTest.acquire(), is(sameInstance(first)));
+    assertThat(underTest.acquire(), is(not(sameInstance(second))));
+  }
+
+  @Test
+  public void direct() {
+    ByteBuffer result = new S3PartBufferPool(4, 1, true).acquire();
+
+    assertThat(result.isDirect(), is(true));
+    assertThat(result.capacity(), is(4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidBufferSize() {
+    new S3PartBufferPool(0, 1, false);
+  }
+}
@@ -23,6 +23,8 @@ import static org.junit.Assert.assertThat;
 import static com.google.common.io.ByteStreams.toByteArray;
 
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
@@ -30,8 +32,9 @@ public class S3PartOutputStreamTest {
 
   @Test
   public void typical() throws IOException {
-    try (S3PartOutputStream underTest = new S3PartOutputStream(3, 1)) {
+    try (S3PartOutputStream underTest = new S3PartOutputStream(ByteBuffer.allocate(3), 1)) {
       underTest.write("foo".getBytes(UTF_8));
+      assertThat(underTest.remaining(), is(0));
       S3Part result = underTest.s3Part();
       assertThat(result.getNumber(), is(1));
       assertThat(result.getSize(), is(3));
@@ -40,4 +43,25 @@ public class S3PartOutputStreamTest {
     }
   }
 
+  @Test
+  public void directBuffer() throws IOException {
+    try (S3PartOutputStream underTest = new S3PartOutputStream(ByteBuffer.allocateDirect(4), 1)) {
+      underTest.write('f');
+      underTest.write("xoox".getBytes(UTF_8), 1, 2);
+      S3Part result = underTest.s3Part();
+      assertThat(underTest.remaining(), is(1));
+      assertThat(result.getSize(), is(3));
+      assertThat(result.getMd5(), is("rL0Y20zC+Fzt72VPzMSk2A=="));
+      assertThat(toByteArray(result.getInputStream()), is(new byte[] { 102, 111, 111 }));
+      assertThat(toByteArray(result.getInputStream()), is(new byte[] { 102, 111, 111 }));
+    }
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void overflow() throws IOException {
+    try (S3PartOutputStream underTest = new S3PartOutputStream(ByteBuffer.allocate(2), 1)) {
+      underTest.write("foo".getBytes(UTF_8));
+    }
+  }
+
 }
@@ -15,9 +15,10 @@
  */
 package com.hotels.road.agents.trafficcop;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -42,18 +43,24 @@ public class ModelInspector<M> {
 
   @Scheduled(initialDelayString = "${model.inspection.interval:60000}", fixedRateString = "${model.inspection.interval:60000}")
   public void inspect() {
-    Map<String, M> store = new HashMap<>(this.store);
+    List<CompletableFuture<Void>> emitted = new ArrayList<>();
     store.forEach((key, model) -> {
       // TODO: Timing metrics
       try {
         List<PatchOperation> operations = agent.inspectModel(key, model);
         if (!operations.isEmpty()) {
-          emitter.emit(new PatchSet(key, operations));
+          emitted.add(emitter.emitAsync(new PatchSet(key, operations)).whenComplete((result, e) -> {
+            if (e != null) {
+              log.warn("Problem emitting patch for model \"{}\"", key, e);
+            }
+          }));
         }
       } catch (Exception e) {
         log.warn("Problem inspecting model \"{}\"", key, e);
         // TODO: count metrics
       }
     });
+    // Patches are sent without waiting for each other, but the inspection ends only once they have all been sent
+    emitted.forEach(future -> future.handle((result, e) -> null).join());
   }
 }
@@ -15,18 +15,15 @@
  */
 package com.hotels.road.agents.trafficcop;
 
-import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.toList;
 
-import java.time.Clock;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -47,11 +44,14 @@ public class TrafficCopConfiguration {
       @Value("${kafka.bootstrapServers}") String bootstrapServers,
       @Value("${kafka.road.topic}") String topic,
       ModelSerializer<M> serializer,
-      StoreUpdateObserver<String, M> observer) {
-    MuteableStoreUpdateObserver<String, M> observerProxy = new MuteableStoreUpdateObserver<>(observer);
-    List<StoreUpdateObserver<String, M>> observers = singletonList(observerProxy);
-    Map<String, M> store = new KafkaStore<>(bootstrapServers, serializer, topic, observers);
-    observerProxy.unmute();
+      List<StoreUpdateObserver<String, M>> observers) {
+    List<MuteableStoreUpdateObserver<String, M>> observerProxies = observers
+        .stream()
+        .map(observer -> new MuteableStoreUpdateObserver<>(observer))
+        .collect(toList());
+    List<StoreUpdateObserver<String, M>> storeObservers = new ArrayList<>(observerProxies);
+    Map<String, M> store = new KafkaStore<>(bootstrapServers, serializer, topic, storeObservers);
+    observerProxies.forEach(MuteableStoreUpdateObserver::unmute);
     return unmodifiableMap(store);
   }
 
@@ -59,17 +59,18 @@ public class TrafficCopConfiguration {
   public PatchSetEmitter modificationEmitter(
       @Value("${kafka.bootstrapServers}") String bootstrapServers,
       @Value("${kafka.road.modification.topic}") String topic,
+      @Value("${kafka.road.modification.lingerMs:0}") int lingerMs,
+      @Value("${kafka.road.modification.batchSize:16384}") int batchSize,
+      @Value("${kafka.road.modification.idempotence:false}") boolean idempotence,
+      @Value("${kafka.road.modification.serial:false}") boolean serial,
       ObjectMapper mapper) {
 
-    Map<String, Object> producerProps = new HashMap<>();
-    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProps.put(ProducerConfig.RETRIES_CONFIG, 1);
+    Map<String, Object> producerProps = KafkaPatchSetEmitter.producerProperties(bootstrapServers, lingerMs, batchSize,
+        idempotence);
 
     Producer<String, String> kafkaProducer = new KafkaProducer<>(producerProps);
 
-    return new KafkaPatchSetEmitter(topic, kafkaProducer, mapper);
+    return new KafkaPatchSetEmitter(topic, kafkaProducer, mapper, serial);
   }
 
 }
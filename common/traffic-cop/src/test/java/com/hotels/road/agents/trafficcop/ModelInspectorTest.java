@@ -17,6 +17,7 @@ package com.hotels.road.agents.trafficcop;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -27,6 +28,7 @@ import static org.mockito.Mockito.times;
 import static com.hotels.road.tollbooth.client.api.PatchOperation.add;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -63,11 +65,25 @@ public class ModelInspectorTest {
   public void operations_are_passed_to_emitter() throws Exception {
     given(agent.inspectModel("one", 1)).willReturn(singletonList(add("/value", 1)));
     given(agent.inspectModel("two", 2)).willReturn(singletonList(add("/value", 2)));
+    given(emitter.emitAsync(any())).willReturn(completedFuture(null));
 
     inspector.inspect();
 
-    then(emitter).should().emit(new PatchSet("one", singletonList(add("/value", 1))));
-    then(emitter).should().emit(new PatchSet("two", singletonList(add("/value", 2))));
+    then(emitter).should().emitAsync(new PatchSet("one", singletonList(add("/value", 1))));
+    then(emitter).should().emitAsync(new PatchSet("two", singletonList(add("/value", 2))));
+  }
+
+  @Test
+  public void failed_emit_does_not_stop_execution() throws Exception {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RuntimeException());
+    given(agent.inspectModel("one", 1)).willReturn(singletonList(add("/value", 1)));
+    given(agent.inspectModel("two", 2)).willReturn(singletonList(add("/value", 2)));
+    given(emitter.emitAsync(any())).willReturn(failed, completedFuture(null));
+
+    inspector.inspect();
+
+    then(emitter).should(times(2)).emitAsync(any());
   }
 
   @Test
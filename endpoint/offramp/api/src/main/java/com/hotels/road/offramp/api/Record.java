@@ -17,12 +17,14 @@ package com.hotels.road.offramp.api;
 
 import lombok.Value;
 
-import com.fasterxml.jackson.databind.JsonNode;
-
+/**
+ * A message read from a road. The payload's message is either the Avro binary datum as a {@link java.nio.ByteBuffer}
+ * or an already decoded {@link com.fasterxml.jackson.databind.JsonNode}.
+ */
 @Value
 public class Record {
   int partition;
   long offset;
   long timestampMs;
-  Payload<JsonNode> payload;
+  Payload<?> payload;
 }
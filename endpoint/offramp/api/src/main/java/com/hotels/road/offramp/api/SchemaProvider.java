@@ -34,8 +34,7 @@ public class SchemaProvider {
     return Mono
         .justOrEmpty(store.get(roadName))
         .switchIfEmpty(throwRoadDoesNotExist(roadName))
-        .map(Road::getSchemas)
-        .flatMap(schemas -> Mono.justOrEmpty(schemas.get(version)))
+        .flatMap(road -> Mono.justOrEmpty(road.getIndex().version(version)))
         .switchIfEmpty(throwSchemaDoesNotExist(roadName, version))
         .map(SchemaVersion::getSchema)
         .block();
@@ -46,6 +46,6 @@ class OfframpModelReader implements ModelReader<Road> {
 
   @Override
   public Road read(JsonNode json) {
-    return mapper.convertValue(json, Road.class);
+    return mapper.convertValue(json, Road.class).indexed();
   }
 }
@@ -22,7 +22,6 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.hotels.road.model.core.Road;
-import com.hotels.road.offramp.api.SchemaProvider;
 import com.hotels.road.offramp.spi.RoadConsumer;
 
 @Configuration
@@ -33,9 +32,8 @@ public class KafkaConfiguration {
       @Value("#{store}") Map<String, Road> store,
       @Value("${pollTimeoutMillis:0}") long pollTimeoutMillis,
       @Value("${minMaxPollRecords:10}") int minMaxPollRecords,
-      @Value("${maxMaxPollRecords:5000}") int maxMaxPollRecords,
-      SchemaProvider schemaProvider) {
+      @Value("${maxMaxPollRecords:5000}") int maxMaxPollRecords) {
     return new KafkaRoadConsumer.Factory(bootstrapServers, store, pollTimeoutMillis, minMaxPollRecords,
-        maxMaxPollRecords, schemaProvider);
+        maxMaxPollRecords);
   }
 }
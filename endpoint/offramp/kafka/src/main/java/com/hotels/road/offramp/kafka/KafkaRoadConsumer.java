@@ -22,13 +22,13 @@ import static java.util.stream.Collectors.toSet;
 
 import static lombok.AccessLevel.PACKAGE;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
-import org.apache.avro.Schema;
 import org.apache.kafka.clients.consumer.CommitFailedException;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
@@ -43,45 +43,29 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.FluentIterable;
 
 import com.hotels.road.model.core.Road;
 import com.hotels.road.offramp.api.Payload;
 import com.hotels.road.offramp.api.Record;
-import com.hotels.road.offramp.api.SchemaProvider;
 import com.hotels.road.offramp.api.UnknownRoadException;
 import com.hotels.road.offramp.model.DefaultOffset;
 import com.hotels.road.offramp.spi.RoadConsumer;
 
 @Slf4j
-@RequiredArgsConstructor(access = PACKAGE)
+@RequiredArgsConstructor
 public class KafkaRoadConsumer implements RoadConsumer {
   static final String GROUP_ID_PREFIX = "offramp";
   private static final Deserializer<Void> keyDeserializer = new NullDeserializer();
-  private static final Deserializer<Payload<byte[]>> valueDeserializer = new PayloadDeserializer();
+  private static final Deserializer<Payload<ByteBuffer>> valueDeserializer = new PayloadDeserializer();
 
   private final @Getter(PACKAGE) Properties properties;
   private final @Getter(PACKAGE) String topic;
-  private final String roadName;
-  private final SchemaProvider schemaProvider;
-  private final AvroPayloadDecoder payloadDecoder;
   private final long pollTimeoutMillis;
   private final int minMaxPollRecords;
   private final int maxMaxPollRecords;
-  private Consumer<Void, Payload<byte[]>> consumer;
-
-  public KafkaRoadConsumer(
-      Properties properties,
-      String topic,
-      String roadName,
-      SchemaProvider schemaProvider,
-      long pollTimeoutMillis,
-      int minMaxPollRecords,
-      int maxMaxPollRecords) {
-    this(properties, topic, roadName, schemaProvider, new AvroPayloadDecoder(), pollTimeoutMillis, minMaxPollRecords,
-        maxMaxPollRecords);
-  }
+  private Consumer<Void, Payload<ByteBuffer>> consumer;
+  private @Getter(PACKAGE) boolean paused = false;
 
   @Override
   public void init(long initialRequest, RebalanceListener rebalanceListener) {
@@ -89,22 +73,23 @@ public class KafkaRoadConsumer implements RoadConsumer {
     properties.setProperty("max.poll.records", Long.toString(maxPollRecords));
     consumer = createConsumer();
     try {
-      consumer.subscribe(singletonList(topic), new KafkaRebalanceListener(rebalanceListener));
+      consumer.subscribe(singletonList(topic), new KafkaRebalanceListener(rebalanceListener, this::onAssigned));
     } catch (UnknownTopicOrPartitionException e) {
       consumer.close();
       throw new RuntimeException("Unknown topic: " + topic, e);
     }
   }
 
+  /**
+   * Polls for records. While paused the poll returns no records and does not wait for any, but still has to be called
+   * within {@code max.poll.interval.ms} to keep the consumer in its group.
+   */
   @Override
   public Iterable<Record> poll() {
-    return FluentIterable.from(consumer.poll(pollTimeoutMillis)).transform(r -> {
-      Payload<byte[]> p = r.value();
-      Schema schema = schemaProvider.schema(roadName, p.getSchemaVersion());
-      JsonNode message = payloadDecoder.decode(schema, p.getMessage());
-      Payload<JsonNode> payload = new Payload<>(p.getFormatVersion(), p.getSchemaVersion(), message);
-      return new Record(r.partition(), r.offset(), r.timestamp(), payload);
-    }).toList();
+    return FluentIterable
+        .from(consumer.poll(paused ? 0L : pollTimeoutMillis))
+        .transform(r -> new Record(r.partition(), r.offset(), r.timestamp(), r.value()))
+        .toList();
   }
 
   @Override
@@ -124,6 +109,24 @@ public class KafkaRoadConsumer implements RoadConsumer {
     }
   }
 
+  @Override
+  public void pause() {
+    paused = true;
+    consumer.pause(consumer.assignment());
+  }
+
+  @Override
+  public void resume() {
+    paused = false;
+    consumer.resume(consumer.paused());
+  }
+
+  private void onAssigned() {
+    if (paused) {
+      consumer.pause(consumer.assignment());
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -136,7 +139,7 @@ public class KafkaRoadConsumer implements RoadConsumer {
     }
   }
 
-  Consumer<Void, Payload<byte[]>> createConsumer() {
+  Consumer<Void, Payload<ByteBuffer>> createConsumer() {
     return new KafkaConsumer<>(properties, keyDeserializer, valueDeserializer);
   }
 
@@ -147,7 +150,6 @@ public class KafkaRoadConsumer implements RoadConsumer {
     private final long pollTimeoutMillis;
     private final int minMaxPollRecords;
     private final int maxMaxPollRecords;
-    private final SchemaProvider schemaProvider;
 
     @Override
     public RoadConsumer create(
@@ -164,8 +166,7 @@ public class KafkaRoadConsumer implements RoadConsumer {
       properties.setProperty("auto.offset.reset", defaultOffset.name().toLowerCase());
       properties.setProperty("enable.auto.commit", "false");
 
-      return new KafkaRoadConsumer(properties, topic, roadName, schemaProvider, pollTimeoutMillis, minMaxPollRecords,
-          maxMaxPollRecords);
+      return new KafkaRoadConsumer(properties, topic, pollTimeoutMillis, minMaxPollRecords, maxMaxPollRecords);
     }
   }
 
@@ -173,6 +174,7 @@ public class KafkaRoadConsumer implements RoadConsumer {
   @RequiredArgsConstructor
   static class KafkaRebalanceListener implements ConsumerRebalanceListener {
     private @NonNull @Getter final RebalanceListener rebalanceListener;
+    private @NonNull final Runnable assignmentListener;
 
     @Override
     public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
@@ -182,6 +184,7 @@ public class KafkaRoadConsumer implements RoadConsumer {
 
     @Override
     public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      assignmentListener.run();
       rebalanceListener.onRebalance(partitions.stream().map(TopicPartition::partition).collect(toSet()));
     }
   }
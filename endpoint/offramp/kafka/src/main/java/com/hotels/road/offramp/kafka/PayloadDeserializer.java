@@ -19,14 +19,16 @@ import java.nio.ByteBuffer;
 
 import com.hotels.road.offramp.api.Payload;
 
-class PayloadDeserializer implements BaseDeserializer<Payload<byte[]>> {
+/**
+ * Reads the payload header and returns the Avro datum as a view over the remainder of the Kafka value rather than a
+ * copy of it.
+ */
+class PayloadDeserializer implements BaseDeserializer<Payload<ByteBuffer>> {
   @Override
-  public Payload<byte[]> deserialize(String topic, byte[] data) {
+  public Payload<ByteBuffer> deserialize(String topic, byte[] data) {
     ByteBuffer buffer = ByteBuffer.wrap(data);
     byte formatVersion = buffer.get();
     int schemaVersion = buffer.getInt();
-    byte[] message = new byte[buffer.remaining()];
-    buffer.get(message);
-    return new Payload<>(formatVersion, schemaVersion, message);
+    return new Payload<>(formatVersion, schemaVersion, buffer);
   }
 }
@@ -16,8 +16,11 @@
 package com.hotels.road.offramp.kafka;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 import com.hotels.road.offramp.api.Payload;
@@ -29,10 +32,11 @@ public class KafkaPayloadDeserializerTest {
   public void test() {
     byte[] data = new byte[] { 0, 0, 0, 0, 1, 2, 3, 4, 5 };
 
-    Payload<byte[]> payload = new PayloadDeserializer().deserialize("topic", data);
+    Payload<ByteBuffer> payload = new PayloadDeserializer().deserialize("topic", data);
 
     assertThat(payload.getFormatVersion(), is((byte) 0));
     assertThat(payload.getSchemaVersion(), is(1));
-    assertThat(payload.getMessage(), is(new byte[] { 2, 3, 4, 5 }));
+    assertThat(payload.getMessage(), is(ByteBuffer.wrap(new byte[] { 2, 3, 4, 5 })));
+    assertThat(payload.getMessage().array(), is(sameInstance(data)));
   }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.kafka;
+
+import static java.util.Collections.singletonMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.kafka.streams.integration.utils.EmbeddedKafkaCluster;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.hotels.road.offramp.api.Record;
+
+public class KafkaRoadConsumerIntegrationTest {
+  private static final String TOPIC = "topic";
+  private static final long MAX_POLL_INTERVAL_MILLIS = 1000L;
+  private static final long PAUSED_POLL_MILLIS = 100L;
+
+  @Rule
+  public EmbeddedKafkaCluster kafka = new EmbeddedKafkaCluster(1);
+
+  private final List<Set<Integer>> rebalances = new ArrayList<>();
+  private KafkaRoadConsumer underTest;
+
+  @Before
+  public void before() throws Exception {
+    kafka.createTopic(TOPIC);
+    Properties properties = new Properties();
+    properties.setProperty("bootstrap.servers", kafka.bootstrapServers());
+    properties.setProperty("group.id", "group");
+    properties.setProperty("auto.offset.reset", "earliest");
+    properties.setProperty("enable.auto.commit", "false");
+    properties.setProperty("max.poll.interval.ms", Long.toString(MAX_POLL_INTERVAL_MILLIS));
+    underTest = new KafkaRoadConsumer(properties, TOPIC, 100L, 1, 10);
+    underTest.init(1L, rebalances::add);
+  }
+
+  @After
+  public void after() {
+    underTest.close();
+  }
+
+  @Test
+  public void pausedLongerThanMaxPollInterval() throws Exception {
+    while (rebalances.isEmpty()) {
+      underTest.poll();
+    }
+
+    underTest.pause();
+    long pausedUntil = System.currentTimeMillis() + 3 * MAX_POLL_INTERVAL_MILLIS;
+    while (System.currentTimeMillis() < pausedUntil) {
+      Iterable<Record> records = underTest.poll();
+      assertThat(records.iterator().hasNext(), is(false));
+      Thread.sleep(PAUSED_POLL_MILLIS);
+    }
+    underTest.resume();
+
+    // A consumer that had left its group would have been reassigned its partition and could not commit
+    assertThat(underTest.commit(singletonMap(0, 0L)), is(true));
+    assertThat(rebalances.size(), is(1));
+  }
+}
@@ -16,6 +16,7 @@
 package com.hotels.road.offramp.kafka;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 
@@ -26,14 +27,17 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static com.hotels.road.offramp.model.DefaultOffset.EARLIEST;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
@@ -54,26 +58,19 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import avro.shaded.com.google.common.collect.Iterables;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import com.hotels.road.model.core.Road;
 import com.hotels.road.model.core.SchemaVersion;
 import com.hotels.road.offramp.api.Payload;
 import com.hotels.road.offramp.api.Record;
-import com.hotels.road.offramp.api.SchemaProvider;
 import com.hotels.road.offramp.kafka.KafkaRoadConsumer.KafkaRebalanceListener;
 import com.hotels.road.offramp.model.DefaultOffset;
 import com.hotels.road.offramp.spi.RoadConsumer.RebalanceListener;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
 public class KafkaRoadConsumerTest {
-  private @Mock Consumer<Void, Payload<byte[]>> consumer;
-  private @Mock SchemaProvider schemaProvider;
-  private @Mock AvroPayloadDecoder payloadDecoder;
+  private @Mock Consumer<Void, Payload<ByteBuffer>> consumer;
   private @Mock RebalanceListener rebalanceListener;
 
-  private final ObjectMapper mapper = new ObjectMapper();
   private final Schema schema = SchemaBuilder.record("r").fields().optionalString("f").endRecord();
 
   private final String topicName = "topicName";
@@ -94,24 +91,22 @@ public class KafkaRoadConsumerTest {
   public void before() {
     model.setTopicName(topicName);
     model.setSchemas(schemas);
-    underTest = spy(
-        new KafkaRoadConsumer(properties, topicName, roadName, schemaProvider, payloadDecoder, pollTimeout, 5, 10));
+    underTest = spy(new KafkaRoadConsumer(properties, topicName, pollTimeout, 5, 10));
     doReturn(consumer).when(underTest).createConsumer();
   }
 
   @Test
   public void poll() throws Exception {
-    Payload<byte[]> payload = new Payload<>((byte) 0, 1, "{}".getBytes(UTF_8));
-    ConsumerRecord<Void, Payload<byte[]>> consumerRecord = new ConsumerRecord<>(topicName, 0, 1L, 2L,
+    Payload<ByteBuffer> payload = new Payload<>((byte) 0, 1, ByteBuffer.wrap("{}".getBytes(UTF_8)));
+    ConsumerRecord<Void, Payload<ByteBuffer>> consumerRecord = new ConsumerRecord<>(topicName, 0, 1L, 2L,
         TimestampType.CREATE_TIME, ConsumerRecord.NULL_CHECKSUM, ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE,
         null, payload);
-    Map<TopicPartition, List<ConsumerRecord<Void, Payload<byte[]>>>> recordsMaps = singletonMap(topicPartition,
+    Map<TopicPartition, List<ConsumerRecord<Void, Payload<ByteBuffer>>>> recordsMaps = singletonMap(topicPartition,
         singletonList(consumerRecord));
-    ConsumerRecords<Void, Payload<byte[]>> records = new ConsumerRecords<>(recordsMaps);
+    ConsumerRecords<Void, Payload<ByteBuffer>> records = new ConsumerRecords<>(recordsMaps);
     when(consumer.poll(100)).thenReturn(records);
-    when(payloadDecoder.decode(any(), any())).thenReturn(mapper.createObjectNode());
 
-    Record record = new Record(0, 1L, 2L, new Payload<JsonNode>((byte) 0, 1, mapper.createObjectNode()));
+    Record record = new Record(0, 1L, 2L, payload);
 
     underTest.init(1L, rebalanceListener);
     Iterable<Record> result = underTest.poll();
@@ -137,6 +132,49 @@ public class KafkaRoadConsumerTest {
     verify(consumer).commitSync(singletonMap(topicPartition, new OffsetAndMetadata(1L)));
   }
 
+  @Test
+  public void pauseAndResume() throws Exception {
+    Set<TopicPartition> assignment = singleton(topicPartition);
+    doReturn(assignment).when(consumer).assignment();
+    doReturn(assignment).when(consumer).paused();
+    underTest.init(1L, rebalanceListener);
+
+    underTest.pause();
+    verify(consumer).pause(assignment);
+    assertThat(underTest.isPaused(), is(true));
+
+    underTest.resume();
+    verify(consumer).resume(assignment);
+    assertThat(underTest.isPaused(), is(false));
+  }
+
+  @Test
+  public void pollWhilePausedDoesNotWait() throws Exception {
+    doReturn(ConsumerRecords.empty()).when(consumer).poll(0L);
+    underTest.init(1L, rebalanceListener);
+
+    underTest.pause();
+    Iterable<Record> result = underTest.poll();
+
+    assertThat(Iterables.size(result), is(0));
+    verify(consumer).poll(0L);
+  }
+
+  @Test
+  public void pausedAcrossRebalance() throws Exception {
+    Set<TopicPartition> assignment = singleton(topicPartition);
+    doReturn(assignment).when(consumer).assignment();
+    underTest.init(1L, rebalanceListener);
+    ArgumentCaptor<KafkaRebalanceListener> captor = ArgumentCaptor.forClass(KafkaRebalanceListener.class);
+    verify(consumer).subscribe(eq(singletonList(topicName)), captor.capture());
+
+    underTest.pause();
+    captor.getValue().onPartitionsAssigned(assignment);
+
+    verify(consumer, times(2)).pause(assignment);
+    verify(rebalanceListener).onRebalance(singleton(0));
+  }
+
   @Test
   public void close() throws Exception {
     underTest.init(1L, rebalanceListener);
@@ -148,8 +186,7 @@ public class KafkaRoadConsumerTest {
   @Test
   public void factoryPlumbing() throws Exception {
     Mockito.withSettings().verboseLogging();
-    KafkaRoadConsumer.Factory underTestFactory = new KafkaRoadConsumer.Factory(bootstrapServers, store, 0L, 100, 1000,
-        null);
+    KafkaRoadConsumer.Factory underTestFactory = new KafkaRoadConsumer.Factory(bootstrapServers, store, 0L, 100, 1000);
 
     KafkaRoadConsumer consumer = (KafkaRoadConsumer) underTestFactory.create(roadName, streamName, defaultOffset);
 
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.kafka;
+
+import static java.util.Collections.singletonMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+
+import com.hotels.road.model.core.Road;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.offramp.api.Payload;
+import com.hotels.road.offramp.api.SchemaProvider;
+
+/**
+ * Compares decoding a Kafka value by copying the datum and building a reader per record (the original behaviour)
+ * against the current consumer path, which only reads the header with {@link PayloadDeserializer} and leaves the datum
+ * to the offramp's transcoder, measured by {@code MessageEncodingBenchmark} in the service module. Each operation
+ * handles one record, so the throughput is in records per second; the {@link GCProfiler} reports the bytes allocated
+ * per record as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PayloadDecodingBenchmark {
+  private static final String ROAD_NAME = "benchmark-road";
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("r")
+      .fields()
+      .requiredString("id")
+      .requiredLong("timestamp")
+      .requiredString("payload")
+      .endRecord();
+
+  private final AvroMapper avroMapper = new AvroMapper();
+  private final PayloadDeserializer deserializer = new PayloadDeserializer();
+  private SchemaProvider schemaProvider;
+  private byte[] value;
+
+  @Setup
+  public void setUp() throws IOException {
+    Road road = new Road();
+    road.setName(ROAD_NAME);
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    schemaProvider = new SchemaProvider(singletonMap(ROAD_NAME, road));
+
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("id", "id-1");
+    record.put("timestamp", System.currentTimeMillis());
+    record.put("payload", "payload-1");
+    try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+      output.write(new byte[] { 0, 0, 0, 0, 1 });
+      Encoder encoder = EncoderFactory.get().directBinaryEncoder(output, null);
+      new GenericDatumWriter<GenericRecord>(SCHEMA).write(record, encoder);
+      value = output.toByteArray();
+    }
+  }
+
+  @Benchmark
+  public JsonNode copyAndReaderPerRecord() throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(value);
+    buffer.get();
+    int schemaVersion = buffer.getInt();
+    byte[] message = new byte[buffer.remaining()];
+    buffer.get(message);
+    Schema schema = schemaProvider.schema(ROAD_NAME, schemaVersion);
+    try (InputStream input = new ByteArrayInputStream(message)) {
+      return avroMapper.reader(new AvroSchema(schema)).readTree(input);
+    }
+  }
+
+  @Benchmark
+  public Payload<ByteBuffer> view() {
+    return deserializer.deserialize(null, value);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+        .include(PayloadDecodingBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -47,6 +47,7 @@ public interface Event {
 
   public enum Type {
     MESSAGE,
+    MESSAGES,
     REQUEST,
     CANCEL,
     COMMIT,
@@ -63,7 +64,8 @@ public interface Event {
       JsonDeserializer<T> payloadDeserializer) {
     Map<Class<?>, JsonDeserializer<?>> deserializers = new HashMap<>();
     JavaType messageType = typeFactory.constructParametricType(Message.class, payloadType);
-    deserializers.put(Event.class, new Event.Deserialiser(messageType));
+    JavaType messagesType = typeFactory.constructParametricType(Messages.class, payloadType);
+    deserializers.put(Event.class, new Event.Deserialiser(messageType, messagesType));
     if (payloadClass != null && payloadDeserializer != null) {
       deserializers.put(payloadClass, payloadDeserializer);
     }
@@ -71,12 +73,13 @@ public interface Event {
   }
 
   public static <T> Module module() {
-    return new SimpleModule("event", unknownVersion(), singletonMap(Event.class, new Event.Deserialiser(null)));
+    return new SimpleModule("event", unknownVersion(), singletonMap(Event.class, new Event.Deserialiser(null, null)));
   }
 
   @RequiredArgsConstructor
   static class Deserialiser extends JsonDeserializer<Event> {
     private final JavaType messageType;
+    private final JavaType messagesType;
 
     @SuppressWarnings("deprecation")
     @Override
@@ -97,6 +100,8 @@ public interface Event {
       switch (type) {
       case MESSAGE:
         return context.readValue(parser, messageType);
+      case MESSAGES:
+        return context.readValue(parser, messagesType);
       case REQUEST:
         return context.readValue(parser, Request.class);
       case CANCEL:
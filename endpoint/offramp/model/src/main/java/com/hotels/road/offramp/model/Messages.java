@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.model;
+
+import static com.hotels.road.offramp.model.Event.Type.MESSAGES;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NonNull;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A batch of messages sent in a single frame to clients that negotiated batching. The messages are written without
+ * their own type.
+ */
+@Data
+public class Messages<T> implements Event, Serializable {
+  private static final long serialVersionUID = 1L;
+  private final Type type = MESSAGES;
+  private final @NonNull @JsonIgnoreProperties("type") List<Message<T>> messages;
+
+  @JsonCreator
+  public Messages(@JsonProperty("messages") List<Message<T>> messages) {
+    this.messages = messages;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.hotels.road.offramp.model;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonMap;
 
@@ -99,6 +100,21 @@ public class EventTest {
     assertThat(result, is(event));
   }
 
+  @Test
+  public void messages() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    TypeFactory typeFactory = mapper.getTypeFactory();
+    mapper.registerModule(Event.module(typeFactory, typeFactory.constructType(Payload.class), Payload.class, null));
+    Event event = new Messages<>(asList(new Message<>(0, 1L, 2, 3L, new Payload("bar")),
+        new Message<>(1, 4L, 2, 5L, new Payload("baz"))));
+    String json = mapper.writeValueAsString(event);
+    assertThat(json, is("{\"type\":\"MESSAGES\",\"messages\":["
+        + "{\"partition\":0,\"offset\":1,\"schema\":2,\"timestampMs\":3,\"payload\":{\"foo\":\"bar\"}},"
+        + "{\"partition\":1,\"offset\":4,\"schema\":2,\"timestampMs\":5,\"payload\":{\"foo\":\"baz\"}}]}"));
+    Event result = mapper.readValue(json, Event.class);
+    assertThat(result, is(event));
+  }
+
   @Data
   static class Payload {
     private final String foo;
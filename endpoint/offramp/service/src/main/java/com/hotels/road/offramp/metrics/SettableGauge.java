@@ -38,6 +38,10 @@ public class SettableGauge implements Gauge {
     value.decrementAndGet();
   }
 
+  public void add(long delta) {
+    value.addAndGet(delta);
+  }
+
   @Override
   public double value() {
     return gauge.value();
@@ -15,6 +15,10 @@
  */
 package com.hotels.road.offramp.metrics;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import static com.hotels.road.offramp.metrics.TimerTag.BLOCKED;
+
 import java.time.Clock;
 import java.util.EnumMap;
 import java.util.Map;
@@ -44,6 +48,7 @@ public class StreamMetrics implements AutoCloseable {
   static final String TRANSPORT_ERROR = "transport-error";
   static final String CONNECTIONS_ESTABLISHED = "connections-established";
   static final String ACTIVE_CONNECTIONS = "active-connections";
+  static final String BUFFERED_BYTES = "buffered-bytes";
   private static final String OFFRAMP_TIMER = "offramp_timer";
 
   private final MeterPool pool;
@@ -59,6 +64,7 @@ public class StreamMetrics implements AutoCloseable {
   private final Counter transportErrorCounter;
   private final Counter connectionEstablishedCounter;
   private final SettableGauge activeConnections;
+  private final SettableGauge bufferedBytes;
   private final ConcurrentMap<Integer, SettableTimeGauge> partitionLatencies;
   private final Map<TimerTag, Timer> timers;
 
@@ -78,6 +84,7 @@ public class StreamMetrics implements AutoCloseable {
     connectionEstablishedCounter = pool.takeCounter(OFFRAMP + CONNECTIONS_ESTABLISHED, roadStreamTags);
 
     activeConnections = pool.takeGauge(OFFRAMP + ACTIVE_CONNECTIONS, roadStreamTags);
+    bufferedBytes = pool.takeGauge(OFFRAMP + BUFFERED_BYTES, roadStreamTags);
 
     partitionLatencies = new ConcurrentHashMap<>();
 
@@ -96,7 +103,11 @@ public class StreamMetrics implements AutoCloseable {
   }
 
   public void markMessage(long bytes) {
-    messageCounter.increment();
+    markMessages(1, bytes);
+  }
+
+  public void markMessages(int count, long bytes) {
+    messageCounter.increment(count);
     bytesCounter.increment(bytes);
   }
 
@@ -115,6 +126,7 @@ public class StreamMetrics implements AutoCloseable {
     pool.returnCounter(transportErrorCounter);
     pool.returnCounter(connectionEstablishedCounter);
     pool.returnGauge(activeConnections);
+    pool.returnGauge(bufferedBytes);
     partitionLatencies.values().forEach(pool::returnTimeGauge);
     timers.values().forEach(pool::returnTimer);
   }
@@ -160,6 +172,14 @@ public class StreamMetrics implements AutoCloseable {
     activeConnections.decrement();
   }
 
+  public void addBufferedBytes(long bytes) {
+    bufferedBytes.add(bytes);
+  }
+
+  public void markSendBlocked(long durationNanos) {
+    timers.get(BLOCKED).record(durationNanos, NANOSECONDS);
+  }
+
   @Component
   @RequiredArgsConstructor
   public static class Factory {
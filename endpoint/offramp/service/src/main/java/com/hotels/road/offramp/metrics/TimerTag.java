@@ -23,7 +23,8 @@ public enum TimerTag {
   BUFFER,
   SEND,
   ENCODE,
-  MESSAGE;
+  MESSAGE,
+  BLOCKED;
 
   public final Tag tag = Tag.of("event", name());
 }
\ No newline at end of file
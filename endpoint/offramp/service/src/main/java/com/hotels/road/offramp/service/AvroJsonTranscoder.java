@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.util.Utf8;
+
+import lombok.RequiredArgsConstructor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.hotels.road.offramp.api.SchemaProvider;
+import com.hotels.road.pii.PiiReplacer;
+import com.hotels.road.schema.SchemaTraverser;
+import com.hotels.road.schema.gdpr.PiiPathVisitor;
+
+/**
+ * Writes Avro binary messages of a single road as JSON in one pass, without building an intermediate tree. Values are
+ * rendered as the Jackson Avro module renders them: unions are unwrapped, enums are written as their symbol and bytes
+ * and fixed values as Base64. When a {@link PiiReplacer} is given, the values of fields found by
+ * {@link PiiPathVisitor} are replaced as they are written: strings by the replacer and bytes by an empty value.
+ * <p>
+ * Instances keep a compiled plan per schema version and reuse their decoder and buffers, so they are not thread safe.
+ */
+@RequiredArgsConstructor
+class AvroJsonTranscoder {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final String roadName;
+  private final SchemaProvider schemaProvider;
+  private final PiiReplacer piiReplacer;
+  private final Map<Integer, Plan> plans = new HashMap<>();
+  private final Utf8 utf8 = new Utf8();
+  private BinaryDecoder decoder;
+  private ByteBuffer bytes;
+
+  void transcode(int schemaVersion, ByteBuffer message, JsonGenerator generator) throws IOException {
+    Plan plan = plans.computeIfAbsent(schemaVersion, this::plan);
+    decoder = DecoderFactory
+        .get()
+        .binaryDecoder(message.array(), message.arrayOffset() + message.position(), message.remaining(), decoder);
+    write(plan.schema, false, plan.piiFields, generator);
+  }
+
+  private Plan plan(int schemaVersion) {
+    Schema schema = schemaProvider.schema(roadName, schemaVersion);
+    if (piiReplacer == null) {
+      return new Plan(schema, Collections.emptySet());
+    }
+    Set<Field> piiFields = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (String path : SchemaTraverser.traverse(schema, new PiiPathVisitor())) {
+      piiFields.add(resolve(schema, path));
+    }
+    return new Plan(schema, piiFields);
+  }
+
+  /**
+   * Resolves a path in the form produced by {@link PiiPathVisitor} to the field it ends at.
+   */
+  private static Field resolve(Schema schema, String path) {
+    Field field = null;
+    for (String segment : path.substring(1).split("/")) {
+      switch (schema.getType()) {
+      case RECORD:
+        field = schema.getField(segment);
+        schema = field.schema();
+        break;
+      case ARRAY:
+        schema = schema.getElementType();
+        break;
+      case MAP:
+        schema = schema.getValueType();
+        break;
+      case UNION:
+        schema = schema.getTypes().get(Integer.parseInt(segment));
+        break;
+      default:
+        throw new IllegalArgumentException("Cannot resolve " + path + " against " + schema);
+      }
+    }
+    return field;
+  }
+
+  private void write(Schema schema, boolean pii, Set<Field> piiFields, JsonGenerator generator) throws IOException {
+    switch (schema.getType()) {
+    case RECORD:
+      generator.writeStartObject();
+      for (Field field : schema.getFields()) {
+        generator.writeFieldName(field.name());
+        write(field.schema(), piiFields.contains(field), piiFields, generator);
+      }
+      generator.writeEndObject();
+      break;
+    case ARRAY:
+      generator.writeStartArray();
+      for (long count = decoder.readArrayStart(); count > 0; count = decoder.arrayNext()) {
+        for (long i = 0; i < count; i++) {
+          write(schema.getElementType(), false, piiFields, generator);
+        }
+      }
+      generator.writeEndArray();
+      break;
+    case MAP:
+      generator.writeStartObject();
+      for (long count = decoder.readMapStart(); count > 0; count = decoder.mapNext()) {
+        for (long i = 0; i < count; i++) {
+          generator.writeFieldName(decoder.readString(utf8).toString());
+          write(schema.getValueType(), false, piiFields, generator);
+        }
+      }
+      generator.writeEndObject();
+      break;
+    case UNION:
+      List<Schema> types = schema.getTypes();
+      write(types.get(decoder.readIndex()), pii, piiFields, generator);
+      break;
+    case ENUM:
+      generator.writeString(schema.getEnumSymbols().get(decoder.readEnum()));
+      break;
+    case STRING:
+      decoder.readString(utf8);
+      if (pii) {
+        generator.writeString(piiReplacer.replace(utf8.toString()));
+      } else {
+        generator.writeUTF8String(utf8.getBytes(), 0, utf8.getByteLength());
+      }
+      break;
+    case BYTES:
+      bytes = decoder.readBytes(bytes);
+      if (pii) {
+        generator.writeBinary(EMPTY);
+      } else {
+        generator.writeBinary(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+      }
+      break;
+    case FIXED:
+      byte[] fixed = new byte[schema.getFixedSize()];
+      decoder.readFixed(fixed);
+      generator.writeBinary(fixed);
+      break;
+    case INT:
+      generator.writeNumber(decoder.readInt());
+      break;
+    case LONG:
+      generator.writeNumber(decoder.readLong());
+      break;
+    case FLOAT:
+      generator.writeNumber(decoder.readFloat());
+      break;
+    case DOUBLE:
+      generator.writeNumber(decoder.readDouble());
+      break;
+    case BOOLEAN:
+      generator.writeBoolean(decoder.readBoolean());
+      break;
+    case NULL:
+      decoder.readNull();
+      generator.writeNull();
+      break;
+    default:
+      throw new IllegalStateException("Unexpected schema type: " + schema.getType());
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class Plan {
+    private final Schema schema;
+    private final Set<Field> piiFields;
+  }
+}
@@ -40,6 +40,10 @@ public class Encoder {
     }
   }
 
+  MessageEncoder messageEncoder(MessageWriter writer, int maxRetainedBytes) {
+    return new MessageEncoder(mapper.getFactory(), writer, maxRetainedBytes);
+  }
+
   Event decode(String event) {
     try {
       return mapper.readValue(event, Event.class);
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static com.hotels.road.offramp.model.Event.Type.MESSAGE;
+import static com.hotels.road.offramp.model.Event.Type.MESSAGES;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.hotels.road.offramp.api.Record;
+
+/**
+ * Encodes records as {@link com.hotels.road.offramp.model.Message} or {@link com.hotels.road.offramp.model.Messages}
+ * events into a buffer that is reused for every event, with the payloads written by a {@link MessageWriter}. The
+ * returned buffer is only valid until the next call to {@code encode}. A buffer that has grown beyond
+ * {@code maxRetainedBytes} to fit an unusually large event is released at the start of the next event, so one large
+ * message does not pin its memory for the lifetime of the connection. Instances belong to a single connection and are
+ * not thread safe.
+ */
+class MessageEncoder {
+  private static final int INITIAL_BYTES = 4096;
+  private final Buffer buffer;
+  private final MessageWriter writer;
+  private final JsonGenerator generator;
+
+  MessageEncoder(JsonFactory factory, MessageWriter writer, int maxRetainedBytes) {
+    this.writer = writer;
+    buffer = new Buffer(maxRetainedBytes);
+    try {
+      generator = factory.createGenerator(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    generator.setRootValueSeparator(null);
+  }
+
+  ByteBuffer encode(Record record) {
+    buffer.reset();
+    try {
+      generator.writeStartObject();
+      generator.writeStringField("type", MESSAGE.name());
+      writeFields(record);
+      generator.writeEndObject();
+      generator.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteBuffer();
+  }
+
+  /**
+   * Takes records from the head of the queue and encodes them as one batch. The batch is closed once it holds
+   * {@code maxMessages} records or its encoded size reaches {@code maxBytes}, and always holds at least one record if
+   * the queue is not empty. The records that were encoded are added to {@code encoded}.
+   */
+  ByteBuffer encode(Queue<Record> records, long maxMessages, int maxBytes, List<Record> encoded) {
+    buffer.reset();
+    try {
+      generator.writeStartObject();
+      generator.writeStringField("type", MESSAGES.name());
+      generator.writeArrayFieldStart("messages");
+      while (encoded.size() < maxMessages && buffer.size() + generator.getOutputBuffered() < maxBytes) {
+        Record record = records.poll();
+        if (record == null) {
+          break;
+        }
+        generator.writeStartObject();
+        writeFields(record);
+        generator.writeEndObject();
+        encoded.add(record);
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteBuffer();
+  }
+
+  private void writeFields(Record record) throws IOException {
+    generator.writeNumberField("partition", record.getPartition());
+    generator.writeNumberField("offset", record.getOffset());
+    generator.writeNumberField("schema", record.getPayload().getSchemaVersion());
+    generator.writeNumberField("timestampMs", record.getTimestampMs());
+    generator.writeFieldName("payload");
+    writer.write(record.getPayload(), generator);
+  }
+
+  private static class Buffer extends ByteArrayOutputStream {
+    private final int maxRetainedBytes;
+
+    Buffer(int maxRetainedBytes) {
+      super(INITIAL_BYTES);
+      this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    @Override
+    public synchronized void reset() {
+      super.reset();
+      if (buf.length > maxRetainedBytes) {
+        buf = new byte[INITIAL_BYTES];
+      }
+    }
+
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
+}
@@ -17,34 +17,52 @@ package com.hotels.road.offramp.service;
 
 import static com.hotels.road.rest.model.Sensitivity.PII;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Set;
-import java.util.function.Function;
 
 import org.apache.avro.Schema;
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import com.hotels.road.offramp.api.Payload;
 import com.hotels.road.offramp.api.SchemaProvider;
+import com.hotels.road.pii.PiiReplacer;
 import com.hotels.road.rest.model.Sensitivity;
 
-public interface MessageFunction extends Function<Payload<JsonNode>, JsonNode> {
+/**
+ * Writes the message of a payload as the JSON value of an outgoing message, replacing PII unless it has been granted.
+ */
+public interface MessageWriter {
+  void write(Payload<?> payload, JsonGenerator generator) throws IOException;
+
   @Component
   @RequiredArgsConstructor
   public class Factory {
     private final SchemaProvider schemaProvider;
     private final PiiDataReplacer piiDataReplacer;
+    private final PiiReplacer piiReplacer;
 
-    public MessageFunction create(String roadName, Set<Sensitivity> grants) {
-      if (grants.contains(PII)) {
-        return Payload::getMessage;
-      }
-      return payload -> {
-        Schema schema = schemaProvider.schema(roadName, payload.getSchemaVersion());
-        return piiDataReplacer.replace(schema, payload.getMessage());
+    public MessageWriter create(String roadName, Set<Sensitivity> grants) {
+      boolean replacePii = !grants.contains(PII);
+      AvroJsonTranscoder transcoder = new AvroJsonTranscoder(roadName, schemaProvider,
+          replacePii ? piiReplacer : null);
+      return (payload, generator) -> {
+        Object message = payload.getMessage();
+        if (message instanceof ByteBuffer) {
+          transcoder.transcode(payload.getSchemaVersion(), (ByteBuffer) message, generator);
+        } else {
+          JsonNode node = (JsonNode) message;
+          if (replacePii) {
+            Schema schema = schemaProvider.schema(roadName, payload.getSchemaVersion());
+            node = piiDataReplacer.replace(schema, node);
+          }
+          generator.writeTree(node);
+        }
       };
     }
   }
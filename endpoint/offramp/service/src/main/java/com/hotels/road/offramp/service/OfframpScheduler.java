@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Multiplexes offramp connections over a bounded pool of threads. Each connection registers a {@link Task} that only
+ * runs when it is woken - by an incoming event, by demand that can be met from its buffer, or by a timer - and never
+ * runs concurrently with itself. A task woken while it is running is queued again behind the other connections once it
+ * has finished, rather than looping on its thread.
+ */
+@Component
+public class OfframpScheduler implements AutoCloseable {
+  static final String QUEUED = "offramp.scheduler.queued";
+  static final String WAKEUPS = "offramp.scheduler.wakeups";
+  static final String CAUSE = "cause";
+
+  private final ScheduledExecutorService executor;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Counter signalWakeups;
+  private final Counter timerWakeups;
+
+  @Autowired
+  public OfframpScheduler(MeterRegistry registry, @Value("${schedulerThreads:32}") int threads) {
+    this(Executors.newScheduledThreadPool(threads,
+        new ThreadFactoryBuilder().setNameFormat("offramp-%d").setDaemon(true).build()), registry);
+  }
+
+  OfframpScheduler(ScheduledExecutorService executor, MeterRegistry registry) {
+    this.executor = executor;
+    registry.gauge(QUEUED, queued);
+    signalWakeups = registry.counter(WAKEUPS, CAUSE, "signal");
+    timerWakeups = registry.counter(WAKEUPS, CAUSE, "timer");
+  }
+
+  public Task register(Runnable work) {
+    return new Task(work);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  public class Task implements AutoCloseable {
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+    private static final int RUNNING = 2;
+    private static final int RUNNING_WOKEN = 3;
+    private static final int CLOSED = 4;
+
+    private final Runnable work;
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private final ReentrantLock lock = new ReentrantLock();
+    // only accessed while holding the lock
+    private ScheduledFuture<?> timer;
+
+    private Task(Runnable work) {
+      this.work = work;
+    }
+
+    /**
+     * Schedules the task to run as soon as a thread is free. Has no effect if it is already scheduled.
+     */
+    public void wakeup() {
+      wakeup(signalWakeups);
+    }
+
+    /**
+     * Schedules the task to run after a delay unless a timer is already pending. Must only be called while the task is
+     * running.
+     */
+    public void wakeupAfter(long delayMillis) {
+      if (timer == null || timer.isDone()) {
+        timer = executor.schedule(() -> wakeup(timerWakeups), delayMillis, MILLISECONDS);
+      }
+    }
+
+    private void wakeup(Counter cause) {
+      while (true) {
+        int current = state.get();
+        if (current == IDLE) {
+          if (state.compareAndSet(IDLE, SCHEDULED)) {
+            cause.increment();
+            submit();
+            return;
+          }
+        } else if (current == RUNNING) {
+          if (state.compareAndSet(RUNNING, RUNNING_WOKEN)) {
+            cause.increment();
+            return;
+          }
+        } else {
+          return;
+        }
+      }
+    }
+
+    private void submit() {
+      queued.incrementAndGet();
+      executor.execute(this::run);
+    }
+
+    private void run() {
+      queued.decrementAndGet();
+      lock.lock();
+      try {
+        if (!state.compareAndSet(SCHEDULED, RUNNING)) {
+          return;
+        }
+        try {
+          work.run();
+        } finally {
+          if (!state.compareAndSet(RUNNING, IDLE) && state.compareAndSet(RUNNING_WOKEN, SCHEDULED)) {
+            submit();
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Stops the task from running again, waiting for a run in progress to finish unless called from the task itself.
+     */
+    @Override
+    public void close() {
+      state.set(CLOSED);
+      lock.lock();
+      try {
+        if (timer != null) {
+          timer.cancel(false);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -15,20 +15,30 @@
  */
 package com.hotels.road.offramp.service;
 
+import reactor.core.publisher.Mono;
+
 import com.hotels.road.offramp.api.UnknownRoadException;
 import com.hotels.road.offramp.metrics.StreamMetrics;
 import com.hotels.road.offramp.socket.EventSender;
 import com.hotels.road.offramp.spi.RoadConsumer;
 
-public interface OfframpService extends Runnable, AutoCloseable {
+public interface OfframpService extends AutoCloseable {
+  /**
+   * Starts serving the connection.
+   *
+   * @return A {@link Mono} that completes when the service is closed, or errors if serving fails.
+   */
+  Mono<Void> start();
+
   void onEvent(String event);
 
   interface Factory {
     OfframpService create(
         RoadConsumer consumer,
-        MessageFunction messageFunction,
+        MessageWriter messageWriter,
         EventSender sender,
-        StreamMetrics metrics)
+        StreamMetrics metrics,
+        int maxBatchSize)
       throws UnknownRoadException;
   }
 }
@@ -31,13 +31,14 @@ public class OfframpServiceFactory {
   public OfframpService create(
       String version,
       RoadConsumer consumer,
-      MessageFunction messageFunction,
+      MessageWriter messageWriter,
       EventSender sender,
-      StreamMetrics metrics)
+      StreamMetrics metrics,
+      int maxBatchSize)
     throws Exception {
     switch (OfframpVersion.fromString(version)) {
     case OFFRAMP_2:
-      return serviceV2Factory.create(consumer, messageFunction, sender, metrics);
+      return serviceV2Factory.create(consumer, messageWriter, sender, metrics, maxBatchSize);
     default:
       throw new Exception("Unknown OfframpVersion " + version);
     }
@@ -15,7 +15,8 @@
  */
 package com.hotels.road.offramp.service;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import static lombok.AccessLevel.PACKAGE;
 
@@ -26,13 +27,13 @@ import static com.hotels.road.offramp.metrics.TimerTag.MESSAGE;
 import static com.hotels.road.offramp.metrics.TimerTag.POLL;
 import static com.hotels.road.offramp.metrics.TimerTag.SEND;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.Semaphore;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -40,12 +41,12 @@ import org.springframework.stereotype.Component;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.math.LongMath;
 
-import com.hotels.road.offramp.api.Payload;
 import com.hotels.road.offramp.api.Record;
 import com.hotels.road.offramp.api.UnknownRoadException;
 import com.hotels.road.offramp.metrics.StreamMetrics;
@@ -54,7 +55,6 @@ import com.hotels.road.offramp.model.CommitResponse;
 import com.hotels.road.offramp.model.Connection;
 import com.hotels.road.offramp.model.Event;
 import com.hotels.road.offramp.model.Error;
-import com.hotels.road.offramp.model.Message;
 import com.hotels.road.offramp.model.Rebalance;
 import com.hotels.road.offramp.model.Request;
 import com.hotels.road.offramp.socket.EventSender;
@@ -65,60 +65,108 @@ import com.hotels.road.offramp.spi.RoadConsumer;
 public class OfframpServiceV2 implements OfframpService {
   private final RoadConsumer consumer;
   private final Encoder encoder;
-  private final Function<Payload<JsonNode>, JsonNode> messageFunction;
+  private final MessageEncoder messageEncoder;
   private final EventSender sender;
   private final StreamMetrics metrics;
+  private final OfframpScheduler scheduler;
   private final String podName;
-  private final @Getter(PACKAGE) BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+  private final int maxBatchSize;
+  private final int maxBatchBytes;
+  private final long maxIdleMillis;
+  private final @Getter(PACKAGE) Queue<Event> events = new ConcurrentLinkedQueue<>();
   private final @Getter(PACKAGE) Queue<Record> buffer = new LinkedList<>();
-  private final Semaphore semaphore = new Semaphore(0);
+  private final @Getter(PACKAGE) List<Record> batch = new ArrayList<>();
+  private final MonoProcessor<Void> completion = MonoProcessor.create();
+  private volatile OfframpScheduler.Task task;
   private @Getter(PACKAGE) long requested = 0L;
-  private volatile boolean shuttingDown = false;
+  private @Getter(PACKAGE) long idleMillis = 0L;
+  private boolean connected = false;
+  private @Getter(PACKAGE) boolean paused = false;
   private boolean initialised = false;
 
   @Override
-  public void run() {
+  public Mono<Void> start() {
+    task = scheduler.register(this::drain);
+    sender.onWritable(task::wakeup);
+    task.wakeup();
+    return completion;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (task != null) {
+      task.close();
+    }
+    completion.onComplete();
+  }
+
+  @Override
+  public void onEvent(String event) {
+    events.offer(encoder.decode(event));
+    task.wakeup();
+  }
+
+  /**
+   * Handles the pending events and then sends as much of the buffer as has been requested. Polls the consumer only
+   * when there is demand and nothing buffered, backing off exponentially up to {@code maxIdleMillis} while the poll
+   * comes back empty. With no demand the connection is parked until the next event arrives. While the sender is backed
+   * up the consumer is paused and only polled every {@code maxIdleMillis} to keep its group membership, until the
+   * sender becomes writable again.
+   */
+  @VisibleForTesting
+  void drain() {
     try {
-      sendEvent(new Connection(podName));
-      long timeout = 0L;
-      while (!shuttingDown) {
-        Event event = events.poll(timeout, MILLISECONDS);
-        timeout = 0L;
-        if (event != null) {
-          handleIncomingEvent(event);
-        } else if (requested > 0L) {
-          if (buffer.isEmpty()) {
-            replenishBuffer();
-          }
-          Record record = buffer.poll();
-          if (record != null) {
-            sendMessage(record);
-          } else {
-            timeout = 1L;
+      if (!connected) {
+        sendEvent(new Connection(podName));
+        connected = true;
+      }
+      Event event;
+      while ((event = events.poll()) != null) {
+        handleIncomingEvent(event);
+      }
+      if (requested > 0L) {
+        if (!sender.isWritable()) {
+          if (!paused) {
+            consumer.pause();
+            paused = true;
           }
+          // Paused partitions return no records, but the consumer must keep polling to stay in its group
+          replenishBuffer();
+          task.wakeupAfter(maxIdleMillis);
+          return;
+        }
+        if (paused) {
+          consumer.resume();
+          paused = false;
+        }
+        if (buffer.isEmpty()) {
+          replenishBuffer();
+        }
+        if (buffer.isEmpty()) {
+          idleMillis = idleMillis == 0L ? 1L : min(idleMillis * 2, maxIdleMillis);
+          task.wakeupAfter(idleMillis);
         } else {
-          timeout = 1L;
+          idleMillis = 0L;
+          sendBuffer();
+          if (requested > 0L) {
+            task.wakeup();
+          }
         }
       }
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
     } catch (Exception e) {
       log.error("An error occurred while serving", e);
-      throw new RuntimeException(e);
-    } finally {
-      semaphore.release();
+      completion.onError(e);
     }
   }
 
-  @Override
-  public void close() throws Exception {
-    shuttingDown = true;
-    semaphore.acquire();
-  }
-
-  @Override
-  public void onEvent(String event) {
-    events.offer(encoder.decode(event));
+  private void sendBuffer() {
+    while (requested > 0L && !buffer.isEmpty() && sender.isWritable()) {
+      if (maxBatchSize > 1) {
+        sendMessages();
+      } else {
+        sendMessage(buffer.poll());
+      }
+    }
   }
 
   @VisibleForTesting
@@ -167,19 +215,36 @@ public class OfframpServiceV2 implements OfframpService {
 
   @VisibleForTesting
   void sendMessage(Record record) {
-    Message<JsonNode> message = metrics.record(MESSAGE, () -> {
-      Payload<JsonNode> payload = record.getPayload();
-      return new Message<>(record.getPartition(), record.getOffset(), payload.getSchemaVersion(),
-          record.getTimestampMs(), messageFunction.apply(payload));
-    });
-    sendEvent(message);
-    metrics.markMessageLatency(message.getPartition(), message.getTimestampMs());
+    if (log.isTraceEnabled()) {
+      log.trace("Sending Message: {}", record);
+    }
+    ByteBuffer raw = metrics.record(MESSAGE, () -> messageEncoder.encode(record));
+    // measure the number of bytes in message
+    metrics.markMessage(raw.remaining());
+    metrics.record(SEND, () -> sender.send(raw));
+    metrics.markMessageLatency(record.getPartition(), record.getTimestampMs());
     requested--;
     if (log.isDebugEnabled() && requested == 0) {
       log.debug("Completed sending all requested messages");
     }
   }
 
+  @VisibleForTesting
+  void sendMessages() {
+    long maxMessages = min(requested, maxBatchSize);
+    ByteBuffer raw = metrics.record(MESSAGE, () -> messageEncoder.encode(buffer, maxMessages, maxBatchBytes, batch));
+    metrics.markMessages(batch.size(), raw.remaining());
+    metrics.record(SEND, () -> sender.send(raw));
+    for (Record record : batch) {
+      metrics.markMessageLatency(record.getPartition(), record.getTimestampMs());
+    }
+    requested -= batch.size();
+    batch.clear();
+    if (log.isDebugEnabled() && requested == 0) {
+      log.debug("Completed sending all requested messages");
+    }
+  }
+
   @VisibleForTesting
   void sendRebalance(Set<Integer> assignment) {
     sendEvent(new Rebalance(assignment));
@@ -192,45 +257,51 @@ public class OfframpServiceV2 implements OfframpService {
 
   @VisibleForTesting
   void sendEvent(Event event) {
-    if (event instanceof Message) {
-      if (log.isTraceEnabled()) {
-        log.trace("Sending Event: {}", event);
-      }
-    } else {
-      log.debug("Sending Event: {}", event);
-    }
+    log.debug("Sending Event: {}", event);
     String raw = encodeEvent(event);
-    metrics.record(SEND, () -> sender.send(raw));
+    metrics.record(SEND, () -> sender.send(ByteBuffer.wrap(raw.getBytes(UTF_8))));
   }
 
   @VisibleForTesting
   String encodeEvent(Event event) {
-    String raw = metrics.record(ENCODE, () -> encoder.encode(event));
-    if (event instanceof Message) {
-      // measure the number of bytes in message
-      metrics.markMessage(raw.getBytes().length);
-    }
-    return raw;
+    return metrics.record(ENCODE, () -> encoder.encode(event));
   }
 
   @Component
   public static class Factory implements OfframpService.Factory {
     private final Encoder encoder;
+    private final OfframpScheduler scheduler;
     private final String podName;
+    private final int maxBatchBytes;
+    private final int maxRetainedBufferBytes;
+    private final long maxIdleMillis;
 
-    public Factory(Encoder encoder, @Value("${pod.name:unknown}") String podName) {
+    public Factory(
+        Encoder encoder,
+        OfframpScheduler scheduler,
+        @Value("${pod.name:unknown}") String podName,
+        @Value("${maxBatchBytes:1048576}") int maxBatchBytes,
+        @Value("${maxRetainedBufferBytes:2097152}") int maxRetainedBufferBytes,
+        @Value("${maxIdleMillis:100}") long maxIdleMillis) {
       this.encoder = encoder;
+      this.scheduler = scheduler;
       this.podName = podName;
+      this.maxBatchBytes = maxBatchBytes;
+      this.maxRetainedBufferBytes = maxRetainedBufferBytes;
+      this.maxIdleMillis = maxIdleMillis;
     }
 
     @Override
     public OfframpServiceV2 create(
         RoadConsumer consumer,
-        MessageFunction messageFunction,
+        MessageWriter messageWriter,
         EventSender sender,
-        StreamMetrics metrics)
+        StreamMetrics metrics,
+        int maxBatchSize)
       throws UnknownRoadException {
-      return new OfframpServiceV2(consumer, encoder, messageFunction, sender, metrics, podName);
+      MessageEncoder messageEncoder = encoder.messageEncoder(messageWriter, maxRetainedBufferBytes);
+      return new OfframpServiceV2(consumer, encoder, messageEncoder, sender, metrics, scheduler, podName, maxBatchSize,
+          maxBatchBytes, maxIdleMillis);
     }
   }
 }
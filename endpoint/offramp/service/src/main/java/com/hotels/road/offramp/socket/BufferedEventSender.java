@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.socket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.RequiredArgsConstructor;
+
+import com.hotels.road.offramp.metrics.StreamMetrics;
+
+/**
+ * An {@link EventSender} that never blocks on the transport. Events are copied into a per-session queue and written one
+ * at a time by an asynchronous {@link Transport}. Once {@code maxBufferedBytes} are queued the sender reports itself as
+ * not writable until the queue has drained to half that size, so the service stops sending and pauses its consumer
+ * rather than piling records up behind a slow client.
+ */
+@RequiredArgsConstructor
+class BufferedEventSender implements EventSender, AutoCloseable {
+  private final Transport transport;
+  private final StreamMetrics metrics;
+  private final long maxBufferedBytes;
+  private final Queue<ByteBuffer> queue = new ArrayDeque<>();
+  private long bufferedBytes = 0L;
+  private boolean sending = false;
+  private boolean blocked = false;
+  private long blockedSince;
+  private Throwable failure;
+  private boolean closed = false;
+  private volatile Runnable writableListener = () -> {};
+
+  @Override
+  public void send(ByteBuffer event) {
+    int size = event.remaining();
+    ByteBuffer copy = ByteBuffer.allocate(size);
+    copy.put(event).flip();
+    boolean write;
+    synchronized (this) {
+      if (failure != null) {
+        throw new IllegalStateException("Could not send event", failure);
+      }
+      bufferedBytes += size;
+      if (!blocked && bufferedBytes >= maxBufferedBytes) {
+        blocked = true;
+        blockedSince = System.nanoTime();
+      }
+      write = !sending;
+      if (sending) {
+        queue.add(copy);
+      } else {
+        sending = true;
+      }
+    }
+    metrics.addBufferedBytes(size);
+    if (write) {
+      write(copy);
+    }
+  }
+
+  @Override
+  public synchronized boolean isWritable() {
+    return !blocked;
+  }
+
+  @Override
+  public void onWritable(Runnable listener) {
+    writableListener = listener;
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    metrics.addBufferedBytes(-bufferedBytes);
+    bufferedBytes = 0L;
+    queue.clear();
+  }
+
+  private void write(ByteBuffer buffer) {
+    int size = buffer.remaining();
+    transport.send(buffer, t -> sent(size, t));
+  }
+
+  private void sent(int size, Throwable t) {
+    ByteBuffer next;
+    boolean unblocked = false;
+    long blockedNanos = 0L;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      if (t != null && failure == null) {
+        failure = t;
+      }
+      bufferedBytes -= size;
+      next = failure == null ? queue.poll() : null;
+      sending = next != null;
+      // a failure unblocks the service so that its next send surfaces it
+      if (blocked && (failure != null || bufferedBytes <= maxBufferedBytes / 2)) {
+        blocked = false;
+        unblocked = true;
+        blockedNanos = System.nanoTime() - blockedSince;
+      }
+    }
+    metrics.addBufferedBytes(-size);
+    if (unblocked) {
+      metrics.markSendBlocked(blockedNanos);
+      writableListener.run();
+    }
+    if (next != null) {
+      write(next);
+    }
+  }
+
+  @Component
+  static class Factory {
+    private final long maxBufferedBytes;
+
+    Factory(@Value("${maxBufferedBytes:4194304}") long maxBufferedBytes) {
+      this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    BufferedEventSender create(WebSocketSession session, StreamMetrics metrics) {
+      return new BufferedEventSender(transport(session), metrics, maxBufferedBytes);
+    }
+
+    static Transport transport(WebSocketSession session) {
+      Session nativeSession = session.getNativeSession(Session.class);
+      if (nativeSession != null) {
+        RemoteEndpoint.Async remote = nativeSession.getAsyncRemote();
+        return (buffer, callback) -> remote.sendBinary(buffer, result -> callback.accept(result.getException()));
+      }
+      return (buffer, callback) -> {
+        try {
+          // TODO: Send text websockets frames once clients accept them
+          session.sendMessage(new BinaryMessage(buffer));
+          callback.accept(null);
+        } catch (IOException e) {
+          callback.accept(e);
+        }
+      };
+    }
+  }
+
+  /**
+   * Writes a buffer without blocking and invokes the callback, with the failure if there was one, once it is written.
+   * At most one write is outstanding at a time.
+   */
+  interface Transport {
+    void send(ByteBuffer buffer, Consumer<Throwable> callback);
+  }
+}
@@ -15,6 +15,23 @@
  */
 package com.hotels.road.offramp.socket;
 
+import java.nio.ByteBuffer;
+
 public interface EventSender {
-  void send(String event);
+  /**
+   * Sends an encoded event. The buffer may be reused by the caller once this method returns.
+   */
+  void send(ByteBuffer event);
+
+  /**
+   * @return {@code false} while the events already sent are backed up in the transport and no more should be sent.
+   */
+  default boolean isWritable() {
+    return true;
+  }
+
+  /**
+   * Registers a listener to be notified when the sender becomes writable again.
+   */
+  default void onWritable(Runnable listener) {}
 }
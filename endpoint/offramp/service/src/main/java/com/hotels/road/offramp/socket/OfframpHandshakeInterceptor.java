@@ -20,8 +20,10 @@ import static java.util.stream.Collectors.toSet;
 import static com.hotels.road.offramp.model.DefaultOffset.LATEST;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.util.MultiValueMap;
@@ -44,6 +46,7 @@ class OfframpHandshakeInterceptor extends HttpSessionHandshakeInterceptor {
   static final String STREAM_NAME = "streamName";
   static final String DEFAULT_OFFSET = "defaultOffset";
   static final String GRANTS = "grants";
+  static final String MAX_BATCH_SIZE = "maxBatchSize";
 
   private static final UriTemplate URI_TEMPLATE = new UriTemplate(
       "/v{" + VERSION + "}/roads/{" + ROAD_NAME + "}/streams/{" + STREAM_NAME + "}/messages");
@@ -81,6 +84,31 @@ class OfframpHandshakeInterceptor extends HttpSessionHandshakeInterceptor {
         .block();
     attributes.put(GRANTS, grants);
 
+    String requestedBatchSize = parameters.getFirst(MAX_BATCH_SIZE);
+    Optional<Integer> maxBatchSize = maxBatchSize(requestedBatchSize);
+    if (!maxBatchSize.isPresent()) {
+      log.warn("Rejecting request: {} must be a whole number of at least 1 (given {})", MAX_BATCH_SIZE,
+          requestedBatchSize);
+      response.setStatusCode(HttpStatus.BAD_REQUEST);
+      return false;
+    }
+    attributes.put(MAX_BATCH_SIZE, maxBatchSize.get());
+
     return super.beforeHandshake(request, response, wsHandler, attributes);
   }
+
+  /**
+   * @return The requested batch size, 1 if none was requested, or empty if the value is not a whole number of at least
+   *         1.
+   */
+  private static Optional<Integer> maxBatchSize(String value) {
+    if (value == null) {
+      return Optional.of(1);
+    }
+    try {
+      return Optional.of(Integer.parseInt(value)).filter(size -> size >= 1);
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
 }
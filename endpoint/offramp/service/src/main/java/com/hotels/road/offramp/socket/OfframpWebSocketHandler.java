@@ -21,13 +21,12 @@ import static lombok.AccessLevel.PACKAGE;
 
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.DEFAULT_OFFSET;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.GRANTS;
+import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.MAX_BATCH_SIZE;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.ROAD_NAME;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.STREAM_NAME;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.VERSION;
 import static org.springframework.web.socket.CloseStatus.SERVER_ERROR;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,13 +44,11 @@ import lombok.extern.slf4j.Slf4j;
 import reactor.core.Disposable;
 import reactor.core.Disposables;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 import com.hotels.road.offramp.api.UnknownRoadException;
 import com.hotels.road.offramp.metrics.StreamMetrics;
 import com.hotels.road.offramp.model.DefaultOffset;
-import com.hotels.road.offramp.service.MessageFunction;
+import com.hotels.road.offramp.service.MessageWriter;
 import com.hotels.road.offramp.service.OfframpService;
 import com.hotels.road.offramp.service.OfframpServiceFactory;
 import com.hotels.road.offramp.spi.RoadConsumer;
@@ -63,7 +60,8 @@ class OfframpWebSocketHandler extends AbstractWebSocketHandler {
   private final RoadConsumer.Factory consumerFactory;
   private final StreamMetrics.Factory metricsFactory;
   private final OfframpServiceFactory serviceFactory;
-  private final MessageFunction.Factory messageFunctionFactory;
+  private final MessageWriter.Factory messageWriterFactory;
+  private final BufferedEventSender.Factory senderFactory;
   private final OfframpAuthorisation authorisation;
 
   // These are created only afterConnectionEstablished
@@ -87,29 +85,28 @@ class OfframpWebSocketHandler extends AbstractWebSocketHandler {
     DefaultOffset defaultOffset = (DefaultOffset) attributes.get(DEFAULT_OFFSET);
     @SuppressWarnings("unchecked")
     Set<Sensitivity> grants = (Set<Sensitivity>) attributes.get(GRANTS);
+    int maxBatchSize = (Integer) attributes.get(MAX_BATCH_SIZE);
     Authentication authentication = (Authentication) session.getPrincipal();
 
     RoadConsumer consumer;
+    BufferedEventSender sender;
     metrics = metricsFactory.create(roadName, streamName);
     try {
       authorisation.checkAuthorisation(authentication, roadName, grants);
       consumer = consumerFactory.create(roadName, streamName, defaultOffset);
-      MessageFunction messageFunction = messageFunctionFactory.create(roadName, grants);
-      EventSender sender = bytes -> sendEvent(session, bytes);
-      service = serviceFactory.create(version, consumer, messageFunction, sender, metrics);
+      MessageWriter messageWriter = messageWriterFactory.create(roadName, grants);
+      sender = senderFactory.create(session, metrics);
+      service = serviceFactory.create(version, consumer, messageWriter, sender, metrics, maxBatchSize);
     } catch (UnknownRoadException e) {
       metrics.markRoadNotFound();
       session.close();
       throw e;
     }
 
-    Scheduler scheduler = Schedulers.newSingle(
-        String.format("offramp[v%s,%s.%s:%s]", version, roadName, streamName, sessionId));
     metrics.incrementActiveConnections();
 
-    Mono<Void> mono = Mono
-        .fromRunnable(service)
-        .subscribeOn(scheduler)
+    Mono<Void> mono = service
+        .start()
         .doOnError(t -> true, t -> {
           log.error("Road: {}, stream: {}, sessionId: {} - Error in OfframpService", roadName, streamName, sessionId, t);
         })
@@ -123,8 +120,8 @@ class OfframpWebSocketHandler extends AbstractWebSocketHandler {
 
     disposables.add(() -> close(service));
     disposables.add(() -> close(consumer));
+    disposables.add(sender::close);
     disposables.add(() -> close(() -> session.close(SERVER_ERROR)));
-    disposables.add(scheduler);
     disposables.add(mono.subscribe());
 
     log.info("Road: {}, stream: {}, sessionId: {} - Connection established with defaultOffset: {}", roadName,
@@ -132,16 +129,6 @@ class OfframpWebSocketHandler extends AbstractWebSocketHandler {
     metrics.markConnectionEstablished();
   }
 
-  private void sendEvent(WebSocketSession session, String event) {
-    try {
-      // TODO: Remove next line and uncomment the following when move to send text websockets frames
-      session.sendMessage(new BinaryMessage(event.getBytes(UTF_8)));
-      // session.sendMessage(new TextMessage(event));
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-  }
-
   @Override
   public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
     log.info("Road: {}, stream: {}, sessionId: {} - Connection closed - code: {}, reason: {}", roadName, streamName,
@@ -21,6 +21,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.doReturn;
 
+import static com.hotels.road.offramp.metrics.StreamMetrics.BUFFERED_BYTES;
 import static com.hotels.road.offramp.metrics.StreamMetrics.BYTES;
 import static com.hotels.road.offramp.metrics.StreamMetrics.COMMIT_FAILURE;
 import static com.hotels.road.offramp.metrics.StreamMetrics.COMMIT_SUCCESS;
@@ -87,6 +88,15 @@ public class OfframpMetricsTest {
     assertThat(bytesCounter.count(), is(123.0));
   }
 
+  @Test
+  public void addBufferedBytes() throws Exception {
+    underTest = new StreamMetrics.Factory(pool, clock).create(ROAD_NAME, STREAM_NAME);
+    underTest.addBufferedBytes(10L);
+    underTest.addBufferedBytes(-4L);
+
+    assertThat(registry.get(OFFRAMP + BUFFERED_BYTES).tags(ROAD_STREAM_TAGS).gauge().value(), is(6.0));
+  }
+
   @Test
   public void markRebalance() throws Exception {
     Counter rebalanceCounter = registry.counter(OFFRAMP + REBALANCE, ROAD_STREAM_TAGS);
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.hotels.road.offramp.api.SchemaProvider;
+import com.hotels.road.pii.PiiReplacer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AvroJsonTranscoderTest {
+  private static final String ROAD_NAME = "road";
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+      + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"p\",\"type\":\"string\",\"sensitivity\":\"PII\"},"
+      + "{\"name\":\"i\",\"type\":\"int\"},"
+      + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"b\",\"type\":\"boolean\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\"]}},"
+      + "{\"name\":\"y\",\"type\":\"bytes\",\"sensitivity\":\"PII\"},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"long\"}},"
+      + "{\"name\":\"n\",\"type\":[\"null\",\"string\"]},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"c\",\"fields\":["
+      + "{\"name\":\"x\",\"type\":[\"null\",\"string\"],\"sensitivity\":\"PII\"}]}}}]}");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private @Mock SchemaProvider schemaProvider;
+  private @Mock PiiReplacer piiReplacer;
+
+  @Before
+  public void before() {
+    doReturn(SCHEMA).when(schemaProvider).schema(ROAD_NAME, 1);
+  }
+
+  @Test
+  public void piiGranted() throws Exception {
+    AvroJsonTranscoder underTest = new AvroJsonTranscoder(ROAD_NAME, schemaProvider, null);
+
+    assertThat(mapper.readTree(transcode(underTest, message())), is(mapper.readTree("{\"s\":\"h\\u00e9llo\","
+        + "\"p\":\"secret\",\"i\":1,\"l\":12345678901,\"d\":1.5,\"b\":true,\"e\":\"B\",\"y\":\"AQI=\","
+        + "\"m\":{\"k\":2},\"n\":null,\"a\":[{\"x\":\"secret\"},{\"x\":null}]}")));
+  }
+
+  @Test
+  public void piiReplaced() throws Exception {
+    doReturn("replaced").when(piiReplacer).replace("secret");
+    AvroJsonTranscoder underTest = new AvroJsonTranscoder(ROAD_NAME, schemaProvider, piiReplacer);
+
+    assertThat(mapper.readTree(transcode(underTest, message())), is(mapper.readTree("{\"s\":\"h\\u00e9llo\","
+        + "\"p\":\"replaced\",\"i\":1,\"l\":12345678901,\"d\":1.5,\"b\":true,\"e\":\"B\",\"y\":\"\","
+        + "\"m\":{\"k\":2},\"n\":null,\"a\":[{\"x\":\"replaced\"},{\"x\":null}]}")));
+  }
+
+  @Test
+  public void messageView() throws Exception {
+    AvroJsonTranscoder underTest = new AvroJsonTranscoder(ROAD_NAME, schemaProvider, null);
+    ByteBuffer message = message();
+    byte[] framed = new byte[message.remaining() + 5];
+    message.get(framed, 5, framed.length - 5);
+    ByteBuffer view = ByteBuffer.wrap(framed);
+    view.position(5);
+
+    assertThat(transcode(underTest, view), is(transcode(underTest, message())));
+  }
+
+  @Test
+  public void planCompiledOncePerVersion() throws Exception {
+    AvroJsonTranscoder underTest = new AvroJsonTranscoder(ROAD_NAME, schemaProvider, null);
+
+    transcode(underTest, message());
+    transcode(underTest, message());
+
+    verify(schemaProvider, times(1)).schema(ROAD_NAME, 1);
+  }
+
+  private String transcode(AvroJsonTranscoder underTest, ByteBuffer message) throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+      underTest.transcode(1, message, generator);
+    }
+    return output.toString("UTF-8");
+  }
+
+  private static ByteBuffer message() throws Exception {
+    Schema itemSchema = SCHEMA.getField("a").schema().getElementType();
+    GenericRecord item1 = new GenericData.Record(itemSchema);
+    item1.put("x", "secret");
+    GenericRecord item2 = new GenericData.Record(itemSchema);
+    item2.put("x", null);
+
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("s", "h\u00e9llo");
+    record.put("p", "secret");
+    record.put("i", 1);
+    record.put("l", 12345678901L);
+    record.put("d", 1.5);
+    record.put("b", true);
+    record.put("e", new GenericData.EnumSymbol(SCHEMA.getField("e").schema(), "B"));
+    record.put("y", ByteBuffer.wrap(new byte[] { 1, 2 }));
+    record.put("m", singletonMap("k", 2L));
+    record.put("n", null);
+    record.put("a", asList(item1, item2));
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    Encoder encoder = EncoderFactory.get().directBinaryEncoder(output, null);
+    new GenericDatumWriter<GenericRecord>(SCHEMA).write(record, encoder);
+    return ByteBuffer.wrap(output.toByteArray());
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+
+import com.hotels.road.offramp.api.Payload;
+import com.hotels.road.offramp.api.Record;
+import com.hotels.road.offramp.model.Message;
+import com.hotels.road.offramp.model.Messages;
+
+public class MessageEncoderTest {
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final MessageEncoder underTest = new MessageEncoder(mapper.getFactory(),
+      (payload, generator) -> generator.writeTree((JsonNode) payload.getMessage()), 1024);
+
+  @Test
+  public void encode() throws Exception {
+    JsonNode value = mapper.readTree("{\"f\":\"foo\"}");
+
+    ByteBuffer raw = underTest.encode(new Record(0, 1L, 3L, new Payload<>((byte) 0, 2, value)));
+
+    assertThat(string(raw), is(mapper.writeValueAsString(new Message<>(0, 1L, 2, 3L, value))));
+  }
+
+  @Test
+  public void bufferReused() throws Exception {
+    JsonNode first = mapper.readTree("{\"f\":\"foo\"}");
+    JsonNode second = mapper.readTree("{\"f\":\"bar\"}");
+
+    ByteBuffer firstRaw = underTest.encode(new Record(0, 1L, 3L, new Payload<>((byte) 0, 2, first)));
+    byte[] firstArray = firstRaw.array();
+    ByteBuffer secondRaw = underTest.encode(new Record(0, 2L, 4L, new Payload<>((byte) 0, 2, second)));
+
+    assertThat(secondRaw.array(), is(sameInstance(firstArray)));
+    assertThat(string(secondRaw), is(mapper.writeValueAsString(new Message<>(0, 2L, 2, 4L, second))));
+  }
+
+  @Test
+  public void bufferReleasedAfterLargeMessage() throws Exception {
+    JsonNode large = mapper.readTree("{\"f\":\"" + Strings.repeat("x", 8192) + "\"}");
+    JsonNode small = mapper.readTree("{\"f\":\"foo\"}");
+
+    byte[] largeArray = underTest.encode(new Record(0, 1L, 3L, new Payload<>((byte) 0, 2, large))).array();
+    ByteBuffer firstRaw = underTest.encode(new Record(0, 2L, 4L, new Payload<>((byte) 0, 2, small)));
+    ByteBuffer secondRaw = underTest.encode(new Record(0, 3L, 5L, new Payload<>((byte) 0, 2, small)));
+
+    assertThat(firstRaw.array(), is(not(sameInstance(largeArray))));
+    assertThat(firstRaw.array().length < largeArray.length, is(true));
+    assertThat(secondRaw.array(), is(sameInstance(firstRaw.array())));
+    assertThat(string(secondRaw), is(mapper.writeValueAsString(new Message<>(0, 3L, 2, 5L, small))));
+  }
+
+  @Test
+  public void encodeBatch() throws Exception {
+    JsonNode value = mapper.readTree("{\"f\":\"foo\"}");
+    Queue<Record> records = records(value, 3);
+    Record first = records.peek();
+    List<Record> encoded = new ArrayList<>();
+
+    ByteBuffer raw = underTest.encode(records, 2L, 1024, encoded);
+
+    Messages<JsonNode> expected = new Messages<>(
+        asList(new Message<>(0, 0L, 2, 3L, value), new Message<>(0, 1L, 2, 3L, value)));
+    assertThat(string(raw), is(mapper.writeValueAsString(expected)));
+    assertThat(encoded.size(), is(2));
+    assertThat(encoded.get(0), is(sameInstance(first)));
+    assertThat(records.size(), is(1));
+  }
+
+  @Test
+  public void encodeBatchClosedAtMaxBytes() throws Exception {
+    JsonNode value = mapper.readTree("{\"f\":\"foo\"}");
+    Queue<Record> records = records(value, 3);
+    List<Record> encoded = new ArrayList<>();
+
+    underTest.encode(records, 3L, 1, encoded);
+
+    assertThat(encoded.size(), is(1));
+    assertThat(records.size(), is(2));
+  }
+
+  private static Queue<Record> records(JsonNode value, int count) {
+    Queue<Record> records = new LinkedList<>();
+    for (int i = 0; i < count; i++) {
+      records.add(new Record(0, i, 3L, new Payload<>((byte) 0, 2, value)));
+    }
+    return records;
+  }
+
+  private static String string(ByteBuffer raw) {
+    return new String(raw.array(), raw.arrayOffset() + raw.position(), raw.remaining(), UTF_8);
+  }
+}
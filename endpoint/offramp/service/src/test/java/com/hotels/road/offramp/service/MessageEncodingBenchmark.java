@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.EncoderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+
+import com.hotels.road.model.core.Road;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.offramp.api.Payload;
+import com.hotels.road.offramp.api.Record;
+import com.hotels.road.offramp.api.SchemaProvider;
+import com.hotels.road.offramp.model.Message;
+import com.hotels.road.pii.PiiReplacer;
+
+/**
+ * Compares encoding an outgoing message by decoding the Avro datum to a tree, replacing PII in the tree and writing it
+ * to a String (the previous behaviour) against transcoding the datum straight into a reused buffer. Each operation
+ * encodes one record, so the throughput is in records per second; the {@link GCProfiler} reports the bytes allocated
+ * per record as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MessageEncodingBenchmark {
+  private static final String ROAD_NAME = "benchmark-road";
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("r")
+      .fields()
+      .requiredString("id")
+      .requiredLong("timestamp")
+      .name("email")
+      .prop("sensitivity", "PII")
+      .type()
+      .stringType()
+      .noDefault()
+      .requiredString("payload")
+      .endRecord();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final PiiReplacer piiReplacer = value -> "";
+  private SchemaProvider schemaProvider;
+  private ObjectReader reader;
+  private PiiDataReplacer piiDataReplacer;
+  private MessageEncoder messageEncoder;
+  private Record record;
+
+  @Setup
+  public void setUp() throws IOException {
+    Road road = new Road();
+    road.setName(ROAD_NAME);
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    schemaProvider = new SchemaProvider(singletonMap(ROAD_NAME, road));
+    reader = new AvroMapper().readerFor(JsonNode.class).with(new AvroSchema(SCHEMA));
+    piiDataReplacer = new PiiDataReplacer(piiReplacer);
+    MessageWriter writer = new MessageWriter.Factory(schemaProvider, piiDataReplacer, piiReplacer)
+        .create(ROAD_NAME, emptySet());
+    messageEncoder = new MessageEncoder(mapper.getFactory(), writer, 1 << 20);
+
+    GenericRecord value = new GenericData.Record(SCHEMA);
+    value.put("id", "id-1");
+    value.put("timestamp", System.currentTimeMillis());
+    value.put("email", "someone@example.com");
+    value.put("payload", "payload-1");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new GenericDatumWriter<GenericRecord>(SCHEMA).write(value, EncoderFactory.get().directBinaryEncoder(output, null));
+    Payload<ByteBuffer> payload = new Payload<>((byte) 0, 1, ByteBuffer.wrap(output.toByteArray()));
+    record = new Record(0, 1L, System.currentTimeMillis(), payload);
+  }
+
+  @Benchmark
+  public byte[] treeAndString() throws IOException {
+    ByteBuffer message = (ByteBuffer) record.getPayload().getMessage();
+    JsonNode tree = reader.readValue(message.array(), message.arrayOffset() + message.position(), message.remaining());
+    Schema schema = schemaProvider.schema(ROAD_NAME, record.getPayload().getSchemaVersion());
+    JsonNode payload = piiDataReplacer.replace(schema, tree);
+    Message<JsonNode> event = new Message<>(record.getPartition(), record.getOffset(),
+        record.getPayload().getSchemaVersion(), record.getTimestampMs(), payload);
+    return mapper.writeValueAsString(event).getBytes(UTF_8);
+  }
+
+  @Benchmark
+  public ByteBuffer transcoder() {
+    return messageEncoder.encode(record);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder()
+        .include(MessageEncodingBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
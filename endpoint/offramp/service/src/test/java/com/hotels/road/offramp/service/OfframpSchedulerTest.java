@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import static com.hotels.road.offramp.service.OfframpScheduler.CAUSE;
+import static com.hotels.road.offramp.service.OfframpScheduler.QUEUED;
+import static com.hotels.road.offramp.service.OfframpScheduler.WAKEUPS;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfframpSchedulerTest {
+  private @Mock ScheduledExecutorService executor;
+  private @Mock ScheduledFuture<?> timer;
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final AtomicInteger runs = new AtomicInteger();
+  private Runnable onRun = () -> {};
+  private OfframpScheduler.Task task;
+
+  @Before
+  public void before() {
+    OfframpScheduler underTest = new OfframpScheduler(executor, registry);
+    task = underTest.register(() -> {
+      runs.incrementAndGet();
+      onRun.run();
+    });
+  }
+
+  @Test
+  public void wakeupsCoalesce() {
+    task.wakeup();
+    task.wakeup();
+
+    assertThat(registry.get(QUEUED).gauge().value(), is(1.0));
+    runQueued(1);
+
+    assertThat(runs.get(), is(1));
+    assertThat(registry.get(QUEUED).gauge().value(), is(0.0));
+    assertThat(registry.get(WAKEUPS).tag(CAUSE, "signal").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void wakeupWhileRunningRequeues() {
+    onRun = () -> task.wakeup();
+
+    task.wakeup();
+    runQueued(1);
+    runQueued(2);
+
+    assertThat(runs.get(), is(2));
+    assertThat(registry.get(WAKEUPS).tag(CAUSE, "signal").counter().count(), is(3.0));
+  }
+
+  @Test
+  public void wakeupAfter() {
+    doReturn(timer).when(executor).schedule(any(Runnable.class), eq(5L), eq(MILLISECONDS));
+    onRun = () -> {
+      task.wakeupAfter(5L);
+      task.wakeupAfter(5L);
+    };
+
+    task.wakeup();
+    runQueued(1);
+
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).schedule(captor.capture(), eq(5L), eq(MILLISECONDS));
+    captor.getValue().run();
+    runQueued(2);
+
+    assertThat(runs.get(), is(2));
+    assertThat(registry.get(WAKEUPS).tag(CAUSE, "timer").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void close() {
+    doReturn(timer).when(executor).schedule(any(Runnable.class), eq(5L), eq(MILLISECONDS));
+    onRun = () -> task.wakeupAfter(5L);
+    task.wakeup();
+    runQueued(1);
+    task.wakeup();
+
+    task.close();
+    task.wakeup();
+    runQueued(2);
+
+    assertThat(runs.get(), is(1));
+    verify(timer).cancel(false);
+  }
+
+  @Test
+  public void closeFromTask() {
+    onRun = () -> task.close();
+
+    task.wakeup();
+    runQueued(1);
+    task.wakeup();
+
+    assertThat(runs.get(), is(1));
+    verify(executor, times(1)).execute(any());
+  }
+
+  private void runQueued(int times) {
+    ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor, times(times)).execute(captor.capture());
+    captor.getAllValues().get(times - 1).run();
+  }
+}
@@ -18,6 +18,7 @@ package com.hotels.road.offramp.service;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
 
 import org.junit.Before;
@@ -37,13 +38,13 @@ public class OfframpServiceFactoryTest {
   @Before
   public void before() throws Exception {
     serviceFactory = new OfframpServiceFactory(serviceV2Factory);
-    doReturn(serviceV2).when(serviceV2Factory).create(any(), any(), any(), any());
+    doReturn(serviceV2).when(serviceV2Factory).create(any(), any(), any(), any(), anyInt());
   }
 
   @Test
   public void create() throws Exception {
     String offrampVersion = "2";
-    OfframpService serviceOut = serviceFactory.create(offrampVersion, any(), any(), any(), any());
+    OfframpService serviceOut = serviceFactory.create(offrampVersion, any(), any(), any(), any(), anyInt());
     assertThat(serviceOut, is(serviceV2));
   }
 }
@@ -15,13 +15,16 @@
  */
 package com.hotels.road.offramp.service;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -29,12 +32,13 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-import static reactor.core.scheduler.Schedulers.single;
-
 import static com.hotels.road.offramp.metrics.TimerTag.BUFFER;
 import static com.hotels.road.offramp.metrics.TimerTag.COMMIT;
 import static com.hotels.road.offramp.metrics.TimerTag.ENCODE;
@@ -42,17 +46,19 @@ import static com.hotels.road.offramp.metrics.TimerTag.MESSAGE;
 import static com.hotels.road.offramp.metrics.TimerTag.POLL;
 import static com.hotels.road.offramp.metrics.TimerTag.SEND;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.function.Supplier;
 
-import org.awaitility.Awaitility;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -70,7 +76,6 @@ import com.hotels.road.offramp.model.CommitResponse;
 import com.hotels.road.offramp.model.Connection;
 import com.hotels.road.offramp.model.Event;
 import com.hotels.road.offramp.model.Error;
-import com.hotels.road.offramp.model.Message;
 import com.hotels.road.offramp.model.Rebalance;
 import com.hotels.road.offramp.model.Request;
 import com.hotels.road.offramp.socket.EventSender;
@@ -81,9 +86,11 @@ import com.hotels.road.offramp.spi.RoadConsumer.RebalanceListener;
 public class OfframpServiceV2Test {
   private @Mock RoadConsumer consumer;
   private @Mock Encoder encoder;
-  private @Mock MessageFunction messageFunction;
+  private @Mock MessageEncoder messageEncoder;
   private @Mock EventSender sender;
   private @Mock StreamMetrics metrics;
+  private @Mock OfframpScheduler scheduler;
+  private @Mock OfframpScheduler.Task task;
 
   private final ObjectMapper mapper = new ObjectMapper();
   private final String podName = "podName";
@@ -92,47 +99,178 @@ public class OfframpServiceV2Test {
 
   @Before
   public void before() throws Exception {
-    underTest = spy(new OfframpServiceV2(consumer, encoder, messageFunction, sender, metrics, podName));
+    underTest = spy(
+        new OfframpServiceV2(consumer, encoder, messageEncoder, sender, metrics, scheduler, podName, 1, 1024, 100L));
+  }
+
+  @Test
+  public void start() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+
+    underTest.start();
+
+    verify(task).wakeup();
+    verify(sender).onWritable(any());
+  }
+
+  @Test
+  public void drainConnects() throws Exception {
+    doNothing().when(underTest).sendEvent(any());
+
+    underTest.drain();
+    underTest.drain();
+
+    verify(underTest).sendEvent(new Connection(podName));
   }
 
   @Test
-  public void run() throws Exception {
+  public void drainSendsRequestedMessages() throws Exception {
     Request request = new Request(1L);
     JsonNode value = mapper.createObjectNode();
     Payload<JsonNode> payload = new Payload<JsonNode>((byte) 0, 2, value);
     Record record = new Record(0, 1L, 3L, payload);
 
+    doReturn(task).when(scheduler).register(any());
+    doReturn(true).when(sender).isWritable();
     doNothing().when(underTest).sendEvent(any());
-    doNothing().when(underTest).sendRebalance(any());
-
     doAnswer(i -> {
+      underTest.getBuffer().offer(record);
       underTest.getBuffer().offer(record);
       return null;
     }).when(underTest).replenishBuffer();
+    doAnswer(i -> {
+      underTest.getBuffer().poll();
+      return null;
+    }).when(underTest).sendMessage(record);
+
+    underTest.start();
+    underTest.getEvents().offer(request);
+    underTest.drain();
+
+    verify(underTest).handleIncomingEvent(request);
+    verify(underTest).sendMessage(record);
+    assertThat(underTest.getBuffer().size(), is(1));
+    // parked until more is requested
+    verify(task, times(1)).wakeup();
+    verify(task, never()).wakeupAfter(anyLong());
+    ArgumentCaptor<RebalanceListener> captor = ArgumentCaptor.forClass(RebalanceListener.class);
+    verify(consumer).init(eq(1L), captor.capture());
 
-    try {
-      Mono.fromRunnable(underTest).subscribeOn(single()).subscribe();
+    Set<Integer> assignment = singleton(0);
+    captor.getValue().onRebalance(assignment);
+    verify(underTest).sendRebalance(assignment);
+  }
 
-      underTest.getEvents().offer(request);
-      Awaitility.await().atMost(500, MILLISECONDS).pollInterval(10, MILLISECONDS).until(() -> {
-        verify(underTest).handleIncomingEvent(request);
-      });
+  @Test
+  public void drainBacksOffWhileIdle() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+    doReturn(true).when(sender).isWritable();
+    doNothing().when(underTest).sendEvent(any());
+    doNothing().when(underTest).replenishBuffer();
 
-      Awaitility.await().atMost(500, MILLISECONDS).pollInterval(10, MILLISECONDS).until(() -> {
-        verify(underTest).sendMessage(record);
-      });
+    underTest.start();
+    underTest.getEvents().offer(new Request(1L));
+    for (int i = 0; i < 10; i++) {
+      underTest.drain();
+    }
 
-    } finally {
-      underTest.close();
+    InOrder inOrder = inOrder(task);
+    for (long delay : new long[] { 1L, 2L, 4L, 8L, 16L, 32L, 64L, 100L, 100L, 100L }) {
+      inOrder.verify(task).wakeupAfter(delay);
     }
+  }
 
-    verify(underTest).sendEvent(new Connection(podName));
-    ArgumentCaptor<RebalanceListener> captor = ArgumentCaptor.forClass(RebalanceListener.class);
-    verify(consumer).init(eq(1L), captor.capture());
+  @Test
+  public void drainPausesWhileBackedUp() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+    doReturn(false).when(sender).isWritable();
+    doNothing().when(underTest).sendEvent(any());
+    doNothing().when(underTest).replenishBuffer();
 
-    Set<Integer> assignment = singleton(0);
-    captor.getValue().onRebalance(assignment);
-    verify(underTest).sendRebalance(assignment);
+    underTest.start();
+    underTest.getEvents().offer(new Request(1L));
+    underTest.drain();
+    underTest.drain();
+
+    verify(consumer, times(1)).pause();
+    verify(underTest, never()).sendMessage(any());
+    assertThat(underTest.isPaused(), is(true));
+
+    doReturn(true).when(sender).isWritable();
+    underTest.drain();
+
+    verify(consumer).resume();
+    verify(underTest, times(3)).replenishBuffer();
+    assertThat(underTest.isPaused(), is(false));
+  }
+
+  @Test
+  public void drainKeepsPollingWhileBackedUp() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+    doReturn(false).when(sender).isWritable();
+    doNothing().when(underTest).sendEvent(any());
+    doReturn(emptyList()).when(consumer).poll();
+    doAnswer(i -> i.<Supplier<?>> getArgument(1).get()).when(metrics).record(any(), any(Supplier.class));
+
+    underTest.start();
+    underTest.getEvents().offer(new Request(1L));
+    // Stay backed up for ten minutes of timer wakeups, twice the default max.poll.interval.ms
+    int wakeups = (int) (MINUTES.toMillis(10) / 100L);
+    for (int i = 0; i < wakeups; i++) {
+      underTest.drain();
+    }
+
+    verify(consumer, times(1)).pause();
+    verify(consumer, times(wakeups)).poll();
+    verify(task, times(wakeups)).wakeupAfter(100L);
+    verify(sender, never()).send(any());
+  }
+
+  @Test
+  public void drainParkedWithoutDemand() throws Exception {
+    doNothing().when(underTest).sendEvent(any());
+
+    underTest.drain();
+
+    verify(consumer, never()).poll();
+  }
+
+  @Test
+  public void drainError() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+    doThrow(IllegalStateException.class).when(underTest).sendEvent(any());
+
+    Mono<Void> completion = underTest.start();
+    underTest.drain();
+
+    try {
+      completion.block();
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void close() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+
+    Mono<Void> completion = underTest.start();
+    underTest.close();
+
+    verify(task).close();
+    completion.block();
+  }
+
+  @Test
+  public void onEventWakesTask() throws Exception {
+    doReturn(task).when(scheduler).register(any());
+    doReturn(new Cancel()).when(encoder).decode("{}");
+
+    underTest.start();
+    underTest.onEvent("{}");
+
+    verify(task, times(2)).wakeup();
   }
 
   @Test
@@ -140,8 +278,10 @@ public class OfframpServiceV2Test {
     Event event = new Cancel();
     String raw = mapper.writeValueAsString(event);
 
+    doReturn(task).when(scheduler).register(any());
     doReturn(event).when(encoder).decode(raw);
 
+    underTest.start();
     underTest.onEvent(raw);
 
     assertThat(underTest.getEvents().peek(), is(event));
@@ -223,27 +363,62 @@ public class OfframpServiceV2Test {
 
   @Test
   public void sendMessage() throws Exception {
-    JsonNode value = mapper.createObjectNode();
-    Payload<JsonNode> payload = new Payload<JsonNode>((byte) 0, 2, value);
+    Payload<JsonNode> payload = new Payload<JsonNode>((byte) 0, 2, mapper.createObjectNode());
     Record record = new Record(0, 1L, 3L, payload);
-    Message<JsonNode> message = new Message<>(0, 1L, 2, 3L, value);
+    ByteBuffer raw = ByteBuffer.wrap("{}".getBytes(UTF_8));
 
-    doReturn(value).when(messageFunction).apply(payload);
-    doReturn(message).when(metrics).record(eq(MESSAGE), argThat(new ArgMatcher<Supplier<Message<JsonNode>>>() {}));
-    doNothing().when(underTest).sendEvent(message);
+    doReturn(raw).when(messageEncoder).encode(record);
+    doReturn(raw).when(metrics).record(eq(MESSAGE), argThat(new ArgMatcher<Supplier<ByteBuffer>>() {}));
 
     underTest.handleIncomingEvent(new Request(1L));
     underTest.sendMessage(record);
 
-    verify(underTest).sendEvent(message);
     assertThat(underTest.getRequested(), is(0L));
+    verify(metrics).markMessage(2);
+    verify(metrics).markMessageLatency(0, 3L);
 
     @SuppressWarnings("unchecked")
-    ArgumentCaptor<Supplier<Message<JsonNode>>> captor = ArgumentCaptor.forClass(Supplier.class);
+    ArgumentCaptor<Supplier<ByteBuffer>> captor = ArgumentCaptor.forClass(Supplier.class);
     verify(metrics).record(eq(MESSAGE), captor.capture());
+    assertThat(captor.getValue().get(), is(raw));
+
+    ArgumentCaptor<Runnable> senderCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(metrics).record(eq(SEND), senderCaptor.capture());
+    senderCaptor.getValue().run();
+    verify(sender).send(raw);
+  }
+
+  @Test
+  public void sendMessages() throws Exception {
+    Payload<JsonNode> payload = new Payload<JsonNode>((byte) 0, 2, mapper.createObjectNode());
+    Record record = new Record(0, 1L, 3L, payload);
+    ByteBuffer raw = ByteBuffer.wrap("{}".getBytes(UTF_8));
+    underTest = spy(new OfframpServiceV2(consumer, encoder, messageEncoder, sender, metrics, scheduler, podName, 10,
+        1024, 100L));
+    Queue<Record> buffer = underTest.getBuffer();
+    List<Record> batch = underTest.getBatch();
+
+    doAnswer(i -> {
+      batch.add(buffer.poll());
+      return raw;
+    }).when(messageEncoder).encode(buffer, 2L, 1024, batch);
+    doAnswer(i -> i.<Supplier<ByteBuffer>> getArgument(1).get()).when(metrics).record(eq(MESSAGE),
+        argThat(new ArgMatcher<Supplier<ByteBuffer>>() {}));
+
+    underTest.handleIncomingEvent(new Request(2L));
+    buffer.add(record);
+    underTest.sendMessages();
+
+    assertThat(underTest.getRequested(), is(1L));
+    assertThat(buffer.isEmpty(), is(true));
+    assertThat(batch.isEmpty(), is(true));
+    verify(metrics).markMessages(1, 2);
+    verify(metrics).markMessageLatency(0, 3L);
 
-    Message<JsonNode> message2 = captor.getValue().get();
-    assertThat(message2, is(message));
+    ArgumentCaptor<Runnable> senderCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(metrics).record(eq(SEND), senderCaptor.capture());
+    senderCaptor.getValue().run();
+    verify(sender).send(raw);
   }
 
   @Test
@@ -270,8 +445,8 @@ public class OfframpServiceV2Test {
 
   @Test
   public void sendEvent() throws Exception {
-    Event event = new Message<>(0, 1L, 2, 3L, mapper.createObjectNode());
-    String raw = "";
+    Event event = new Rebalance(singleton(0));
+    String raw = "{}";
 
     doReturn(raw).when(underTest).encodeEvent(event);
 
@@ -280,30 +455,11 @@ public class OfframpServiceV2Test {
     ArgumentCaptor<Runnable> senderCaptor = ArgumentCaptor.forClass(Runnable.class);
     verify(metrics).record(eq(SEND), senderCaptor.capture());
     senderCaptor.getValue().run();
-    verify(sender).send(raw);
-  }
-
-  @Test
-  public void encodeMessage() throws Exception {
-    Event event = new Message<>(0, 1L, 2, 3L, mapper.createObjectNode());
-    String raw = "";
-
-    doReturn(raw).when(encoder).encode(event);
-    doReturn(raw).when(metrics).record(eq(ENCODE), argThat(new ArgMatcher<Supplier<String>>() {}));
-
-    String result = underTest.encodeEvent(event);
-
-    assertThat(result, is(raw));
-    verify(metrics).markMessage(raw.length());
-
-    @SuppressWarnings("unchecked")
-    ArgumentCaptor<Supplier<String>> captor = ArgumentCaptor.forClass(Supplier.class);
-    verify(metrics).record(eq(ENCODE), captor.capture());
-    assertThat(captor.getValue().get(), is(raw));
+    verify(sender).send(ByteBuffer.wrap(raw.getBytes(UTF_8)));
   }
 
   @Test
-  public void encodeNonMessage() throws Exception {
+  public void encodeEvent() throws Exception {
     Event event = new Rebalance(singleton(0));
     String raw = "";
 
@@ -313,7 +469,6 @@ public class OfframpServiceV2Test {
     String result = underTest.encodeEvent(event);
 
     assertThat(result, is(raw));
-    verify(metrics, never()).markMessage(anyLong());
 
     @SuppressWarnings("unchecked")
     ArgumentCaptor<Supplier<String>> captor = ArgumentCaptor.forClass(Supplier.class);
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.offramp.socket;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.hotels.road.offramp.metrics.StreamMetrics;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BufferedEventSenderTest {
+  private @Mock StreamMetrics metrics;
+  private @Mock Runnable listener;
+
+  private final List<String> written = new ArrayList<>();
+  private final List<Consumer<Throwable>> callbacks = new ArrayList<>();
+  private BufferedEventSender underTest;
+
+  @Before
+  public void before() {
+    underTest = new BufferedEventSender((buffer, callback) -> {
+      written.add(UTF_8.decode(buffer).toString());
+      callbacks.add(callback);
+    }, metrics, 4L);
+    underTest.onWritable(listener);
+  }
+
+  @Test
+  public void oneWriteOutstanding() {
+    underTest.send(buffer("a"));
+    underTest.send(buffer("b"));
+
+    assertThat(written.size(), is(1));
+    callbacks.get(0).accept(null);
+    assertThat(written.size(), is(2));
+    assertThat(written.get(1), is("b"));
+  }
+
+  @Test
+  public void eventCopied() {
+    ByteBuffer event = buffer("a");
+    underTest.send(buffer("x"));
+    underTest.send(event);
+    event.clear();
+    event.put((byte) 'z');
+
+    callbacks.get(0).accept(null);
+
+    assertThat(written.get(1), is("a"));
+  }
+
+  @Test
+  public void blockedUntilHalfDrained() {
+    underTest.send(buffer("ab"));
+    underTest.send(buffer("cd"));
+    assertThat(underTest.isWritable(), is(false));
+
+    callbacks.get(0).accept(null);
+    assertThat(underTest.isWritable(), is(true));
+    verify(listener).run();
+    verify(metrics).markSendBlocked(anyLong());
+    verify(metrics).addBufferedBytes(-2L);
+  }
+
+  @Test
+  public void failureSurfacedOnNextSend() {
+    underTest.send(buffer("abcd"));
+    assertThat(underTest.isWritable(), is(false));
+
+    callbacks.get(0).accept(new IOException());
+    assertThat(underTest.isWritable(), is(true));
+    verify(listener).run();
+
+    try {
+      underTest.send(buffer("e"));
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getCause() instanceof IOException, is(true));
+    }
+  }
+
+  @Test
+  public void closeReleasesBufferedBytes() {
+    underTest.send(buffer("ab"));
+    underTest.send(buffer("c"));
+
+    underTest.close();
+    callbacks.get(0).accept(null);
+
+    verify(metrics).addBufferedBytes(-3L);
+    verify(metrics, never()).addBufferedBytes(-2L);
+    assertThat(written.size(), is(1));
+  }
+
+  private static ByteBuffer buffer(String value) {
+    return ByteBuffer.wrap(value.getBytes(UTF_8));
+  }
+}
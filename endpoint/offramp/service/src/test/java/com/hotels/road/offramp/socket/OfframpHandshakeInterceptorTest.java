@@ -20,12 +20,15 @@ import static java.util.Collections.singleton;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 import static com.hotels.road.offramp.model.DefaultOffset.EARLIEST;
 import static com.hotels.road.offramp.model.DefaultOffset.LATEST;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.DEFAULT_OFFSET;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.GRANTS;
+import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.MAX_BATCH_SIZE;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.ROAD_NAME;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.STREAM_NAME;
 import static com.hotels.road.rest.model.Sensitivity.PII;
@@ -39,11 +42,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OfframpHandshakeInterceptorTest {
 
   private @Mock ServerHttpRequest request;
+  private @Mock ServerHttpResponse response;
 
   private final OfframpHandshakeInterceptor underTest = new OfframpHandshakeInterceptor();
 
@@ -59,6 +64,40 @@ public class OfframpHandshakeInterceptorTest {
     assertThat(attributes.get(STREAM_NAME), is("stream1"));
     assertThat(attributes.get(DEFAULT_OFFSET), is(EARLIEST));
     assertThat(attributes.get(GRANTS), is(singleton(PII)));
+    assertThat(attributes.get(MAX_BATCH_SIZE), is(1));
+  }
+
+  @Test
+  public void maxBatchSize() throws Exception {
+    when(request.getURI())
+        .thenReturn(URI.create("ws://localhost/offramp/v2/roads/road1/streams/stream1/messages?maxBatchSize=100"));
+
+    Map<String, Object> attributes = new HashMap<>();
+    underTest.beforeHandshake(request, null, null, attributes);
+
+    assertThat(attributes.get(MAX_BATCH_SIZE), is(100));
+  }
+
+  @Test
+  public void invalidMaxBatchSize() throws Exception {
+    when(request.getURI())
+        .thenReturn(URI.create("ws://localhost/offramp/v2/roads/road1/streams/stream1/messages?maxBatchSize=0"));
+
+    Map<String, Object> attributes = new HashMap<>();
+    assertThat(underTest.beforeHandshake(request, response, null, attributes), is(false));
+
+    verify(response).setStatusCode(BAD_REQUEST);
+    assertThat(attributes.containsKey(MAX_BATCH_SIZE), is(false));
+  }
+
+  @Test
+  public void nonNumericMaxBatchSize() throws Exception {
+    when(request.getURI())
+        .thenReturn(URI.create("ws://localhost/offramp/v2/roads/road1/streams/stream1/messages?maxBatchSize=all"));
+
+    assertThat(underTest.beforeHandshake(request, response, null, new HashMap<>()), is(false));
+
+    verify(response).setStatusCode(BAD_REQUEST);
   }
 
   @Test
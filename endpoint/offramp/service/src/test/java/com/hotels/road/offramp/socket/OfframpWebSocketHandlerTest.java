@@ -24,7 +24,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -36,10 +35,12 @@ import static org.mockito.Mockito.verify;
 import static com.hotels.road.offramp.model.DefaultOffset.EARLIEST;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.DEFAULT_OFFSET;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.GRANTS;
+import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.MAX_BATCH_SIZE;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.ROAD_NAME;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.STREAM_NAME;
 import static com.hotels.road.offramp.socket.OfframpHandshakeInterceptor.VERSION;
 import static com.hotels.road.rest.model.Sensitivity.PII;
+import static org.springframework.web.socket.CloseStatus.SERVER_ERROR;
 
 import java.io.IOException;
 import java.util.Map;
@@ -55,13 +56,15 @@ import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
+import reactor.core.publisher.Mono;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 
 import com.hotels.road.offramp.api.Record;
 import com.hotels.road.offramp.api.UnknownRoadException;
 import com.hotels.road.offramp.metrics.StreamMetrics;
-import com.hotels.road.offramp.service.MessageFunction;
+import com.hotels.road.offramp.service.MessageWriter;
 import com.hotels.road.offramp.service.OfframpServiceFactory;
 import com.hotels.road.offramp.service.OfframpServiceV2;
 import com.hotels.road.offramp.spi.RoadConsumer;
@@ -72,7 +75,8 @@ import com.hotels.road.offramp.model.Message;
 @RunWith(MockitoJUnitRunner.class)
 public class OfframpWebSocketHandlerTest {
 
-  private @Mock EventSender sender;
+  private @Mock BufferedEventSender.Factory senderFactory;
+  private @Mock BufferedEventSender sender;
   private @Mock RoadConsumer.Factory consumerFactory;
   private @Mock RoadConsumer consumer;
   private @Mock OfframpServiceV2.Factory serviceV2Factory;
@@ -80,8 +84,8 @@ public class OfframpWebSocketHandlerTest {
   private @Mock StreamMetrics.Factory metricsFactory;
   private @Mock StreamMetrics metrics;
   private @Mock WebSocketSession session;
-  private @Mock MessageFunction.Factory messageFunctionFactory;
-  private @Mock MessageFunction messageFunction;
+  private @Mock MessageWriter.Factory messageWriterFactory;
+  private @Mock MessageWriter messageWriter;
   private @Mock OfframpAuthorisation authorisation;
   private @Mock Authentication authentication;
 
@@ -96,8 +100,8 @@ public class OfframpWebSocketHandlerTest {
   @Before
   public void before() throws Exception {
     serviceFactory = new OfframpServiceFactory(serviceV2Factory);
-    underTest = new OfframpWebSocketHandler(consumerFactory, metricsFactory, serviceFactory, messageFunctionFactory,
-        authorisation);
+    underTest = new OfframpWebSocketHandler(consumerFactory, metricsFactory, serviceFactory, messageWriterFactory,
+        senderFactory, authorisation);
 
     Map<String, Object> attributes = ImmutableMap
         .<String, Object> builder()
@@ -106,19 +110,22 @@ public class OfframpWebSocketHandlerTest {
         .put(STREAM_NAME, streamName)
         .put(DEFAULT_OFFSET, EARLIEST)
         .put(GRANTS, singleton(PII))
+        .put(MAX_BATCH_SIZE, 10)
         .build();
 
     doReturn(sessionId).when(session).getId();
     doReturn(attributes).when(session).getAttributes();
     doReturn(metrics).when(metricsFactory).create(roadName, streamName);
     doReturn(consumer).when(consumerFactory).create(roadName, streamName, EARLIEST);
-    doReturn(messageFunction).when(messageFunctionFactory).create(roadName, singleton(PII));
+    doReturn(messageWriter).when(messageWriterFactory).create(roadName, singleton(PII));
+    doReturn(sender).when(senderFactory).create(session, metrics);
     doReturn(authentication).when(session).getPrincipal();
-    doReturn(service).when(serviceV2Factory).create(eq(consumer), eq(messageFunction), any(), eq(metrics));
+    doReturn(service).when(serviceV2Factory).create(eq(consumer), eq(messageWriter), eq(sender), eq(metrics), eq(10));
   }
 
   @Test
   public void afterConnectionEstablished() throws Exception {
+    doReturn(Mono.never()).when(service).start();
     underTest.afterConnectionEstablished(session);
 
     verify(metrics).markConnectionEstablished();
@@ -126,10 +133,22 @@ public class OfframpWebSocketHandlerTest {
     assertThat(underTest.getMetrics(), is(metrics));
   }
 
+  @Test
+  public void serviceError() throws Exception {
+    doReturn(Mono.error(new IllegalStateException())).when(service).start();
+    underTest.afterConnectionEstablished(session);
+
+    verify(service).close();
+    verify(consumer).close();
+    verify(sender).close();
+    verify(session).close(SERVER_ERROR);
+    verify(metrics).decrementActiveConnections();
+  }
+
   @Test
   public void afterConnectionEstablished_UnknownRoadException_serviceV2() throws Exception {
     doThrow(UnknownRoadException.class).when(serviceV2Factory).create(
-        eq(consumer), eq(messageFunction), any(), eq(metrics));
+        eq(consumer), eq(messageWriter), eq(sender), eq(metrics), eq(10));
 
     try {
       underTest.afterConnectionEstablished(session);
@@ -143,6 +162,7 @@ public class OfframpWebSocketHandlerTest {
 
   @Test
   public void handleTransportError() throws Exception {
+    doReturn(Mono.never()).when(service).start();
     underTest.afterConnectionEstablished(session);
     underTest.handleTransportError(session, new IOException());
 
@@ -156,6 +176,7 @@ public class OfframpWebSocketHandlerTest {
     String refUtf8 = new String(binaryMessage.getPayload().array(), UTF_8);
     String refUtf16 = new String(binaryMessage.getPayload().array(), UTF_16);
 
+    doReturn(Mono.never()).when(service).start();
     underTest.afterConnectionEstablished(session);
     underTest.handleBinaryMessage(session, binaryMessage);
 
@@ -174,6 +195,7 @@ public class OfframpWebSocketHandlerTest {
     String refUtf8 = new String(textMessage.getPayload().getBytes(), UTF_8);
     String refUtf16 = new String(textMessage.getPayload().getBytes(), UTF_16);
 
+    doReturn(Mono.never()).when(service).start();
     underTest.afterConnectionEstablished(session);
     underTest.handleTextMessage(session, textMessage);
 
@@ -29,6 +29,14 @@ public interface RoadConsumer extends AutoCloseable {
 
   boolean commit(Map<Integer, Long> offsets);
 
+  /**
+   * Stops fetching records, including for partitions assigned while paused, until {@link #resume()} is called. The
+   * caller keeps calling {@link #poll()} while paused so that the consumer stays alive.
+   */
+  default void pause() {}
+
+  default void resume() {}
+
   public interface Factory {
     RoadConsumer create(String roadName, String streamName, DefaultOffset defaultOffset) throws UnknownRoadException;
   }
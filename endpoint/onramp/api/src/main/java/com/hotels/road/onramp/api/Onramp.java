@@ -15,15 +15,35 @@
  */
 package com.hotels.road.onramp.api;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.Future;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.hotels.road.model.core.SchemaVersion;
 
 public interface Onramp {
-  Future<Boolean> sendEvent(JsonNode event);
+  /**
+   * Encodes and sends a single event. The returned future completes once the event has been acknowledged, or has
+   * failed, so callers can wait on many events at once without blocking a thread on each.
+   */
+  ListenableFuture<Boolean> sendEvent(JsonNode event);
+
+  /**
+   * Reads a single event starting at the parser's current token and sends it. On return the parser is positioned on
+   * the last token of the event, even if the event was rejected.
+   *
+   * @throws IOException if the event could not be read from the parser.
+   */
+  ListenableFuture<Boolean> sendEvent(JsonParser event) throws IOException;
+
+  /**
+   * Sends a single event that is already Avro encoded, framed as {@code <0x00><4 byte schema version><avro datum>}. The
+   * datum must have been written with one of the road's schema versions.
+   */
+  ListenableFuture<Boolean> sendEvent(byte[] event);
 
   boolean isAvailable();
 
@@ -17,12 +17,14 @@ package com.hotels.road.onramp.api;
 
 import static java.util.Collections.singletonList;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Future;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.hotels.road.exception.InvalidEventException;
 import com.hotels.road.exception.InvalidKeyException;
@@ -42,7 +44,7 @@ public abstract class OnrampTemplate<K, M> implements Onramp {
   }
 
   @Override
-  public Future<Boolean> sendEvent(JsonNode jsonEvent) {
+  public ListenableFuture<Boolean> sendEvent(JsonNode jsonEvent) {
     try {
       SchemaVersion schemaVersion = getSchemaVersion();
       Event<K, M> event = encodeEvent(jsonEvent, schemaVersion);
@@ -52,6 +54,28 @@ public abstract class OnrampTemplate<K, M> implements Onramp {
     }
   }
 
+  @Override
+  public ListenableFuture<Boolean> sendEvent(JsonParser jsonEvent) throws IOException {
+    try {
+      SchemaVersion schemaVersion = getSchemaVersion();
+      Event<K, M> event = encodeEvent(jsonEvent, schemaVersion);
+      return sendEncodedEvent(event, schemaVersion);
+    } catch (InvalidEventException e) {
+      return Futures.immediateFailedFuture(e);
+    }
+  }
+
+  @Override
+  public ListenableFuture<Boolean> sendEvent(byte[] avroEvent) {
+    try {
+      SchemaVersion schemaVersion = getSchemaVersion();
+      Event<K, M> event = encodeEvent(avroEvent, schemaVersion);
+      return sendEncodedEvent(event, schemaVersion);
+    } catch (InvalidEventException e) {
+      return Futures.immediateFailedFuture(e);
+    }
+  }
+
   @Override
   public boolean isAvailable() {
     return road.isEnabled();
@@ -75,7 +99,13 @@ public abstract class OnrampTemplate<K, M> implements Onramp {
   abstract protected Event<K, M> encodeEvent(JsonNode jsonEvent, SchemaVersion schemaVersion)
     throws InvalidEventException;
 
-  abstract protected Future<Boolean> sendEncodedEvent(Event<K, M> event, SchemaVersion schemaVersion)
+  abstract protected Event<K, M> encodeEvent(JsonParser jsonEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException, IOException;
+
+  abstract protected Event<K, M> encodeEvent(byte[] avroEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException;
+
+  abstract protected ListenableFuture<Boolean> sendEncodedEvent(Event<K, M> event, SchemaVersion schemaVersion)
     throws InvalidKeyException;
 
 }
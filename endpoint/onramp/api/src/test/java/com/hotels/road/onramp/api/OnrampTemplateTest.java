@@ -27,7 +27,6 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -38,7 +37,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.hotels.road.exception.InvalidEventException;
 import com.hotels.road.exception.InvalidKeyException;
@@ -54,6 +56,8 @@ public class OnrampTemplateTest {
   @Mock
   private JsonNode jsonEvent;
   @Mock
+  private JsonParser jsonParser;
+  @Mock
   private Event<String, String> event;
 
   private OnrampTemplate<String, String> underTest;
@@ -69,7 +73,7 @@ public class OnrampTemplateTest {
     SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
     when(underTest.getSchemaVersion()).thenReturn(schemaVersion);
     when(underTest.encodeEvent(jsonEvent, schemaVersion)).thenReturn(event);
-    Future<Boolean> future = CompletableFuture.completedFuture(true);
+    ListenableFuture<Boolean> future = Futures.immediateFuture(true);
     when(underTest.sendEncodedEvent(event, schemaVersion)).thenReturn(future);
 
     Future<Boolean> result = underTest.sendEvent(jsonEvent);
@@ -94,6 +98,68 @@ public class OnrampTemplateTest {
     }
   }
 
+  @Test
+  public void sendStreamedEventSuccess() throws Exception {
+    SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
+    when(underTest.getSchemaVersion()).thenReturn(schemaVersion);
+    when(underTest.encodeEvent(jsonParser, schemaVersion)).thenReturn(event);
+    ListenableFuture<Boolean> future = Futures.immediateFuture(true);
+    when(underTest.sendEncodedEvent(event, schemaVersion)).thenReturn(future);
+
+    Future<Boolean> result = underTest.sendEvent(jsonParser);
+
+    assertThat(result, is(future));
+  }
+
+  @Test
+  public void sendStreamedEventInvalidEvent() throws Exception {
+    SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
+    when(underTest.getSchemaVersion()).thenReturn(schemaVersion);
+    InvalidEventException invalidEventException = new InvalidEventException("invalid");
+    doThrow(invalidEventException).when(underTest).encodeEvent(jsonParser, schemaVersion);
+
+    Future<Boolean> result = underTest.sendEvent(jsonParser);
+
+    try {
+      result.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(invalidEventException));
+    }
+  }
+
+  @Test
+  public void sendAvroEventSuccess() throws Exception {
+    byte[] avroEvent = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01 };
+    SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
+    when(underTest.getSchemaVersion()).thenReturn(schemaVersion);
+    when(underTest.encodeEvent(avroEvent, schemaVersion)).thenReturn(event);
+    ListenableFuture<Boolean> future = Futures.immediateFuture(true);
+    when(underTest.sendEncodedEvent(event, schemaVersion)).thenReturn(future);
+
+    Future<Boolean> result = underTest.sendEvent(avroEvent);
+
+    assertThat(result, is(future));
+  }
+
+  @Test
+  public void sendAvroEventInvalidEvent() throws Exception {
+    byte[] avroEvent = new byte[] { 0x01 };
+    SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
+    when(underTest.getSchemaVersion()).thenReturn(schemaVersion);
+    InvalidEventException invalidEventException = new InvalidEventException("invalid");
+    doThrow(invalidEventException).when(underTest).encodeEvent(avroEvent, schemaVersion);
+
+    Future<Boolean> result = underTest.sendEvent(avroEvent);
+
+    try {
+      result.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), is(invalidEventException));
+    }
+  }
+
   @Test
   public void sendEventInvalidKey() throws Exception {
     SchemaVersion schemaVersion = new SchemaVersion(schema, 1, false);
@@ -196,7 +262,17 @@ public class OnrampTemplateTest {
     }
 
     @Override
-    protected Future<Boolean> sendEncodedEvent(Event<K, M> event, SchemaVersion schemaVersion)
+    protected Event<K, M> encodeEvent(JsonParser jsonEvent, SchemaVersion schemaVersion) throws InvalidEventException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected Event<K, M> encodeEvent(byte[] avroEvent, SchemaVersion schemaVersion) throws InvalidEventException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected ListenableFuture<Boolean> sendEncodedEvent(Event<K, M> event, SchemaVersion schemaVersion)
       throws InvalidKeyException {
       throw new UnsupportedOperationException();
     }
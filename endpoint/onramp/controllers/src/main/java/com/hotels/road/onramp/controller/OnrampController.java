@@ -21,8 +21,14 @@ import static java.util.stream.StreamSupport.stream;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,6 +38,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -43,12 +50,18 @@ import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.hotels.road.exception.InvalidEventException;
 import com.hotels.road.exception.RoadUnavailableException;
-import com.hotels.road.exception.ServiceException;
 import com.hotels.road.exception.UnknownRoadException;
 import com.hotels.road.onramp.api.Onramp;
 import com.hotels.road.onramp.api.OnrampService;
@@ -60,7 +73,16 @@ import com.hotels.road.rest.model.StandardResponse;
 @RequiredArgsConstructor
 @Slf4j
 public class OnrampController {
+  public static final String AVRO_BATCH_CONTENT_TYPE = "application/vnd.datahighway.avro-batch";
   private static final String MESSAGE_ACCEPTED = "Message accepted.";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  /*
+   * Every send is completed by its producer callback, bounded by the producer's own timeouts, so the response must not
+   * give up on the batch before the producer does.
+   */
+  private static final long NO_TIMEOUT = 0L;
+  // Matches the producer's default maximum request size
+  private static final int MAX_AVRO_MESSAGE_SIZE = 1024 * 1024;
 
   private final OnrampService service;
   private final MeterRegistry registry;
@@ -73,36 +95,145 @@ public class OnrampController {
       @ApiResponse(code = 422, message = "Road not enabled.", response = StandardResponse.class) })
   @PreAuthorize("@onrampAuthorisation.isAuthorised(authentication,#roadName)")
   @PostMapping(path = "/roads/{roadName}/messages")
-  public Iterable<StandardResponse> produce(@PathVariable String roadName, @RequestBody ArrayNode json)
-    throws UnknownRoadException, InterruptedException {
+  public DeferredResult<Iterable<StandardResponse>> produce(@PathVariable String roadName, @RequestBody ArrayNode json)
+    throws UnknownRoadException {
     Timer.Sample sample = Timer.start(registry);
     DistributionSummary.builder("onramp.request").tag("road", roadName).register(registry).record(json.size());
     Onramp onramp = service.getOnramp(roadName).orElseThrow(() -> new UnknownRoadException(roadName));
     if (!onramp.isAvailable()) {
       throw new RoadUnavailableException(String.format("Road '%s' is disabled, could not send events.", roadName));
     }
-    Iterable<StandardResponse> responses = sendMessages(onramp, json);
-    sample.stop(registry.timer("onramp.request.timer", "road", roadName));
-    return responses;
+    List<ListenableFuture<StandardResponse>> responses = sendMessages(onramp, json);
+    return respond(roadName, sample, responses);
   }
 
-  private Iterable<StandardResponse> sendMessages(Onramp onramp, Iterable<JsonNode> json) throws InterruptedException {
-    return stream(json.spliterator(), false).map(onramp::sendEvent).map(this::translateFuture).collect(toList());
+  /**
+   * Streaming variant of {@link #produce(String, ArrayNode)} that reads the array one message at a time and encodes
+   * each message straight to Avro, so that the request body is never held in memory as a whole. As messages are sent
+   * while the body is still being read, messages preceding malformed JSON will already have been sent when the request
+   * fails.
+   */
+  @ApiOperation(value = "Sends a given array of messages to a road, reading and encoding them one at a time")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Messages have been sent successfully.", response = StandardResponse.class),
+      @ApiResponse(code = 400, message = "Bad Request.", response = StandardResponse.class),
+      @ApiResponse(code = 404, message = "Road not found.", response = StandardResponse.class),
+      @ApiResponse(code = 422, message = "Road not enabled.", response = StandardResponse.class) })
+  @PreAuthorize("@onrampAuthorisation.isAuthorised(authentication,#roadName)")
+  @PostMapping(path = "/roads/{roadName}/messages", params = "streaming=true")
+  public DeferredResult<Iterable<StandardResponse>> produceStreaming(@PathVariable String roadName, InputStream body)
+    throws UnknownRoadException, IOException {
+    Timer.Sample sample = Timer.start(registry);
+    Onramp onramp = service.getOnramp(roadName).orElseThrow(() -> new UnknownRoadException(roadName));
+    if (!onramp.isAvailable()) {
+      throw new RoadUnavailableException(String.format("Road '%s' is disabled, could not send events.", roadName));
+    }
+    List<ListenableFuture<StandardResponse>> responses = new ArrayList<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw JsonMappingException.from(parser, "Expected an array of messages.");
+      }
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        responses.add(translateFuture(onramp.sendEvent(parser)));
+      }
+    }
+    DistributionSummary.builder("onramp.request").tag("road", roadName).register(registry).record(responses.size());
+    return respond(roadName, sample, responses);
   }
 
-  private StandardResponse translateFuture(Future<Boolean> future) {
+  /**
+   * Binary variant of {@link #produce(String, ArrayNode)} for producers that already hold Avro encoded records. The
+   * body is a sequence of messages, each a 4 byte big-endian length followed by that many bytes of
+   * {@code <0x00><4 byte schema version><avro datum>}. Messages are not converted to or from JSON.
+   */
+  @ApiOperation(value = "Sends a given batch of length-prefixed Avro binary messages to a road")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Messages have been sent successfully.", response = StandardResponse.class),
+      @ApiResponse(code = 400, message = "Bad Request.", response = StandardResponse.class),
+      @ApiResponse(code = 404, message = "Road not found.", response = StandardResponse.class),
+      @ApiResponse(code = 422, message = "Road not enabled.", response = StandardResponse.class) })
+  @PreAuthorize("@onrampAuthorisation.isAuthorised(authentication,#roadName)")
+  @PostMapping(path = "/roads/{roadName}/messages", consumes = AVRO_BATCH_CONTENT_TYPE)
+  public DeferredResult<Iterable<StandardResponse>> produceAvro(@PathVariable String roadName, InputStream body)
+    throws UnknownRoadException, IOException {
+    Timer.Sample sample = Timer.start(registry);
+    Onramp onramp = service.getOnramp(roadName).orElseThrow(() -> new UnknownRoadException(roadName));
+    if (!onramp.isAvailable()) {
+      throw new RoadUnavailableException(String.format("Road '%s' is disabled, could not send events.", roadName));
+    }
+    List<ListenableFuture<StandardResponse>> responses = new ArrayList<>();
+    DataInputStream in = new DataInputStream(body);
+    for (int length = readLength(in); length >= 0; length = readLength(in)) {
+      byte[] event = new byte[length];
+      try {
+        in.readFully(event);
+      } catch (EOFException e) {
+        throw new IllegalArgumentException(String.format("Message %d is truncated.", responses.size()));
+      }
+      responses.add(translateFuture(onramp.sendEvent(event)));
+    }
+    DistributionSummary.builder("onramp.request").tag("road", roadName).register(registry).record(responses.size());
+    return respond(roadName, sample, responses);
+  }
+
+  /**
+   * Reads the length prefix of the next binary message, or returns -1 at the end of the body.
+   */
+  private static int readLength(DataInputStream in) throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return -1;
+    }
+    int length;
     try {
-      future.get();
-      return StandardResponse.successResponse(MESSAGE_ACCEPTED);
-    } catch (ExecutionException e) {
-      Throwable cause = e.getCause();
+      length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+    } catch (EOFException e) {
+      throw new IllegalArgumentException("Message length prefix is truncated.");
+    }
+    if (length < 0 || length > MAX_AVRO_MESSAGE_SIZE) {
+      throw new IllegalArgumentException(
+          String.format("Message length %d is outside of the range 0 to %d.", length, MAX_AVRO_MESSAGE_SIZE));
+    }
+    return length;
+  }
+
+  private List<ListenableFuture<StandardResponse>> sendMessages(Onramp onramp, Iterable<JsonNode> json) {
+    return stream(json.spliterator(), false).map(onramp::sendEvent).map(this::translateFuture).collect(toList());
+  }
+
+  private ListenableFuture<StandardResponse> translateFuture(ListenableFuture<Boolean> future) {
+    ListenableFuture<StandardResponse> accepted = Futures.transform(future,
+        sent -> StandardResponse.successResponse(MESSAGE_ACCEPTED), directExecutor());
+    return Futures.catching(accepted, Throwable.class, cause -> {
       if (!(cause instanceof InvalidEventException)) {
-        log.warn("Problem sending event", e);
+        log.warn("Problem sending event", cause);
       }
       return StandardResponse.failureResponse(cause.getMessage());
-    } catch (InterruptedException e) {
-      throw new ServiceException(e);
-    }
+    }, directExecutor());
+  }
+
+  /**
+   * Completes the response once every message in the batch has been acknowledged or rejected. No thread waits on the
+   * individual sends; the last producer callback to fire writes the result.
+   */
+  private DeferredResult<Iterable<StandardResponse>> respond(
+      String roadName,
+      Timer.Sample sample,
+      List<ListenableFuture<StandardResponse>> responses) {
+    DeferredResult<Iterable<StandardResponse>> result = new DeferredResult<>(NO_TIMEOUT);
+    Futures.addCallback(Futures.allAsList(responses), new FutureCallback<List<StandardResponse>>() {
+      @Override
+      public void onSuccess(List<StandardResponse> batch) {
+        sample.stop(registry.timer("onramp.request.timer", "road", roadName));
+        result.setResult(batch);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        result.setErrorResult(t);
+      }
+    }, directExecutor());
+    return result;
   }
 
   @ExceptionHandler
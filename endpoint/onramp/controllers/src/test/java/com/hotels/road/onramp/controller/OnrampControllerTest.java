@@ -17,21 +17,25 @@ package com.hotels.road.onramp.controller;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
 import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 
+import static com.hotels.road.onramp.controller.OnrampController.AVRO_BATCH_CONTENT_TYPE;
+
+import java.nio.ByteBuffer;
 import java.util.Optional;
-import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -45,11 +49,18 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.SettableFuture;
 
 import com.hotels.road.exception.InvalidEventException;
 import com.hotels.road.exception.ServiceException;
@@ -118,6 +129,20 @@ public class OnrampControllerTest {
         return immediateFailedFuture(new InvalidEventException(INVALID_EVENT_DETAIL));
       }
     });
+    when(onramp.sendEvent(any(JsonParser.class))).thenAnswer(a -> {
+      if (new ObjectMapper().readTree((JsonParser) a.getArgument(0)).get("valid").asBoolean()) {
+        return immediateFuture(true);
+      } else {
+        return immediateFailedFuture(new InvalidEventException(INVALID_EVENT_DETAIL));
+      }
+    });
+    when(onramp.sendEvent(any(byte[].class))).thenAnswer(a -> {
+      if (((byte[]) a.getArgument(0))[0] == 0x00) {
+        return immediateFuture(true);
+      } else {
+        return immediateFailedFuture(new InvalidEventException(INVALID_EVENT_DETAIL));
+      }
+    });
     when(onramp.isAvailable()).thenReturn(true);
     when(onramp.getSchemaVersion()).thenReturn(schemaVersion);
     when(errorOnramp.sendEvent(any(JsonNode.class)))
@@ -141,8 +166,7 @@ public class OnrampControllerTest {
   public void eventPostedSuccessfully() throws Exception {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
 
-    mockMvc
-        .perform(post(PRESENT_ROAD_URI).content("[{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
+    performAsync(post(PRESENT_ROAD_URI).content("[{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].message", is("Message accepted.")))
         .andExpect(jsonPath("$[0].success", is(true)));
@@ -153,8 +177,7 @@ public class OnrampControllerTest {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(errorOnramp));
     given(errorOnramp.getSchemaVersion()).willReturn(schemaVersion);
 
-    mockMvc
-        .perform(post(PRESENT_ROAD_URI).content("[{}]").contentType(APPLICATION_JSON_UTF8))
+    performAsync(post(PRESENT_ROAD_URI).content("[{}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].message", is(ERROR_SENT)))
         .andExpect(jsonPath("$[0].success", is(false)));
@@ -175,8 +198,7 @@ public class OnrampControllerTest {
   public void invalidEvent() throws Exception {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
 
-    mockMvc
-        .perform(post(PRESENT_ROAD_URI).content("[{\"valid\":false}]").contentType(APPLICATION_JSON_UTF8))
+    performAsync(post(PRESENT_ROAD_URI).content("[{\"valid\":false}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].message", is("The event failed validation. Invalid Event")))
         .andExpect(jsonPath("$[0].success", is(false)));
@@ -186,9 +208,8 @@ public class OnrampControllerTest {
   public void twoEventsSentSuccessfully() throws Exception {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
 
-    mockMvc
-        .perform(
-            post(PRESENT_ROAD_URI).content("[{\"valid\":true},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
+    performAsync(
+        post(PRESENT_ROAD_URI).content("[{\"valid\":true},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].message", is("Message accepted.")))
         .andExpect(jsonPath("$[0].success", is(true)))
@@ -200,9 +221,8 @@ public class OnrampControllerTest {
   public void twoEventsFirstFailedSecondSucceeded() throws Exception {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
 
-    mockMvc
-        .perform(
-            post(PRESENT_ROAD_URI).content("[{\"valid\":false},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
+    performAsync(
+        post(PRESENT_ROAD_URI).content("[{\"valid\":false},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].message", is("The event failed validation. Invalid Event")))
         .andExpect(jsonPath("$[0].success", is(false)))
@@ -221,26 +241,45 @@ public class OnrampControllerTest {
         .andExpect(jsonPath("$.success", is(false)));
   }
 
-  @SuppressWarnings("unchecked")
   @Test
-  public void interruptedException() throws Exception {
-    Onramp onramp = mock(Onramp.class);
-    Future<Boolean> future = mock(Future.class);
-
-    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
-    given(onramp.isAvailable()).willReturn(true);
-    given(onramp.getSchemaVersion()).willReturn(schemaVersion);
-    given(onramp.sendEvent(any(JsonNode.class))).willReturn(future);
-    given(future.get()).willThrow(new InterruptedException("foo"));
+  public void sendThrows() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(errorOnramp));
+    given(errorOnramp.sendEvent(any(JsonNode.class))).willThrow(new ServiceException("foo"));
 
     mockMvc
         .perform(
             post(PRESENT_ROAD_URI).content("[{\"valid\":false},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
         .andExpect(status().isInternalServerError())
-        .andExpect(jsonPath("$.message", is("java.lang.InterruptedException: foo")))
+        .andExpect(jsonPath("$.message", is("foo")))
         .andExpect(jsonPath("$.success", is(false)));
   }
 
+  @Test
+  public void responseWaitsForAllSends() throws Exception {
+    SettableFuture<Boolean> first = SettableFuture.create();
+    SettableFuture<Boolean> second = SettableFuture.create();
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(errorOnramp));
+    given(errorOnramp.sendEvent(any(JsonNode.class))).willReturn(first, second);
+
+    MvcResult result = mockMvc
+        .perform(
+            post(PRESENT_ROAD_URI).content("[{\"valid\":true},{\"valid\":true}]").contentType(APPLICATION_JSON_UTF8))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    second.set(true);
+    assertThat(WebAsyncUtils.getAsyncManager(result.getRequest()).hasConcurrentResult(), is(false));
+    first.setException(new ServiceException(ERROR_SENT));
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].message", is(ERROR_SENT)))
+        .andExpect(jsonPath("$[0].success", is(false)))
+        .andExpect(jsonPath("$[1].message", is("Message accepted.")))
+        .andExpect(jsonPath("$[1].success", is(true)));
+  }
+
   @Test
   public void notAnArray() throws Exception {
     given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
@@ -248,4 +287,111 @@ public class OnrampControllerTest {
     mockMvc.perform(post(PRESENT_ROAD_URI).content("{\"valid\":true}").contentType(APPLICATION_JSON_UTF8)).andExpect(
         status().isBadRequest());
   }
+
+  @Test
+  public void streamingEventsSent() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    performAsync(post(PRESENT_ROAD_URI)
+        .param("streaming", "true")
+        .content("[{\"valid\":false},{\"valid\":true}]")
+        .contentType(APPLICATION_JSON_UTF8))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].message", is("The event failed validation. Invalid Event")))
+        .andExpect(jsonPath("$[0].success", is(false)))
+        .andExpect(jsonPath("$[1].message", is("Message accepted.")))
+        .andExpect(jsonPath("$[1].success", is(true)));
+  }
+
+  @Test
+  public void streamingRoadNotFound() throws Exception {
+    given(onrampService.getOnramp(NON_EXISTENT_ROAD)).willReturn(Optional.empty());
+
+    mockMvc
+        .perform(post(NON_EXISTENT_ROAD_URI).param("streaming", "true").content("[{}]").contentType(
+            APPLICATION_JSON_UTF8))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void streamingNotAnArray() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    mockMvc
+        .perform(post(PRESENT_ROAD_URI).param("streaming", "true").content("{\"valid\":true}").contentType(
+            APPLICATION_JSON_UTF8))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void streamingNotReadable() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    mockMvc
+        .perform(post(PRESENT_ROAD_URI).param("streaming", "true").content("[{\"valid\":tr").contentType(
+            APPLICATION_JSON_UTF8))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void avroEventsSent() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    performAsync(post(PRESENT_ROAD_URI)
+        .content(avroBatch(new byte[] { 0x01 }, new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, 0x02 }))
+        .contentType(AVRO_BATCH_CONTENT_TYPE))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].message", is("The event failed validation. Invalid Event")))
+        .andExpect(jsonPath("$[0].success", is(false)))
+        .andExpect(jsonPath("$[1].message", is("Message accepted.")))
+        .andExpect(jsonPath("$[1].success", is(true)));
+  }
+
+  @Test
+  public void avroRoadNotFound() throws Exception {
+    given(onrampService.getOnramp(NON_EXISTENT_ROAD)).willReturn(Optional.empty());
+
+    mockMvc
+        .perform(post(NON_EXISTENT_ROAD_URI).content(avroBatch(new byte[] { 0x00 })).contentType(
+            AVRO_BATCH_CONTENT_TYPE))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void avroTruncatedMessage() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    mockMvc
+        .perform(post(PRESENT_ROAD_URI).content(new byte[] { 0x00, 0x00, 0x00, 0x05, 0x00 }).contentType(
+            AVRO_BATCH_CONTENT_TYPE))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", is("Message 0 is truncated.")));
+  }
+
+  @Test
+  public void avroMessageTooLarge() throws Exception {
+    given(onrampService.getOnramp(PRESENT_ROAD)).willReturn(Optional.of(onramp));
+
+    mockMvc
+        .perform(post(PRESENT_ROAD_URI).content(new byte[] { 0x7F, 0x00, 0x00, 0x00 }).contentType(
+            AVRO_BATCH_CONTENT_TYPE))
+        .andExpect(status().isBadRequest());
+  }
+
+  private static byte[] avroBatch(byte[]... messages) {
+    int size = 0;
+    for (byte[] message : messages) {
+      size += Integer.BYTES + message.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (byte[] message : messages) {
+      buffer.putInt(message.length).put(message);
+    }
+    return buffer.array();
+  }
+
+  private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+    MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    return mockMvc.perform(asyncDispatch(result));
+  }
 }
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import java.util.Arrays;
+
+import org.apache.avro.io.BinaryData;
+
+/**
+ * A growable byte buffer that writes Avro binary primitives. Unlike an {@link org.apache.avro.io.Encoder} over a
+ * {@link java.io.ByteArrayOutputStream} it can be appended to other buffers and reset without reallocation, which is
+ * what the streaming encoder needs to reorder record fields and count array items.
+ */
+final class AvroBinaryBuffer {
+  private static final int INITIAL_CAPACITY = 256;
+
+  private byte[] bytes;
+  private int size;
+
+  AvroBinaryBuffer() {
+    this(INITIAL_CAPACITY);
+  }
+
+  AvroBinaryBuffer(int initialCapacity) {
+    bytes = new byte[initialCapacity];
+  }
+
+  void writeBoolean(boolean value) {
+    ensureCapacity(1);
+    size += BinaryData.encodeBoolean(value, bytes, size);
+  }
+
+  void writeInt(int value) {
+    ensureCapacity(5);
+    size += BinaryData.encodeInt(value, bytes, size);
+  }
+
+  void writeLong(long value) {
+    ensureCapacity(10);
+    size += BinaryData.encodeLong(value, bytes, size);
+  }
+
+  void writeFloat(float value) {
+    ensureCapacity(4);
+    size += BinaryData.encodeFloat(value, bytes, size);
+  }
+
+  void writeDouble(double value) {
+    ensureCapacity(8);
+    size += BinaryData.encodeDouble(value, bytes, size);
+  }
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    bytes[size++] = (byte) value;
+  }
+
+  void writeFixed(byte[] value, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(value, offset, bytes, size, length);
+    size += length;
+  }
+
+  void writeBytes(byte[] value, int offset, int length) {
+    writeLong(length);
+    writeFixed(value, offset, length);
+  }
+
+  /**
+   * Writes the characters as a length prefixed UTF-8 Avro string without creating an intermediate {@link String} or
+   * {@code byte[]}. Unpaired surrogates are replaced with {@code '?'}, as {@link String#getBytes} does.
+   */
+  void writeString(char[] chars, int offset, int length) {
+    int end = offset + length;
+    long encodedLength = 0;
+    for (int i = offset; i < end; i++) {
+      char c = chars[i];
+      if (c < 0x80) {
+        encodedLength += 1;
+      } else if (c < 0x800) {
+        encodedLength += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+        encodedLength += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        encodedLength += 1;
+      } else {
+        encodedLength += 3;
+      }
+    }
+    writeLong(encodedLength);
+    ensureCapacity((int) encodedLength);
+    for (int i = offset; i < end; i++) {
+      char c = chars[i];
+      if (c < 0x80) {
+        bytes[size++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[size++] = (byte) (0xC0 | (c >> 6));
+        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+        int codePoint = Character.toCodePoint(c, chars[++i]);
+        bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+        bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        bytes[size++] = (byte) '?';
+      } else {
+        bytes[size++] = (byte) (0xE0 | (c >> 12));
+        bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  void append(AvroBinaryBuffer other) {
+    writeFixed(other.bytes, 0, other.size);
+  }
+
+  void append(AvroBinaryBuffer other, int offset, int length) {
+    writeFixed(other.bytes, offset, length);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Discards everything written after the given size. Used to roll back a partially written value.
+   */
+  void truncate(int newSize) {
+    size = newSize;
+  }
+
+  void reset() {
+    size = 0;
+  }
+
+  int capacity() {
+    return bytes.length;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, size);
+  }
+
+  private void ensureCapacity(int additional) {
+    int required = size + additional;
+    if (required > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+    }
+  }
+}
@@ -0,0 +1,764 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.google.common.annotations.VisibleForTesting;
+
+import com.hotels.jasvorno.JasvornoConverter;
+import com.hotels.jasvorno.JasvornoConverterException;
+import com.hotels.road.exception.InvalidEventException;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.onramp.api.Event;
+import com.hotels.road.partition.KeyPathParser.Element;
+import com.hotels.road.partition.KeyPathParser.Path;
+
+/**
+ * Encodes a single JSON event, read token by token from a {@link JsonParser}, straight to the Confluent style Avro
+ * message format written by {@link AvroValueEncoder} without building a {@link JsonNode} tree or a
+ * {@link org.apache.avro.generic.GenericRecord} for the event. The partition key hash is computed in the same pass by
+ * materialising only the fragment addressed by the road's partition path.
+ * <p>
+ * The schema is compiled once into a tree of writers. Values whose JSON token type maps unambiguously onto the schema
+ * are written directly; anything else (bytes, fixed, ambiguous unions and unexpected token types) is read as a small
+ * tree and delegated to {@link JasvornoConverter} so that validation and coercion rules are unchanged. Record fields
+ * are accepted on the same terms as {@link JasvornoConverter} applies to the tree: they may arrive in any order, the
+ * last value of a repeated field wins, fields that are not declared in the schema are rejected and missing fields take
+ * their schema default.
+ * <p>
+ * Instances are thread-safe; scratch buffers are confined to each calling thread.
+ */
+class JsonAvroEncoder {
+  private static final byte MAGIC_BYTE = 0x00;
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final ValueWriter root;
+  private final int version;
+  private final List<String> partitionPath;
+  private final List<JsonPointer> partitionPointers;
+  private final Random random;
+  private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+  JsonAvroEncoder(SchemaVersion schemaVersion, Path partitionPath) {
+    this(schemaVersion, partitionPath, new Random());
+  }
+
+  @VisibleForTesting
+  JsonAvroEncoder(SchemaVersion schemaVersion, Path partitionPath, Random random) {
+    root = compile(schemaVersion.getSchema(), new IdentityHashMap<>());
+    version = schemaVersion.getVersion();
+    this.random = random;
+    if (partitionPath == null) {
+      this.partitionPath = null;
+      partitionPointers = null;
+    } else {
+      List<String> ids = partitionPath.elements().stream().filter(e -> !e.isRoot()).map(Element::id).collect(
+          toList());
+      // Mirrors the JsonPointer built by PartitionNodeFunction, where an empty path addresses the "" field
+      this.partitionPath = ids.isEmpty() ? Collections.singletonList("") : ids;
+      partitionPointers = new ArrayList<>();
+      JsonPointer pointer = JsonPointer.compile(this.partitionPath
+          .stream()
+          .map(s -> s.replaceAll("~", "~0"))
+          .map(s -> s.replaceAll("/", "~1"))
+          .collect(joining("/", "/", "")));
+      for (int i = 0; i < this.partitionPath.size(); i++) {
+        partitionPointers.add(pointer);
+        pointer = pointer.tail();
+      }
+    }
+  }
+
+  /**
+   * Encodes the event starting at the parser's current token. On return, successful or not, the parser is positioned
+   * on the last token of the event so that the caller can advance to the next one.
+   *
+   * @throws InvalidEventException if the event does not conform to the schema.
+   * @throws IOException if the underlying JSON is malformed or cannot be read.
+   */
+  Event<byte[], byte[]> encode(JsonParser parser) throws InvalidEventException, IOException {
+    JsonStreamContext parent = parser.getCurrentToken().isStructStart()
+        ? parser.getParsingContext().getParent()
+        : parser.getParsingContext();
+    Context context = contexts.get();
+    context.reset();
+    AvroBinaryBuffer value = context.borrow();
+    value.writeByte(MAGIC_BYTE);
+    value.writeFixed(ByteBuffer.allocate(Integer.BYTES).putInt(version).array(), 0, Integer.BYTES);
+    try {
+      root.write(parser, value, context, partitionPath == null ? -1 : 0);
+    } catch (InvalidEventException e) {
+      while (parser.getParsingContext() != parent && parser.nextToken() != null) {
+        // skip the remainder of the rejected event
+      }
+      throw e;
+    }
+    int hash = context.partitionCaptured ? context.partitionHash : random.nextInt();
+    return new Event<>(ByteBuffer.allocate(Integer.BYTES).putInt(hash).array(), value.toByteArray());
+  }
+
+  /**
+   * Writes a value that sits at {@code pathIndex} along the partition path, capturing the partition hash if the value
+   * is the one that the path addresses.
+   */
+  private void writeValue(ValueWriter writer, JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+    throws IOException, InvalidEventException {
+    if (pathIndex >= 0 && pathIndex == partitionPath.size()) {
+      JsonNode fragment = readFragment(parser);
+      context.capture(fragment);
+      try (JsonParser fragmentParser = fragment.traverse()) {
+        fragmentParser.nextToken();
+        writer.write(fragmentParser, out, context, -1);
+      }
+    } else {
+      writer.write(parser, out, context, pathIndex);
+    }
+  }
+
+  private int childPathIndex(int pathIndex, String name) {
+    if (pathIndex >= 0 && pathIndex < partitionPath.size() && partitionPath.get(pathIndex).equals(name)) {
+      return pathIndex + 1;
+    }
+    return -1;
+  }
+
+  private ValueWriter compile(Schema schema, Map<Schema, ValueWriter> compiled) {
+    ValueWriter writer = compiled.get(schema);
+    if (writer != null) {
+      return writer;
+    }
+    switch (schema.getType()) {
+    case NULL:
+      writer = new PrimitiveWriter(schema, (parser, out) -> parser.getCurrentToken() == JsonToken.VALUE_NULL);
+      break;
+    case BOOLEAN:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+          out.writeBoolean(token == JsonToken.VALUE_TRUE);
+          return true;
+        }
+        return false;
+      });
+      break;
+    case INT:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == NumberType.INT) {
+          out.writeInt(parser.getIntValue());
+          return true;
+        }
+        return false;
+      });
+      break;
+    case LONG:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != NumberType.BIG_INTEGER) {
+          out.writeLong(parser.getLongValue());
+          return true;
+        }
+        return false;
+      });
+      break;
+    case FLOAT:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken().isNumeric()) {
+          out.writeFloat(parser.getFloatValue());
+          return true;
+        }
+        return false;
+      });
+      break;
+    case DOUBLE:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken().isNumeric()) {
+          out.writeDouble(parser.getDoubleValue());
+          return true;
+        }
+        return false;
+      });
+      break;
+    case STRING:
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+          out.writeString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+          return true;
+        }
+        return false;
+      });
+      break;
+    case ENUM:
+      Map<String, Integer> ordinals = new HashMap<>();
+      schema.getEnumSymbols().forEach(symbol -> ordinals.put(symbol, schema.getEnumOrdinal(symbol)));
+      writer = new PrimitiveWriter(schema, (parser, out) -> {
+        if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+          Integer ordinal = ordinals.get(parser.getText());
+          if (ordinal != null) {
+            out.writeInt(ordinal);
+            return true;
+          }
+        }
+        return false;
+      });
+      break;
+    case ARRAY:
+      ArrayWriter arrayWriter = new ArrayWriter(schema);
+      compiled.put(schema, arrayWriter);
+      arrayWriter.items = compile(schema.getElementType(), compiled);
+      writer = arrayWriter;
+      break;
+    case MAP:
+      MapWriter mapWriter = new MapWriter(schema);
+      compiled.put(schema, mapWriter);
+      mapWriter.values = compile(schema.getValueType(), compiled);
+      writer = mapWriter;
+      break;
+    case RECORD:
+      RecordWriter recordWriter = new RecordWriter(schema);
+      // Registered before the fields are compiled to support recursive schemas
+      compiled.put(schema, recordWriter);
+      recordWriter.compileFields(compiled);
+      writer = recordWriter;
+      break;
+    case UNION:
+      UnionWriter unionWriter = new UnionWriter(schema);
+      compiled.put(schema, unionWriter);
+      unionWriter.compileBranches(compiled);
+      writer = unionWriter;
+      break;
+    default:
+      // BYTES and FIXED have no unambiguous JSON representation
+      writer = new ConvertingWriter(schema);
+      break;
+    }
+    compiled.put(schema, writer);
+    return writer;
+  }
+
+  private static JsonNode readFragment(JsonParser parser) throws IOException {
+    JsonNode fragment = MAPPER.readTree(parser);
+    return fragment == null ? NullNode.getInstance() : fragment;
+  }
+
+  private interface ValueWriter {
+    void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException;
+  }
+
+  private interface TokenWriter {
+    boolean write(JsonParser parser, AvroBinaryBuffer out) throws IOException;
+  }
+
+  /**
+   * Writes scalar values directly when the token type matches, falling back to {@link JasvornoConverter} otherwise so
+   * that coercions and error messages are preserved.
+   */
+  private class PrimitiveWriter implements ValueWriter {
+    private final TokenWriter tokenWriter;
+    private final ConvertingWriter fallback;
+
+    PrimitiveWriter(Schema schema, TokenWriter tokenWriter) {
+      this.tokenWriter = tokenWriter;
+      fallback = new ConvertingWriter(schema);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      if (!tokenWriter.write(parser, out)) {
+        fallback.write(parser, out, context, pathIndex);
+      }
+    }
+  }
+
+  private class RecordWriter implements ValueWriter {
+    private final Schema schema;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private ValueWriter[] fields;
+    private byte[][] defaults;
+    private ConvertingWriter fallback;
+
+    RecordWriter(Schema schema) {
+      this.schema = schema;
+    }
+
+    @SuppressWarnings("deprecation")
+    void compileFields(Map<Schema, ValueWriter> compiled) {
+      List<Field> schemaFields = schema.getFields();
+      fields = new ValueWriter[schemaFields.size()];
+      defaults = new byte[schemaFields.size()][];
+      for (Field field : schemaFields) {
+        positions.put(field.name(), field.pos());
+        fields[field.pos()] = compile(field.schema(), compiled);
+        if (field.defaultValue() != null) {
+          defaults[field.pos()] = encodeDefault(field);
+        }
+      }
+      fallback = new ConvertingWriter(schema);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        fallback.write(parser, out, context, pathIndex);
+        return;
+      }
+      JsonStreamContext record = parser.getParsingContext();
+      int mark = context.mark();
+      int starts = context.reserveOffsets(fields.length);
+      // Fields are written straight to out while they arrive in schema order and buffered per field otherwise
+      AvroBinaryBuffer[] slots = null;
+      InvalidEventException[] errors = null;
+      int next = 0;
+      while (parser.nextToken() != JsonToken.END_OBJECT) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        Integer position = positions.get(name);
+        if (position == null) {
+          throw new InvalidEventException(
+              String.format("Undeclared field '%s' in record '%s'.", name, schema.getFullName()));
+        }
+        int index = position;
+        int childPathIndex = childPathIndex(pathIndex, name);
+        if (index < next || slots != null && slots[index] != null) {
+          // The last value of a repeated field wins, as it does in the tree read for JasvornoConverter
+          if (slots == null) {
+            slots = new AvroBinaryBuffer[fields.length];
+          }
+          if (index < next) {
+            // Everything in out from the first value onwards moves back to its slot so the field can be rewritten
+            for (int i = index; i < next; i++) {
+              if (slots[i] == null) {
+                int from = context.offset(starts + i);
+                int to = i + 1 < next ? context.offset(starts + i + 1) : out.size();
+                slots[i] = context.borrow();
+                slots[i].append(out, from, to - from);
+              }
+            }
+            out.truncate(context.offset(starts + index));
+            next = index;
+          }
+          slots[index].reset();
+          if (errors != null) {
+            errors[index] = null;
+          }
+          if (childPathIndex >= 0) {
+            context.discardCapture();
+          }
+        }
+        AvroBinaryBuffer target;
+        if (index == next && (slots == null || slots[index] == null)) {
+          target = out;
+          context.offset(starts + index, out.size());
+        } else {
+          if (slots == null) {
+            slots = new AvroBinaryBuffer[fields.length];
+          }
+          if (slots[index] == null) {
+            slots[index] = context.borrow();
+          }
+          target = slots[index];
+        }
+        int start = target.size();
+        try {
+          writeValue(fields[index], parser, target, context, childPathIndex);
+        } catch (InvalidEventException e) {
+          // Held back until the end of the record because a repeated field may still replace the value
+          while (parser.getParsingContext() != record && parser.nextToken() != null) {
+            // skip the remainder of the rejected value
+          }
+          target.truncate(start);
+          if (errors == null) {
+            errors = new InvalidEventException[fields.length];
+          }
+          errors[index] = e;
+        }
+        if (target == out) {
+          next++;
+          while (next < fields.length && slots != null && slots[next] != null) {
+            context.offset(starts + next, out.size());
+            out.append(slots[next++]);
+          }
+        }
+      }
+      if (errors != null) {
+        for (InvalidEventException error : errors) {
+          if (error != null) {
+            throw error;
+          }
+        }
+      }
+      for (; next < fields.length; next++) {
+        if (slots != null && slots[next] != null) {
+          out.append(slots[next]);
+        } else if (defaults[next] != null) {
+          out.writeFixed(defaults[next], 0, defaults[next].length);
+        } else {
+          throw new InvalidEventException(
+              String.format("Missing field '%s' in record '%s'.", schema.getFields().get(next).name(),
+                  schema.getFullName()));
+        }
+      }
+      context.releaseOffsets(starts);
+      context.release(mark);
+    }
+
+    private byte[] encodeDefault(Field field) {
+      AvroBinaryBuffer buffer = new AvroBinaryBuffer();
+      try {
+        Object datum = GenericData.get().getDefaultValue(field);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(new BufferOutputStream(buffer), null);
+        new GenericDatumWriter<>(field.schema()).write(datum, encoder);
+        encoder.flush();
+      } catch (IOException unreachable) {}
+      return buffer.toByteArray();
+    }
+  }
+
+  private class ArrayWriter implements ValueWriter {
+    private final ConvertingWriter fallback;
+    private ValueWriter items;
+
+    ArrayWriter(Schema schema) {
+      fallback = new ConvertingWriter(schema);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+        fallback.write(parser, out, context, pathIndex);
+        return;
+      }
+      int mark = context.mark();
+      AvroBinaryBuffer buffer = context.borrow();
+      long count = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        int childPathIndex = pathIndex < 0 ? -1 : childPathIndex(pathIndex, Long.toString(count));
+        writeValue(items, parser, buffer, context, childPathIndex);
+        count++;
+      }
+      // Same block layout as GenericDatumWriter: a single counted block followed by a zero terminator
+      if (count > 0) {
+        out.writeLong(count);
+        out.append(buffer);
+      }
+      out.writeLong(0);
+      context.release(mark);
+    }
+  }
+
+  private class MapWriter implements ValueWriter {
+    private final ConvertingWriter fallback;
+    private ValueWriter values;
+
+    MapWriter(Schema schema) {
+      fallback = new ConvertingWriter(schema);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        fallback.write(parser, out, context, pathIndex);
+        return;
+      }
+      int mark = context.mark();
+      AvroBinaryBuffer buffer = context.borrow();
+      long count = 0;
+      while (parser.nextToken() != JsonToken.END_OBJECT) {
+        String key = parser.getCurrentName();
+        buffer.writeString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        parser.nextToken();
+        writeValue(values, parser, buffer, context, childPathIndex(pathIndex, key));
+        count++;
+      }
+      if (count > 0) {
+        out.writeLong(count);
+        out.append(buffer);
+      }
+      out.writeLong(0);
+      context.release(mark);
+    }
+  }
+
+  private class UnionWriter implements ValueWriter {
+    private final Schema schema;
+    private final Map<JsonToken, List<Integer>> candidates = new HashMap<>();
+    private final List<ValueWriter> branches = new ArrayList<>();
+    private int intBranch = -1;
+    private int longBranch = -1;
+    private ConvertingWriter fallback;
+
+    UnionWriter(Schema schema) {
+      this.schema = schema;
+    }
+
+    void compileBranches(Map<Schema, ValueWriter> compiled) {
+      List<Schema> types = schema.getTypes();
+      for (int i = 0; i < types.size(); i++) {
+        Schema type = types.get(i);
+        branches.add(compile(type, compiled));
+        switch (type.getType()) {
+        case NULL:
+          candidate(JsonToken.VALUE_NULL, i);
+          break;
+        case BOOLEAN:
+          candidate(JsonToken.VALUE_TRUE, i);
+          candidate(JsonToken.VALUE_FALSE, i);
+          break;
+        case INT:
+          intBranch = i;
+          break;
+        case LONG:
+          longBranch = i;
+          break;
+        case FLOAT:
+        case DOUBLE:
+          candidate(JsonToken.VALUE_NUMBER_INT, i);
+          candidate(JsonToken.VALUE_NUMBER_FLOAT, i);
+          break;
+        case STRING:
+        case ENUM:
+        case BYTES:
+        case FIXED:
+          candidate(JsonToken.VALUE_STRING, i);
+          break;
+        case ARRAY:
+          candidate(JsonToken.START_ARRAY, i);
+          break;
+        case MAP:
+        case RECORD:
+          candidate(JsonToken.START_OBJECT, i);
+          break;
+        default:
+          break;
+        }
+      }
+      fallback = new ConvertingWriter(schema);
+    }
+
+    private void candidate(JsonToken token, int branch) {
+      candidates.computeIfAbsent(token, t -> new ArrayList<>()).add(branch);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      int branch = resolve(parser);
+      if (branch < 0) {
+        fallback.write(parser, out, context, pathIndex);
+      } else {
+        out.writeInt(branch);
+        branches.get(branch).write(parser, out, context, pathIndex);
+      }
+    }
+
+    /**
+     * Returns the only branch that can represent the current token, or -1 if there is none or more than one, in which
+     * case the union is resolved by {@link JasvornoConverter}.
+     */
+    private int resolve(JsonParser parser) throws IOException {
+      JsonToken token = parser.getCurrentToken();
+      int match = -1;
+      int matches = 0;
+      for (int branch : candidates.getOrDefault(token, Collections.emptyList())) {
+        Schema type = schema.getTypes().get(branch);
+        if (type.getType() != Type.ENUM || type.hasEnumSymbol(parser.getText())) {
+          match = branch;
+          matches++;
+        }
+      }
+      if (token == JsonToken.VALUE_NUMBER_INT) {
+        NumberType numberType = parser.getNumberType();
+        if (numberType == NumberType.INT && intBranch >= 0) {
+          match = intBranch;
+          matches++;
+        }
+        if (numberType != NumberType.BIG_INTEGER && longBranch >= 0) {
+          match = longBranch;
+          matches++;
+        }
+      }
+      return matches == 1 ? match : -1;
+    }
+  }
+
+  /**
+   * Reads the current value as a tree and converts it with {@link JasvornoConverter}. Used for types that have no
+   * direct token mapping and for values that do not match the expected token so that the existing validation and
+   * coercion rules apply.
+   */
+  private class ConvertingWriter implements ValueWriter {
+    private final Schema schema;
+    private final GenericDatumWriter<Object> writer;
+
+    ConvertingWriter(Schema schema) {
+      this.schema = schema;
+      writer = new GenericDatumWriter<>(schema);
+    }
+
+    @Override
+    public void write(JsonParser parser, AvroBinaryBuffer out, Context context, int pathIndex)
+      throws IOException, InvalidEventException {
+      JsonNode node = readFragment(parser);
+      if (pathIndex >= 0 && pathIndex < partitionPath.size()) {
+        JsonNode fragment = node.at(partitionPointers.get(pathIndex));
+        if (!fragment.isMissingNode()) {
+          context.capture(fragment);
+        }
+      }
+      Object datum;
+      try {
+        datum = JasvornoConverter.convertToAvro(GenericData.get(), node, schema);
+      } catch (JasvornoConverterException e) {
+        throw new InvalidEventException(e.getMessage());
+      }
+      writer.write(datum, context.encoder(out));
+    }
+  }
+
+  /**
+   * Per-thread scratch state: stacks of reusable buffers and record field offsets, and an encoder for the converting
+ * fallback.
+   */
+  private static class Context {
+    private final List<AvroBinaryBuffer> buffers = new ArrayList<>();
+    private final BufferOutputStream stream = new BufferOutputStream(null);
+    private final BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(stream, null);
+    private int top;
+    private int[] offsets = new int[64];
+    private int offsetTop;
+    private boolean partitionCaptured;
+    private int partitionHash;
+
+    void reset() {
+      top = 0;
+      offsetTop = 0;
+      partitionCaptured = false;
+      for (int i = 0; i < buffers.size(); i++) {
+        if (buffers.get(i).capacity() > MAX_RETAINED_BUFFER_SIZE) {
+          buffers.set(i, new AvroBinaryBuffer());
+        }
+      }
+    }
+
+    int mark() {
+      return top;
+    }
+
+    AvroBinaryBuffer borrow() {
+      if (top == buffers.size()) {
+        buffers.add(new AvroBinaryBuffer());
+      }
+      AvroBinaryBuffer buffer = buffers.get(top++);
+      buffer.reset();
+      return buffer;
+    }
+
+    void release(int mark) {
+      top = mark;
+    }
+
+    void capture(JsonNode fragment) {
+      partitionCaptured = true;
+      partitionHash = fragment.hashCode();
+    }
+
+    void discardCapture() {
+      partitionCaptured = false;
+    }
+
+    /**
+     * Reserves {@code count} consecutive offsets on a stack that is unwound with {@link #releaseOffsets(int)},
+     * returning the index of the first one.
+     */
+    int reserveOffsets(int count) {
+      int base = offsetTop;
+      offsetTop += count;
+      if (offsetTop > offsets.length) {
+        offsets = Arrays.copyOf(offsets, Math.max(offsetTop, offsets.length << 1));
+      }
+      return base;
+    }
+
+    int offset(int index) {
+      return offsets[index];
+    }
+
+    void offset(int index, int value) {
+      offsets[index] = value;
+    }
+
+    void releaseOffsets(int base) {
+      offsetTop = base;
+    }
+
+    BinaryEncoder encoder(AvroBinaryBuffer target) {
+      stream.target = target;
+      return encoder;
+    }
+  }
+
+  private static class BufferOutputStream extends OutputStream {
+    private AvroBinaryBuffer target;
+
+    BufferOutputStream(AvroBinaryBuffer target) {
+      this.target = target;
+    }
+
+    @Override
+    public void write(int b) {
+      target.writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      target.writeFixed(b, off, len);
+    }
+  }
+}
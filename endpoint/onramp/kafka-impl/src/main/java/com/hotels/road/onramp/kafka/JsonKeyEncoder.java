@@ -28,7 +28,7 @@ import com.hotels.road.partition.MessageHashCodeFunctionSupplier;
 
 class JsonKeyEncoder {
 
-  private final Supplier<Function<JsonNode, Integer>> hasherSupplier;
+  private final Function<JsonNode, Integer> hasher;
 
   JsonKeyEncoder(Supplier<Path> pathSupplier) {
     this(pathSupplier, new Random());
@@ -36,11 +36,12 @@ class JsonKeyEncoder {
 
   @VisibleForTesting
   JsonKeyEncoder(Supplier<Path> pathSupplier, Random random) {
-    hasherSupplier = new MessageHashCodeFunctionSupplier(pathSupplier, random);
+    // The partition path is resolved once; the resulting function is stateless and safe to share between threads.
+    hasher = new MessageHashCodeFunctionSupplier(pathSupplier, random).get();
   }
 
   byte[] encode(final JsonNode record) {
-    return ByteBuffer.allocate(Integer.BYTES).putInt(hasherSupplier.get().apply(record)).array();
+    return ByteBuffer.allocate(Integer.BYTES).putInt(hasher.apply(record)).array();
   }
 
 }
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.hotels.road.kafkastore.StoreUpdateObserver;
+import com.hotels.road.model.core.Road;
+
+/**
+ * Holds one compiled {@link OnrampImpl} per road so that encoders, the latest schema and the parsed partition path are
+ * not rebuilt for every request. Entries are evicted from the road store's update thread whenever a change to the
+ * road affects how its messages are encoded, routed or authorised.
+ */
+@Slf4j
+@Component
+public class OnrampCache implements StoreUpdateObserver<String, Road> {
+  private final Map<String, OnrampImpl> onramps = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cached onramp for the named road, building it with {@code factory} if absent. The factory is invoked
+   * under the cache entry's lock so that a concurrent eviction cannot be overwritten by an onramp built from a stale
+   * road. A {@code null} result from the factory is not cached.
+   */
+  OnrampImpl get(String roadName, Function<String, OnrampImpl> factory) {
+    return onramps.computeIfAbsent(roadName, factory);
+  }
+
+  @Override
+  public void handleNew(String key, Road value) {
+    evict(key);
+  }
+
+  @Override
+  public void handleUpdate(String key, Road oldValue, Road newValue) {
+    if (requiresRebuild(oldValue, newValue)) {
+      evict(key);
+    }
+  }
+
+  @Override
+  public void handleRemove(String key, Road oldValue) {
+    evict(key);
+  }
+
+  @VisibleForTesting
+  int size() {
+    return onramps.size();
+  }
+
+  private void evict(String roadName) {
+    if (onramps.remove(roadName) != null) {
+      log.debug("Evicted onramp for road {}", roadName);
+    }
+  }
+
+  @VisibleForTesting
+  static boolean requiresRebuild(Road oldValue, Road newValue) {
+    return oldValue == null
+        || newValue == null
+        || oldValue.isEnabled() != newValue.isEnabled()
+        || !Objects.equals(oldValue.getTopicName(), newValue.getTopicName())
+        || !Objects.equals(oldValue.getPartitionPath(), newValue.getPartitionPath())
+        || !Objects.equals(oldValue.getAuthorisation(), newValue.getAuthorisation())
+        || !Objects.equals(oldValue.getSchemas(), newValue.getSchemas());
+  }
+}
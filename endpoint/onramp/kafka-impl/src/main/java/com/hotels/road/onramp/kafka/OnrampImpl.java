@@ -15,8 +15,8 @@
  */
 package com.hotels.road.onramp.kafka;
 
+import java.io.IOException;
 import java.util.Optional;
-import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import org.apache.avro.generic.GenericData;
@@ -25,9 +25,12 @@ import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.Futures;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import com.hotels.jasvorno.JasvornoConverter;
 import com.hotels.jasvorno.JasvornoConverterException;
@@ -45,24 +48,33 @@ import com.hotels.road.partition.KeyPathParser.Path;
 public class OnrampImpl extends OnrampTemplate<byte[], byte[]> implements Onramp {
   private final OnrampMetrics metrics;
   private final Producer<byte[], byte[]> kafkaProducer;
+  private final SchemaVersion schemaVersion;
   private final JsonKeyEncoder keyEncoder;
-  private final AvroValueEncoder valueEncoder;
+  private final ThreadLocal<AvroValueEncoder> valueEncoder;
+  private final Supplier<JsonAvroEncoder> streamingEncoder;
+  private final Supplier<PassThroughAvroEncoder> avroEncoder;
 
+  /**
+   * Compiles the encoding pipeline for the given road. Instances are immutable with respect to the {@link Road} they
+   * were built from and are safe to share between request threads; the value encoder, which holds a reusable buffer,
+   * is confined to each calling thread.
+   */
   public OnrampImpl(OnrampMetrics metrics, Producer<byte[], byte[]> kafkaProducer, Road road) {
     super(road);
     this.metrics = metrics;
     this.kafkaProducer = kafkaProducer;
-    SchemaVersion schemaVersion = getSchemaVersion();
-    keyEncoder = new JsonKeyEncoder(pathSupplier(road));
-    valueEncoder = new AvroValueEncoder(schemaVersion);
+    schemaVersion = latestSchemaVersion(road);
+    Path path = pathSupplier(road).get();
+    keyEncoder = new JsonKeyEncoder(() -> path);
+    valueEncoder = ThreadLocal.withInitial(() -> new AvroValueEncoder(schemaVersion));
+    streamingEncoder = Suppliers.memoize(() -> new JsonAvroEncoder(schemaVersion, path));
+    avroEncoder = Suppliers.memoize(
+        () -> new PassThroughAvroEncoder(schemaVersion, road.getSchemas(), path, valueEncoder::get));
   }
 
   @Override
   public SchemaVersion getSchemaVersion() {
-    Road road = getRoad();
-    String roadName = road.getName();
-    return SchemaVersion.latest(road.getSchemas().values()).orElseThrow(
-        () -> new RoadUnavailableException(String.format("Road '%s' has no schema.", roadName)));
+    return schemaVersion;
   }
 
   @Override
@@ -72,7 +84,7 @@ public class OnrampImpl extends OnrampTemplate<byte[], byte[]> implements Onramp
       GenericRecord avroRecord = (GenericRecord) JasvornoConverter.convertToAvro(GenericData.get(), jsonEvent,
           schemaVersion.getSchema());
       byte[] key = keyEncoder.encode(jsonEvent);
-      byte[] value = valueEncoder.encode(avroRecord);
+      byte[] value = valueEncoder.get().encode(avroRecord);
       return new Event<>(key, value);
     } catch (JasvornoConverterException e) {
       metrics.markValidationFailures(getRoad().getName());
@@ -81,12 +93,46 @@ public class OnrampImpl extends OnrampTemplate<byte[], byte[]> implements Onramp
   }
 
   @Override
-  protected Future<Boolean> sendEncodedEvent(Event<byte[], byte[]> event, SchemaVersion schemaVersion)
+  protected Event<byte[], byte[]> encodeEvent(JsonParser jsonEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException, IOException {
+    try {
+      return streamingEncoder.get().encode(jsonEvent);
+    } catch (InvalidEventException e) {
+      metrics.markValidationFailures(getRoad().getName());
+      throw e;
+    }
+  }
+
+  @Override
+  protected Event<byte[], byte[]> encodeEvent(byte[] avroEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException {
+    try {
+      return avroEncoder.get().encode(avroEvent);
+    } catch (InvalidEventException e) {
+      metrics.markValidationFailures(getRoad().getName());
+      throw e;
+    }
+  }
+
+  /**
+   * Hands the event to the producer and returns a future that is completed from the producer callback, rather than by
+   * a thread blocking on the producer's own future.
+   */
+  @Override
+  protected ListenableFuture<Boolean> sendEncodedEvent(Event<byte[], byte[]> event, SchemaVersion schemaVersion)
     throws InvalidKeyException {
     ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(getRoad().getTopicName(), event.getKey(),
         event.getMessage());
-    Future<RecordMetadata> future = kafkaProducer.send(record, this::updateMetrics);
-    return Futures.lazyTransform(future, metadata -> true);
+    SettableFuture<Boolean> future = SettableFuture.create();
+    kafkaProducer.send(record, (metadata, e) -> {
+      updateMetrics(metadata, e);
+      if (e == null) {
+        future.set(true);
+      } else {
+        future.setException(e);
+      }
+    });
+    return future;
   }
 
   private void updateMetrics(RecordMetadata metadata, Exception e) {
@@ -97,6 +143,12 @@ public class OnrampImpl extends OnrampTemplate<byte[], byte[]> implements Onramp
     }
   }
 
+  private static SchemaVersion latestSchemaVersion(Road road) {
+    String roadName = road.getName();
+    return road.getIndex().latest().orElseThrow(
+        () -> new RoadUnavailableException(String.format("Road '%s' has no schema.", roadName)));
+  }
+
   @VisibleForTesting
   static Supplier<Path> pathSupplier(Road road) {
     return () -> Optional
@@ -32,19 +32,26 @@ public class OnrampServiceImpl implements OnrampService {
   private final OnrampMetrics metrics;
   private final Map<String, Road> roads;
   private final Producer<byte[], byte[]> kafkaProducer;
+  private final OnrampCache cache;
 
   @Autowired
   public OnrampServiceImpl(
       OnrampMetrics metrics,
       @Value("#{store}") Map<String, Road> roads,
-      Producer<byte[], byte[]> kafkaProducer) {
+      Producer<byte[], byte[]> kafkaProducer,
+      OnrampCache cache) {
     this.metrics = metrics;
     this.roads = roads;
     this.kafkaProducer = kafkaProducer;
+    this.cache = cache;
   }
 
   @Override
   public Optional<Onramp> getOnramp(String name) {
-    return Optional.ofNullable(roads.get(name)).map(road -> new OnrampImpl(metrics, kafkaProducer, road));
+    return Optional.ofNullable(cache.get(name, this::createOnramp));
+  }
+
+  private OnrampImpl createOnramp(String name) {
+    return Optional.ofNullable(roads.get(name)).map(road -> new OnrampImpl(metrics, kafkaProducer, road)).orElse(null);
   }
 }
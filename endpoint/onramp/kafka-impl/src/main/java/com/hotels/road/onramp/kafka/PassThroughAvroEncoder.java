@@ -0,0 +1,496 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+
+import com.hotels.road.exception.InvalidEventException;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.onramp.api.Event;
+import com.hotels.road.partition.KeyPathParser.Element;
+import com.hotels.road.partition.KeyPathParser.Path;
+
+/**
+ * Accepts events that clients have already encoded as Avro binary, framed as {@code <0x00><4 byte schema version><avro
+ * datum>} in the same way as {@link AvroValueEncoder}, without building a {@link GenericRecord} for them.
+ * <p>
+ * Events written with the road's latest schema are checked by walking the datum against the schema and are forwarded
+ * byte for byte. Events written with an earlier, non-deleted version of the road's schema are resolved to the latest
+ * schema and re-encoded, so that consumers only ever see the latest version. The partition key is hashed from the
+ * fragment addressed by the road's partition path, rendered as the {@link JsonNode} that the equivalent JSON event
+ * would have been parsed into.
+ * <p>
+ * Instances are thread-safe.
+ */
+class PassThroughAvroEncoder {
+  private static final byte MAGIC_BYTE = 0x00;
+  private static final int HEADER_SIZE = 1 + Integer.BYTES;
+  private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+  private final SchemaVersion latest;
+  private final Map<Integer, SchemaVersion> schemas;
+  private final Supplier<AvroValueEncoder> valueEncoder;
+  private final List<String> partitionPath;
+  private final Random random;
+  private final Set<Schema> emptySchemas;
+  private final Map<Integer, DatumReader<GenericRecord>> resolvingReaders = new ConcurrentHashMap<>();
+
+  PassThroughAvroEncoder(
+      SchemaVersion latest,
+      Map<Integer, SchemaVersion> schemas,
+      Path partitionPath,
+      Supplier<AvroValueEncoder> valueEncoder) {
+    this(latest, schemas, partitionPath, valueEncoder, new Random());
+  }
+
+  @VisibleForTesting
+  PassThroughAvroEncoder(
+      SchemaVersion latest,
+      Map<Integer, SchemaVersion> schemas,
+      Path partitionPath,
+      Supplier<AvroValueEncoder> valueEncoder,
+      Random random) {
+    this.latest = latest;
+    this.schemas = schemas;
+    this.valueEncoder = valueEncoder;
+    this.random = random;
+    if (partitionPath == null) {
+      this.partitionPath = null;
+    } else {
+      List<String> ids = partitionPath.elements().stream().filter(e -> !e.isRoot()).map(Element::id).collect(
+          toList());
+      // Mirrors the JsonPointer built by PartitionNodeFunction, where an empty path addresses the "" field
+      this.partitionPath = ids.isEmpty() ? Collections.singletonList("") : ids;
+    }
+    // Earlier versions are walked too, when they are checked before being resolved
+    emptySchemas = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<Schema> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    collectEmptySchemas(latest.getSchema(), visited);
+    schemas.values().forEach(writer -> collectEmptySchemas(writer.getSchema(), visited));
+  }
+
+  /**
+   * @throws InvalidEventException if the event is not framed correctly, names an unknown schema version or does not
+   *           conform to its schema.
+   */
+  Event<byte[], byte[]> encode(byte[] event) throws InvalidEventException {
+    if (event.length < HEADER_SIZE || event[0] != MAGIC_BYTE) {
+      throw new InvalidEventException("Expected a magic byte and schema version before the Avro datum.");
+    }
+    int version = Ints.fromBytes(event[1], event[2], event[3], event[4]);
+    byte[] value = version == latest.getVersion() ? event : resolve(version, event);
+
+    Cursor cursor = scan(latest.getSchema(), value, partitionPath == null ? -1 : 0);
+    int hash = cursor.captured ? cursor.hash : random.nextInt();
+    return new Event<>(ByteBuffer.allocate(Integer.BYTES).putInt(hash).array(), value);
+  }
+
+  private Cursor scan(Schema schema, byte[] value, int pathIndex) throws InvalidEventException {
+    Cursor cursor = new Cursor(value, HEADER_SIZE);
+    scan(schema, cursor, pathIndex);
+    if (cursor.remaining() != 0) {
+      throw new InvalidEventException(String.format("%d unexpected bytes after the Avro datum.", cursor.remaining()));
+    }
+    return cursor;
+  }
+
+  private byte[] resolve(int version, byte[] event) throws InvalidEventException {
+    SchemaVersion writer = schemas.get(version);
+    if (writer == null || writer.isDeleted()) {
+      throw new InvalidEventException(String.format("Unknown schema version %d.", version));
+    }
+    // Check the datum is well formed before handing it to a reader that trusts its lengths and counts
+    scan(writer.getSchema(), event, -1);
+    DatumReader<GenericRecord> reader = resolvingReaders.computeIfAbsent(version,
+        v -> new GenericDatumReader<>(writer.getSchema(), latest.getSchema()));
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(event, HEADER_SIZE, event.length - HEADER_SIZE, null);
+    try {
+      return valueEncoder.get().encode(reader.read(null, decoder));
+    } catch (IOException | AvroRuntimeException | IndexOutOfBoundsException e) {
+      throw new InvalidEventException(String.format("Unable to read Avro datum: %s", e.getMessage()));
+    }
+  }
+
+  /**
+   * Walks a value that sits at {@code pathIndex} along the partition path, capturing the partition hash if the value is
+   * the one that the path addresses.
+   */
+  private void scan(Schema schema, Cursor in, int pathIndex) throws InvalidEventException {
+    if (pathIndex >= 0 && pathIndex == partitionPath.size()) {
+      in.capture(read(schema, in));
+      return;
+    }
+    switch (schema.getType()) {
+    case RECORD:
+      for (Field field : schema.getFields()) {
+        scan(field.schema(), in, childPathIndex(pathIndex, field.name()));
+      }
+      break;
+    case UNION:
+      scan(in.readBranch(schema), in, pathIndex);
+      break;
+    case ARRAY: {
+      Schema items = schema.getElementType();
+      boolean empty = emptySchemas.contains(items);
+      long index = 0;
+      for (long count = in.readBlockCount(empty); count != 0; count = in.readBlockCount(empty)) {
+        if (empty) {
+          // Items occupy no bytes; there is nothing to check
+          index += count;
+          continue;
+        }
+        for (long i = 0; i < count; i++, index++) {
+          scan(items, in, pathIndex < 0 ? -1 : childPathIndex(pathIndex, Long.toString(index)));
+        }
+      }
+      break;
+    }
+    case MAP: {
+      Schema values = schema.getValueType();
+      for (long count = in.readBlockCount(false); count != 0; count = in.readBlockCount(false)) {
+        for (long i = 0; i < count; i++) {
+          if (pathIndex >= 0) {
+            scan(values, in, childPathIndex(pathIndex, in.readString()));
+          } else {
+            in.skipBytes();
+            scan(values, in, -1);
+          }
+        }
+      }
+      break;
+    }
+    case ENUM:
+      in.readEnum(schema);
+      break;
+    case FIXED:
+      in.skip(schema.getFixedSize());
+      break;
+    case STRING:
+    case BYTES:
+      in.skipBytes();
+      break;
+    case INT:
+      in.readInt();
+      break;
+    case LONG:
+      in.readLong();
+      break;
+    case FLOAT:
+      in.skip(Float.BYTES);
+      break;
+    case DOUBLE:
+      in.skip(Double.BYTES);
+      break;
+    case BOOLEAN:
+      in.readBoolean();
+      break;
+    case NULL:
+      break;
+    default:
+      throw new InvalidEventException(String.format("Unsupported schema type %s.", schema.getType()));
+    }
+  }
+
+  /**
+   * Reads a value as the {@link JsonNode} that its JSON representation would have been parsed into.
+   */
+  private JsonNode read(Schema schema, Cursor in) throws InvalidEventException {
+    switch (schema.getType()) {
+    case RECORD: {
+      ObjectNode node = NODES.objectNode();
+      for (Field field : schema.getFields()) {
+        node.set(field.name(), read(field.schema(), in));
+      }
+      return node;
+    }
+    case UNION:
+      return read(in.readBranch(schema), in);
+    case ARRAY: {
+      Schema items = schema.getElementType();
+      ArrayNode node = NODES.arrayNode();
+      for (long count = in.readBlockCount(false); count != 0; count = in.readBlockCount(false)) {
+        for (long i = 0; i < count; i++) {
+          node.add(read(items, in));
+        }
+      }
+      return node;
+    }
+    case MAP: {
+      Schema values = schema.getValueType();
+      ObjectNode node = NODES.objectNode();
+      for (long count = in.readBlockCount(false); count != 0; count = in.readBlockCount(false)) {
+        for (long i = 0; i < count; i++) {
+          String key = in.readString();
+          node.set(key, read(values, in));
+        }
+      }
+      return node;
+    }
+    case ENUM:
+      return NODES.textNode(in.readEnum(schema));
+    case FIXED:
+      return NODES.textNode(new String(in.readFixed(schema.getFixedSize()), ISO_8859_1));
+    case BYTES:
+      return NODES.textNode(new String(in.readFixed(in.readLength()), ISO_8859_1));
+    case STRING:
+      return NODES.textNode(in.readString());
+    case INT:
+      return NODES.numberNode(in.readInt());
+    case LONG: {
+      // The JSON parser yields an int node for any number that fits
+      long value = in.readLong();
+      return value == (int) value ? NODES.numberNode((int) value) : NODES.numberNode(value);
+    }
+    case FLOAT:
+      // Parsed from the float's shortest decimal form, as the JSON number for it would be, rather than widened
+      return NODES.numberNode(Double.parseDouble(Float.toString(Float.intBitsToFloat(in.readFixedInt()))));
+    case DOUBLE:
+      return NODES.numberNode(Double.longBitsToDouble(in.readFixedLong()));
+    case BOOLEAN:
+      return NODES.booleanNode(in.readBoolean());
+    case NULL:
+      return NODES.nullNode();
+    default:
+      throw new InvalidEventException(String.format("Unsupported schema type %s.", schema.getType()));
+    }
+  }
+
+  private int childPathIndex(int pathIndex, String name) {
+    if (pathIndex >= 0 && pathIndex < partitionPath.size() && partitionPath.get(pathIndex).equals(name)) {
+      return pathIndex + 1;
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the schemas whose values always encode to zero bytes. A block of such items consumes nothing, so its count
+   * cannot be bounded by the bytes that remain and must not be iterated.
+   */
+  private boolean collectEmptySchemas(Schema schema, Set<Schema> visited) {
+    if (!visited.add(schema)) {
+      return emptySchemas.contains(schema);
+    }
+    boolean empty;
+    switch (schema.getType()) {
+    case NULL:
+      empty = true;
+      break;
+    case FIXED:
+      empty = schema.getFixedSize() == 0;
+      break;
+    case RECORD:
+      empty = true;
+      for (Field field : schema.getFields()) {
+        empty &= collectEmptySchemas(field.schema(), visited);
+      }
+      break;
+    case UNION:
+      schema.getTypes().forEach(s -> collectEmptySchemas(s, visited));
+      empty = false;
+      break;
+    case ARRAY:
+      collectEmptySchemas(schema.getElementType(), visited);
+      empty = false;
+      break;
+    case MAP:
+      collectEmptySchemas(schema.getValueType(), visited);
+      empty = false;
+      break;
+    default:
+      empty = false;
+    }
+    if (empty) {
+      emptySchemas.add(schema);
+    }
+    return empty;
+  }
+
+  /**
+   * Reads the Avro binary encoding from a byte array, rejecting anything that is malformed or runs past the end of the
+   * datum.
+   */
+  private static class Cursor {
+    private final byte[] bytes;
+    private int position;
+    private boolean captured;
+    private int hash;
+
+    Cursor(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    int remaining() {
+      return bytes.length - position;
+    }
+
+    void capture(JsonNode fragment) {
+      captured = true;
+      hash = fragment.hashCode();
+    }
+
+    long readLong() throws InvalidEventException {
+      long value = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += 7) {
+        int b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (value >>> 1) ^ -(value & 1);
+        }
+      }
+      throw new InvalidEventException("Invalid long encoding.");
+    }
+
+    int readInt() throws InvalidEventException {
+      long value = readLong();
+      if (value != (int) value) {
+        throw new InvalidEventException("Invalid int encoding.");
+      }
+      return (int) value;
+    }
+
+    boolean readBoolean() throws InvalidEventException {
+      int b = readByte();
+      if (b > 1) {
+        throw new InvalidEventException("Invalid boolean encoding.");
+      }
+      return b == 1;
+    }
+
+    int readFixedInt() throws InvalidEventException {
+      ensure(Integer.BYTES);
+      int value = (bytes[position] & 0xFF)
+          | (bytes[position + 1] & 0xFF) << 8
+          | (bytes[position + 2] & 0xFF) << 16
+          | (bytes[position + 3] & 0xFF) << 24;
+      position += Integer.BYTES;
+      return value;
+    }
+
+    long readFixedLong() throws InvalidEventException {
+      long low = readFixedInt() & 0xFFFFFFFFL;
+      long high = readFixedInt() & 0xFFFFFFFFL;
+      return high << 32 | low;
+    }
+
+    int readLength() throws InvalidEventException {
+      long length = readLong();
+      if (length < 0 || length > remaining()) {
+        throw new InvalidEventException(String.format("Invalid length %d.", length));
+      }
+      return (int) length;
+    }
+
+    void skipBytes() throws InvalidEventException {
+      skip(readLength());
+    }
+
+    String readString() throws InvalidEventException {
+      int length = readLength();
+      String value = new String(bytes, position, length, UTF_8);
+      position += length;
+      return value;
+    }
+
+    byte[] readFixed(int length) throws InvalidEventException {
+      ensure(length);
+      byte[] value = new byte[length];
+      System.arraycopy(bytes, position, value, 0, length);
+      position += length;
+      return value;
+    }
+
+    String readEnum(Schema schema) throws InvalidEventException {
+      int index = readInt();
+      List<String> symbols = schema.getEnumSymbols();
+      if (index < 0 || index >= symbols.size()) {
+        throw new InvalidEventException(String.format("Invalid index %d for enum %s.", index, schema.getFullName()));
+      }
+      return symbols.get(index);
+    }
+
+    Schema readBranch(Schema union) throws InvalidEventException {
+      int index = readInt();
+      List<Schema> branches = union.getTypes();
+      if (index < 0 || index >= branches.size()) {
+        throw new InvalidEventException(String.format("Invalid union index %d.", index));
+      }
+      return branches.get(index);
+    }
+
+    /**
+     * Reads the item count of the next array or map block, skipping the block size that accompanies a negative count.
+     */
+    long readBlockCount(boolean emptyItems) throws InvalidEventException {
+      long count = readLong();
+      if (count < 0) {
+        count = -count;
+        if (count < 0 || readLong() < 0) {
+          throw new InvalidEventException("Invalid block encoding.");
+        }
+      }
+      if (!emptyItems && count > remaining()) {
+        throw new InvalidEventException(String.format("Invalid block count %d.", count));
+      }
+      return count;
+    }
+
+    void skip(int length) throws InvalidEventException {
+      ensure(length);
+      position += length;
+    }
+
+    private int readByte() throws InvalidEventException {
+      ensure(1);
+      return bytes[position++] & 0xFF;
+    }
+
+    private void ensure(int length) throws InvalidEventException {
+      if (length > remaining()) {
+        throw new InvalidEventException("Unexpected end of Avro datum.");
+      }
+    }
+  }
+}
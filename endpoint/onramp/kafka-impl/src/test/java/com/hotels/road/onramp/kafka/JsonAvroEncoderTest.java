@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericData.Record;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.hotels.jasvorno.JasvornoConverter;
+import com.hotels.jasvorno.JasvornoConverterException;
+import com.hotels.road.exception.InvalidEventException;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.onramp.api.Event;
+import com.hotels.road.partition.KeyPathParser;
+
+public class JsonAvroEncoderTest {
+  private static final int RANDOM_VALUE = 42;
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+      + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"i\",\"type\":\"int\"},"
+      + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"b\",\"type\":\"boolean\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\"]}},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"long\"}},"
+      + "{\"name\":\"n\",\"type\":[\"null\",\"string\"]},"
+      + "{\"name\":\"c\",\"type\":{\"type\":\"record\",\"name\":\"c\",\"fields\":[{\"name\":\"x\",\"type\":\"int\"}]}},"
+      + "{\"name\":\"def\",\"type\":\"string\",\"default\":\"dflt\"}"
+      + "]}");
+  private static final SchemaVersion SCHEMA_VERSION = new SchemaVersion(SCHEMA, 3, false);
+  private static final String IN_ORDER = "{\"s\":\"h\\u00e9llo \\ud83d\\ude00\",\"i\":1,\"l\":12345678901,\"d\":1.5,"
+      + "\"b\":true,\"e\":\"B\",\"a\":[\"x\",\"y\"],\"m\":{\"k\":2},\"n\":\"z\",\"c\":{\"x\":7},\"def\":\"v\"}";
+  private static final String OUT_OF_ORDER = "{\"def\":\"v\",\"c\":{\"x\":7},\"n\":\"z\",\"m\":{\"k\":2},"
+      + "\"a\":[\"x\",\"y\"],\"e\":\"B\",\"b\":true,\"d\":1.5,\"l\":12345678901,\"i\":1,"
+      + "\"s\":\"h\\u00e9llo \\ud83d\\ude00\"}";
+
+  private final JsonFactory factory = new JsonFactory();
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final Random random = new Random() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int nextInt() {
+      return RANDOM_VALUE;
+    }
+  };
+  private JsonAvroEncoder underTest;
+
+  @Before
+  public void setUp() {
+    underTest = new JsonAvroEncoder(SCHEMA_VERSION, null, random);
+  }
+
+  @Test
+  public void fieldsInSchemaOrder() throws Exception {
+    assertThat(encode(IN_ORDER).getMessage(), is(expected(IN_ORDER)));
+  }
+
+  @Test
+  public void fieldsOutOfSchemaOrder() throws Exception {
+    assertThat(encode(OUT_OF_ORDER).getMessage(), is(expected(IN_ORDER)));
+  }
+
+  @Test
+  public void emptyCollectionsAndNullUnion() throws Exception {
+    String json = "{\"s\":\"\",\"i\":-1,\"l\":0,\"d\":0.0,\"b\":false,\"e\":\"A\",\"a\":[],\"m\":{},\"n\":null,"
+        + "\"c\":{\"x\":0},\"def\":\"v\"}";
+    assertThat(encode(json).getMessage(), is(expected(json)));
+  }
+
+  @Test
+  public void missingFieldTakesDefault() throws Exception {
+    String json = "{\"s\":\"s\",\"i\":1,\"l\":1,\"d\":1.0,\"b\":true,\"e\":\"A\",\"a\":[],\"m\":{},\"n\":null,"
+        + "\"c\":{\"x\":1}}";
+    GenericRecord record = decode(encode(json).getMessage());
+    assertThat(record.get("def").toString(), is("dflt"));
+  }
+
+  @Test
+  public void undeclaredField() throws Exception {
+    assertMatchesJasvorno(IN_ORDER.replace("{\"s\"", "{\"unknown\":{\"deep\":[1,2,{}]},\"s\""));
+  }
+
+  @Test
+  public void undeclaredNestedField() throws Exception {
+    assertMatchesJasvorno(IN_ORDER.replace("\"c\":{\"x\":7}", "\"c\":{\"x\":7,\"y\":8}"));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void missingFieldWithoutDefault() throws Exception {
+    encode("{\"s\":\"s\"}");
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void wrongType() throws Exception {
+    encode(IN_ORDER.replace("\"i\":1", "\"i\":\"one\""));
+  }
+
+  @Test
+  public void repeatedField() throws Exception {
+    assertMatchesJasvorno(IN_ORDER.replace("\"i\":1", "\"i\":1,\"i\":2"));
+  }
+
+  @Test
+  public void repeatedFieldAfterLaterFields() throws Exception {
+    assertMatchesJasvorno(IN_ORDER.replace("\"def\":\"v\"", "\"def\":\"v\",\"s\":\"again\""));
+  }
+
+  @Test
+  public void repeatedFieldOutOfSchemaOrder() throws Exception {
+    assertMatchesJasvorno(OUT_OF_ORDER.replace("\"i\":1", "\"i\":1,\"def\":\"w\",\"a\":[]"));
+  }
+
+  @Test
+  public void repeatedFieldReplacesInvalidValue() throws Exception {
+    String replaced = "\"c\":{\"x\":\"seven\",\"y\":[{}]},\"i\":3,\"c\":{\"x\":7}";
+    assertMatchesJasvorno(IN_ORDER.replace("\"c\":{\"x\":7}", replaced));
+  }
+
+  @Test
+  public void repeatedFieldWithInvalidLastValue() throws Exception {
+    assertMatchesJasvorno(IN_ORDER.replace("\"def\":\"v\"", "\"def\":\"v\",\"i\":\"one\""));
+  }
+
+  @Test
+  public void invalidEventSkipped() throws Exception {
+    String invalid = IN_ORDER.replace("\"c\":{\"x\":7}", "\"c\":{\"x\":\"seven\",\"y\":[{}]}");
+    try (JsonParser parser = factory.createParser("[" + invalid + "," + IN_ORDER + "]")) {
+      assertThat(parser.nextToken(), is(JsonToken.START_ARRAY));
+      parser.nextToken();
+      try {
+        underTest.encode(parser);
+        fail();
+      } catch (InvalidEventException expected) {}
+      assertThat(parser.getCurrentToken(), is(JsonToken.END_OBJECT));
+      parser.nextToken();
+      assertThat(underTest.encode(parser).getMessage(), is(expected(IN_ORDER)));
+      assertThat(parser.nextToken(), is(JsonToken.END_ARRAY));
+    }
+  }
+
+  @Test
+  public void noPartitionPath() throws Exception {
+    assertThat(encode(IN_ORDER).getKey(), is(asBytes(RANDOM_VALUE)));
+  }
+
+  @Test
+  public void partitionPath() throws Exception {
+    underTest = new JsonAvroEncoder(SCHEMA_VERSION, KeyPathParser.parse("$.c.x"), random);
+    int hash = mapper.readTree(OUT_OF_ORDER).at("/c/x").hashCode();
+    assertThat(encode(OUT_OF_ORDER).getKey(), is(asBytes(hash)));
+    assertThat(encode(OUT_OF_ORDER).getMessage(), is(expected(IN_ORDER)));
+  }
+
+  @Test
+  public void partitionPathInRepeatedField() throws Exception {
+    underTest = new JsonAvroEncoder(SCHEMA_VERSION, KeyPathParser.parse("$.c.x"), random);
+    String json = IN_ORDER.replace("\"def\":\"v\"", "\"def\":\"v\",\"c\":{\"x\":8}");
+    byte[] jsonKey = new JsonKeyEncoder(() -> KeyPathParser.parse("$.c.x"), random).encode(mapper.readTree(json));
+    assertThat(encode(json).getKey(), is(jsonKey));
+    assertMatchesJasvorno(json);
+  }
+
+  @Test
+  public void partitionPathToContainer() throws Exception {
+    underTest = new JsonAvroEncoder(SCHEMA_VERSION, KeyPathParser.parse("$.m"), random);
+    int hash = mapper.readTree(IN_ORDER).at("/m").hashCode();
+    assertThat(encode(IN_ORDER).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathMissing() throws Exception {
+    underTest = new JsonAvroEncoder(SCHEMA_VERSION, KeyPathParser.parse("$.c.z"), random);
+    assertThat(encode(IN_ORDER).getKey(), is(asBytes(RANDOM_VALUE)));
+  }
+
+  @Test
+  public void encodesMultipleEvents() throws Exception {
+    String second = IN_ORDER.replace("\"x\":7", "\"x\":8");
+    assertThat(encode(IN_ORDER).getMessage(), is(expected(IN_ORDER)));
+    assertThat(encode(second).getMessage(), is(expected(second)));
+  }
+
+  private Event<byte[], byte[]> encode(String json) throws Exception {
+    try (JsonParser parser = factory.createParser(json)) {
+      parser.nextToken();
+      return underTest.encode(parser);
+    }
+  }
+
+  /**
+   * Asserts that the event is encoded exactly as it is by JasvornoConverter on the tree, or rejected if it is not.
+   */
+  private void assertMatchesJasvorno(String json) throws Exception {
+    byte[] expected;
+    try {
+      expected = expected(json);
+    } catch (JasvornoConverterException e) {
+      try {
+        encode(json);
+        fail("Rejected by JasvornoConverter: " + e.getMessage());
+      } catch (InvalidEventException expectedException) {}
+      return;
+    }
+    assertThat(encode(json).getMessage(), is(expected));
+  }
+
+  private byte[] expected(String json) throws Exception {
+    GenericRecord record = (GenericRecord) JasvornoConverter.convertToAvro(GenericData.get(), mapper.readTree(json),
+        SCHEMA);
+    return new AvroValueEncoder(SCHEMA_VERSION).encode(record);
+  }
+
+  private static GenericRecord decode(byte[] value) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(value);
+    assertThat(buffer.get(), is((byte) 0));
+    assertThat(buffer.getInt(), is(SCHEMA_VERSION.getVersion()));
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(value, buffer.position(), buffer.remaining(), null);
+    return new GenericDatumReader<Record>(SCHEMA).read(null, decoder);
+  }
+
+  private static byte[] asBytes(int value) {
+    return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static java.util.Collections.singletonMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.hotels.road.exception.InvalidEventException;
+import com.hotels.road.model.core.Road;
+import com.hotels.road.model.core.SchemaVersion;
+
+/**
+ * Compares encoding a batch with a freshly built {@link OnrampImpl} per request (the previous behaviour) against
+ * encoding with an onramp held in the {@link OnrampCache}. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class OnrampBenchmark {
+  private static final String ROAD_NAME = "benchmark-road";
+  private static final Schema SCHEMA = SchemaBuilder
+      .record("r")
+      .fields()
+      .requiredString("id")
+      .requiredLong("timestamp")
+      .requiredString("payload")
+      .endRecord();
+
+  @Param({ "1", "100" })
+  private int batchSize;
+
+  private OnrampMetrics metrics;
+  private Road road;
+  private OnrampCache cache;
+  private List<JsonNode> batch;
+
+  @Setup
+  public void setUp() throws Exception {
+    metrics = new OnrampMetrics(new SimpleMeterRegistry());
+    road = new Road();
+    road.setName(ROAD_NAME);
+    road.setTopicName(ROAD_NAME);
+    road.setPartitionPath("$.id");
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    cache = new OnrampCache();
+
+    ObjectMapper mapper = new ObjectMapper();
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(mapper.readTree(String.format("{\"id\":\"id-%d\",\"timestamp\":%d,\"payload\":\"payload-%d\"}", i,
+          System.currentTimeMillis(), i)));
+    }
+  }
+
+  @Benchmark
+  public void onrampPerRequest(Blackhole blackhole) throws InvalidEventException {
+    encode(new OnrampImpl(metrics, null, road), blackhole);
+  }
+
+  @Benchmark
+  public void cachedOnramp(Blackhole blackhole) throws InvalidEventException {
+    encode(cache.get(ROAD_NAME, name -> new OnrampImpl(metrics, null, road)), blackhole);
+  }
+
+  private void encode(OnrampImpl onramp, Blackhole blackhole) throws InvalidEventException {
+    SchemaVersion schemaVersion = onramp.getSchemaVersion();
+    for (JsonNode event : batch) {
+      blackhole.consume(onramp.encodeEvent(event, schemaVersion));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(OnrampBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static java.util.Collections.singletonMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.Test;
+
+import com.hotels.road.model.core.Road;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.rest.model.Authorisation;
+
+public class OnrampCacheTest {
+  private static final String ROAD_NAME = "road";
+  private static final Schema SCHEMA = SchemaBuilder
+      .builder()
+      .record("r")
+      .fields()
+      .name("f")
+      .type()
+      .stringType()
+      .noDefault()
+      .endRecord();
+
+  private final OnrampCache underTest = new OnrampCache();
+
+  @Test
+  public void cachesOnramp() {
+    OnrampImpl onramp = mock(OnrampImpl.class);
+    assertThat(underTest.get(ROAD_NAME, name -> onramp), is(sameInstance(onramp)));
+    assertThat(underTest.get(ROAD_NAME, name -> null), is(sameInstance(onramp)));
+  }
+
+  @Test
+  public void nullNotCached() {
+    assertThat(underTest.get(ROAD_NAME, name -> null), is(nullValue()));
+    assertThat(underTest.size(), is(0));
+  }
+
+  @Test
+  public void evictedOnRelevantUpdate() {
+    underTest.get(ROAD_NAME, name -> mock(OnrampImpl.class));
+    Road newRoad = road();
+    newRoad.setEnabled(true);
+    underTest.handleUpdate(ROAD_NAME, road(), newRoad);
+    assertThat(underTest.size(), is(0));
+  }
+
+  @Test
+  public void retainedOnIrrelevantUpdate() {
+    underTest.get(ROAD_NAME, name -> mock(OnrampImpl.class));
+    Road newRoad = road();
+    newRoad.setDescription("description");
+    underTest.handleUpdate(ROAD_NAME, road(), newRoad);
+    assertThat(underTest.size(), is(1));
+  }
+
+  @Test
+  public void evictedOnRemove() {
+    underTest.get(ROAD_NAME, name -> mock(OnrampImpl.class));
+    underTest.handleRemove(ROAD_NAME, road());
+    assertThat(underTest.size(), is(0));
+  }
+
+  @Test
+  public void requiresRebuild() {
+    assertThat(OnrampCache.requiresRebuild(road(), road()), is(false));
+
+    Road road = road();
+    road.setSchemas(singletonMap(2, new SchemaVersion(SCHEMA, 2, false)));
+    assertThat(OnrampCache.requiresRebuild(road(), road), is(true));
+
+    road = road();
+    road.setPartitionPath("$.f");
+    assertThat(OnrampCache.requiresRebuild(road(), road), is(true));
+
+    road = road();
+    road.setTopicName("other");
+    assertThat(OnrampCache.requiresRebuild(road(), road), is(true));
+
+    road = road();
+    road.setAuthorisation(new Authorisation());
+    assertThat(OnrampCache.requiresRebuild(road(), road), is(true));
+  }
+
+  private static Road road() {
+    Road road = new Road();
+    road.setName(ROAD_NAME);
+    road.setTopicName(ROAD_NAME);
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    return road;
+  }
+}
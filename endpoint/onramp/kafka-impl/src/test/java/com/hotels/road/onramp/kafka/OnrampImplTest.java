@@ -21,7 +21,6 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -119,8 +118,10 @@ public class OnrampImplTest {
   @Test
   public void sendFails()
     throws InvalidEventException, InterruptedException, ExecutionException, JsonProcessingException, IOException {
-    when(kafkaProducer.send(any(ProducerRecord.class), any(Callback.class))).thenReturn(future);
-    doThrow(new ExecutionException(new BufferExhaustedException("exhausted"))).when(future).get();
+    when(kafkaProducer.send(any(ProducerRecord.class), any(Callback.class))).thenAnswer(invocation -> {
+      ((Callback) invocation.getArgument(1)).onCompletion(null, new BufferExhaustedException("exhausted"));
+      return future;
+    });
 
     Future<Boolean> result = underTest.sendEvent(mapper.readTree("{\"f\": \"f16\"}"));
 
@@ -137,13 +138,58 @@ public class OnrampImplTest {
   @Test
   public void sendSucceeds()
     throws InvalidEventException, InterruptedException, ExecutionException, JsonProcessingException, IOException {
-    when(kafkaProducer.send(any(ProducerRecord.class), any(Callback.class))).thenReturn(future);
+    RecordMetadata metadata = new RecordMetadata(null, 0, 0, 0, Long.valueOf(0), 0, 1);
+    when(kafkaProducer.send(any(ProducerRecord.class), any(Callback.class))).thenAnswer(invocation -> {
+      ((Callback) invocation.getArgument(1)).onCompletion(metadata, null);
+      return future;
+    });
+
+    Future<Boolean> result = underTest.sendEvent(mapper.readTree("{\"f\": \"f16\"}"));
+
+    assertThat(result.get(), is(true));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void sendIncompleteUntilCallback() throws Exception {
+    ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+    when(kafkaProducer.send(any(ProducerRecord.class), callback.capture())).thenReturn(future);
 
     Future<Boolean> result = underTest.sendEvent(mapper.readTree("{\"f\": \"f16\"}"));
 
+    assertThat(result.isDone(), is(false));
+    callback.getValue().onCompletion(new RecordMetadata(null, 0, 0, 0, Long.valueOf(0), 0, 1), null);
     assertThat(result.get(), is(true));
   }
 
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Test
+  public void sendAvroEvent() throws Exception {
+    ArgumentCaptor<ProducerRecord> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+    when(kafkaProducer.send(captor.capture(), any(Callback.class))).thenReturn(future);
+    Record record = new Record(SCHEMA);
+    record.put("f", "f16");
+    byte[] event = new AvroValueEncoder(schemas.get(1)).encode(record);
+
+    underTest.sendEvent(event);
+
+    assertRecord(((ProducerRecord<byte[], byte[]>) captor.getValue()).value(), "f16");
+  }
+
+  @Test
+  public void sendInvalidAvroEvent() throws Exception {
+    Future<Boolean> result = underTest.sendEvent(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01 });
+
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(InvalidEventException.class));
+      verify(metrics).markValidationFailures(ROAD_NAME);
+      return;
+    }
+    fail("Expected ExecutionException");
+  }
+
   @Test
   public void getSchemaWithId() {
     SchemaVersion schemaVersion = underTest.getSchemaVersion();
@@ -155,7 +201,30 @@ public class OnrampImplTest {
   @Test(expected = RoadUnavailableException.class)
   public void getSchemaWithIdNoSchema() {
     when(road.getSchemas()).thenReturn(Collections.emptyMap());
-    underTest.getSchemaVersion();
+    new OnrampImpl(metrics, kafkaProducer, road);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Test
+  public void sendFromMultipleThreads() throws Exception {
+    ArgumentCaptor<ProducerRecord> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+    when(kafkaProducer.send(captor.capture(), any(Callback.class))).thenReturn(future);
+
+    Thread thread = new Thread(() -> {
+      try {
+        underTest.sendEvent(mapper.readTree("{\"f\": \"f17\"}"));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    underTest.sendEvent(mapper.readTree("{\"f\": \"f16\"}"));
+    thread.start();
+    thread.join();
+
+    List<ProducerRecord> values = captor.getAllValues();
+
+    assertRecord(((ProducerRecord<byte[], byte[]>) values.get(0)).value(), "f16");
+    assertRecord(((ProducerRecord<byte[], byte[]>) values.get(1)).value(), "f17");
   }
 
   @SuppressWarnings("unchecked")
@@ -17,8 +17,14 @@ package com.hotels.road.onramp.kafka;
 
 import static java.util.Collections.singletonMap;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
@@ -59,11 +65,12 @@ public class OnrampServiceImplTest {
   private OnrampMetrics metrics;
 
   private Producer<byte[], byte[]> producerMock;
+  private final OnrampCache cache = new OnrampCache();
   private OnrampServiceImpl underTest;
 
   @Before
   public void setUp() {
-    underTest = new OnrampServiceImpl(metrics, roadsMock, producerMock);
+    underTest = new OnrampServiceImpl(metrics, roadsMock, producerMock, cache);
   }
 
   @Test
@@ -88,4 +95,33 @@ public class OnrampServiceImplTest {
     assertTrue(onramp.isPresent());
   }
 
+  @Test
+  public void roadCached() throws Exception {
+    Road road = new Road();
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    when(roadsMock.get(TEST_ROAD)).thenReturn(road);
+    Onramp first = underTest.getOnramp(TEST_ROAD).get();
+    Onramp second = underTest.getOnramp(TEST_ROAD).get();
+    assertThat(second, is(sameInstance(first)));
+    verify(roadsMock, times(1)).get(TEST_ROAD);
+  }
+
+  @Test
+  public void roadRebuiltAfterEviction() throws Exception {
+    Road road = new Road();
+    road.setSchemas(singletonMap(1, new SchemaVersion(SCHEMA, 1, false)));
+    when(roadsMock.get(TEST_ROAD)).thenReturn(road);
+    Onramp first = underTest.getOnramp(TEST_ROAD).get();
+    cache.handleRemove(TEST_ROAD, road);
+    Onramp second = underTest.getOnramp(TEST_ROAD).get();
+    assertThat(second, is(not(sameInstance(first))));
+  }
+
+  @Test
+  public void nonExistentRoadNotCached() throws Exception {
+    when(roadsMock.get(NON_EXISTENT_ROAD)).thenReturn(null);
+    underTest.getOnramp(NON_EXISTENT_ROAD);
+    assertThat(cache.size(), is(0));
+  }
+
 }
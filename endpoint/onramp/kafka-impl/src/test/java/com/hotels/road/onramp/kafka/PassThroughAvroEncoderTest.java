@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.onramp.kafka;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import com.hotels.jasvorno.JasvornoConverter;
+import com.hotels.road.exception.InvalidEventException;
+import com.hotels.road.model.core.SchemaVersion;
+import com.hotels.road.onramp.api.Event;
+import com.hotels.road.partition.KeyPathParser;
+
+public class PassThroughAvroEncoderTest {
+  private static final int RANDOM_VALUE = 42;
+  private static final String FIELDS = "{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+      + "{\"name\":\"s\",\"type\":\"string\"},"
+      + "{\"name\":\"i\",\"type\":\"int\"},"
+      + "{\"name\":\"l\",\"type\":\"long\"},"
+      + "{\"name\":\"d\",\"type\":\"double\"},"
+      + "{\"name\":\"b\",\"type\":\"boolean\"},"
+      + "{\"name\":\"e\",\"type\":{\"type\":\"enum\",\"name\":\"E\",\"symbols\":[\"A\",\"B\"]}},"
+      + "{\"name\":\"a\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},"
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":\"long\"}},"
+      + "{\"name\":\"n\",\"type\":[\"null\",\"string\"]},"
+      + "{\"name\":\"c\",\"type\":{\"type\":\"record\",\"name\":\"c\",\"fields\":[{\"name\":\"x\",\"type\":\"int\"}]}}";
+  private static final Schema V1_SCHEMA = new Schema.Parser().parse(FIELDS + "]}");
+  private static final Schema V2_SCHEMA = new Schema.Parser().parse(
+      FIELDS + ",{\"name\":\"def\",\"type\":\"string\",\"default\":\"dflt\"}]}");
+  private static final SchemaVersion V1 = new SchemaVersion(V1_SCHEMA, 1, false);
+  private static final SchemaVersion V2 = new SchemaVersion(V2_SCHEMA, 2, false);
+  private static final Map<Integer, SchemaVersion> SCHEMAS = ImmutableMap.of(1, V1, 2, V2);
+  private static final String V1_JSON = "{\"s\":\"h\\u00e9llo\",\"i\":1,\"l\":12345678901,\"d\":1.5,\"b\":true,"
+      + "\"e\":\"B\",\"a\":[\"x\",\"y\"],\"m\":{\"k\":2},\"n\":\"z\",\"c\":{\"x\":7}}";
+  private static final String V2_JSON = V1_JSON.replace("}}", "},\"def\":\"v\"}");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final Random random = new Random() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int nextInt() {
+      return RANDOM_VALUE;
+    }
+  };
+  private PassThroughAvroEncoder underTest;
+
+  @Before
+  public void setUp() {
+    underTest = encoder(null);
+  }
+
+  @Test
+  public void latestVersionForwardedUnchanged() throws Exception {
+    byte[] event = encode(V2, V2_JSON);
+
+    Event<byte[], byte[]> result = underTest.encode(event);
+
+    assertThat(result.getMessage(), is(sameInstance(event)));
+    assertThat(result.getKey(), is(asBytes(RANDOM_VALUE)));
+  }
+
+  @Test
+  public void earlierVersionResolvedToLatest() throws Exception {
+    Event<byte[], byte[]> result = underTest.encode(encode(V1, V1_JSON));
+
+    assertThat(result.getMessage(), is(encode(V2, V2_JSON.replace("\"v\"", "\"dflt\""))));
+  }
+
+  @Test
+  public void partitionPath() throws Exception {
+    underTest = encoder("$.c.x");
+    int hash = mapper.readTree(V2_JSON).at("/c/x").hashCode();
+
+    assertThat(underTest.encode(encode(V2, V2_JSON)).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathToContainer() throws Exception {
+    underTest = encoder("$.m");
+    int hash = mapper.readTree(V2_JSON).at("/m").hashCode();
+
+    assertThat(underTest.encode(encode(V2, V2_JSON)).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathToArrayItem() throws Exception {
+    underTest = encoder("$.a.1");
+    int hash = mapper.readTree(V2_JSON).at("/a/1").hashCode();
+
+    assertThat(underTest.encode(encode(V2, V2_JSON)).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathThroughUnion() throws Exception {
+    underTest = encoder("$.n");
+    int hash = mapper.readTree(V2_JSON).at("/n").hashCode();
+
+    assertThat(underTest.encode(encode(V2, V2_JSON)).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathOfResolvedEvent() throws Exception {
+    underTest = encoder("$.l");
+    int hash = mapper.readTree(V1_JSON).at("/l").hashCode();
+
+    assertThat(underTest.encode(encode(V1, V1_JSON)).getKey(), is(asBytes(hash)));
+  }
+
+  @Test
+  public void partitionPathMissing() throws Exception {
+    underTest = encoder("$.c.z");
+
+    assertThat(underTest.encode(encode(V2, V2_JSON)).getKey(), is(asBytes(RANDOM_VALUE)));
+  }
+
+  @Test
+  public void partitionPathToFloatMatchesJsonKey() throws Exception {
+    SchemaVersion version = version(3,
+        "{\"type\":\"record\",\"name\":\"r\",\"fields\":[{\"name\":\"f\",\"type\":\"float\"}]}");
+    String json = "{\"f\":0.1}";
+    underTest = new PassThroughAvroEncoder(version, SCHEMAS, KeyPathParser.parse("$.f"), null, random);
+    byte[] jsonKey = new JsonKeyEncoder(() -> KeyPathParser.parse("$.f"), random).encode(mapper.readTree(json));
+
+    assertThat(underTest.encode(encode(version, json)).getKey(), is(jsonKey));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void missingMagicByte() throws Exception {
+    byte[] event = encode(V2, V2_JSON);
+    event[0] = 0x01;
+    underTest.encode(event);
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void missingHeader() throws Exception {
+    underTest.encode(new byte[] { 0x00, 0x00 });
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void unknownVersion() throws Exception {
+    byte[] event = encode(V2, V2_JSON);
+    event[4] = 0x03;
+    underTest.encode(event);
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void deletedVersion() throws Exception {
+    Map<Integer, SchemaVersion> schemas = ImmutableMap.of(1, new SchemaVersion(V1_SCHEMA, 1, true), 2, V2);
+    underTest = new PassThroughAvroEncoder(V2, schemas, null, () -> new AvroValueEncoder(V2), random);
+    underTest.encode(encode(V1, V1_JSON));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void truncated() throws Exception {
+    byte[] event = encode(V2, V2_JSON);
+    underTest.encode(Arrays.copyOf(event, event.length - 1));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void trailingBytes() throws Exception {
+    byte[] event = encode(V2, V2_JSON);
+    underTest.encode(Arrays.copyOf(event, event.length + 1));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void truncatedEarlierVersion() throws Exception {
+    byte[] event = encode(V1, V1_JSON);
+    underTest.encode(Arrays.copyOf(event, event.length - 1));
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void invalidUnionIndex() throws Exception {
+    underTest = new PassThroughAvroEncoder(version(3, "[\"null\",\"int\"]"), SCHEMAS, null, null, random);
+    // <header><union index 2>
+    underTest.encode(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x03, 0x04 });
+  }
+
+  @Test(expected = InvalidEventException.class)
+  public void oversizedArrayBlock() throws Exception {
+    underTest = new PassThroughAvroEncoder(version(3, "{\"type\":\"array\",\"items\":\"int\"}"), SCHEMAS, null, null,
+        random);
+    // <header><block of 64 items><one item>
+    underTest.encode(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x03, (byte) 0x80, 0x01, 0x02 });
+  }
+
+  @Test
+  public void arrayOfEmptyItems() throws Exception {
+    underTest = new PassThroughAvroEncoder(version(3, "{\"type\":\"array\",\"items\":\"null\"}"), SCHEMAS, null, null,
+        random);
+    // <header><block of 64 items><end of array>
+    byte[] event = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x03, (byte) 0x80, 0x01, 0x00 };
+
+    assertThat(underTest.encode(event).getMessage(), is(sameInstance(event)));
+  }
+
+  @Test
+  public void earlierVersionWithArrayOfEmptyItems() throws Exception {
+    String nulls = "{\"type\":\"array\",\"items\":\"null\"}";
+    SchemaVersion v1 = version(1,
+        "{\"type\":\"record\",\"name\":\"r\",\"fields\":[{\"name\":\"a\",\"type\":" + nulls + "}]}");
+    SchemaVersion v2 = version(2,
+        "{\"type\":\"record\",\"name\":\"r\",\"fields\":[{\"name\":\"b\",\"type\":\"int\",\"default\":0}]}");
+    underTest = new PassThroughAvroEncoder(v2, ImmutableMap.of(1, v1, 2, v2), null, () -> new AvroValueEncoder(v2),
+        random);
+    // <header><block of 64 items><end of array>
+    byte[] event = new byte[] { 0x00, 0x00, 0x00, 0x00, 0x01, (byte) 0x80, 0x01, 0x00 };
+
+    assertThat(underTest.encode(event).getMessage(), is(new byte[] { 0x00, 0x00, 0x00, 0x00, 0x02, 0x00 }));
+  }
+
+  private PassThroughAvroEncoder encoder(String partitionPath) {
+    return new PassThroughAvroEncoder(V2, SCHEMAS, partitionPath == null ? null : KeyPathParser.parse(partitionPath),
+        () -> new AvroValueEncoder(V2), random);
+  }
+
+  private byte[] encode(SchemaVersion schemaVersion, String json) throws Exception {
+    GenericRecord record = (GenericRecord) JasvornoConverter.convertToAvro(GenericData.get(), mapper.readTree(json),
+        schemaVersion.getSchema());
+    return new AvroValueEncoder(schemaVersion).encode(record);
+  }
+
+  private static SchemaVersion version(int version, String schema) {
+    return new SchemaVersion(new Schema.Parser().parse(schema), version, false);
+  }
+
+  private static byte[] asBytes(int value) {
+    return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+  }
+}
@@ -15,8 +15,13 @@
  */
 package com.hotels.road.paver.service;
 
+import static com.hotels.road.model.core.HiveDestination.AVRO_FORMAT;
+import static com.hotels.road.model.core.HiveDestination.DEFAULT_FORMAT;
+import static com.hotels.road.model.core.HiveDestination.PARQUET_FORMAT;
+
 import java.time.Duration;
 import java.time.format.DateTimeParseException;
+import java.util.Locale;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,6 +55,7 @@ public class HiveDestinationServiceImpl implements HiveDestinationService {
     HiveDestinationModel hiveDestinationModel = new HiveDestinationModel();
     hiveDestinationModel.setEnabled(hiveDestination.isEnabled());
     hiveDestinationModel.setLandingInterval(hiveDestination.getLandingInterval());
+    hiveDestinationModel.setFormat(hiveDestination.getFormat());
     return hiveDestinationModel;
   }
 
@@ -62,6 +68,7 @@ public class HiveDestinationServiceImpl implements HiveDestinationService {
 
     HiveDestination hiveDestination = new HiveDestination();
     hiveDestination.setLandingInterval(validateAndNormaliseLandingInterval(hiveDestinationModel.getLandingInterval()));
+    hiveDestination.setFormat(validateAndNormaliseFormat(hiveDestinationModel.getFormat(), DEFAULT_FORMAT));
     hiveDestination.setEnabled(hiveDestinationModel.isEnabled());
     hiveDestinationAdminClient.createHiveDestination(name, hiveDestination);
   }
@@ -73,6 +80,8 @@ public class HiveDestinationServiceImpl implements HiveDestinationService {
         () -> new UnknownDestinationException("Hive", name));
 
     hiveDestination.setLandingInterval(validateAndNormaliseLandingInterval(hiveDestinationModel.getLandingInterval()));
+    hiveDestination.setFormat(
+        validateAndNormaliseFormat(hiveDestinationModel.getFormat(), hiveDestination.getFormat()));
     hiveDestination.setEnabled(hiveDestinationModel.isEnabled());
     hiveDestinationAdminClient.updateHiveDestination(name, hiveDestination);
   }
@@ -93,6 +102,23 @@ public class HiveDestinationServiceImpl implements HiveDestinationService {
         .orElse(HiveDestination.DEFAULT_LANDING_INTERVAL);
   }
 
+  /**
+   * An omitted format keeps the current one, so that updates which predate the option do not switch a road back to
+   * Avro.
+   */
+  @VisibleForTesting
+  String validateAndNormaliseFormat(String format, String currentFormat) {
+    if (format == null) {
+      return Optional.ofNullable(currentFormat).orElse(DEFAULT_FORMAT);
+    }
+    String normalisedFormat = format.toLowerCase(Locale.ROOT);
+    if (!AVRO_FORMAT.equals(normalisedFormat) && !PARQUET_FORMAT.equals(normalisedFormat)) {
+      throw new IllegalArgumentException(
+          String.format("Unsupported format \"%s\", must be one of [%s, %s]", format, AVRO_FORMAT, PARQUET_FORMAT));
+    }
+    return normalisedFormat;
+  }
+
   private Duration parseDuration(String duration) {
     try {
       return Duration.parse(duration);
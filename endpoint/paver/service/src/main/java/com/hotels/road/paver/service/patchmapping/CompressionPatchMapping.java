@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.paver.service.patchmapping;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import static com.hotels.road.tollbooth.client.api.Operation.REMOVE;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hotels.road.model.core.Compression;
+import com.hotels.road.model.core.Road;
+import com.hotels.road.tollbooth.client.api.PatchOperation;
+
+/**
+ * Sets the codec, and optionally the level, that the road is landed with, e.g. {@code {"codec": "deflate", "level":
+ * 6}}. Removing it lands the road with the default codec again. The compression is kept in the road's metadata.
+ * <p>
+ * Files written with {@code zstandard} can only be read with Avro 1.9 or later, which Hive's Avro SerDe does not
+ * bundle, so the codec is refused unless {@code compression.zstandard.enabled} is set.
+ */
+@Component
+public class CompressionPatchMapping extends PatchMapping {
+  private static final String CODEC = "codec";
+  private static final String LEVEL = "level";
+  private final boolean zstandardEnabled;
+
+  public CompressionPatchMapping(@Value("${compression.zstandard.enabled:false}") boolean zstandardEnabled) {
+    this.zstandardEnabled = zstandardEnabled;
+  }
+
+  @Override
+  public String getPath() {
+    return "/compression";
+  }
+
+  @Override
+  public PatchOperation convertOperation(Road road, PatchOperation modelOperation) {
+    if (modelOperation.getOperation() == REMOVE) {
+      Map<String, String> metadata = new HashMap<>(road.getMetadata());
+      metadata.remove(Compression.CODEC);
+      metadata.remove(Compression.LEVEL);
+      return PatchOperation.replace("/metadata", metadata);
+    }
+    checkArgument(isAddOrReplace(modelOperation), "You can only set or remove compression");
+    checkArgument(modelOperation.getValue() instanceof Map, "compression must be an object");
+    Map<?, ?> value = (Map<?, ?>) modelOperation.getValue();
+    checkArgument(value.get(CODEC) instanceof String, "compression codec must be a string");
+    Object level = value.get(LEVEL);
+    checkArgument(level == null || level instanceof Integer, "compression level must be an integer");
+
+    checkArgument(zstandardEnabled || !Compression.ZSTANDARD_CODEC.equals(value.get(CODEC)),
+        "The zstandard codec is not enabled, as its files need Avro 1.9 or later to read");
+
+    Compression compression = Compression.of((String) value.get(CODEC), (Integer) level);
+    return PatchOperation.replace("/metadata", compression.toMetadata(road.getMetadata()));
+  }
+}
@@ -66,6 +66,7 @@ public class HiveDestinationServiceImplTest {
     HiveDestinationModel result = underTest.getHiveDestination(NAME);
 
     hiveDestinationModel.setLandingInterval("PT1H");
+    hiveDestinationModel.setFormat("avro");
     assertThat(result, is(hiveDestinationModel));
   }
 
@@ -77,6 +78,7 @@ public class HiveDestinationServiceImplTest {
     HiveDestinationModel result = underTest.getHiveDestination(NAME);
 
     hiveDestinationModel.setLandingInterval("PT24H");
+    hiveDestinationModel.setFormat("avro");
     assertThat(result, is(hiveDestinationModel));
   }
 
@@ -114,6 +116,17 @@ public class HiveDestinationServiceImplTest {
     verify(hiveDestinationAdminClient).createHiveDestination(NAME, hiveDestination);
   }
 
+  @Test
+  public void createHiveDestination_Parquet() throws Exception {
+    when(hiveDestinationAdminClient.getHiveDestination(NAME)).thenReturn(Optional.empty());
+
+    hiveDestinationModel.setFormat("Parquet");
+    underTest.createHiveDestination(NAME, hiveDestinationModel);
+
+    hiveDestination.setFormat("parquet");
+    verify(hiveDestinationAdminClient).createHiveDestination(NAME, hiveDestination);
+  }
+
   @Test(expected = UnknownRoadException.class)
   public void createHiveDestination_UnknownRoad() throws Exception {
     doThrow(UnknownRoadException.class).when(hiveDestinationAdminClient).getHiveDestination(NAME);
@@ -149,6 +162,18 @@ public class HiveDestinationServiceImplTest {
     verify(hiveDestinationAdminClient).updateHiveDestination(NAME, expectedHiveDestination);
   }
 
+  @Test
+  public void updateHiveDestination_FormatOmitted() throws Exception {
+    hiveDestination.setFormat("parquet");
+    when(hiveDestinationAdminClient.getHiveDestination(NAME)).thenReturn(Optional.of(hiveDestination));
+
+    underTest.updateHiveDestination(NAME, hiveDestinationModel);
+
+    HiveDestination expectedHiveDestination = new HiveDestination();
+    expectedHiveDestination.setFormat("parquet");
+    verify(hiveDestinationAdminClient).updateHiveDestination(NAME, expectedHiveDestination);
+  }
+
   @Test(expected = UnknownRoadException.class)
   public void updateHiveDestination_UnknownRoad() throws Exception {
     doThrow(UnknownRoadException.class).when(hiveDestinationAdminClient).getHiveDestination(NAME);
@@ -188,6 +213,16 @@ public class HiveDestinationServiceImplTest {
     underTest.validateAndNormaliseLandingInterval("P7D");
   }
 
+  @Test
+  public void notSpecifiedFormat() throws Exception {
+    assertThat(underTest.validateAndNormaliseFormat(null, null), is(HiveDestination.DEFAULT_FORMAT));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupportedFormat() throws Exception {
+    underTest.validateAndNormaliseFormat("orc", HiveDestination.DEFAULT_FORMAT);
+  }
+
   @Test
   public void deleteHiveDestination() throws Exception {
     underTest.deleteHiveDestination(NAME);
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016-2019 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.road.paver.service.patchmapping;
+
+import static java.util.Collections.singletonMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.hotels.road.tollbooth.client.api.PatchOperation;
+
+public class CompressionPatchMappingTest extends AbstractPatchMappingTest {
+  private final CompressionPatchMapping mapping = new CompressionPatchMapping(true);
+
+  @Test
+  public void checkPath() throws Exception {
+    assertThat(mapping.getPath(), is("/compression"));
+  }
+
+  @Test
+  public void add_sets_metadata() throws Exception {
+    road.getMetadata().put("foo", "bar");
+    PatchOperation operation = mapping.convertOperation(road,
+        PatchOperation.add("/compression", ImmutableMap.of("codec", "zstandard", "level", 19)));
+
+    assertThat(operation, is(PatchOperation.replace("/metadata",
+        ImmutableMap.of("foo", "bar", "compression.codec", "zstandard", "compression.level", "19"))));
+  }
+
+  @Test
+  public void replace_without_level_clears_level() throws Exception {
+    road.getMetadata().put("compression.codec", "deflate");
+    road.getMetadata().put("compression.level", "9");
+    PatchOperation operation = mapping.convertOperation(road,
+        PatchOperation.replace("/compression", singletonMap("codec", "snappy")));
+
+    assertThat(operation, is(PatchOperation.replace("/metadata", singletonMap("compression.codec", "snappy"))));
+  }
+
+  @Test
+  public void remove_clears_metadata() throws Exception {
+    road.getMetadata().put("foo", "bar");
+    road.getMetadata().put("compression.codec", "xz");
+    road.getMetadata().put("compression.level", "6");
+    PatchOperation operation = mapping.convertOperation(road, PatchOperation.remove("/compression"));
+
+    assertThat(operation, is(PatchOperation.replace("/metadata", singletonMap("foo", "bar"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zstandard_fails_unless_enabled() throws Exception {
+    new CompressionPatchMapping(false)
+        .convertOperation(road, PatchOperation.add("/compression", singletonMap("codec", "zstandard")));
+  }
+
+  @Test
+  public void other_codecs_allowed_when_zstandard_disabled() throws Exception {
+    PatchOperation operation = new CompressionPatchMapping(false)
+        .convertOperation(road, PatchOperation.add("/compression", singletonMap("codec", "snappy")));
+
+    assertThat(operation, is(PatchOperation.replace("/metadata", singletonMap("compression.codec", "snappy"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setting_to_a_non_map_fails() throws Exception {
+    mapping.convertOperation(road, PatchOperation.add("/compression", "zstandard"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsupported_codec_fails() throws Exception {
+    mapping.convertOperation(road, PatchOperation.add("/compression", singletonMap("codec", "lz4")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void level_out_of_range_fails() throws Exception {
+    mapping.convertOperation(road,
+        PatchOperation.add("/compression", ImmutableMap.of("codec", "deflate", "level", 10)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void non_integer_level_fails() throws Exception {
+    mapping.convertOperation(road,
+        PatchOperation.add("/compression", ImmutableMap.of("codec", "deflate", "level", "9")));
+  }
+}
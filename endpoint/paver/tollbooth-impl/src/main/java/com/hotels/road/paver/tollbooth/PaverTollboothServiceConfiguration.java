@@ -15,13 +15,10 @@
  */
 package com.hotels.road.paver.tollbooth;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -39,16 +36,17 @@ public class PaverTollboothServiceConfiguration {
   public PatchSetEmitter roadModificationEmitter(
       @Value("${kafka.bootstrapServers}") String bootstrapServers,
       @Value("${kafka.road.modification.topic}") String topic,
+      @Value("${kafka.road.modification.lingerMs:0}") int lingerMs,
+      @Value("${kafka.road.modification.batchSize:16384}") int batchSize,
+      @Value("${kafka.road.modification.idempotence:false}") boolean idempotence,
+      @Value("${kafka.road.modification.serial:false}") boolean serial,
       ObjectMapper mapper) {
 
-    Map<String, Object> producerProps = new HashMap<>();
-    producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-    producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    producerProps.put(ProducerConfig.RETRIES_CONFIG, 1);
+    Map<String, Object> producerProps = KafkaPatchSetEmitter.producerProperties(bootstrapServers, lingerMs, batchSize,
+        idempotence);
 
     Producer<String, String> kafkaProducer = new KafkaProducer<>(producerProps);
 
-    return new KafkaPatchSetEmitter(topic, kafkaProducer, mapper);
+    return new KafkaPatchSetEmitter(topic, kafkaProducer, mapper, serial);
   }
 }
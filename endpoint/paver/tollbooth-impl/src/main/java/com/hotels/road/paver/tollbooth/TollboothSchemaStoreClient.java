@@ -27,7 +27,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.TreeMap;
@@ -80,7 +79,7 @@ public class TollboothSchemaStoreClient implements SchemaStoreClient {
   public Optional<SchemaVersion> getSchema(String name, int version) throws ServiceException, UnknownRoadException {
     checkNotBlank(name, "name");
     checkArgument(version > 0, format("Schema version must not be < 1, was: %s", version));
-    return Optional.ofNullable(getRoadSchemas(name).get(version));
+    return getRoad(name).getIndex().version(version);
   }
 
   @Override
@@ -92,7 +91,7 @@ public class TollboothSchemaStoreClient implements SchemaStoreClient {
   @Override
   public Optional<SchemaVersion> getLatestActiveSchema(String name) throws ServiceException, UnknownRoadException {
     checkNotBlank(name, "name");
-    return getRoadSchemas(name).values().stream().filter(NOT_DELETED).max(VERSION_COMPARATOR);
+    return getRoad(name).getIndex().latest();
   }
 
   private Map<Integer, SchemaVersion> getRoadSchemas(String name) throws UnknownRoadException {
@@ -163,8 +162,7 @@ public class TollboothSchemaStoreClient implements SchemaStoreClient {
   @Override
   public Map<Integer, SchemaVersion> getActiveSchemaVersions(String name)
     throws ServiceException, IllegalArgumentException, UnknownRoadException {
-    return getRoadSchemas(name).entrySet().stream().filter(s -> NOT_DELETED.test(s.getValue())).collect(
-        Collectors.toMap(Entry::getKey, Entry::getValue));
+    return getRoad(name).getIndex().active();
   }
 
   private static void checkNotBlank(String value, String attribute) {
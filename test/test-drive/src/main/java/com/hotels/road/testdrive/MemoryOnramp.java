@@ -15,13 +15,23 @@
  */
 package com.hotels.road.testdrive;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Future;
 
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import com.hotels.jasvorno.JasvornoConverter;
 import com.hotels.jasvorno.JasvornoConverterException;
@@ -37,6 +47,8 @@ import com.hotels.road.onramp.api.Onramp;
 import com.hotels.road.onramp.api.OnrampTemplate;
 
 class MemoryOnramp extends OnrampTemplate<Void, JsonNode> implements Onramp {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   private final Map<String, List<Record>> messages;
   private final Road road;
 
@@ -64,7 +76,34 @@ class MemoryOnramp extends OnrampTemplate<Void, JsonNode> implements Onramp {
   }
 
   @Override
-  protected Future<Boolean> sendEncodedEvent(Event<Void, JsonNode> event, SchemaVersion schemaVersion)
+  protected Event<Void, JsonNode> encodeEvent(JsonParser jsonEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException, IOException {
+    return encodeEvent((JsonNode) MAPPER.readTree(jsonEvent), schemaVersion);
+  }
+
+  @Override
+  protected Event<Void, JsonNode> encodeEvent(byte[] avroEvent, SchemaVersion schemaVersion)
+    throws InvalidEventException {
+    ByteBuffer buffer = ByteBuffer.wrap(avroEvent);
+    if (buffer.remaining() < 5 || buffer.get() != 0x00) {
+      throw new InvalidEventException("Expected a magic byte and schema version before the Avro datum.");
+    }
+    int version = buffer.getInt();
+    SchemaVersion writer = road.getSchemas().get(version);
+    if (writer == null || writer.isDeleted()) {
+      throw new InvalidEventException(String.format("Unknown schema version %d.", version));
+    }
+    try {
+      GenericRecord record = new GenericDatumReader<GenericRecord>(writer.getSchema(), schemaVersion.getSchema())
+          .read(null, DecoderFactory.get().binaryDecoder(avroEvent, buffer.position(), buffer.remaining(), null));
+      return encodeEvent((JsonNode) MAPPER.readTree(GenericData.get().toString(record)), schemaVersion);
+    } catch (IOException | AvroRuntimeException e) {
+      throw new InvalidEventException(e.getMessage());
+    }
+  }
+
+  @Override
+  protected ListenableFuture<Boolean> sendEncodedEvent(Event<Void, JsonNode> event, SchemaVersion schemaVersion)
     throws InvalidKeyException {
     Payload<JsonNode> payload = new Payload<>((byte) 0, schemaVersion.getVersion(), event.getMessage());
     List<Record> messages = this.messages.computeIfAbsent(road.getName(), name -> new ArrayList<>());
@@ -64,6 +64,7 @@ class TestDriveController {
         .stream()
         .map(Record::getPayload)
         .map(Payload::getMessage)
+        .map(JsonNode.class::cast)
         .collect(toList());
   }
 